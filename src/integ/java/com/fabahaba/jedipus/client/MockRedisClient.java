@@ -1,5 +1,7 @@
 package com.fabahaba.jedipus.client;
 
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.util.Collection;
 
 import com.fabahaba.jedipus.cluster.Node;
@@ -337,6 +339,26 @@ public class MockRedisClient implements RedisClient {
     return null;
   }
 
+  @Override
+  public <T> T sendCmd(final Cmd<T> cmd, final byte[] key, final long arg) {
+    return null;
+  }
+
+  @Override
+  public <T> T sendCmd(final Cmd<T> cmd, final byte[] key, final double arg) {
+    return null;
+  }
+
+  @Override
+  public <T> T sendCmd(final Cmd<T> cmd, final byte[] key, final long arg, final byte[] value) {
+    return null;
+  }
+
+  @Override
+  public <T> T sendCmd(final Cmd<T> cmd, final byte[] key, final double arg, final byte[] value) {
+    return null;
+  }
+
   @Override
   public <T> T sendBlockingCmd(final Cmd<T> cmd, final Collection<String> args) {
     return null;
@@ -352,6 +374,26 @@ public class MockRedisClient implements RedisClient {
     return 0;
   }
 
+  @Override
+  public long sendCmd(final PrimCmd cmd, final byte[] key, final long arg) {
+    return 0;
+  }
+
+  @Override
+  public long sendCmd(final PrimCmd cmd, final byte[] key, final double arg) {
+    return 0;
+  }
+
+  @Override
+  public long sendCmd(final PrimCmd cmd, final byte[] key, final long arg, final byte[] value) {
+    return 0;
+  }
+
+  @Override
+  public long sendCmd(final PrimCmd cmd, final byte[] key, final double arg, final byte[] value) {
+    return 0;
+  }
+
   @Override
   public long sendBlockingCmd(final PrimCmd cmd, final Collection<String> args) {
     return 0;
@@ -486,4 +528,20 @@ public class MockRedisClient implements RedisClient {
 
   @Override
   public void punsubscribe(final Collection<String> patterns) {}
+
+  @Override
+  public <V extends RespReplyVisitor> V visitCmd(final Cmd<?> cmd, final V visitor,
+      final byte[]... args) {
+    return visitor;
+  }
+
+  @Override
+  public long sendBulkCmd(final Cmd<?> cmd, final ByteBuffer dst, final byte[]... args) {
+    return 0;
+  }
+
+  @Override
+  public long sendBulkCmd(final Cmd<?> cmd, final WritableByteChannel dst, final byte[]... args) {
+    return 0;
+  }
 }
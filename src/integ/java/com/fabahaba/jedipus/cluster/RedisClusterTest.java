@@ -501,6 +501,44 @@ public class RedisClusterTest extends BaseRedisClientTest {
     }
   }
 
+  @Test
+  public void testPipelinedAskReplay() {
+    final String key = "42";
+    final String missingKey = "{42}.missing";
+    final int slot = CRC16.getSlot(key);
+    final int importingNodeSlot = rotateSlotNode(slot);
+
+    try (final RedisClusterExecutor rce = RedisClusterExecutor.startBuilding(discoveryNodes)
+        .withPartitionedStrategy(PartitionedStrategyConfig.Strategy.TOP.create())
+        .withReplayPipelinedAsks(true).create()) {
+      final String exporting = rce.apply(slot, RedisClient::getNodeId);
+      final String importing = rce.apply(importingNodeSlot, client -> {
+        client.clusterSetSlotImporting(slot, exporting);
+        return client.getNodeId();
+      });
+
+      rce.accept(slot, client -> client.sendCmd(Cmds.SADD.prim(), key, "107.6"));
+      rce.accept(slot, client -> client.clusterSetSlotMigrating(slot, importing));
+
+      rce.acceptPipeline(slot, pipeline -> {
+        final FutureLongReply existing = pipeline.sendCmd(Cmds.SADD.prim(), key, "107.6");
+        // Redirected with ASK and replayed against the importing node.
+        final FutureLongReply missing = pipeline.sendCmd(Cmds.SADD.prim(), missingKey, "107.6");
+        pipeline.sync();
+        assertEquals(0, existing.getAsLong());
+        assertEquals(1, missing.getAsLong());
+      });
+
+      final Object[] execReply = rce.applyPipelinedTransaction(slot, pipeline -> {
+        pipeline.sendCmd(Cmds.SADD, missingKey, "107.6");
+        pipeline.sendCmd(Cmds.SCARD, missingKey);
+        return pipeline.execSyncThrow();
+      });
+      assertEquals(0L, execReply[0]);
+      assertEquals(1L, execReply[1]);
+    }
+  }
+
   @Test(expected = RedisUnhandledException.class)
   public void testRedisClusterMaxRedirections() {
     final byte[] key = RESP.toBytes("42");
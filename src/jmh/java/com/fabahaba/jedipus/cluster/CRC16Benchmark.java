@@ -0,0 +1,37 @@
+package com.fabahaba.jedipus.cluster;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import com.fabahaba.jedipus.cmds.RESP;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CRC16Benchmark {
+
+  private final String stringKey = "jedipus:benchmark:user:1000";
+  private final byte[] key = RESP.toBytes(stringKey);
+  private final byte[] hashTagKey = RESP.toBytes("jedipus:{user:1000}:following");
+
+  @Benchmark
+  public int getSlot() {
+    return CRC16.getSlot(key);
+  }
+
+  @Benchmark
+  public int getHashTagSlot() {
+    return CRC16.getSlot(hashTagKey);
+  }
+
+  @Benchmark
+  public int getStringSlot() {
+    return CRC16.getSlot(stringKey);
+  }
+}
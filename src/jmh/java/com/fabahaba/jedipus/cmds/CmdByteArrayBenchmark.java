@@ -0,0 +1,42 @@
+package com.fabahaba.jedipus.cmds;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CmdByteArrayBenchmark {
+
+  private final byte[] key = RESP.toBytes("jedipus:benchmark:key");
+  private final byte[] value = RESP.toBytes("jedipus:benchmark:value");
+  private final byte[] member = RESP.toBytes("jedipus:benchmark:member");
+
+  @Benchmark
+  public CmdByteArray<String> buildSizedSet() {
+    return CmdByteArray.startBuilding(Cmds.SET, 3).addSlotKey(key).addArg(value).create();
+  }
+
+  @Benchmark
+  public CmdByteArray<String> buildUnsizedSet() {
+    return CmdByteArray.startBuilding(Cmds.SET).addSlotKey(key).addArg(value).create();
+  }
+
+  @Benchmark
+  public CmdByteArray<Long> buildIncrBy() {
+    return CmdByteArray.startBuilding(Cmds.INCRBY, 3).addSlotKey(key).addArg(1234567890L)
+        .create();
+  }
+
+  @Benchmark
+  public CmdByteArray<Long> buildZAdd() {
+    return CmdByteArray.startBuilding(Cmds.ZADD, 4).addSlotKey(key).addArg(42.0).addArg(member)
+        .create();
+  }
+}
@@ -0,0 +1,75 @@
+package com.fabahaba.jedipus.primitive;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketImpl;
+
+/**
+ * Replays a fixed reply forever and discards everything written, so the client stack can be
+ * benchmarked without a Redis server.
+ */
+final class InMemorySocket extends Socket {
+
+  private final InputStream inputStream;
+  private final OutputStream outputStream = new NullOutputStream();
+  private int soTimeoutMillis = 0;
+  private boolean closed = false;
+
+  InMemorySocket(final byte[] reply) throws SocketException {
+    super((SocketImpl) null);
+    this.inputStream = new RepeatingInputStream(reply);
+  }
+
+  @Override
+  public InputStream getInputStream() {
+    return inputStream;
+  }
+
+  @Override
+  public OutputStream getOutputStream() {
+    return outputStream;
+  }
+
+  @Override
+  public int getSendBufferSize() {
+    return 8192;
+  }
+
+  @Override
+  public int getReceiveBufferSize() {
+    return 8192;
+  }
+
+  @Override
+  public int getSoTimeout() {
+    return soTimeoutMillis;
+  }
+
+  @Override
+  public void setSoTimeout(final int soTimeoutMillis) {
+    this.soTimeoutMillis = soTimeoutMillis;
+  }
+
+  @Override
+  public void setKeepAlive(final boolean on) {}
+
+  @Override
+  public void setTcpNoDelay(final boolean on) {}
+
+  @Override
+  public boolean isConnected() {
+    return !closed;
+  }
+
+  @Override
+  public boolean isClosed() {
+    return closed;
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+  }
+}
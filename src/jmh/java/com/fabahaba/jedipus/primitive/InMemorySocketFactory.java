@@ -0,0 +1,28 @@
+package com.fabahaba.jedipus.primitive;
+
+import java.net.Socket;
+import java.net.SocketException;
+
+import com.fabahaba.jedipus.client.ConnectedSocketFactory;
+
+final class InMemorySocketFactory implements ConnectedSocketFactory<Socket> {
+
+  private static final long serialVersionUID = -1876417617213935683L;
+
+  private final byte[] reply;
+
+  InMemorySocketFactory(final byte[] reply) {
+    this.reply = reply;
+  }
+
+  @Override
+  public Socket create(final String host, final int port, final int connTimeoutMillis)
+      throws SocketException {
+    return new InMemorySocket(reply);
+  }
+
+  @Override
+  public int getSoTimeoutMillis() {
+    return 0;
+  }
+}
@@ -0,0 +1,22 @@
+package com.fabahaba.jedipus.primitive;
+
+import java.io.OutputStream;
+
+final class NullOutputStream extends OutputStream {
+
+  private long count;
+
+  @Override
+  public void write(final int bite) {
+    count++;
+  }
+
+  @Override
+  public void write(final byte[] buf, final int offset, final int len) {
+    count += len;
+  }
+
+  long getCount() {
+    return count;
+  }
+}
@@ -0,0 +1,73 @@
+package com.fabahaba.jedipus.primitive;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.fabahaba.jedipus.client.RedisClient;
+import com.fabahaba.jedipus.client.RedisPipeline;
+import com.fabahaba.jedipus.cluster.Node;
+import com.fabahaba.jedipus.cmds.Cmds;
+import com.fabahaba.jedipus.cmds.RESP;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PrimPipelineBenchmark {
+
+  private static final int BATCH_SIZE = 100;
+
+  private final byte[] key = RESP.toBytes("jedipus:benchmark:key");
+  private final byte[] value = RESP.toBytes("jedipus:benchmark:value");
+
+  private RedisClient statusClient;
+  private RedisClient longClient;
+
+  @Setup
+  public void setup() {
+    statusClient = createClient("+OK\r\n");
+    longClient = createClient(":42\r\n");
+  }
+
+  private static RedisClient createClient(final String reply) {
+    return RedisClientFactory.startBuilding()
+        .withConnectedSocketFactory(
+            new InMemorySocketFactory(reply.getBytes(StandardCharsets.US_ASCII)))
+        .create(Node.create("localhost", 6379));
+  }
+
+  @TearDown
+  public void tearDown() {
+    statusClient.close();
+    longClient.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH_SIZE)
+  public void queueAndSync() {
+    final RedisPipeline pipeline = statusClient.pipeline();
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      pipeline.sendCmd(Cmds.SET.raw(), key, value);
+    }
+    pipeline.sync();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH_SIZE)
+  public void queuePrimAndSync() {
+    final RedisPipeline pipeline = longClient.pipeline();
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      pipeline.sendCmd(Cmds.INCRBY.prim(), key, 1);
+    }
+    pipeline.sync();
+  }
+}
@@ -0,0 +1,109 @@
+package com.fabahaba.jedipus.primitive;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fabahaba.jedipus.client.NodeMapper;
+import com.fabahaba.jedipus.cluster.Node;
+import com.fabahaba.jedipus.cmds.Cmds;
+import com.fabahaba.jedipus.cmds.RESP;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RESProtocolBenchmark {
+
+  private static final Node NODE = Node.create("localhost", 6379);
+  private static final NodeMapper NODE_MAPPER = node -> node;
+
+  private static final byte[] SET = Cmds.SET.getCmdBytes();
+  private static final byte[] INCRBY = Cmds.INCRBY.getCmdBytes();
+  private static final byte[] ZADD = Cmds.ZADD.getCmdBytes();
+  private static final byte[] MGET = Cmds.MGET.getCmdBytes();
+
+  @Param({"16", "1024"})
+  private int valueSize;
+
+  private byte[] key;
+  private byte[] value;
+  private byte[][] keys;
+
+  private RedisOutputStream os;
+  private RedisInputStream statusReply;
+  private RedisInputStream longReply;
+  private RedisInputStream bulkReply;
+  private RedisInputStream arrayReply;
+
+  @Setup
+  public void setup() {
+    key = RESP.toBytes("jedipus:benchmark:key");
+    value = new byte[valueSize];
+    Arrays.fill(value, (byte) 'v');
+    keys = new byte[][] {key, key, key, key};
+
+    os = new RedisOutputStream(new NullOutputStream(), 8192);
+
+    statusReply = createReplyStream("+OK\r\n");
+    longReply = createReplyStream(":1234567890\r\n");
+
+    final String bulk = "$" + valueSize + "\r\n" + new String(value, StandardCharsets.US_ASCII);
+    bulkReply = createReplyStream(bulk + "\r\n");
+    arrayReply = createReplyStream("*4\r\n" + bulk + "\r\n$-1\r\n:42\r\n" + bulk + "\r\n");
+  }
+
+  private static RedisInputStream createReplyStream(final String reply) {
+    return new RedisInputStream(NODE,
+        new RepeatingInputStream(reply.getBytes(StandardCharsets.US_ASCII)), 8192);
+  }
+
+  @Benchmark
+  public void sendSet() throws IOException {
+    RESProtocol.sendCmd(os, SET, new byte[][] {key, value});
+  }
+
+  @Benchmark
+  public void sendMGet() throws IOException {
+    RESProtocol.sendCmd(os, MGET, keys);
+  }
+
+  @Benchmark
+  public void sendIncrBy() throws IOException {
+    RESProtocol.sendCmd(os, INCRBY, key, 1234567890L);
+  }
+
+  @Benchmark
+  public void sendZAdd() throws IOException {
+    RESProtocol.sendCmd(os, ZADD, key, 42.0, value);
+  }
+
+  @Benchmark
+  public Object readStatus() {
+    return RESProtocol.read(NODE, NODE_MAPPER, statusReply);
+  }
+
+  @Benchmark
+  public long readLong() {
+    return RESProtocol.readLong(NODE, NODE_MAPPER, longReply);
+  }
+
+  @Benchmark
+  public Object readBulk() {
+    return RESProtocol.read(NODE, NODE_MAPPER, bulkReply);
+  }
+
+  @Benchmark
+  public Object readArray() {
+    return RESProtocol.read(NODE, NODE_MAPPER, arrayReply);
+  }
+}
@@ -0,0 +1,60 @@
+package com.fabahaba.jedipus.primitive;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fabahaba.jedipus.cluster.Node;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RedisInputStreamBenchmark {
+
+  private static final Node NODE = Node.create("localhost", 6379);
+
+  private RedisInputStream shortLongs;
+  private RedisInputStream longLongs;
+  private RedisInputStream negativeLongs;
+  private RedisInputStream lines;
+
+  @Setup
+  public void setup() {
+    shortLongs = createStream("42\r\n");
+    longLongs = createStream("1234567890123456\r\n");
+    negativeLongs = createStream("-1234567890\r\n");
+    lines = createStream("ERR unknown command 'jedipus'\r\n");
+  }
+
+  private static RedisInputStream createStream(final String data) {
+    return new RedisInputStream(NODE,
+        new RepeatingInputStream(data.getBytes(StandardCharsets.US_ASCII)), 8192);
+  }
+
+  @Benchmark
+  public long readShortLongCRLF() {
+    return shortLongs.readLongCRLF();
+  }
+
+  @Benchmark
+  public long readLongLongCRLF() {
+    return longLongs.readLongCRLF();
+  }
+
+  @Benchmark
+  public long readNegativeLongCRLF() {
+    return negativeLongs.readLongCRLF();
+  }
+
+  @Benchmark
+  public byte[] readLineBytes() {
+    return lines.readLineBytes();
+  }
+}
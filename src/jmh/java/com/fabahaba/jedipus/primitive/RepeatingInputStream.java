@@ -0,0 +1,38 @@
+package com.fabahaba.jedipus.primitive;
+
+import java.io.InputStream;
+
+final class RepeatingInputStream extends InputStream {
+
+  private final byte[] data;
+  private int pos;
+
+  RepeatingInputStream(final byte[] data) {
+    this.data = data;
+    this.pos = 0;
+  }
+
+  @Override
+  public int read() {
+    final int bite = data[pos++] & 0xff;
+    if (pos == data.length) {
+      pos = 0;
+    }
+    return bite;
+  }
+
+  @Override
+  public int read(final byte[] buf, final int offset, final int len) {
+    int written = 0;
+    while (written < len) {
+      final int numBytes = Math.min(len - written, data.length - pos);
+      System.arraycopy(data, pos, buf, offset + written, numBytes);
+      written += numBytes;
+      pos += numBytes;
+      if (pos == data.length) {
+        pos = 0;
+      }
+    }
+    return written;
+  }
+}
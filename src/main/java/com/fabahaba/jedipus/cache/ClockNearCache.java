@@ -0,0 +1,348 @@
+package com.fabahaba.jedipus.cache;
+
+import com.fabahaba.jedipus.client.RedisClient;
+import com.fabahaba.jedipus.cluster.CRC16;
+import com.fabahaba.jedipus.cluster.RedisClusterExecutor;
+import com.fabahaba.jedipus.cluster.RedisClusterExecutor.ReadMode;
+import com.fabahaba.jedipus.cmds.Cmds;
+import com.fabahaba.jedipus.cmds.RESP;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Reads are lock free. The cache is bounded by its number of replies, each field reply of a key
+ * counting as one. Keys are evicted with the CLOCK approximation of LRU, and a new reply only
+ * replaces CLOCK victims if the TinyLFU sketch estimates its key to be more frequently read, which
+ * keeps one-off reads from flushing out hot keys. Loads and invalidations of the same key are
+ * ordered by a striped invalidation counter so that a reply loaded before an invalidation is
+ * never cached after it.
+ */
+final class ClockNearCache implements NearCache {
+
+  private static final Object NULL_REPLY = new Object();
+  private static final int NUM_STRIPES = 64;
+
+  private final RedisClusterExecutor rce;
+  private final ReadMode readMode;
+  private final Duration expireAfterWrite;
+  private final String invalidationChannel;
+  private final byte[] invalidationChannelBytes;
+
+  private final ConcurrentHashMap<CacheKey, CacheEntry> entries;
+  private final FrequencySketch sketch;
+  private final AtomicLongArray invalidations;
+  private final LongAdder hits;
+  private final LongAdder misses;
+
+  // Guarded by clock. Every entry holds at least one reply, so numReplies bounds clockSize.
+  private final CacheEntry[] clock;
+  private int clockSize;
+  private int numReplies;
+  private int hand;
+
+  ClockNearCache(final RedisClusterExecutor rce, final ReadMode readMode, final int maxSize,
+      final Duration expireAfterWrite, final String invalidationChannel) {
+
+    this.rce = rce;
+    this.readMode = readMode;
+    this.expireAfterWrite = expireAfterWrite;
+    this.invalidationChannel = invalidationChannel;
+    this.invalidationChannelBytes = RESP.toBytes(invalidationChannel);
+    this.entries = new ConcurrentHashMap<>(maxSize);
+    this.sketch = new FrequencySketch(maxSize);
+    this.invalidations = new AtomicLongArray(NUM_STRIPES);
+    this.hits = new LongAdder();
+    this.misses = new LongAdder();
+    this.clock = new CacheEntry[maxSize];
+    this.clockSize = 0;
+    this.numReplies = 0;
+    this.hand = 0;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <R> R apply(final byte[] key, final byte[] field, final Function<RedisClient, R> loader,
+      final Duration ttl) {
+
+    final CacheKey cacheKey = new CacheKey(key);
+    final CacheKey fieldKey = field == null ? null : new CacheKey(field);
+    final int hash = cacheKey.hashCode();
+    sketch.increment(hash);
+
+    final CacheEntry entry = entries.get(cacheKey);
+    if (entry != null) {
+      final Object reply = entry.getReply(fieldKey, System.nanoTime());
+      if (reply != null) {
+        if (!entry.referenced) {
+          entry.referenced = true;
+        }
+        hits.increment();
+        return reply == NULL_REPLY ? null : (R) reply;
+      }
+    }
+
+    misses.increment();
+    final int stripe = hash & (NUM_STRIPES - 1);
+    final long invalidationStamp = invalidations.get(stripe);
+    final R reply = rce.apply(readMode, CRC16.getSlot(key), loader, rce.getMaxRetries());
+    cache(cacheKey, fieldKey, reply, System.nanoTime() + ttl.toNanos(), stripe,
+        invalidationStamp);
+    return reply;
+  }
+
+  private void cache(final CacheKey cacheKey, final CacheKey fieldKey, final Object reply,
+      final long expiresAtNanos, final int stripe, final long invalidationStamp) {
+
+    synchronized (clock) {
+      if (invalidations.get(stripe) != invalidationStamp) {
+        return;
+      }
+
+      CacheEntry entry = entries.get(cacheKey);
+      if ((entry == null || !entry.hasReply(fieldKey)) && !makeRoom(cacheKey, entry)) {
+        return;
+      }
+
+      if (entry == null) {
+        // Keys are copied on insert only, so that callers may reuse their arrays.
+        entry = new CacheEntry(cacheKey.copy());
+        entry.index = clockSize;
+        clock[clockSize++] = entry;
+        entries.put(entry.key, entry);
+      }
+
+      if (entry.putReply(fieldKey == null ? null : fieldKey.copy(),
+          new CachedReply(reply == null ? NULL_REPLY : reply, expiresAtNanos))) {
+        numReplies++;
+      }
+    }
+  }
+
+  /**
+   * Evicts CLOCK victims until there is room for one more reply, as long as the TinyLFU sketch
+   * estimates the candidate key to be more frequently read than each victim. Must hold the clock
+   * lock.
+   *
+   * @param cacheKey The key of the reply to be cached.
+   * @param entry    The existing entry of the key, which is never evicted for its own fields.
+   * @return true if there is room for the reply.
+   */
+  private boolean makeRoom(final CacheKey cacheKey, final CacheEntry entry) {
+    while (numReplies >= clock.length) {
+      if (clockSize == 0) {
+        return false;
+      }
+
+      final CacheEntry victim = clock[hand];
+      if (victim == entry) {
+        if (clockSize == 1) {
+          return false;
+        }
+        hand = hand == clockSize - 1 ? 0 : hand + 1;
+        continue;
+      }
+
+      if (victim.referenced) {
+        victim.referenced = false;
+        hand = hand == clockSize - 1 ? 0 : hand + 1;
+        continue;
+      }
+
+      if (sketch.frequency(cacheKey.hashCode()) <= sketch.frequency(victim.key.hashCode())) {
+        return false;
+      }
+
+      remove(victim);
+    }
+    return true;
+  }
+
+  // Must hold the clock lock. Moves the last entry into the removed entry's slot.
+  private void remove(final CacheEntry entry) {
+    entries.remove(entry.key, entry);
+    numReplies -= entry.numReplies;
+
+    final CacheEntry last = clock[--clockSize];
+    clock[entry.index] = last;
+    last.index = entry.index;
+    clock[clockSize] = null;
+    if (hand >= clockSize) {
+      hand = 0;
+    }
+  }
+
+  @Override
+  public void invalidate(final byte[] key) {
+    final CacheKey cacheKey = new CacheKey(key);
+    synchronized (clock) {
+      invalidations.incrementAndGet(cacheKey.hashCode() & (NUM_STRIPES - 1));
+      final CacheEntry entry = entries.get(cacheKey);
+      if (entry != null) {
+        remove(entry);
+      }
+    }
+  }
+
+  @Override
+  public void invalidateAll() {
+    synchronized (clock) {
+      for (int i = 0; i < NUM_STRIPES; i++) {
+        invalidations.incrementAndGet(i);
+      }
+      entries.clear();
+      Arrays.fill(clock, 0, clockSize, null);
+      clockSize = 0;
+      numReplies = 0;
+      hand = 0;
+    }
+  }
+
+  @Override
+  public void publishInvalidation(final byte[] key) {
+    invalidate(key);
+    rce.accept(CRC16.getSlot(key),
+        client -> client.sendCmd(Cmds.PUBLISH, invalidationChannelBytes, key));
+  }
+
+  @Override
+  public String getInvalidationChannel() {
+    return invalidationChannel;
+  }
+
+  @Override
+  public Duration getExpireAfterWrite() {
+    return expireAfterWrite;
+  }
+
+  @Override
+  public int size() {
+    return entries.size();
+  }
+
+  @Override
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  @Override
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder("ClockNearCache [size=").append(entries.size())
+        .append(", numReplies=").append(numReplies).append(", maxSize=").append(clock.length)
+        .append(", invalidationChannel=").append(invalidationChannel).append(", hits=")
+        .append(hits.sum()).append(", misses=").append(misses.sum()).append("]").toString();
+  }
+
+  private static final class CacheKey {
+
+    private final byte[] bytes;
+    private final int hashCode;
+
+    CacheKey(final byte[] bytes) {
+      this(bytes, Arrays.hashCode(bytes));
+    }
+
+    private CacheKey(final byte[] bytes, final int hashCode) {
+      this.bytes = bytes;
+      this.hashCode = hashCode;
+    }
+
+    CacheKey copy() {
+      return new CacheKey(bytes.clone(), hashCode);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      if (this == other) {
+        return true;
+      }
+      if (other == null || getClass() != other.getClass()) {
+        return false;
+      }
+      final CacheKey castOther = (CacheKey) other;
+      return hashCode == castOther.hashCode && Arrays.equals(bytes, castOther.bytes);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  private static final class CachedReply {
+
+    private final Object reply;
+    private final long expiresAtNanos;
+
+    CachedReply(final Object reply, final long expiresAtNanos) {
+      this.reply = reply;
+      this.expiresAtNanos = expiresAtNanos;
+    }
+  }
+
+  private static final class CacheEntry {
+
+    private final CacheKey key;
+    private volatile CachedReply keyReply;
+    // Created on the first field reply.
+    private volatile ConcurrentHashMap<CacheKey, CachedReply> fieldReplies;
+    private volatile boolean referenced;
+    // Guarded by the clock lock.
+    private int index;
+    private int numReplies;
+
+    CacheEntry(final CacheKey key) {
+      this.key = key;
+    }
+
+    Object getReply(final CacheKey fieldKey, final long nowNanos) {
+      final CachedReply cached;
+      if (fieldKey == null) {
+        cached = keyReply;
+      } else {
+        final ConcurrentHashMap<CacheKey, CachedReply> fields = fieldReplies;
+        cached = fields == null ? null : fields.get(fieldKey);
+      }
+      return cached == null || nowNanos - cached.expiresAtNanos >= 0 ? null : cached.reply;
+    }
+
+    // Must hold the clock lock.
+    boolean hasReply(final CacheKey fieldKey) {
+      if (fieldKey == null) {
+        return keyReply != null;
+      }
+      return fieldReplies != null && fieldReplies.containsKey(fieldKey);
+    }
+
+    /**
+     * Must hold the clock lock.
+     *
+     * @return true if the reply was added rather than replacing an existing one.
+     */
+    boolean putReply(final CacheKey fieldKey, final CachedReply cached) {
+      final boolean added;
+      if (fieldKey == null) {
+        added = keyReply == null;
+        keyReply = cached;
+      } else {
+        if (fieldReplies == null) {
+          fieldReplies = new ConcurrentHashMap<>(4);
+        }
+        added = fieldReplies.put(fieldKey, cached) == null;
+      }
+      if (added) {
+        numReplies++;
+      }
+      return added;
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package com.fabahaba.jedipus.cache;
+
+/**
+ * A count-min sketch of 4-bit counters, the TinyLFU frequency estimator, which halves every
+ * counter after a sample of 10 increments per cached key so that popularity decays over time.
+ * Updates are not atomic; lost increments under contention only make the estimate less precise.
+ */
+final class FrequencySketch {
+
+  private static final long[] SEEDS = new long[] {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L,
+      0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final long ONE_MASK = 0x1111111111111111L;
+
+  private final long[] table;
+  private final int tableMask;
+  private final int sampleSize;
+  private int size;
+
+  FrequencySketch(final int maxSize) {
+    final int capacity = Integer.highestOneBit(Math.max(16, maxSize) - 1) << 1;
+    this.table = new long[capacity];
+    this.tableMask = capacity - 1;
+    this.sampleSize = 10 * Math.max(16, maxSize);
+  }
+
+  int frequency(final int hashCode) {
+    final int hash = spread(hashCode);
+    final int start = (hash & 3) << 2;
+    int frequency = Integer.MAX_VALUE;
+    for (int i = 0; i < 4; i++) {
+      final int index = indexOf(hash, i);
+      final int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+      frequency = Math.min(frequency, count);
+    }
+    return frequency;
+  }
+
+  void increment(final int hashCode) {
+    final int hash = spread(hashCode);
+    final int start = (hash & 3) << 2;
+    boolean added = false;
+    for (int i = 0; i < 4; i++) {
+      added |= incrementAt(indexOf(hash, i), start + i);
+    }
+
+    if (added && ++size >= sampleSize) {
+      reset();
+    }
+  }
+
+  private boolean incrementAt(final int index, final int counter) {
+    final int offset = counter << 2;
+    final long mask = 0xfL << offset;
+    final long value = table[index];
+    if ((value & mask) == mask) {
+      return false;
+    }
+    table[index] = value + (1L << offset);
+    return true;
+  }
+
+  private void reset() {
+    int numOdd = 0;
+    for (int i = 0; i < table.length; i++) {
+      numOdd += Long.bitCount(table[i] & ONE_MASK);
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    size = (size >>> 1) - (numOdd >>> 2);
+  }
+
+  private int indexOf(final int hash, final int depth) {
+    long index = (hash + SEEDS[depth]) * SEEDS[depth];
+    index += index >>> 32;
+    return (int) index & tableMask;
+  }
+
+  private static int spread(final int hashCode) {
+    int hash = ((hashCode >>> 16) ^ hashCode) * 0x45d9f3b;
+    hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+    return (hash >>> 16) ^ hash;
+  }
+}
@@ -0,0 +1,193 @@
+package com.fabahaba.jedipus.cache;
+
+import com.fabahaba.jedipus.client.RedisClient;
+import com.fabahaba.jedipus.cluster.RedisClusterExecutor;
+import com.fabahaba.jedipus.cluster.RedisClusterExecutor.ReadMode;
+import com.fabahaba.jedipus.cmds.Cmds;
+import com.fabahaba.jedipus.cmds.RESP;
+import com.fabahaba.jedipus.pubsub.MsgConsumer;
+import com.fabahaba.jedipus.pubsub.RedisSubscriber;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * A bounded, process local cache of read replies that sits in front of a
+ * {@link RedisClusterExecutor}. Entries expire after a per read TTL and are invalidated by key
+ * when a message is received on the invalidation channel, which writers publish to via
+ * {@link #publishInvalidation(byte[])} or a plain {@code PUBLISH channel key}. An empty payload
+ * invalidates every key.
+ *
+ * Subscribe the cache with {@link #subscribe(RedisSubscriber)} and run the subscriber on its own
+ * thread. Because messages published while the subscriber is reconnecting are lost, the cache is
+ * cleared every time the invalidation channel is (re)subscribed.
+ *
+ * Cached replies are shared by every caller reading the same key and are not copied, so they
+ * must be treated as read-only. Keys and fields are copied when a reply is cached.
+ *
+ * Misses are loaded from masters by default. If the cache is built with a read mode that reads
+ * from slaves, a miss right after an invalidation may read a slave that has not yet replicated the
+ * write, and that stale reply stays cached until its TTL expires.
+ */
+public interface NearCache extends MsgConsumer {
+
+  static Builder startBuilding() {
+    return new Builder();
+  }
+
+  default byte[] get(final byte[] key) {
+    return get(key, getExpireAfterWrite());
+  }
+
+  default byte[] get(final byte[] key, final Duration ttl) {
+    return apply(key, null, client -> (byte[]) client.sendCmd(Cmds.GET.raw(), key), ttl);
+  }
+
+  default byte[] hget(final byte[] key, final byte[] field) {
+    return hget(key, field, getExpireAfterWrite());
+  }
+
+  default byte[] hget(final byte[] key, final byte[] field, final Duration ttl) {
+    return apply(key, field, client -> (byte[]) client.sendCmd(Cmds.HGET.raw(), key, field), ttl);
+  }
+
+  /**
+   * Returns the cached reply for the given key and field, or applies the loader against the pool
+   * serving the key's slot and caches its reply, including null replies.
+   *
+   * @param key    The Redis key read by the loader, used for routing and invalidation.
+   * @param field  Distinguishes multiple cached reads of the same key, e.g., hash fields. May be
+   *               null.
+   * @param loader Reads the value of the key.
+   * @param ttl    The duration to cache the reply for.
+   * @return The cached or loaded reply, shared with other callers and so read-only.
+   */
+  <R> R apply(final byte[] key, final byte[] field, final Function<RedisClient, R> loader,
+      final Duration ttl);
+
+  /**
+   * Removes any cached replies for the given key from this cache only.
+   *
+   * @param key The key to invalidate.
+   */
+  void invalidate(final byte[] key);
+
+  void invalidateAll();
+
+  /**
+   * Invalidates the key locally and publishes it to the invalidation channel. Call after writing
+   * to the key.
+   *
+   * @param key The key to invalidate.
+   */
+  void publishInvalidation(final byte[] key);
+
+  default void subscribe(final RedisSubscriber subscriber) {
+    subscriber.subscribe(this, getInvalidationChannel());
+  }
+
+  String getInvalidationChannel();
+
+  Duration getExpireAfterWrite();
+
+  int size();
+
+  long getHitCount();
+
+  long getMissCount();
+
+  @Override
+  default void accept(final String channel, final String payload) {
+    accept(channel, RESP.toBytes(payload));
+  }
+
+  @Override
+  default void accept(final String channel, final byte[] payload) {
+    if (payload.length == 0) {
+      invalidateAll();
+      return;
+    }
+    invalidate(payload);
+  }
+
+  @Override
+  default void onSubscribed(final String channel) {
+    invalidateAll();
+  }
+
+  public static class Builder implements Serializable {
+
+    private static final long serialVersionUID = -3014393960785937571L;
+
+    public static final String DEFAULT_INVALIDATION_CHANNEL = "jedipus:near-cache:invalidate";
+
+    private int maxSize = 10_000;
+    private Duration expireAfterWrite = Duration.ofMinutes(1);
+    private String invalidationChannel = DEFAULT_INVALIDATION_CHANNEL;
+    private ReadMode readMode = ReadMode.MASTER;
+
+    private Builder() {}
+
+    public NearCache create(final RedisClusterExecutor rce) {
+      return new ClockNearCache(rce, readMode == null ? rce.getDefaultReadMode() : readMode,
+          maxSize, expireAfterWrite, invalidationChannel);
+    }
+
+    public int getMaxSize() {
+      return maxSize;
+    }
+
+    /**
+     * @param maxSize The maximum number of replies to cache. Each cached field of a key counts as
+     *                a reply.
+     * @return this builder.
+     */
+    public Builder withMaxSize(final int maxSize) {
+      this.maxSize = maxSize;
+      return this;
+    }
+
+    public Duration getExpireAfterWrite() {
+      return expireAfterWrite;
+    }
+
+    public Builder withExpireAfterWrite(final Duration expireAfterWrite) {
+      this.expireAfterWrite = expireAfterWrite;
+      return this;
+    }
+
+    public String getInvalidationChannel() {
+      return invalidationChannel;
+    }
+
+    public Builder withInvalidationChannel(final String invalidationChannel) {
+      this.invalidationChannel = invalidationChannel;
+      return this;
+    }
+
+    public ReadMode getReadMode() {
+      return readMode;
+    }
+
+    /**
+     * @param readMode The read mode used to load misses, {@code MASTER} by default, or the
+     *        executor's default read mode if null. Modes that read from slaves may cache replies
+     *        that are stale with respect to a write whose invalidation was already received,
+     *        until their TTL expires.
+     * @return this builder.
+     */
+    public Builder withReadMode(final ReadMode readMode) {
+      this.readMode = readMode;
+      return this;
+    }
+
+    @Override
+    public String toString() {
+      return new StringBuilder("NearCache.Builder [maxSize=").append(maxSize)
+          .append(", expireAfterWrite=").append(expireAfterWrite)
+          .append(", invalidationChannel=").append(invalidationChannel).append(", readMode=")
+          .append(readMode).append("]").toString();
+    }
+  }
+}
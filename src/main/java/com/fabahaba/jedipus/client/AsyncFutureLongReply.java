@@ -0,0 +1,36 @@
+package com.fabahaba.jedipus.client;
+
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+public interface AsyncFutureLongReply extends FutureLongReply {
+
+  boolean isDone();
+
+  /**
+   * Blocks until the reply has been read.
+   *
+   * @return the primitive reply.
+   */
+  @Override
+  long getAsLong();
+
+  /**
+   * Blocks until the reply has been read and re-throws any exception encountered.
+   *
+   * @return this future reply.
+   */
+  @Override
+  AsyncFutureLongReply checkReply();
+
+  /**
+   * Registers callbacks to be invoked by the reader thread once the reply is available, or
+   * immediately by the calling thread if it already is.
+   *
+   * @param onReply Accepts the primitive reply.
+   * @param onException Accepts any exception encountered while reading the reply.
+   * @return this future reply.
+   */
+  AsyncFutureLongReply whenComplete(final LongConsumer onReply,
+      final Consumer<RuntimeException> onException);
+}
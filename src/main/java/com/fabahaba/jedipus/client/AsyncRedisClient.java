@@ -0,0 +1,30 @@
+package com.fabahaba.jedipus.client;
+
+import com.fabahaba.jedipus.cluster.Node;
+import com.fabahaba.jedipus.cmds.async.AsyncDirectCmds;
+
+/**
+ * Commands are written by the calling thread and their futures are completed in FIFO order,
+ * allowing any number of threads to share a single connection without waiting on the network.
+ * Over {@link NioSocket}s, replies are read by a shared pool once the event loop reports the
+ * socket as readable, so a connection only holds a thread while reply bytes are being parsed.
+ * Over blocking sockets, each connection has a dedicated reader thread.
+ *
+ * <p>Blocking commands, transactions, pub/sub and {@code CLIENT REPLY} modes are not supported
+ * as they would stall or desynchronize the shared reply queue.
+ */
+public interface AsyncRedisClient extends AsyncDirectCmds, AutoCloseable {
+
+  Node getNode();
+
+  default HostPort getHostPort() {
+    return getNode().getHostPort();
+  }
+
+  boolean isBroken();
+
+  int getNumPendingReplies();
+
+  @Override
+  void close();
+}
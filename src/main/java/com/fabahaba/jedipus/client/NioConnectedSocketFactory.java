@@ -0,0 +1,53 @@
+package com.fabahaba.jedipus.client;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+public class NioConnectedSocketFactory implements ConnectedSocketFactory<NioSocket> {
+
+  private static final long serialVersionUID = 2462081749235367291L;
+
+  private transient volatile NioEventLoop eventLoop;
+  protected final int soTimeoutMillis;
+
+  public NioConnectedSocketFactory(final int soTimeoutMillis) {
+    this(null, soTimeoutMillis);
+  }
+
+  public NioConnectedSocketFactory(final NioEventLoop eventLoop, final int soTimeoutMillis) {
+    this.eventLoop = eventLoop;
+    this.soTimeoutMillis = soTimeoutMillis;
+  }
+
+  @Override
+  public NioSocket create(final String host, final int port, final int connTimeoutMillis)
+      throws IOException {
+    final NioSocket socket = new NioSocket(getEventLoop());
+    try {
+      initSocket(socket).connect(new InetSocketAddress(host, port), connTimeoutMillis);
+    } catch (final IOException | RuntimeException ex) {
+      socket.close();
+      throw ex;
+    }
+    return socket;
+  }
+
+  public NioEventLoop getEventLoop() {
+    final NioEventLoop loop = eventLoop;
+    if (loop == null || loop.isClosed()) {
+      return eventLoop = NioEventLoop.getDefault();
+    }
+    return loop;
+  }
+
+  @Override
+  public int getSoTimeoutMillis() {
+    return soTimeoutMillis;
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder("NioConnectedSocketFactory [eventLoop=").append(eventLoop)
+        .append(", soTimeout=").append(soTimeoutMillis).append("]").toString();
+  }
+}
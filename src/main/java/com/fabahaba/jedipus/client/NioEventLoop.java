@@ -0,0 +1,192 @@
+package com.fabahaba.jedipus.client;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.IntConsumer;
+
+/**
+ * A single selector thread shared by many {@link NioSocket}s. Channels are registered with an
+ * {@link IntConsumer} that is notified with the ready ops, after which those ops are removed from
+ * the key's interest set until re-armed via {@link #interest(SelectionKey, int)}.
+ */
+public final class NioEventLoop implements Runnable, AutoCloseable {
+
+  private static volatile NioEventLoop defaultLoop;
+
+  private final Selector selector;
+  private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+  private final Thread thread;
+  private volatile boolean closed = false;
+  // Set once the loop has exited, after which tasks are run by the thread that submits them.
+  private volatile boolean terminated = false;
+
+  private NioEventLoop(final String threadName) {
+    try {
+      this.selector = Selector.open();
+    } catch (final IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    this.thread = new Thread(this, threadName);
+    thread.setDaemon(true);
+  }
+
+  public static NioEventLoop start(final String threadName) {
+    final NioEventLoop loop = new NioEventLoop(threadName);
+    loop.thread.start();
+    return loop;
+  }
+
+  public static NioEventLoop getDefault() {
+    NioEventLoop loop = defaultLoop;
+    if (loop == null || loop.closed) {
+      synchronized (NioEventLoop.class) {
+        loop = defaultLoop;
+        if (loop == null || loop.closed) {
+          loop = defaultLoop = start("jedipus-nio-event-loop");
+        }
+      }
+    }
+    return loop;
+  }
+
+  public SelectionKey register(final SelectableChannel channel, final IntConsumer onReady)
+      throws IOException {
+
+    final CompletableFuture<SelectionKey> registration = new CompletableFuture<>();
+
+    execute(() -> {
+      try {
+        registration.complete(channel.register(selector, 0, onReady));
+      } catch (final ClosedSelectorException ex) {
+        registration.completeExceptionally(new IOException("NioEventLoop has been closed.", ex));
+      } catch (final ClosedChannelException | RuntimeException ex) {
+        registration.completeExceptionally(ex);
+      }
+    });
+
+    try {
+      return registration.join();
+    } catch (final RuntimeException ex) {
+      if (ex.getCause() instanceof IOException) {
+        throw (IOException) ex.getCause();
+      }
+      throw ex;
+    }
+  }
+
+  public void interest(final SelectionKey key, final int ops) {
+    if (Thread.currentThread() == thread) {
+      addInterest(key, ops);
+      return;
+    }
+
+    execute(() -> addInterest(key, ops));
+  }
+
+  private static void addInterest(final SelectionKey key, final int ops) {
+    try {
+      key.interestOps(key.interestOps() | ops);
+    } catch (final CancelledKeyException ex) {
+      // The channel was closed or its event loop exited, fail anyone waiting on readiness.
+      ((IntConsumer) key.attachment()).accept(0);
+    }
+  }
+
+  public void execute(final Runnable task) {
+    if (closed) {
+      throw new IllegalStateException("NioEventLoop has been closed.");
+    }
+    tasks.add(task);
+    selector.wakeup();
+    // The loop may have exited after the closed check without having seen this task.
+    if (terminated) {
+      runTasks();
+    }
+  }
+
+  private void runTasks() {
+    for (Runnable task; (task = tasks.poll()) != null;) {
+      try {
+        task.run();
+      } catch (final RuntimeException ex) {
+        // A failed task must not stop the loop or the tasks queued after it.
+      }
+    }
+  }
+
+  @Override
+  public void run() {
+    try {
+      while (!closed) {
+        selector.select();
+        runTasks();
+
+        final Iterator<SelectionKey> selectedKeys = selector.selectedKeys().iterator();
+        while (selectedKeys.hasNext()) {
+          final SelectionKey key = selectedKeys.next();
+          selectedKeys.remove();
+
+          try {
+            final int readyOps = key.readyOps();
+            key.interestOps(key.interestOps() & ~readyOps);
+            ((IntConsumer) key.attachment()).accept(readyOps);
+          } catch (final CancelledKeyException ex) {
+            // Closed by another thread since the key was selected, its socket has been notified.
+          } catch (final RuntimeException ex) {
+            // A failed callback must not stop readiness notifications for other channels.
+          }
+        }
+      }
+    } catch (final IOException | ClosedSelectorException ex) {
+      // exiting
+    } finally {
+      closed = true;
+      try {
+        for (final SelectionKey key : selector.keys()) {
+          try {
+            ((IntConsumer) key.attachment()).accept(0);
+          } catch (final RuntimeException ex) {
+            // notify the rest
+          }
+        }
+      } catch (final ClosedSelectorException ex) {
+        // closing anyways
+      }
+      try {
+        selector.close();
+      } catch (final IOException e) {
+        // closing anyways
+      }
+      // Registrations fail against the closed selector and interest in cancelled keys fails any
+      // readiness futures, so no caller is left waiting on this loop.
+      terminated = true;
+      runTasks();
+    }
+  }
+
+  public boolean isClosed() {
+    return closed;
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    selector.wakeup();
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder("NioEventLoop [thread=").append(thread.getName())
+        .append(", closed=").append(closed).append("]").toString();
+  }
+}
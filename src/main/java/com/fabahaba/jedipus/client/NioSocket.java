@@ -0,0 +1,421 @@
+package com.fabahaba.jedipus.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.SocketException;
+import java.net.SocketImpl;
+import java.net.SocketTimeoutException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A {@link Socket} view over a non-blocking {@link SocketChannel} whose readiness is multiplexed
+ * over a single {@link NioEventLoop} selector thread. The event loop completes the futures
+ * returned by {@link #whenReady(int)}. The stream views used by the existing RESP framing wait on
+ * those futures, so a {@code RedisClient} call still occupies its calling thread until the reply
+ * is read. An {@link AsyncRedisClient} instead only starts reading once its socket is readable.
+ */
+public final class NioSocket extends Socket {
+
+  private final NioEventLoop eventLoop;
+  private final SocketChannel channel;
+  private final SelectionKey key;
+  private final InputStream inputStream;
+  private final OutputStream outputStream;
+  private final GatheringByteChannel gatheringChannel;
+  private final Object readyLock = new Object();
+  private CompletableFuture<Void> readReady;
+  private CompletableFuture<Void> writeReady;
+  private CompletableFuture<Void> connectReady;
+  private volatile int soTimeoutMillis = 0;
+  private volatile boolean closed = false;
+
+  public NioSocket(final NioEventLoop eventLoop) throws IOException {
+    super((SocketImpl) null);
+    this.eventLoop = eventLoop;
+    this.channel = SocketChannel.open();
+    try {
+      channel.configureBlocking(false);
+      this.key = eventLoop.register(channel, this::onReady);
+    } catch (final IOException | RuntimeException ex) {
+      channel.close();
+      throw ex;
+    }
+    this.inputStream = new ChannelInputStream();
+    this.outputStream = new ChannelOutputStream();
+    this.gatheringChannel = new BlockingGatheringChannel();
+  }
+
+  private void onReady(final int ops) {
+    CompletableFuture<Void> read = null;
+    CompletableFuture<Void> write = null;
+    CompletableFuture<Void> connect = null;
+    synchronized (readyLock) {
+      if (ops == 0 || (ops & SelectionKey.OP_READ) != 0) {
+        read = readReady;
+        readReady = null;
+      }
+      if (ops == 0 || (ops & SelectionKey.OP_WRITE) != 0) {
+        write = writeReady;
+        writeReady = null;
+      }
+      if (ops == 0 || (ops & SelectionKey.OP_CONNECT) != 0) {
+        connect = connectReady;
+        connectReady = null;
+      }
+    }
+    // Zero ops signal that the socket or its event loop was closed.
+    complete(read, ops);
+    complete(write, ops);
+    complete(connect, ops);
+  }
+
+  private static void complete(final CompletableFuture<Void> ready, final int ops) {
+    if (ready == null) {
+      return;
+    }
+    if (ops == 0) {
+      ready.completeExceptionally(new SocketException("Socket is closed."));
+      return;
+    }
+    ready.complete(null);
+  }
+
+  /**
+   * Arms interest in the given operation with the event loop. The returned future is completed
+   * from the event loop thread once the channel is ready for it, or exceptionally with a
+   * {@link SocketException} if this socket or its event loop is closed first. Callers may compose
+   * on it rather than block a thread waiting on the socket.
+   *
+   * @param op One of {@link SelectionKey#OP_READ}, {@link SelectionKey#OP_WRITE} or
+   *        {@link SelectionKey#OP_CONNECT}.
+   * @return A future completed when the channel is ready for the operation. Concurrent callers
+   *         waiting on the same operation share the same future.
+   */
+  public CompletableFuture<Void> whenReady(final int op) {
+    final CompletableFuture<Void> ready;
+    synchronized (readyLock) {
+      if (closed || eventLoop.isClosed()) {
+        ready = new CompletableFuture<>();
+        ready.completeExceptionally(new SocketException("Socket is closed."));
+        return ready;
+      }
+
+      switch (op) {
+        case SelectionKey.OP_READ:
+          if (readReady == null) {
+            readReady = new CompletableFuture<>();
+          }
+          ready = readReady;
+          break;
+        case SelectionKey.OP_WRITE:
+          if (writeReady == null) {
+            writeReady = new CompletableFuture<>();
+          }
+          ready = writeReady;
+          break;
+        case SelectionKey.OP_CONNECT:
+          if (connectReady == null) {
+            connectReady = new CompletableFuture<>();
+          }
+          ready = connectReady;
+          break;
+        default:
+          throw new IllegalArgumentException("Unsupported operation: " + op);
+      }
+    }
+
+    try {
+      eventLoop.interest(key, op);
+    } catch (final IllegalStateException closedLoop) {
+      onReady(0);
+    }
+    return ready;
+  }
+
+  private void await(final int op, final int timeoutMillis) throws IOException {
+    final CompletableFuture<Void> ready = whenReady(op);
+    try {
+      if (timeoutMillis > 0) {
+        ready.get(timeoutMillis, TimeUnit.MILLISECONDS);
+      } else {
+        ready.get();
+      }
+    } catch (final TimeoutException te) {
+      throw new SocketTimeoutException("Timed out waiting on " + channel);
+    } catch (final ExecutionException ee) {
+      if (ee.getCause() instanceof IOException) {
+        throw (IOException) ee.getCause();
+      }
+      throw new SocketException(ee.getCause().getMessage());
+    } catch (final InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(ie.getMessage());
+    }
+  }
+
+  @Override
+  public void connect(final SocketAddress endpoint) throws IOException {
+    connect(endpoint, 0);
+  }
+
+  @Override
+  public void connect(final SocketAddress endpoint, final int timeoutMillis) throws IOException {
+    if (channel.connect(endpoint)) {
+      return;
+    }
+
+    await(SelectionKey.OP_CONNECT, timeoutMillis);
+
+    if (!channel.finishConnect()) {
+      throw new SocketTimeoutException("Failed to connect to " + endpoint);
+    }
+  }
+
+  @Override
+  public SocketChannel getChannel() {
+    return channel;
+  }
+
+  // Writes block until all bytes have been accepted by the socket, honoring the socket timeout.
+  public GatheringByteChannel getGatheringChannel() {
+    return gatheringChannel;
+  }
+
+  @Override
+  public InputStream getInputStream() throws IOException {
+    return inputStream;
+  }
+
+  @Override
+  public OutputStream getOutputStream() throws IOException {
+    return outputStream;
+  }
+
+  @Override
+  public int getSoTimeout() {
+    return soTimeoutMillis;
+  }
+
+  @Override
+  public void setSoTimeout(final int soTimeoutMillis) throws SocketException {
+    if (soTimeoutMillis < 0) {
+      throw new IllegalArgumentException("timeout can't be negative");
+    }
+    this.soTimeoutMillis = soTimeoutMillis;
+  }
+
+  @Override
+  public void setKeepAlive(final boolean on) throws SocketException {
+    try {
+      channel.setOption(StandardSocketOptions.SO_KEEPALIVE, on);
+    } catch (final IOException ex) {
+      throw new SocketException(ex.getMessage());
+    }
+  }
+
+  @Override
+  public boolean getKeepAlive() throws SocketException {
+    try {
+      return channel.getOption(StandardSocketOptions.SO_KEEPALIVE);
+    } catch (final IOException ex) {
+      throw new SocketException(ex.getMessage());
+    }
+  }
+
+  @Override
+  public void setTcpNoDelay(final boolean on) throws SocketException {
+    try {
+      channel.setOption(StandardSocketOptions.TCP_NODELAY, on);
+    } catch (final IOException ex) {
+      throw new SocketException(ex.getMessage());
+    }
+  }
+
+  @Override
+  public boolean getTcpNoDelay() throws SocketException {
+    try {
+      return channel.getOption(StandardSocketOptions.TCP_NODELAY);
+    } catch (final IOException ex) {
+      throw new SocketException(ex.getMessage());
+    }
+  }
+
+  @Override
+  public int getSendBufferSize() throws SocketException {
+    try {
+      return channel.getOption(StandardSocketOptions.SO_SNDBUF);
+    } catch (final IOException ex) {
+      throw new SocketException(ex.getMessage());
+    }
+  }
+
+  @Override
+  public int getReceiveBufferSize() throws SocketException {
+    try {
+      return channel.getOption(StandardSocketOptions.SO_RCVBUF);
+    } catch (final IOException ex) {
+      throw new SocketException(ex.getMessage());
+    }
+  }
+
+  @Override
+  public InetAddress getInetAddress() {
+    final InetSocketAddress remote = getRemoteSocketAddress();
+    return remote == null ? null : remote.getAddress();
+  }
+
+  @Override
+  public int getPort() {
+    final InetSocketAddress remote = getRemoteSocketAddress();
+    return remote == null ? 0 : remote.getPort();
+  }
+
+  @Override
+  public InetSocketAddress getRemoteSocketAddress() {
+    try {
+      return (InetSocketAddress) channel.getRemoteAddress();
+    } catch (final IOException ex) {
+      return null;
+    }
+  }
+
+  @Override
+  public boolean isConnected() {
+    return channel.isConnected();
+  }
+
+  @Override
+  public boolean isClosed() {
+    return closed;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    key.cancel();
+    try {
+      channel.close();
+    } finally {
+      onReady(0);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder("NioSocket [channel=").append(channel).append(", soTimeout=")
+        .append(soTimeoutMillis).append(", closed=").append(closed).append("]").toString();
+  }
+
+  private final class ChannelInputStream extends InputStream {
+
+    @Override
+    public int read() throws IOException {
+      final byte[] single = new byte[1];
+      return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(final byte[] buf, final int offset, final int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+
+      final ByteBuffer dst = ByteBuffer.wrap(buf, offset, len);
+      for (;;) {
+        final int read = channel.read(dst);
+        if (read != 0) {
+          return read;
+        }
+        await(SelectionKey.OP_READ, soTimeoutMillis);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      NioSocket.this.close();
+    }
+  }
+
+  private final class ChannelOutputStream extends OutputStream {
+
+    @Override
+    public void write(final int b) throws IOException {
+      write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] buf, final int offset, final int len) throws IOException {
+      gatheringChannel.write(ByteBuffer.wrap(buf, offset, len));
+    }
+
+    @Override
+    public void close() throws IOException {
+      NioSocket.this.close();
+    }
+  }
+
+  private final class BlockingGatheringChannel implements GatheringByteChannel {
+
+    @Override
+    public int write(final ByteBuffer src) throws IOException {
+      final int len = src.remaining();
+      while (src.hasRemaining()) {
+        if (channel.write(src) == 0) {
+          await(SelectionKey.OP_WRITE, soTimeoutMillis);
+        }
+      }
+      return len;
+    }
+
+    @Override
+    public long write(final ByteBuffer[] srcs, final int offset, final int length)
+        throws IOException {
+      long len = 0;
+      for (int i = offset, end = offset + length; i < end; i++) {
+        len += srcs[i].remaining();
+      }
+
+      for (long written = 0; written < len;) {
+        final long numWritten = channel.write(srcs, offset, length);
+        if (numWritten == 0) {
+          await(SelectionKey.OP_WRITE, soTimeoutMillis);
+          continue;
+        }
+        written += numWritten;
+      }
+      return len;
+    }
+
+    @Override
+    public long write(final ByteBuffer[] srcs) throws IOException {
+      return write(srcs, 0, srcs.length);
+    }
+
+    @Override
+    public boolean isOpen() {
+      return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+      NioSocket.this.close();
+    }
+  }
+}
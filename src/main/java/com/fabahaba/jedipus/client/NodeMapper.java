@@ -2,9 +2,39 @@ package com.fabahaba.jedipus.client;
 
 import java.io.Serializable;
 import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import com.fabahaba.jedipus.cluster.Node;
 
 public interface NodeMapper extends Function<Node, Node>, Serializable {
 
+  /**
+   * @param zoneFunction Resolves the zone of a mapped node, returning null if unknown.
+   * @return A mapper that applies this mapping and then locates mapped nodes without a zone in
+   *         the zone resolved by the given function.
+   */
+  default NodeMapper withZones(final SerializableFunction<Node, String> zoneFunction) {
+    return node -> {
+      final Node mapped = apply(node);
+      if (mapped.getZone() != null) {
+        return mapped;
+      }
+      final String zone = zoneFunction.apply(mapped);
+      return zone == null ? mapped : mapped.withZone(zone);
+    };
+  }
+
+  /**
+   * @param hostPattern Matched against node hosts, the first capturing group is used as the zone,
+   *        e.g., {@code Pattern.compile("\\.(\\w+-\\w+-\\d\\w)\\.")} for hosts such as
+   *        {@code redis-0.us-east-1a.internal}.
+   * @return A zone function for {@link #withZones} that derives the zone from the host name.
+   */
+  static SerializableFunction<Node, String> zoneFromHost(final Pattern hostPattern) {
+    return node -> {
+      final Matcher matcher = hostPattern.matcher(node.getHost());
+      return matcher.find() ? matcher.group(1) : null;
+    };
+  }
 }
@@ -1,8 +1,12 @@
 package com.fabahaba.jedipus.client;
 
+import com.fabahaba.jedipus.cmds.Cmd;
 import com.fabahaba.jedipus.cmds.Cmds;
 import com.fabahaba.jedipus.cmds.RESP;
 
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
 public interface RedisClient extends Cmds, AutoCloseable {
 
   enum ReplyMode {
@@ -65,4 +69,36 @@ public interface RedisClient extends Cmds, AutoCloseable {
   String unwatch();
 
   void flush();
+
+  default <V extends RespReplyVisitor> V visitCmd(final Cmd<?> cmd, final V visitor) {
+    return visitCmd(cmd, visitor, new byte[0][]);
+  }
+
+  <V extends RespReplyVisitor> V visitCmd(final Cmd<?> cmd, final V visitor, final byte[]... args);
+
+  default <V extends RespReplyVisitor> V visitCmd(final Cmd<?> cmd, final V visitor,
+      final String... args) {
+    final byte[][] byteArgs = new byte[args.length][];
+    for (int i = 0; i < args.length; i++) {
+      byteArgs[i] = RESP.toBytes(args[i]);
+    }
+    return visitCmd(cmd, visitor, byteArgs);
+  }
+
+  // Returned by sendBulkCmd if no reply was read because the reply mode is OFF or SKIP.
+  long NO_BULK_REPLY = -2;
+
+  // Bulk string replies are written directly into dst. Returns the number of bytes written, -1
+  // for a nil reply, or NO_BULK_REPLY. A read-only dst is rejected before the command is sent.
+  long sendBulkCmd(final Cmd<?> cmd, final ByteBuffer dst, final byte[]... args);
+
+  default long sendBulkCmd(final Cmd<?> cmd, final ByteBuffer dst, final String key) {
+    return sendBulkCmd(cmd, dst, RESP.toBytes(key));
+  }
+
+  long sendBulkCmd(final Cmd<?> cmd, final WritableByteChannel dst, final byte[]... args);
+
+  default long sendBulkCmd(final Cmd<?> cmd, final WritableByteChannel dst, final String key) {
+    return sendBulkCmd(cmd, dst, RESP.toBytes(key));
+  }
 }
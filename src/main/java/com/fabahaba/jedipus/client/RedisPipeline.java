@@ -1,7 +1,11 @@
 package com.fabahaba.jedipus.client;
 
+import com.fabahaba.jedipus.cluster.Node;
 import com.fabahaba.jedipus.cmds.pipeline.PipelineCmds;
 
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
 public interface RedisPipeline extends PipelineCmds, AutoCloseable {
 
   RedisPipeline skip();
@@ -24,6 +28,35 @@ public interface RedisPipeline extends PipelineCmds, AutoCloseable {
     sync(false);
   }
 
+  /**
+   * Writes any buffered commands without reading their replies, which remain queued for the next
+   * call to sync. Pipelines that cannot write ahead of sync leave their commands buffered.
+   */
+  default void flush() {}
+
+  /**
+   * Records the commands sent through this pipeline so that sync replays the ones redirected with
+   * ASK against their target node, each prefixed with ASKING, instead of throwing an
+   * {@code UnhandledAskNodeException}. Replies that were not redirected are kept. A transaction
+   * containing a redirected command is replayed as a whole. Must be called before sending any
+   * commands; recording stops when the pipeline is closed.
+   *
+   * @param askClients Called once per ASK target node with the replay to run on a client connected
+   *        to that node.
+   * @return this pipeline, pipelines that cannot record their commands return themselves unchanged
+   *         and leave ASK redirects unhandled.
+   */
+  default RedisPipeline replayAsks(final BiConsumer<Node, Consumer<RedisClient>> askClients) {
+    return this;
+  }
+
+  /**
+   * Reads the reply of every queued command. A reply redirected with MOVED fails its own future
+   * reply, the remaining replies are still read and then the first redirect is thrown.
+   *
+   * @param throwUnhandled Throw the first unhandled error reply rather than setting it on its
+   *        future reply.
+   */
   void sync(final boolean throwUnhandled);
 
   default FutureReply<Object[]> execSync() {
@@ -0,0 +1,41 @@
+package com.fabahaba.jedipus.client;
+
+/**
+ * Receives reply events as they are parsed off of the connection, allowing replies to be folded
+ * into user structures without building intermediate {@code Object[]} trees.
+ *
+ * <p>Byte slices are only valid for the duration of the callback, they may point into the
+ * connection's internal read buffer.
+ */
+public interface RespReplyVisitor {
+
+  /**
+   * @param length The number of elements which will follow, each of which may itself be an array.
+   */
+  default void onArrayStart(final int length) {}
+
+  default void onArrayEnd() {}
+
+  void onBulk(final byte[] buf, final int offset, final int length);
+
+  default void onSimpleString(final byte[] buf, final int offset, final int length) {
+    onBulk(buf, offset, length);
+  }
+
+  void onLong(final long value);
+
+  /**
+   * Called for nil bulk strings and nil arrays.
+   */
+  default void onNull() {}
+
+  /**
+   * Called for error replies, which may be nested inside of arrays, e.g. for EXEC replies.
+   *
+   * @param error The exception that would have otherwise been thrown. Throwing it will abort
+   *        visiting the remainder of the reply.
+   */
+  default void onError(final RuntimeException error) {
+    throw error;
+  }
+}
@@ -6,6 +6,8 @@ import com.fabahaba.jedipus.client.SerializableFunction;
 import com.fabahaba.jedipus.client.SerializableSupplier;
 import com.fabahaba.jedipus.cluster.RedisClusterExecutor.ReadMode;
 import com.fabahaba.jedipus.concurrent.ElementRetryDelay;
+import com.fabahaba.jedipus.metrics.JedipusMetrics;
+import com.fabahaba.jedipus.metrics.LatencyRecorder;
 import com.fabahaba.jedipus.pool.ClientPool;
 import com.fabahaba.jedipus.pool.EvictionStrategy;
 import com.fabahaba.jedipus.primitive.RedisClientFactory;
@@ -33,10 +35,10 @@ public final class ClusterExecutorBuilder implements Serializable {
   // are available.
   private static final Duration DEFAULT_MAX_AWAIT_CACHE_REFRESH = Duration.ofNanos(0);
 
-  private static final ClientPool.Builder DEFAULT_POOL_BUILDER =
-      ClientPool.startBuilding().withMaxIdle(8).withMinIdle(2).withMaxTotal(8)
-          .withDurationBetweenEvictionRuns(Duration.ofSeconds(15)).withTestWhileIdle(true)
-          .withNumTestsPerEvictionRun(6).withBlockWhenExhausted(true);
+  private static final double DEFAULT_HEDGE_PERCENTILE = 95;
+  private static final Duration DEFAULT_MIN_HEDGE_DELAY = Duration.ofMillis(1);
+
+  private static final ClientPool.Builder DEFAULT_POOL_BUILDER = createDefaultPoolBuilder();
 
   private static final RedisClientFactory.Builder DEFAULT_REDIS_FACTORY =
       RedisClientFactory.startBuilding();
@@ -46,12 +48,20 @@ public final class ClusterExecutorBuilder implements Serializable {
           ClientPool.DEFAULT_MIN_EVICTABLE_IDLE_DURATION, 2);
 
   private static final SerializableFunction<Node, ClientPool<RedisClient>>
-      DEFAULT_MASTER_POOL_FACTORY = node -> DEFAULT_POOL_BUILDER
-      .create(DEFAULT_REDIS_FACTORY.createPooled(node), DEFAULT_EVICTION_STRATEGY);
+      DEFAULT_MASTER_POOL_FACTORY =
+      createMasterPoolFactory(DEFAULT_POOL_BUILDER, DEFAULT_REDIS_FACTORY);
+
+  private static final SerializableFunction<Node, ClientPool<RedisClient>>
+      DEFAULT_SLAVE_POOL_FACTORY =
+      createSlavePoolFactory(DEFAULT_POOL_BUILDER, DEFAULT_REDIS_FACTORY);
+
+  private static final SerializableFunction<Node, ClientPool<RedisClient>>
+      MULTIPLEXED_MASTER_POOL_FACTORY =
+      createMultiplexedMasterPoolFactory(DEFAULT_POOL_BUILDER, DEFAULT_REDIS_FACTORY);
 
   private static final SerializableFunction<Node, ClientPool<RedisClient>>
-      DEFAULT_SLAVE_POOL_FACTORY = node -> DEFAULT_POOL_BUILDER
-      .create(DEFAULT_REDIS_FACTORY.createPooled(node, true), DEFAULT_EVICTION_STRATEGY);
+      MULTIPLEXED_SLAVE_POOL_FACTORY =
+      createMultiplexedSlavePoolFactory(DEFAULT_POOL_BUILDER, DEFAULT_REDIS_FACTORY);
 
   private static final SerializableFunction<Node, RedisClient> DEFAULT_UNKOWN_NODE_FACTORY =
       DEFAULT_REDIS_FACTORY::create;
@@ -112,6 +122,8 @@ public final class ClusterExecutorBuilder implements Serializable {
   private ElementRetryDelay<Node> clusterNodeRetryDelay = DEFAULT_RETRY_DELAY;
   private int refreshSlotCacheEvery = DEFAULT_REFRESH_SLOT_CACHE_EVERY;
   private boolean retryUnhandledRetryableExceptions = false;
+  // Replays ASK redirected pipeline commands instead of throwing an UnhandledAskNodeException.
+  private boolean replayPipelinedAsks = false;
   private SerializableFunction<Node, ClientPool<RedisClient>> masterPoolFactory =
       DEFAULT_MASTER_POOL_FACTORY;
   private SerializableFunction<Node, ClientPool<RedisClient>> slavePoolFactory =
@@ -120,24 +132,114 @@ public final class ClusterExecutorBuilder implements Serializable {
   private SerializableFunction<Node, RedisClient> nodeUnknownFactory =
       DEFAULT_UNKOWN_NODE_FACTORY;
   private LBPoolsFactory lbFactory = DEFAULT_LB_FACTORIES;
-  // If true, access to slot pool cache will not lock when retreiving a pool/client during a slot
-  // migration.
+  // No longer used, slot pool cache reads never lock.
   private boolean optimisticReads = true;
   private Duration durationBetweenCacheRefresh = DEFAULT_DURATION_BETWEEN_CACHE_REFRESH;
   // 0 blocks forever, timed out requests will retry or throw a RedisConnectionException if no
   // pools are available.
   private Duration maxAwaitCacheRefresh = DEFAULT_MAX_AWAIT_CACHE_REFRESH;
+  // Null or zero disables background slot cache refreshes.
+  private Duration durationBetweenBackgroundRefresh = null;
+  // Null skips warming up pools before create returns.
+  private Duration warmUpTimeout = null;
+  // Null disables all metrics callbacks.
+  private transient JedipusMetrics metrics = null;
+  private boolean latencyRecording = false;
+  // Hedged reads are sent after this percentile of recent read latencies.
+  private double hedgePercentile = DEFAULT_HEDGE_PERCENTILE;
+  // Hedged reads are never sent earlier than this.
+  private Duration minHedgeDelay = DEFAULT_MIN_HEDGE_DELAY;
+  // One keeps a single client pool per node for the default pool factories.
+  private int numPoolShards = 1;
 
   ClusterExecutorBuilder(final SerializableSupplier<Collection<Node>> discoveryNodes) {
     this.discoveryNodes = discoveryNodes;
   }
 
   public RedisClusterExecutor create() {
+    final LatencyRecorder latencyRecorder = latencyRecording ? new LatencyRecorder() : null;
+    final HedgeDelay hedgeDelay = new HedgeDelay(hedgePercentile, minHedgeDelay.toNanos());
+    final JedipusMetrics listener = latencyRecorder == null ? metrics
+        : metrics == null ? latencyRecorder : latencyRecorder.andThen(metrics);
+
+    if (listener == null && numPoolShards <= 1) {
+      return new Jedipus(defaultReadMode, discoveryNodes, partitionedStrategyConfig, nodeMapper,
+          maxRedirections, maxRetries, refreshSlotCacheEvery, clusterNodeRetryDelay,
+          retryUnhandledRetryableExceptions, replayPipelinedAsks, durationBetweenCacheRefresh,
+          maxAwaitCacheRefresh, durationBetweenBackgroundRefresh, warmUpTimeout, masterPoolFactory,
+          slavePoolFactory, nodeUnknownFactory,
+          slavePools -> lbFactory.apply(defaultReadMode, slavePools, clusterNodeRetryDelay),
+          hedgeDelay, null, null);
+    }
+
+    // Custom pool, client and retry delay factories are expected to be configured with the
+    // listener by the caller, see ClientPool.Builder#withMetrics,
+    // RedisClientFactory.Builder#withMetrics and ElementRetryDelay.Builder#withMetrics.
+    final ClientPool.Builder poolBuilder =
+        createDefaultPoolBuilder().withMetrics(listener).withNumShards(numPoolShards);
+    final RedisClientFactory.Builder redisFactory =
+        RedisClientFactory.startBuilding().withMetrics(listener);
+
+    final SerializableFunction<Node, ClientPool<RedisClient>> masterPools =
+        masterPoolFactory == DEFAULT_MASTER_POOL_FACTORY
+            ? createMasterPoolFactory(poolBuilder, redisFactory)
+            : masterPoolFactory == MULTIPLEXED_MASTER_POOL_FACTORY
+                ? createMultiplexedMasterPoolFactory(poolBuilder, redisFactory)
+                : masterPoolFactory;
+
+    final SerializableFunction<Node, ClientPool<RedisClient>> slavePools =
+        slavePoolFactory == DEFAULT_SLAVE_POOL_FACTORY
+            ? createSlavePoolFactory(poolBuilder, redisFactory)
+            : slavePoolFactory == MULTIPLEXED_SLAVE_POOL_FACTORY
+                ? createMultiplexedSlavePoolFactory(poolBuilder, redisFactory)
+                : slavePoolFactory;
+
+    final SerializableFunction<Node, RedisClient> unknownNodes =
+        nodeUnknownFactory == DEFAULT_UNKOWN_NODE_FACTORY ? redisFactory::create
+            : nodeUnknownFactory;
+
+    final ElementRetryDelay<Node> retryDelay = clusterNodeRetryDelay == DEFAULT_RETRY_DELAY
+        ? ElementRetryDelay.startBuilding().withMetrics(listener).create()
+        : clusterNodeRetryDelay;
+
     return new Jedipus(defaultReadMode, discoveryNodes, partitionedStrategyConfig, nodeMapper,
-        maxRedirections, maxRetries, refreshSlotCacheEvery, clusterNodeRetryDelay,
-        retryUnhandledRetryableExceptions, optimisticReads, durationBetweenCacheRefresh,
-        maxAwaitCacheRefresh, masterPoolFactory, slavePoolFactory, nodeUnknownFactory,
-        slavePools -> lbFactory.apply(defaultReadMode, slavePools));
+        maxRedirections, maxRetries, refreshSlotCacheEvery, retryDelay,
+        retryUnhandledRetryableExceptions, replayPipelinedAsks, durationBetweenCacheRefresh,
+        maxAwaitCacheRefresh, durationBetweenBackgroundRefresh, warmUpTimeout, masterPools,
+        slavePools, unknownNodes,
+        lbPools -> lbFactory.apply(defaultReadMode, lbPools, retryDelay), hedgeDelay, listener,
+        latencyRecorder);
+  }
+
+  private static ClientPool.Builder createDefaultPoolBuilder() {
+    return ClientPool.startBuilding().withMaxIdle(8).withMinIdle(2).withMaxTotal(8)
+        .withDurationBetweenEvictionRuns(Duration.ofSeconds(15)).withTestWhileIdle(true)
+        .withNumTestsPerEvictionRun(6).withBlockWhenExhausted(true);
+  }
+
+  private static SerializableFunction<Node, ClientPool<RedisClient>> createMasterPoolFactory(
+      final ClientPool.Builder poolBuilder, final RedisClientFactory.Builder redisFactory) {
+    return node -> poolBuilder.create(redisFactory.createPooled(node), DEFAULT_EVICTION_STRATEGY);
+  }
+
+  private static SerializableFunction<Node, ClientPool<RedisClient>> createSlavePoolFactory(
+      final ClientPool.Builder poolBuilder, final RedisClientFactory.Builder redisFactory) {
+    return node -> poolBuilder.create(redisFactory.createPooled(node, true),
+        DEFAULT_EVICTION_STRATEGY);
+  }
+
+  private static SerializableFunction<Node, ClientPool<RedisClient>>
+      createMultiplexedMasterPoolFactory(final ClientPool.Builder poolBuilder,
+          final RedisClientFactory.Builder redisFactory) {
+    return node -> poolBuilder.createMultiplexed(redisFactory::createAsync,
+        redisFactory.createPooled(node), DEFAULT_EVICTION_STRATEGY);
+  }
+
+  private static SerializableFunction<Node, ClientPool<RedisClient>>
+      createMultiplexedSlavePoolFactory(final ClientPool.Builder poolBuilder,
+          final RedisClientFactory.Builder redisFactory) {
+    return node -> poolBuilder.createMultiplexed(n -> redisFactory.createAsync(n, true),
+        redisFactory.createPooled(node, true), DEFAULT_EVICTION_STRATEGY);
   }
 
   public ReadMode getReadMode() {
@@ -230,10 +332,36 @@ public final class ClusterExecutorBuilder implements Serializable {
     return this;
   }
 
+  public boolean isReplayPipelinedAsks() {
+    return replayPipelinedAsks;
+  }
+
+  /**
+   * @param replayPipelinedAsks If true, pipelines issued through the executor replay the commands
+   *        redirected with ASK against the importing node, see
+   *        {@link com.fabahaba.jedipus.client.RedisPipeline#replayAsks}.
+   * @return this builder.
+   */
+  public ClusterExecutorBuilder withReplayPipelinedAsks(final boolean replayPipelinedAsks) {
+    this.replayPipelinedAsks = replayPipelinedAsks;
+    return this;
+  }
+
+  /**
+   * @return The ignored value set with {@link #withOptimisticReads(boolean)}.
+   * @deprecated Slot routes are published as immutable snapshots, reads never lock.
+   */
+  @Deprecated
   public boolean isOptimisticReads() {
     return optimisticReads;
   }
 
+  /**
+   * @param optimisticReads ignored.
+   * @return this builder.
+   * @deprecated Slot routes are published as immutable snapshots, reads never lock.
+   */
+  @Deprecated
   public ClusterExecutorBuilder withOptimisticReads(final boolean optimisticReads) {
     this.optimisticReads = optimisticReads;
     return this;
@@ -258,6 +386,39 @@ public final class ClusterExecutorBuilder implements Serializable {
     return this;
   }
 
+  public Duration getDurationBetweenBackgroundRefresh() {
+    return durationBetweenBackgroundRefresh;
+  }
+
+  /**
+   * @param durationBetweenBackgroundRefresh The delay between polls of CLUSTER SLOTS from one
+   *        node by a background thread, which applies any changed slot ranges. Refreshes
+   *        triggered by connection failures are also handed off to that thread instead of
+   *        blocking the failing request. Null or zero disables background refreshes.
+   * @return this builder.
+   */
+  public ClusterExecutorBuilder withDurationBetweenBackgroundRefresh(
+      final Duration durationBetweenBackgroundRefresh) {
+    this.durationBetweenBackgroundRefresh = durationBetweenBackgroundRefresh;
+    return this;
+  }
+
+  public Duration getWarmUpTimeout() {
+    return warmUpTimeout;
+  }
+
+  /**
+   * @param warmUpTimeout If not null, {@link #create()} opens the min idle clients of every
+   *        discovered pool concurrently and waits up to this long for them before returning.
+   *        Pools created later for new nodes are warmed up in the background. Pools that do not
+   *        warm up in time create their clients lazily.
+   * @return this builder.
+   */
+  public ClusterExecutorBuilder withWarmUpTimeout(final Duration warmUpTimeout) {
+    this.warmUpTimeout = warmUpTimeout;
+    return this;
+  }
+
   public SerializableFunction<Node, ClientPool<RedisClient>> getMasterPoolFactory() {
     return masterPoolFactory;
   }
@@ -278,6 +439,16 @@ public final class ClusterExecutorBuilder implements Serializable {
     return this;
   }
 
+  // Concurrent callers share one connection per node; stateful calls such as pipelines,
+  // transactions, ASKING, blocking commands and pub/sub fall back to a dedicated pooled client.
+  public ClusterExecutorBuilder withMultiplexedPools(final boolean multiplexed) {
+    this.masterPoolFactory =
+        multiplexed ? MULTIPLEXED_MASTER_POOL_FACTORY : DEFAULT_MASTER_POOL_FACTORY;
+    this.slavePoolFactory =
+        multiplexed ? MULTIPLEXED_SLAVE_POOL_FACTORY : DEFAULT_SLAVE_POOL_FACTORY;
+    return this;
+  }
+
   public SerializableFunction<Node, RedisClient> getNodeUnknownFactory() {
     return nodeUnknownFactory;
   }
@@ -297,6 +468,69 @@ public final class ClusterExecutorBuilder implements Serializable {
     return this;
   }
 
+  public JedipusMetrics getMetrics() {
+    return metrics;
+  }
+
+  // Reports command latencies, redirects and slot cache refreshes for the created executor, as
+  // well as pool and node failure events for the default pool factories and retry delay.
+  public ClusterExecutorBuilder withMetrics(final JedipusMetrics metrics) {
+    this.metrics = metrics;
+    return this;
+  }
+
+  public boolean isLatencyRecording() {
+    return latencyRecording;
+  }
+
+  // Records per node and per command reply latency histograms, available from
+  // RedisClusterExecutor#getLatencySnapshots, for the default pool and unknown node factories.
+  public ClusterExecutorBuilder withLatencyRecording(final boolean latencyRecording) {
+    this.latencyRecording = latencyRecording;
+    return this;
+  }
+
+  public double getHedgePercentile() {
+    return hedgePercentile;
+  }
+
+  /**
+   * @param hedgePercentile A value between 0 and 100. Reads applied with
+   *        {@link RedisClusterExecutor#applyHedged} send a second copy once they have taken longer
+   *        than this percentile of recent read latencies.
+   * @return this builder
+   */
+  public ClusterExecutorBuilder withHedgePercentile(final double hedgePercentile) {
+    this.hedgePercentile = hedgePercentile;
+    return this;
+  }
+
+  public Duration getMinHedgeDelay() {
+    return minHedgeDelay;
+  }
+
+  public ClusterExecutorBuilder withMinHedgeDelay(final Duration minHedgeDelay) {
+    this.minHedgeDelay = minHedgeDelay;
+    return this;
+  }
+
+  public int getNumPoolShards() {
+    return numPoolShards;
+  }
+
+  /**
+   * @param numPoolShards If greater than one, the default pool factories split the clients of
+   *        each node across this many pools selected by the calling thread, so that many threads
+   *        can borrow clients for the same node without contending on one pool. Routing and slot
+   *        discovery remain shared. Custom pool factories can do the same with
+   *        {@link ClientPool.Builder#withNumShards}.
+   * @return this builder
+   */
+  public ClusterExecutorBuilder withNumPoolShards(final int numPoolShards) {
+    this.numPoolShards = numPoolShards;
+    return this;
+  }
+
   @Override
   public String toString() {
     return new StringBuilder("ClusterExecutorBuilder [defaultReadMode=").append(defaultReadMode)
@@ -305,8 +539,16 @@ public final class ClusterExecutorBuilder implements Serializable {
         .append(", partitionedStrategyConfig=").append(partitionedStrategyConfig)
         .append(", refreshSlotCacheEvery=").append(refreshSlotCacheEvery)
         .append(", retryUnhandledRetryableExceptions=").append(retryUnhandledRetryableExceptions)
+        .append(", replayPipelinedAsks=").append(replayPipelinedAsks)
         .append(", optimisticReads=").append(optimisticReads)
         .append(", durationBetweenCacheRefresh=").append(durationBetweenCacheRefresh)
-        .append(", maxAwaitCacheRefresh=").append(maxAwaitCacheRefresh).append("]").toString();
+        .append(", maxAwaitCacheRefresh=").append(maxAwaitCacheRefresh)
+        .append(", durationBetweenBackgroundRefresh=").append(durationBetweenBackgroundRefresh)
+        .append(", warmUpTimeout=").append(warmUpTimeout)
+        .append(", hedgePercentile=").append(hedgePercentile)
+        .append(", minHedgeDelay=").append(minHedgeDelay)
+        .append(", numPoolShards=").append(numPoolShards)
+        .append(", metrics=").append(metrics).append(", latencyRecording=")
+        .append(latencyRecording).append("]").toString();
   }
 }
@@ -8,10 +8,17 @@ final class ClusterNode implements Node {
 
   private final HostPort hostPort;
   private String id;
+  // Null if the locality of this node is unknown.
+  private final String zone;
 
   ClusterNode(final HostPort hostPort, final String id) {
+    this(hostPort, id, null);
+  }
+
+  ClusterNode(final HostPort hostPort, final String id, final String zone) {
     this.hostPort = hostPort;
     this.id = id;
+    this.zone = zone;
   }
 
   @Override
@@ -40,6 +47,16 @@ final class ClusterNode implements Node {
     return this;
   }
 
+  @Override
+  public String getZone() {
+    return zone;
+  }
+
+  @Override
+  public Node withZone(final String zone) {
+    return new ClusterNode(hostPort, id, zone);
+  }
+
   @Override
   public boolean equals(final Object other) {
     if (this == other) {
@@ -65,6 +82,7 @@ final class ClusterNode implements Node {
 
   @Override
   public String toString() {
-    return id == null ? hostPort.toString() : id + "@" + hostPort;
+    final String node = id == null ? hostPort.toString() : id + "@" + hostPort;
+    return zone == null ? node : node + "/" + zone;
   }
 }
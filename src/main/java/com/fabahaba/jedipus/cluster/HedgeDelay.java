@@ -0,0 +1,95 @@
+package com.fabahaba.jedipus.cluster;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.fabahaba.jedipus.metrics.LatencyHistogram;
+import com.fabahaba.jedipus.metrics.LatencySnapshot;
+
+/**
+ * Derives the delay before a hedged read is sent from a percentile of recent replica read
+ * latencies. Latencies are only recorded once a hedged read has been requested, so executors that
+ * never hedge pay nothing for it. The delay is recomputed on the hedging executor after every
+ * {@value #RECOMPUTE_EVERY} new recordings, rather than on a request thread, and the histogram is
+ * cleared every {@value #WINDOW} recordings so that it follows the current latency of the
+ * cluster. Until the first recomputation a conservative delay of 10ms is used, so that a cold
+ * executor does not hedge every read.
+ */
+final class HedgeDelay {
+
+  private static final int RECOMPUTE_EVERY = 64;
+  private static final int WINDOW = 64 * RECOMPUTE_EVERY;
+  private static final long INITIAL_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+  private final double percentile;
+  private final long minDelayNanos;
+  private final LatencyHistogram histogram;
+  private final AtomicBoolean recomputing;
+  private volatile boolean enabled = false;
+  private volatile long nextRecomputeCount = RECOMPUTE_EVERY;
+  private volatile long delayNanos;
+
+  HedgeDelay(final double percentile, final long minDelayNanos) {
+    this.percentile = percentile;
+    this.minDelayNanos = minDelayNanos;
+    this.histogram = new LatencyHistogram();
+    this.recomputing = new AtomicBoolean(false);
+    this.delayNanos = Math.max(minDelayNanos, INITIAL_DELAY_NANOS);
+  }
+
+  boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Enables recording and hands off a due recomputation of the delay to the executor.
+   *
+   * @param executor The executor hedged reads are run on.
+   * @return The current delay.
+   */
+  long getDelayNanos(final Executor executor) {
+    if (!enabled) {
+      enabled = true;
+    }
+    if (histogram.getCount() >= nextRecomputeCount && recomputing.compareAndSet(false, true)) {
+      try {
+        executor.execute(this::recompute);
+      } catch (final RejectedExecutionException e) {
+        recomputing.set(false);
+      }
+    }
+    return delayNanos;
+  }
+
+  long getDelayNanos() {
+    return delayNanos;
+  }
+
+  void record(final long latencyNanos) {
+    histogram.record(latencyNanos);
+  }
+
+  private void recompute() {
+    try {
+      final LatencySnapshot snapshot = histogram.snapshot();
+      delayNanos = Math.max(minDelayNanos, snapshot.getValueAtPercentile(percentile));
+      if (snapshot.getCount() >= WINDOW) {
+        histogram.reset();
+        nextRecomputeCount = RECOMPUTE_EVERY;
+      } else {
+        nextRecomputeCount = snapshot.getCount() + RECOMPUTE_EVERY;
+      }
+    } finally {
+      recomputing.set(false);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder("HedgeDelay [percentile=").append(percentile)
+        .append(", minDelayNanos=").append(minDelayNanos).append(", delayNanos=")
+        .append(delayNanos).append(", enabled=").append(enabled).append("]").toString();
+  }
+}
@@ -1,29 +1,59 @@
 package com.fabahaba.jedipus.cluster;
 
 import com.fabahaba.jedipus.client.NodeMapper;
+import com.fabahaba.jedipus.client.FutureReply;
 import com.fabahaba.jedipus.client.RedisClient;
+import com.fabahaba.jedipus.client.RedisPipeline;
+import com.fabahaba.jedipus.cluster.PeakEwmaPools.MeasuredPool;
+import com.fabahaba.jedipus.cluster.ScanSpliterator.ScanCursor;
+import com.fabahaba.jedipus.cmds.Cmd;
+import com.fabahaba.jedipus.cmds.Cmds;
+import com.fabahaba.jedipus.cmds.HCmds;
+import com.fabahaba.jedipus.cmds.SCmds;
+import com.fabahaba.jedipus.cmds.ZCmds;
 import com.fabahaba.jedipus.concurrent.ElementRetryDelay;
 import com.fabahaba.jedipus.concurrent.LoadBalancedPools;
 import com.fabahaba.jedipus.exceptions.AskNodeException;
 import com.fabahaba.jedipus.exceptions.MaxRedirectsExceededException;
+import com.fabahaba.jedipus.exceptions.RedisCircuitOpenException;
 import com.fabahaba.jedipus.exceptions.RedisConnectionException;
 import com.fabahaba.jedipus.exceptions.RedisRetryableUnhandledException;
+import com.fabahaba.jedipus.exceptions.RedisUnhandledException;
 import com.fabahaba.jedipus.exceptions.SlotMovedException;
 import com.fabahaba.jedipus.exceptions.SlotRedirectException;
+import com.fabahaba.jedipus.metrics.JedipusMetrics;
+import com.fabahaba.jedipus.metrics.LatencyRecorder;
+import com.fabahaba.jedipus.metrics.LatencySnapshot;
 import com.fabahaba.jedipus.pool.ClientPool;
 import com.fabahaba.jedipus.pool.RedisClientPool;
 
 import java.time.Duration;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 final class Jedipus implements RedisClusterExecutor {
 
@@ -32,28 +62,39 @@ final class Jedipus implements RedisClusterExecutor {
   private final int refreshSlotCacheEvery;
   private final boolean retryUnhandledRetryableExceptions;
   private final RedisClusterConnHandler connHandler;
+  private final JedipusMetrics metrics;
+  private final LatencyRecorder latencyRecorder;
+  private final HedgeDelay hedgeDelay;
+  // Null leaves ASK redirects within pipelines to the caller.
+  private final BiConsumer<Node, Consumer<RedisClient>> askClients;
 
   Jedipus(final ReadMode defaultReadMode, final Supplier<Collection<Node>> discoveryNodes,
       final PartitionedStrategyConfig partitionedStrategyConfig, final NodeMapper nodeMapper,
       final int maxRedirections, final int maxRetries, final int refreshSlotCacheEvery,
       final ElementRetryDelay<Node> clusterNodeRetryDelay,
-      final boolean retryUnhandledRetryableExceptions, final boolean optimisticReads,
+      final boolean retryUnhandledRetryableExceptions, final boolean replayPipelinedAsks,
       final Duration durationBetweenCacheRefresh, final Duration maxAwaitCacheRefresh,
+      final Duration durationBetweenBackgroundRefresh, final Duration warmUpTimeout,
       final Function<Node, ClientPool<RedisClient>> masterPoolFactory,
       final Function<Node, ClientPool<RedisClient>> slavePoolFactory,
       final Function<Node, RedisClient> nodeUnknownFactory,
       final Function<ClientPool<RedisClient>[], LoadBalancedPools<RedisClient,
-          ReadMode>> lbFactory) {
+          ReadMode>> lbFactory, final HedgeDelay hedgeDelay, final JedipusMetrics metrics,
+      final LatencyRecorder latencyRecorder) {
 
     this.connHandler =
-        new RedisClusterConnHandler(defaultReadMode, optimisticReads, durationBetweenCacheRefresh,
-            maxAwaitCacheRefresh, discoveryNodes, partitionedStrategyConfig, nodeMapper,
-            masterPoolFactory, slavePoolFactory, nodeUnknownFactory, lbFactory,
-            clusterNodeRetryDelay);
+        new RedisClusterConnHandler(defaultReadMode, durationBetweenCacheRefresh,
+            maxAwaitCacheRefresh, durationBetweenBackgroundRefresh, warmUpTimeout, discoveryNodes,
+            partitionedStrategyConfig, nodeMapper, masterPoolFactory, slavePoolFactory,
+            nodeUnknownFactory, lbFactory, clusterNodeRetryDelay, metrics);
+    this.metrics = metrics;
+    this.latencyRecorder = latencyRecorder;
+    this.hedgeDelay = hedgeDelay;
     this.maxRedirections = maxRedirections;
     this.maxRetries = maxRetries;
     this.refreshSlotCacheEvery = refreshSlotCacheEvery;
     this.retryUnhandledRetryableExceptions = retryUnhandledRetryableExceptions;
+    this.askClients = replayPipelinedAsks ? this::acceptAsk : null;
   }
 
   @Override
@@ -71,6 +112,86 @@ final class Jedipus implements RedisClusterExecutor {
     return maxRetries;
   }
 
+  private long applyPrim(final ClientPool<RedisClient> pool, final RedisClient client,
+      final ToLongFunction<RedisClient> clientConsumer) {
+    if (metrics == null && !(pool instanceof MeasuredPool)) {
+      return clientConsumer.applyAsLong(client);
+    }
+
+    final long start = System.nanoTime();
+    boolean success = false;
+    try {
+      final long result = clientConsumer.applyAsLong(client);
+      success = true;
+      return result;
+    } finally {
+      onCommand(pool, client, System.nanoTime() - start, success);
+    }
+  }
+
+  private <R> R apply(final ClientPool<RedisClient> pool, final RedisClient client,
+      final Function<RedisClient, R> clientConsumer) {
+    if (metrics == null && !(pool instanceof MeasuredPool)) {
+      return clientConsumer.apply(client);
+    }
+
+    final long start = System.nanoTime();
+    boolean success = false;
+    try {
+      final R result = clientConsumer.apply(client);
+      success = true;
+      return result;
+    } finally {
+      onCommand(pool, client, System.nanoTime() - start, success);
+    }
+  }
+
+  // Failed commands are measured as well, a timing out replica should shed load.
+  private void onCommand(final ClientPool<RedisClient> pool, final RedisClient client,
+      final long latencyNanos, final boolean success) {
+    if (pool instanceof MeasuredPool) {
+      ((MeasuredPool<RedisClient>) pool).observe(latencyNanos);
+    }
+    if (metrics != null) {
+      metrics.onCommand(client.getNode(), latencyNanos, success);
+    }
+  }
+
+  // Fails fast rather than queueing behind a node whose circuit is open.
+  private RedisClient borrowClient(final ClientPool<RedisClient> pool) {
+    final ElementRetryDelay<Node> retryDelay = connHandler.getClusterNodeRetryDelay();
+    final Node node = pool.getNode();
+    if (!retryDelay.tryAttempt(node)) {
+      throw new RedisCircuitOpenException(node, retryDelay.getNextAttemptMillis(node));
+    }
+    return RedisClientPool.borrowClient(pool);
+  }
+
+  /**
+   * Nothing was sent to a node whose circuit is open, so its failure is not marked again. Load
+   * balanced read modes move on to the next pool serving the slot, otherwise a slot cache refresh
+   * may route the slot to a new master.
+   */
+  private static long retryCircuitOpen(final RedisCircuitOpenException circuitOpenEx,
+      final long maxRetries, final long retries) {
+    if (retries >= maxRetries) {
+      throw circuitOpenEx;
+    }
+    return retries + 1;
+  }
+
+  private void onAsk(final AskNodeException askEx) {
+    if (metrics != null) {
+      metrics.onAsk(askEx.getNode(), askEx.getTargetNode(), askEx.getSlot());
+    }
+  }
+
+  private void onMoved(final SlotMovedException moveEx) {
+    if (metrics != null) {
+      metrics.onMoved(moveEx.getNode(), moveEx.getTargetNode(), moveEx.getSlot());
+    }
+  }
+
   @Override
   public long applyPrim(final ReadMode readMode, final int slot,
       final ToLongFunction<RedisClient> clientConsumer, final int maxRetries) {
@@ -85,8 +206,8 @@ final class Jedipus implements RedisClusterExecutor {
     RedisClient client = null;
     try {
       pool = connHandler.getSlotPool(readMode, slot);
-      client = RedisClientPool.borrowClient(pool);
-      final long result = clientConsumer.applyAsLong(client);
+      client = borrowClient(pool);
+      final long result = applyPrim(pool, client, clientConsumer);
       connHandler.getClusterNodeRetryDelay().markSuccess(client.getNode());
       return result;
     } catch (final RedisConnectionException rcex) {
@@ -98,13 +219,17 @@ final class Jedipus implements RedisClusterExecutor {
       if (failedNode != null && refreshSlotCacheEvery > 0) {
         retries = connHandler.getClusterNodeRetryDelay().getNumFailures(failedNode);
         if (retries > 0 && retries % refreshSlotCacheEvery == 0) {
-          connHandler.refreshSlotCache();
+          connHandler.requestSlotCacheRefresh();
         }
       }
 
       retries =
           connHandler.getClusterNodeRetryDelay().markFailure(failedNode, maxRetries, rcex, retries);
+    } catch (final RedisCircuitOpenException circuitOpenEx) {
+      retries = retryCircuitOpen(circuitOpenEx, maxRetries, retries);
     } catch (final AskNodeException askEx) {
+      onAsk(askEx);
+
       if (maxRedirections == 0) {
         throw new MaxRedirectsExceededException(askEx);
       }
@@ -117,6 +242,8 @@ final class Jedipus implements RedisClusterExecutor {
 
       previousRedirectEx = askEx;
     } catch (final SlotMovedException moveEx) {
+      onMoved(moveEx);
+
       if (++redirections > maxRedirections) {
         throw new MaxRedirectsExceededException(moveEx);
       }
@@ -144,18 +271,18 @@ final class Jedipus implements RedisClusterExecutor {
       try {
         if (previousRedirectEx == null || !(previousRedirectEx instanceof AskNodeException)) {
           pool = connHandler.getSlotPool(readMode, slot);
-          client = RedisClientPool.borrowClient(pool);
+          client = borrowClient(pool);
 
-          final long result = clientConsumer.applyAsLong(client);
+          final long result = applyPrim(pool, client, clientConsumer);
           connHandler.getClusterNodeRetryDelay().markSuccess(client.getNode());
           return result;
         }
 
         final Node askNode = previousRedirectEx.getTargetNode();
         pool = connHandler.getAskPool(askNode);
-        client = RedisClientPool.borrowClient(pool);
+        client = borrowClient(pool);
         client.asking();
-        final long result = clientConsumer.applyAsLong(client);
+        final long result = applyPrim(pool, client, clientConsumer);
         connHandler.getClusterNodeRetryDelay().markSuccess(client.getNode());
         return result;
       } catch (final RedisConnectionException rce) {
@@ -166,14 +293,22 @@ final class Jedipus implements RedisClusterExecutor {
 
         if (failedNode != null && refreshSlotCacheEvery > 0) {
           if (retries > 0 && retries % refreshSlotCacheEvery == 0) {
-            connHandler.refreshSlotCache();
+            connHandler.requestSlotCacheRefresh();
           }
         }
 
         retries = connHandler.getClusterNodeRetryDelay()
             .markFailure(failedNode, maxRetries, rce, retries);
         continue;
+      } catch (final RedisCircuitOpenException circuitOpenEx) {
+        if (refreshSlotCacheEvery > 0 && retries > 0 && retries % refreshSlotCacheEvery == 0) {
+          connHandler.requestSlotCacheRefresh();
+        }
+
+        retries = retryCircuitOpen(circuitOpenEx, maxRetries, retries);
+        continue;
       } catch (final AskNodeException askEx) {
+        onAsk(askEx);
         askEx.setPrevious(previousRedirectEx);
 
         try {
@@ -185,6 +320,7 @@ final class Jedipus implements RedisClusterExecutor {
         previousRedirectEx = askEx;
         continue;
       } catch (final SlotMovedException moveEx) {
+        onMoved(moveEx);
         moveEx.setPrevious(previousRedirectEx);
 
         if (++redirections > maxRedirections) {
@@ -226,9 +362,15 @@ final class Jedipus implements RedisClusterExecutor {
     ClientPool<RedisClient> pool = null;
     RedisClient client = null;
     try {
+      // Once hedging is used, replica reads teach the hedge delay whether or not they are hedged.
+      final boolean teachHedge = readMode != ReadMode.MASTER && hedgeDelay.isEnabled();
+      final long start = teachHedge ? System.nanoTime() : 0;
       pool = connHandler.getSlotPool(readMode, slot);
-      client = RedisClientPool.borrowClient(pool);
-      final R result = clientConsumer.apply(client);
+      client = borrowClient(pool);
+      final R result = apply(pool, client, clientConsumer);
+      if (teachHedge) {
+        hedgeDelay.record(System.nanoTime() - start);
+      }
       connHandler.getClusterNodeRetryDelay().markSuccess(client.getNode());
       return result;
     } catch (final RedisConnectionException rcex) {
@@ -240,13 +382,17 @@ final class Jedipus implements RedisClusterExecutor {
       if (failedNode != null && refreshSlotCacheEvery > 0) {
         retries = connHandler.getClusterNodeRetryDelay().getNumFailures(failedNode);
         if (retries > 0 && retries % refreshSlotCacheEvery == 0) {
-          connHandler.refreshSlotCache();
+          connHandler.requestSlotCacheRefresh();
         }
       }
 
       retries =
           connHandler.getClusterNodeRetryDelay().markFailure(failedNode, maxRetries, rcex, retries);
+    } catch (final RedisCircuitOpenException circuitOpenEx) {
+      retries = retryCircuitOpen(circuitOpenEx, maxRetries, retries);
     } catch (final AskNodeException askEx) {
+      onAsk(askEx);
+
       if (maxRedirections == 0) {
         throw new MaxRedirectsExceededException(askEx);
       }
@@ -259,6 +405,8 @@ final class Jedipus implements RedisClusterExecutor {
 
       previousRedirectEx = askEx;
     } catch (final SlotMovedException moveEx) {
+      onMoved(moveEx);
+
       if (++redirections > maxRedirections) {
         throw new MaxRedirectsExceededException(moveEx);
       }
@@ -286,18 +434,18 @@ final class Jedipus implements RedisClusterExecutor {
       try {
         if (previousRedirectEx == null || !(previousRedirectEx instanceof AskNodeException)) {
           pool = connHandler.getSlotPool(readMode, slot);
-          client = RedisClientPool.borrowClient(pool);
+          client = borrowClient(pool);
 
-          final R result = clientConsumer.apply(client);
+          final R result = apply(pool, client, clientConsumer);
           connHandler.getClusterNodeRetryDelay().markSuccess(client.getNode());
           return result;
         }
 
         final Node askNode = previousRedirectEx.getTargetNode();
         pool = connHandler.getAskPool(askNode);
-        client = RedisClientPool.borrowClient(pool);
+        client = borrowClient(pool);
         client.asking();
-        final R result = clientConsumer.apply(client);
+        final R result = apply(pool, client, clientConsumer);
         connHandler.getClusterNodeRetryDelay().markSuccess(client.getNode());
         return result;
       } catch (final RedisConnectionException rce) {
@@ -308,14 +456,22 @@ final class Jedipus implements RedisClusterExecutor {
 
         if (failedNode != null && refreshSlotCacheEvery > 0) {
           if (retries > 0 && retries % refreshSlotCacheEvery == 0) {
-            connHandler.refreshSlotCache();
+            connHandler.requestSlotCacheRefresh();
           }
         }
 
         retries = connHandler.getClusterNodeRetryDelay()
             .markFailure(failedNode, maxRetries, rce, retries);
         continue;
+      } catch (final RedisCircuitOpenException circuitOpenEx) {
+        if (refreshSlotCacheEvery > 0 && retries > 0 && retries % refreshSlotCacheEvery == 0) {
+          connHandler.requestSlotCacheRefresh();
+        }
+
+        retries = retryCircuitOpen(circuitOpenEx, maxRetries, retries);
+        continue;
       } catch (final AskNodeException askEx) {
+        onAsk(askEx);
         askEx.setPrevious(previousRedirectEx);
         try {
           RedisClientPool.returnClient(pool, client);
@@ -326,6 +482,7 @@ final class Jedipus implements RedisClusterExecutor {
         previousRedirectEx = askEx;
         continue;
       } catch (final SlotMovedException moveEx) {
+        onMoved(moveEx);
         moveEx.setPrevious(previousRedirectEx);
 
         if (++redirections > maxRedirections) {
@@ -370,7 +527,7 @@ final class Jedipus implements RedisClusterExecutor {
 
       RedisClient client = null;
       try {
-        client = RedisClientPool.borrowClient(pool);
+        client = borrowClient(pool);
         final R result = clientConsumer.apply(client);
         connHandler.getClusterNodeRetryDelay().markSuccess(client.getNode());
         return result;
@@ -457,6 +614,195 @@ final class Jedipus implements RedisClusterExecutor {
     return futures;
   }
 
+  private void acceptAsk(final Node askNode, final Consumer<RedisClient> askConsumer) {
+
+    for (long retries = 0;;) {
+      ClientPool<RedisClient> pool = null;
+      RedisClient client = null;
+      try {
+        pool = connHandler.getAskPool(askNode);
+        client = borrowClient(pool);
+        askConsumer.accept(client);
+        connHandler.getClusterNodeRetryDelay().markSuccess(client.getNode());
+        return;
+      } catch (final RedisConnectionException rce) {
+        RedisClientPool.returnClient(pool, client);
+        final Node failedNode = client == null ? askNode : client.getNode();
+        client = null;
+        retries = connHandler.getClusterNodeRetryDelay()
+            .markFailure(failedNode, maxRetries, rce, retries);
+      } catch (final RedisRetryableUnhandledException retryableEx) {
+        if (!retryUnhandledRetryableExceptions) {
+          throw retryableEx;
+        }
+
+        RedisClientPool.returnClient(pool, client);
+        final Node failedNode = client == null ? askNode : client.getNode();
+        client = null;
+        retries = connHandler.getClusterNodeRetryDelay()
+            .markFailure(failedNode, maxRetries, retryableEx, retries);
+      } finally {
+        RedisClientPool.returnClient(pool, client);
+        // Ask pools for nodes without a pool of their own hold a single unpooled client.
+        if (pool instanceof OneLifePool) {
+          pool.close();
+        }
+      }
+    }
+  }
+
+  private RedisPipeline pipeline(final RedisClient client) {
+    final RedisPipeline pipeline = client.pipeline();
+    return askClients == null ? pipeline : pipeline.replayAsks(askClients);
+  }
+
+  @Override
+  public <R> R applyPipeline(final ReadMode readMode, final int slot,
+      final Function<RedisPipeline, R> pipelineConsumer, final int maxRetries) {
+    return apply(readMode, slot, client -> {
+      try (final RedisPipeline pipeline = pipeline(client)) {
+        return pipelineConsumer.apply(pipeline);
+      }
+    }, maxRetries);
+  }
+
+  @Override
+  public void acceptPipeline(final ReadMode readMode, final int slot,
+      final Consumer<RedisPipeline> pipelineConsumer, final int maxRetries) {
+    apply(readMode, slot, client -> {
+      try (final RedisPipeline pipeline = pipeline(client)) {
+        pipelineConsumer.accept(pipeline);
+        return null;
+      }
+    }, maxRetries);
+  }
+
+  @Override
+  public <R> R applyPipelinedTransaction(final ReadMode readMode, final int slot,
+      final Function<RedisPipeline, R> pipelineConsumer, final int maxRetries) {
+    return apply(readMode, slot, client -> {
+      try (final RedisPipeline pipeline = pipeline(client)) {
+        pipeline.multi();
+        return pipelineConsumer.apply(pipeline);
+      }
+    }, maxRetries);
+  }
+
+  @Override
+  public void acceptPipelinedTransaction(final ReadMode readMode, final int slot,
+      final Consumer<RedisPipeline> pipelineConsumer, final int maxRetries) {
+    apply(readMode, slot, client -> {
+      try (final RedisPipeline pipeline = pipeline(client)) {
+        pipeline.multi();
+        pipelineConsumer.accept(pipeline);
+      }
+      return null;
+    }, maxRetries);
+  }
+
+  @Override
+  public <R> Map<Node, R> broadcastPipelinedMasters(
+      final Function<RedisPipeline, FutureReply<R>> pipelineCmds, final int maxRetries) {
+    return broadcastPipelined(connHandler.getMasterPools(), pipelineCmds, maxRetries);
+  }
+
+  @Override
+  public <R> Map<Node, R> broadcastPipelined(
+      final Function<RedisPipeline, FutureReply<R>> pipelineCmds, final int maxRetries) {
+    return broadcastPipelined(connHandler.getAllPools(), pipelineCmds, maxRetries);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <R> Map<Node, R> broadcastPipelined(final Map<Node, ClientPool<RedisClient>> pools,
+      final Function<RedisPipeline, FutureReply<R>> pipelineCmds, final int maxRetries) {
+
+    final int numPools = pools.size();
+    final Node[] nodes = new Node[numPools];
+    final ClientPool<RedisClient>[] nodePools = new ClientPool[numPools];
+    int index = 0;
+    for (final Map.Entry<Node, ClientPool<RedisClient>> entry : pools.entrySet()) {
+      nodes[index] = entry.getKey();
+      nodePools[index++] = entry.getValue();
+    }
+
+    final RedisClient[] clients = new RedisClient[numPools];
+    final RedisPipeline[] pipelines = new RedisPipeline[numPools];
+    final FutureReply<R>[] futureReplies = new FutureReply[numPools];
+    // Nodes that could not be borrowed from have not been written to and are safe to retry.
+    final boolean[] unwritten = new boolean[numPools];
+    final Map<Node, R> replies = new HashMap<>(numPools);
+    RuntimeException writtenFailure = null;
+
+    try {
+      for (int i = 0; i < numPools; i++) {
+        try {
+          clients[i] = borrowClient(nodePools[i]);
+        } catch (final RedisConnectionException | RedisCircuitOpenException rce) {
+          unwritten[i] = true;
+          continue;
+        }
+
+        try {
+          pipelines[i] = clients[i].pipeline();
+          futureReplies[i] = pipelineCmds.apply(pipelines[i]);
+          pipelines[i].flush();
+        } catch (final RedisConnectionException rce) {
+          // Part of the commands may have been written before the failure.
+          RedisClientPool.returnClient(nodePools[i], clients[i]);
+          clients[i] = null;
+          if (writtenFailure == null) {
+            writtenFailure = rce;
+          }
+        }
+      }
+
+      for (int i = 0; i < numPools; i++) {
+        if (clients[i] == null) {
+          continue;
+        }
+
+        try {
+          pipelines[i].sync(true);
+          replies.put(nodes[i], futureReplies[i] == null ? null : futureReplies[i].get());
+          connHandler.getClusterNodeRetryDelay().markSuccess(clients[i].getNode());
+        } catch (final RedisUnhandledException ex) {
+          // Error replies leave the connection drained, so the remaining nodes are still read.
+          if (writtenFailure == null) {
+            writtenFailure = ex;
+          }
+        } finally {
+          RedisClientPool.returnClient(nodePools[i], clients[i]);
+          clients[i] = null;
+        }
+      }
+    } finally {
+      // Replies are still in flight for any client that was not synced.
+      for (int i = 0; i < numPools; i++) {
+        if (clients[i] != null) {
+          nodePools[i].invalidateClient(clients[i]);
+        }
+      }
+    }
+
+    if (writtenFailure != null) {
+      throw writtenFailure;
+    }
+
+    for (int i = 0; i < numPools; i++) {
+      if (unwritten[i]) {
+        replies.put(nodes[i], applyPooledClient(nodePools[i], client -> {
+          try (final RedisPipeline pipeline = client.pipeline()) {
+            final FutureReply<R> futureReply = pipelineCmds.apply(pipeline);
+            pipeline.sync(true);
+            return futureReply == null ? null : futureReply.get();
+          }
+        }, maxRetries));
+      }
+    }
+
+    return replies;
+  }
+
   private <R> R applyPooledClient(final ClientPool<RedisClient> pool,
       final Function<RedisClient, R> clientConsumer, final int
       maxRetries) {
@@ -464,7 +810,7 @@ final class Jedipus implements RedisClusterExecutor {
     for (long retries = 0;;) {
       RedisClient client = null;
       try {
-        client = RedisClientPool.borrowClient(pool);
+        client = borrowClient(pool);
 
         final R result = clientConsumer.apply(client);
         connHandler.getClusterNodeRetryDelay().markSuccess(client.getNode());
@@ -491,11 +837,413 @@ final class Jedipus implements RedisClusterExecutor {
     }
   }
 
+  @Override
+  public <R> R applyHedged(final ReadMode readMode, final int slot,
+      final Function<RedisClient, R> clientConsumer, final int maxRetries,
+      final ExecutorService executor) {
+
+    if (readMode == ReadMode.MASTER) {
+      return apply(readMode, slot, clientConsumer, maxRetries);
+    }
+
+    final ClientPool<RedisClient> pool = connHandler.getSlotPool(readMode, slot);
+    final CompletableFuture<R> primary = CompletableFuture.supplyAsync(
+        () -> applyHedgeCopy(pool, readMode, slot, clientConsumer, maxRetries), executor);
+    try {
+      return primary.get(hedgeDelay.getDelayNanos(executor), TimeUnit.NANOSECONDS);
+    } catch (final TimeoutException te) {
+      // Send the hedge.
+    } catch (final ExecutionException ee) {
+      throw unwrap(ee.getCause());
+    } catch (final InterruptedException ie) {
+      // The primary copy still completes and returns its client.
+      Thread.currentThread().interrupt();
+      throw new RedisUnhandledException(null, "Interrupted while waiting for a hedged read.", ie);
+    }
+
+    final ClientPool<RedisClient> hedgePool = getHedgePool(readMode, slot, pool.getNode());
+    if (hedgePool == null) {
+      return join(primary);
+    }
+
+    if (metrics != null) {
+      metrics.onHedge(pool.getNode(), hedgePool.getNode(), slot);
+    }
+
+    final CompletableFuture<R> hedge = CompletableFuture.supplyAsync(
+        () -> applyHedgeCopy(hedgePool, readMode, slot, clientConsumer, maxRetries), executor);
+
+    final CompletableFuture<R> first = new CompletableFuture<>();
+    final AtomicInteger numFailed = new AtomicInteger(0);
+    final BiConsumer<R, Throwable> onComplete = (result, throwable) -> {
+      if (throwable == null) {
+        first.complete(result);
+      } else if (numFailed.incrementAndGet() == 2) {
+        first.completeExceptionally(throwable);
+      }
+    };
+    primary.whenComplete(onComplete);
+    hedge.whenComplete(onComplete);
+
+    try {
+      return join(first);
+    } finally {
+      // Skips a hedge that has not started yet, a running copy completes and returns its client.
+      hedge.cancel(false);
+    }
+  }
+
+  // The load balancer may keep returning the same node, e.g., with a single slave under SLAVES.
+  private ClientPool<RedisClient> getHedgePool(final ReadMode readMode, final int slot,
+      final Node node) {
+    for (int i = 0;i < 3;i++) {
+      final ClientPool<RedisClient> pool = connHandler.getSlotPool(readMode, slot);
+      if (pool != null && !node.equals(pool.getNode())) {
+        return pool;
+      }
+    }
+    return null;
+  }
+
+  private <R> R applyHedgeCopy(final ClientPool<RedisClient> pool, final ReadMode readMode,
+      final int slot, final Function<RedisClient, R> clientConsumer, final int maxRetries) {
+
+    final long start = System.nanoTime();
+    final R result;
+    try {
+      result = applyPooledClient(pool, client -> apply(pool, client, clientConsumer), maxRetries);
+    } catch (final SlotMovedException moveEx) {
+      onMoved(moveEx);
+      connHandler.refreshSlotCache(moveEx);
+      return apply(readMode, slot, clientConsumer, maxRetries);
+    } catch (final AskNodeException askEx) {
+      return apply(readMode, slot, clientConsumer, maxRetries);
+    } catch (final RedisCircuitOpenException circuitOpenEx) {
+      // Falls back to any other pool serving the slot.
+      return apply(readMode, slot, clientConsumer, maxRetries);
+    }
+    hedgeDelay.record(System.nanoTime() - start);
+    return result;
+  }
+
+  private static <R> R join(final CompletableFuture<R> future) {
+    try {
+      return future.join();
+    } catch (final CompletionException ce) {
+      throw unwrap(ce.getCause());
+    }
+  }
+
+  private static RuntimeException unwrap(final Throwable cause) {
+    if (cause instanceof RuntimeException) {
+      return (RuntimeException) cause;
+    }
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    return new CompletionException(cause);
+  }
+
+  @Override
+  public <E, R> List<R> applyBatch(final ReadMode readMode, final Collection<E> elements,
+      final Function<E, byte[]> slotKey,
+      final BiFunction<RedisPipeline, E, FutureReply<R>> elementCmd, final int maxRetries,
+      final ExecutorService executor) {
+
+    @SuppressWarnings("unchecked")
+    final E[] elementArray = (E[]) elements.toArray();
+    final Object[] replies = new Object[elementArray.length];
+
+    int[] pending = new int[elementArray.length];
+    for (int i = 0; i < pending.length; i++) {
+      pending[i] = i;
+    }
+
+    long retries = 0;
+    for (int redirections = 0; pending.length > 0;) {
+      final Collection<BatchGroup> groups =
+          groupBySlotPool(readMode, elementArray, pending, slotKey).values();
+
+      if (executor == null || groups.size() == 1) {
+        for (final BatchGroup group : groups) {
+          applyBatchGroup(group, elementArray, elementCmd, replies);
+        }
+      } else {
+        final List<CompletableFuture<Void>> futures = new ArrayList<>(groups.size());
+        for (final BatchGroup group : groups) {
+          futures.add(CompletableFuture.runAsync(
+              () -> applyBatchGroup(group, elementArray, elementCmd, replies), executor));
+        }
+        for (final CompletableFuture<Void> future : futures) {
+          try {
+            future.join();
+          } catch (final CompletionException ce) {
+            if (ce.getCause() instanceof RuntimeException) {
+              throw (RuntimeException) ce.getCause();
+            }
+            throw ce;
+          }
+        }
+      }
+
+      SlotRedirectException redirectEx = null;
+      boolean failed = false;
+      int numRetry = 0;
+      for (final BatchGroup group : groups) {
+        numRetry += group.numRetry;
+        failed |= group.failure != null;
+        if (redirectEx == null) {
+          redirectEx = group.redirectEx;
+        }
+      }
+
+      if (numRetry == 0) {
+        break;
+      }
+
+      if (failed) {
+        if (refreshSlotCacheEvery > 0 && retries > 0 && retries % refreshSlotCacheEvery == 0) {
+          connHandler.requestSlotCacheRefresh();
+        }
+
+        long nextRetries = retries;
+        for (final BatchGroup group : groups) {
+          if (group.failure instanceof RedisCircuitOpenException) {
+            nextRetries = Math.max(nextRetries, retryCircuitOpen(
+                (RedisCircuitOpenException) group.failure, maxRetries, retries));
+          } else if (group.failure != null) {
+            nextRetries = Math.max(nextRetries, connHandler.getClusterNodeRetryDelay()
+                .markFailure(group.failedNode, maxRetries, group.failure, retries));
+          }
+        }
+        retries = nextRetries;
+      }
+
+      if (redirectEx != null) {
+        if (++redirections > maxRedirections) {
+          throw new MaxRedirectsExceededException(redirectEx);
+        }
+
+        // Route each moved slot to its new node before re-grouping.
+        final BitSet movedSlots = new BitSet(CRC16.NUM_SLOTS);
+        for (final BatchGroup group : groups) {
+          if (group.moves == null) {
+            continue;
+          }
+          for (final SlotMovedException moveEx : group.moves) {
+            if (!movedSlots.get(moveEx.getSlot())) {
+              movedSlots.set(moveEx.getSlot());
+              connHandler.refreshSlotCache(moveEx);
+            }
+          }
+        }
+      }
+
+      pending = new int[numRetry];
+      numRetry = 0;
+      for (final BatchGroup group : groups) {
+        if (group.numRetry > 0) {
+          System.arraycopy(group.retry, 0, pending, numRetry, group.numRetry);
+          numRetry += group.numRetry;
+        }
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    final List<R> replyList = (List<R>) Arrays.asList(replies);
+    return replyList;
+  }
+
+  private <E> Map<ClientPool<RedisClient>, BatchGroup> groupBySlotPool(final ReadMode readMode,
+      final E[] elements, final int[] indices, final Function<E, byte[]> slotKey) {
+
+    final Map<ClientPool<RedisClient>, BatchGroup> groups = new IdentityHashMap<>();
+    for (final int index : indices) {
+      final int slot = CRC16.getSlot(slotKey.apply(elements[index]));
+      final ClientPool<RedisClient> pool = connHandler.getSlotPool(readMode, slot);
+      BatchGroup group = groups.get(pool);
+      if (group == null) {
+        group = new BatchGroup(pool);
+        groups.put(pool, group);
+      }
+      group.add(index);
+    }
+    return groups;
+  }
+
+  /**
+   * Sends the group as a single pipeline. Elements redirected with ASK are replayed against the
+   * importing node. Elements redirected with MOVED, and on connection failures those whose reply
+   * was not read, are left on the group to be re-grouped by the caller.
+   */
+  private <E, R> void applyBatchGroup(final BatchGroup group, final E[] elements,
+      final BiFunction<RedisPipeline, E, FutureReply<R>> elementCmd, final Object[] replies) {
+
+    final FutureReply<?>[] futureReplies = new FutureReply<?>[group.size];
+    RedisClient client = null;
+    try {
+      client = borrowClient(group.pool);
+
+      try (final RedisPipeline pipeline = client.pipeline().replayAsks(this::acceptAsk)) {
+        for (int i = 0; i < group.size; i++) {
+          futureReplies[i] = elementCmd.apply(pipeline, elements[group.indices[i]]);
+        }
+        try {
+          pipeline.sync();
+        } catch (final SlotMovedException moveEx) {
+          // Every reply was read, only the redirected future replies are broken.
+        }
+      }
+      connHandler.getClusterNodeRetryDelay().markSuccess(client.getNode());
+    } catch (final RedisConnectionException rce) {
+      group.failure = rce;
+      group.failedNode = rce.getNode() == null && client != null ? client.getNode() : rce.getNode();
+    } catch (final RedisCircuitOpenException circuitOpenEx) {
+      group.failure = circuitOpenEx;
+      group.failedNode = circuitOpenEx.getNode();
+    } catch (final RedisRetryableUnhandledException retryableEx) {
+      if (!retryUnhandledRetryableExceptions) {
+        throw retryableEx;
+      }
+      group.failure = retryableEx;
+      group.failedNode = retryableEx.getNode() == null && client != null ? client.getNode()
+          : retryableEx.getNode();
+    } finally {
+      RedisClientPool.returnClient(group.pool, client);
+    }
+
+    for (int i = 0; i < group.size; i++) {
+      final int index = group.indices[i];
+      final FutureReply<?> futureReply = futureReplies[i];
+      if (futureReply == null) {
+        if (group.failure != null) {
+          group.retry(index);
+        }
+        continue;
+      }
+
+      try {
+        replies[index] = futureReply.get();
+      } catch (final SlotRedirectException redirectEx) {
+        if (redirectEx instanceof SlotMovedException) {
+          final SlotMovedException moveEx = (SlotMovedException) redirectEx;
+          onMoved(moveEx);
+          group.addMove(moveEx);
+        }
+        if (group.redirectEx == null) {
+          group.redirectEx = redirectEx;
+        }
+        group.retry(index);
+      } catch (final RedisUnhandledException re) {
+        // Unread replies of a failed connection, otherwise an error reply for the element.
+        if (group.failure == null) {
+          throw re;
+        }
+        group.retry(index);
+      }
+    }
+  }
+
+  @Override
+  public Stream<byte[]> scan(final ReadMode readMode, final ExecutorService executor,
+      final int prefetch, final byte[]... scanArgs) {
+
+    final byte[][] args = scanArgs.length == 0 ? new byte[][] {ScanSpliterator.SCAN_SENTINEL}
+        : scanArgs;
+    final List<ClientPool<RedisClient>> shardPools = connHandler.getShardPools(readMode);
+    final ScanCursor[] cursors = new ScanCursor[shardPools.size()];
+    for (int i = 0; i < cursors.length; i++) {
+      cursors[i] = new ScanCursor(shardPools.get(i), -1, args.clone(), 0);
+    }
+
+    return scan(Cmds.SCAN, readMode, cursors, executor, prefetch)
+        .flatMap(batch -> Arrays.stream(batch).map(byte[].class::cast));
+  }
+
+  @Override
+  public Stream<byte[]> sscan(final ReadMode readMode, final ExecutorService executor,
+      final int prefetch, final byte[]... keyedScanArgs) {
+    return scanKey(SCmds.SSCAN, readMode, executor, prefetch, keyedScanArgs)
+        .flatMap(batch -> Arrays.stream(batch).map(byte[].class::cast));
+  }
+
+  @Override
+  public Stream<Map.Entry<byte[], byte[]>> hscan(final ReadMode readMode,
+      final ExecutorService executor, final int prefetch, final byte[]... keyedScanArgs) {
+    return scanKey(HCmds.HSCAN, readMode, executor, prefetch, keyedScanArgs)
+        .flatMap(Jedipus::toPairs);
+  }
+
+  @Override
+  public Stream<Map.Entry<byte[], byte[]>> zscan(final ReadMode readMode,
+      final ExecutorService executor, final int prefetch, final byte[]... keyedScanArgs) {
+    return scanKey(ZCmds.ZSCAN, readMode, executor, prefetch, keyedScanArgs)
+        .flatMap(Jedipus::toPairs);
+  }
+
+  private static Stream<Map.Entry<byte[], byte[]>> toPairs(final Object[] batch) {
+    return IntStream.range(0, batch.length / 2)
+        .mapToObj(i -> new AbstractMap.SimpleImmutableEntry<>((byte[]) batch[2 * i],
+            (byte[]) batch[2 * i + 1]));
+  }
+
+  private Stream<Object[]> scanKey(final Cmd<Object[]> scanCmd, final ReadMode readMode,
+      final ExecutorService executor, final int prefetch, final byte[][] keyedScanArgs) {
+
+    if (keyedScanArgs.length == 0) {
+      throw new IllegalArgumentException(scanCmd.name() + " requires the key to scan.");
+    }
+
+    final byte[][] args = keyedScanArgs.length == 1
+        ? new byte[][] {keyedScanArgs[0], ScanSpliterator.SCAN_SENTINEL} : keyedScanArgs.clone();
+    final ScanCursor[] cursors =
+        new ScanCursor[] {new ScanCursor(null, CRC16.getSlot(args[0]), args, 1)};
+
+    return scan(scanCmd, readMode, cursors, executor, prefetch);
+  }
+
+  private Stream<Object[]> scan(final Cmd<Object[]> scanCmd, final ReadMode readMode,
+      final ScanCursor[] cursors, final ExecutorService executor, final int prefetch) {
+
+    final ScanSpliterator spliterator = new ScanSpliterator(cursors, cursor -> {
+      if (cursor.getPool() == null) {
+        return apply(readMode, cursor.getSlot(), client -> cursor
+            .onReply(client.sendCmd(scanCmd, cursor.getArgs(client.getNode()))), maxRetries);
+      }
+      return applyPooledClient(cursor.getPool(), client -> cursor
+          .onReply(client.sendCmd(scanCmd, cursor.getArgs(client.getNode()))), maxRetries);
+    }, executor, prefetch);
+
+    return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+  }
+
   @Override
   public void refreshSlotCache() {
     connHandler.refreshSlotCache();
   }
 
+  @Override
+  public Map<Node, Map<String, LatencySnapshot>> getLatencySnapshots() {
+    if (latencyRecorder == null) {
+      return Collections.emptyMap();
+    }
+
+    final Map<Node, ClientPool<RedisClient>> pools = connHandler.getAllPools();
+    final Map<Node, Map<String, LatencySnapshot>> snapshots = new HashMap<>(pools.size());
+    for (final Node node : pools.keySet()) {
+      final Map<String, LatencySnapshot> nodeSnapshots = latencyRecorder.getSnapshots(node);
+      if (!nodeSnapshots.isEmpty()) {
+        snapshots.put(node, nodeSnapshots);
+      }
+    }
+    return snapshots;
+  }
+
+  @Override
+  public Map<String, LatencySnapshot> getLatencySnapshots(final Node node) {
+    return latencyRecorder == null ? Collections.emptyMap() : latencyRecorder.getSnapshots(node);
+  }
+
   @Override
   public void close() {
     connHandler.close();
@@ -509,4 +1257,46 @@ final class Jedipus implements RedisClusterExecutor {
         .append(retryUnhandledRetryableExceptions).append(", connHandler=").append(connHandler)
         .append("]").toString();
   }
+
+  private static final class BatchGroup {
+
+    private final ClientPool<RedisClient> pool;
+    private int[] indices;
+    private int size;
+    // Indices of the elements to re-group and send again.
+    private int[] retry;
+    private int numRetry;
+    private SlotRedirectException redirectEx;
+    private List<SlotMovedException> moves;
+    private RuntimeException failure;
+    private Node failedNode;
+
+    private BatchGroup(final ClientPool<RedisClient> pool) {
+      this.pool = pool;
+      this.indices = new int[16];
+      this.size = 0;
+      this.numRetry = 0;
+    }
+
+    private void add(final int index) {
+      if (size == indices.length) {
+        indices = Arrays.copyOf(indices, size << 1);
+      }
+      indices[size++] = index;
+    }
+
+    private void retry(final int index) {
+      if (retry == null) {
+        retry = new int[size];
+      }
+      retry[numRetry++] = index;
+    }
+
+    private void addMove(final SlotMovedException moveEx) {
+      if (moves == null) {
+        moves = new ArrayList<>();
+      }
+      moves.add(moveEx);
+    }
+  }
 }
@@ -3,10 +3,59 @@ package com.fabahaba.jedipus.cluster;
 import com.fabahaba.jedipus.client.RedisClient;
 import com.fabahaba.jedipus.client.SerializableBiFunction;
 import com.fabahaba.jedipus.cluster.RedisClusterExecutor.ReadMode;
+import com.fabahaba.jedipus.concurrent.ElementRetryDelay;
 import com.fabahaba.jedipus.concurrent.LoadBalancedPools;
 import com.fabahaba.jedipus.pool.ClientPool;
 
+import java.time.Duration;
+
 public interface LBPoolsFactory extends
     SerializableBiFunction<ReadMode, ClientPool<RedisClient>[], LoadBalancedPools<RedisClient, ReadMode>> {
 
+  Duration DEFAULT_PEAK_EWMA_DECAY = Duration.ofSeconds(10);
+
+  /**
+   * @return A power of two choices load balancer weighted by peak EWMA latency and number of
+   *         borrowed clients, decaying latencies over {@link #DEFAULT_PEAK_EWMA_DECAY}.
+   */
+  static LBPoolsFactory peakEwma() {
+    return peakEwma(DEFAULT_PEAK_EWMA_DECAY);
+  }
+
+  /**
+   * @param decayTime The time constant over which past latencies lose their weight. Shorter times
+   *        react faster to a recovered node, longer times smooth out noise.
+   * @return A power of two choices load balancer weighted by peak EWMA latency and number of
+   *         borrowed clients. Under {@code ReadMode.MIXED} the master takes part as well.
+   */
+  static LBPoolsFactory peakEwma(final Duration decayTime) {
+    return new PeakEwmaPoolsFactory(decayTime);
+  }
+
+  /**
+   * @param localZone The zone of this client, compared against {@link Node#getZone}. Locate nodes
+   *        with {@link com.fabahaba.jedipus.client.NodeMapper#withZones}.
+   * @return A load balancer that round robins over replicas in the local zone, falling back to
+   *         other zones only if no local replica is healthy. Replicas are unhealthy if their pool
+   *         is closed or the executor's host port retry delay has a pending
+   *         {@link ElementRetryDelay#getNextAttemptMillis}, which requires a delay created with
+   *         {@code withFailuresToOpenCircuit}.
+   */
+  static LBPoolsFactory zoneAware(final String localZone) {
+    return new ZoneAwarePoolsFactory(localZone);
+  }
+
+  /**
+   * Called by the executor instead of {@link #apply(Object, Object)}, defaults to ignoring the
+   * retry delay.
+   *
+   * @param defaultReadMode The default read mode of the executor.
+   * @param slavePools The slave pools to balance over.
+   * @param retryDelay The host port retry delay used by the executor.
+   * @return The load balancer, or null if the master pool should always be used.
+   */
+  default LoadBalancedPools<RedisClient, ReadMode> apply(final ReadMode defaultReadMode,
+      final ClientPool<RedisClient>[] slavePools, final ElementRetryDelay<Node> retryDelay) {
+    return apply(defaultReadMode, slavePools);
+  }
 }
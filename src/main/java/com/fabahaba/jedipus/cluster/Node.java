@@ -60,4 +60,19 @@ public interface Node extends HostPort {
   public String getId();
 
   public Node updateId(final String id);
+
+  /**
+   * @return The availability zone, rack or other locality of this node, or null if unknown.
+   */
+  default String getZone() {
+    return null;
+  }
+
+  /**
+   * @param zone The availability zone, rack or other locality of this node, may be null.
+   * @return A copy of this node located in the given zone. Equality ignores zones.
+   */
+  default Node withZone(final String zone) {
+    return new ClusterNode(getHostPort(), getId(), zone);
+  }
 }
@@ -0,0 +1,225 @@
+package com.fabahaba.jedipus.cluster;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import com.fabahaba.jedipus.cluster.RedisClusterExecutor.ReadMode;
+import com.fabahaba.jedipus.concurrent.LoadBalancedPools;
+import com.fabahaba.jedipus.pool.ClientPool;
+
+/**
+ * Picks the cheaper of two randomly chosen pools, where the cost of a pool is the peak sensitive
+ * exponentially weighted moving average of its command latency multiplied by its number of
+ * borrowed clients plus one. A latency above the average replaces it immediately, while lower
+ * latencies, and the passing of time, decay it, so a slow node sheds load quickly and is probed
+ * again once it has been left alone.
+ */
+class PeakEwmaPools<T> implements LoadBalancedPools<T, ReadMode> {
+
+  private final MeasuredPool<T>[] pools;
+  private final Function<ClientPool<T>, MeasuredPool<T>> measuredPools;
+
+  PeakEwmaPools(final MeasuredPool<T>[] pools,
+      final Function<ClientPool<T>, MeasuredPool<T>> measuredPools) {
+    this.pools = pools;
+    this.measuredPools = measuredPools;
+  }
+
+  @Override
+  public ClientPool<T> next(final ReadMode readMode, final ClientPool<T> defaultPool) {
+    switch (readMode) {
+      case MIXED:
+        if (defaultPool == null) {
+          return pickTwo(pools, pools.length);
+        }
+        // The default pool takes part as the last candidate.
+        final int numCandidates = pools.length + 1;
+        final int first = ThreadLocalRandom.current().nextInt(numCandidates);
+        final int second = pickOther(first, numCandidates);
+        final MeasuredPool<T> firstPool =
+            first == pools.length ? measuredPools.apply(defaultPool) : pools[first];
+        final MeasuredPool<T> secondPool =
+            second == pools.length ? measuredPools.apply(defaultPool) : pools[second];
+        return cheaper(firstPool, secondPool);
+      case MIXED_SLAVES:
+      case SLAVES:
+        return pickTwo(pools, pools.length);
+      case MASTER:
+      default:
+        return defaultPool;
+    }
+  }
+
+  private static <T> MeasuredPool<T> pickTwo(final MeasuredPool<T>[] pools,
+      final int numCandidates) {
+    if (numCandidates == 1) {
+      return pools[0];
+    }
+    final int first = ThreadLocalRandom.current().nextInt(numCandidates);
+    return cheaper(pools[first], pools[pickOther(first, numCandidates)]);
+  }
+
+  private static int pickOther(final int first, final int numCandidates) {
+    if (numCandidates == 2) {
+      return 1 - first;
+    }
+    final int second = ThreadLocalRandom.current().nextInt(numCandidates - 1);
+    return second >= first ? second + 1 : second;
+  }
+
+  private static <T> MeasuredPool<T> cheaper(final MeasuredPool<T> first,
+      final MeasuredPool<T> second) {
+    final long now = System.nanoTime();
+    return first.getCost(now) <= second.getCost(now) ? first : second;
+  }
+
+  /**
+   * Tracks the latency and number of borrowed clients of a delegate pool. Latency samples are
+   * observed by the executor around each command, so time spent waiting on the pool or holding a
+   * client between commands is not mistaken for a slow node.
+   */
+  static final class MeasuredPool<T> implements ClientPool<T> {
+
+    // Cost of a pool with borrowed clients but no latency samples yet.
+    private static final double PENALTY = Integer.MAX_VALUE;
+
+    private final ClientPool<T> delegate;
+    private final double decayNanos;
+    private final AtomicInteger numBorrowed;
+    private double ewmaNanos;
+    private long stamp;
+
+    MeasuredPool(final ClientPool<T> delegate, final long decayNanos) {
+      this.delegate = delegate;
+      this.decayNanos = decayNanos;
+      this.numBorrowed = new AtomicInteger(0);
+      this.stamp = System.nanoTime();
+    }
+
+    ClientPool<T> getDelegate() {
+      return delegate;
+    }
+
+    double getCost(final long now) {
+      final double ewma;
+      synchronized (this) {
+        ewma = ewmaNanos * Math.exp(-Math.max(0, now - stamp) / decayNanos);
+      }
+      final int borrowed = numBorrowed.get();
+      if (ewma == 0 && borrowed > 0) {
+        return PENALTY + borrowed;
+      }
+      return ewma * (borrowed + 1);
+    }
+
+    void observe(final long latencyNanos) {
+      final long now = System.nanoTime();
+      synchronized (this) {
+        if (latencyNanos > ewmaNanos) {
+          ewmaNanos = latencyNanos;
+        } else {
+          final double weight = Math.exp(-Math.max(0, now - stamp) / decayNanos);
+          ewmaNanos = ewmaNanos * weight + latencyNanos * (1 - weight);
+        }
+        stamp = now;
+      }
+    }
+
+    private T onBorrow(final T client) {
+      if (client != null) {
+        numBorrowed.incrementAndGet();
+      }
+      return client;
+    }
+
+    private void onReturn() {
+      numBorrowed.decrementAndGet();
+    }
+
+    @Override
+    public Node getNode() {
+      return delegate.getNode();
+    }
+
+    @Override
+    public T borrowClient() throws NoSuchElementException {
+      return onBorrow(delegate.borrowClient());
+    }
+
+    @Override
+    public T borrowClient(final long timeout, final TimeUnit unit)
+        throws NoSuchElementException {
+      return onBorrow(delegate.borrowClient(timeout, unit));
+    }
+
+    @Override
+    public T borrowIfCapacity() {
+      return onBorrow(delegate.borrowIfCapacity());
+    }
+
+    @Override
+    public T borrowIfPresent() {
+      return onBorrow(delegate.borrowIfPresent());
+    }
+
+    @Override
+    public void returnClient(final T client) {
+      try {
+        delegate.returnClient(client);
+      } finally {
+        onReturn();
+      }
+    }
+
+    @Override
+    public void invalidateClient(final T client) {
+      try {
+        delegate.invalidateClient(client);
+      } finally {
+        onReturn();
+      }
+    }
+
+    @Override
+    public int getNumIdle() {
+      return delegate.getNumIdle();
+    }
+
+    @Override
+    public int getNumActive() {
+      return delegate.getNumActive();
+    }
+
+    @Override
+    public void clear() {
+      delegate.clear();
+    }
+
+    @Override
+    public void close() {
+      delegate.close();
+    }
+
+    @Override
+    public boolean isClosed() {
+      return delegate.isClosed();
+    }
+
+    @Override
+    public CompletableFuture<Void> warmUp(final Executor executor) {
+      return delegate.warmUp(executor);
+    }
+
+    @Override
+    public String toString() {
+      return new StringBuilder("MeasuredPool [delegate=").append(delegate)
+          .append(", numBorrowed=").append(numBorrowed).append(", cost=")
+          .append(getCost(System.nanoTime())).append("]").toString();
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package com.fabahaba.jedipus.cluster;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fabahaba.jedipus.client.RedisClient;
+import com.fabahaba.jedipus.cluster.PeakEwmaPools.MeasuredPool;
+import com.fabahaba.jedipus.cluster.RedisClusterExecutor.ReadMode;
+import com.fabahaba.jedipus.concurrent.LoadBalancedPools;
+import com.fabahaba.jedipus.pool.ClientPool;
+
+/**
+ * Creates {@link PeakEwmaPools} that share one measured wrapper per node pool, so the latency of
+ * a replica is learned across all of the slot ranges it serves.
+ */
+final class PeakEwmaPoolsFactory implements LBPoolsFactory {
+
+  private static final long serialVersionUID = -1672841135127260370L;
+
+  private final long decayNanos;
+  private transient volatile ConcurrentHashMap<ClientPool<RedisClient>,
+      MeasuredPool<RedisClient>> measuredPools;
+
+  PeakEwmaPoolsFactory(final Duration decayTime) {
+    this.decayNanos = Math.max(1, decayTime.toNanos());
+  }
+
+  private ConcurrentHashMap<ClientPool<RedisClient>, MeasuredPool<RedisClient>>
+      getMeasuredPools() {
+    ConcurrentHashMap<ClientPool<RedisClient>, MeasuredPool<RedisClient>> pools = measuredPools;
+    if (pools == null) {
+      synchronized (this) {
+        pools = measuredPools;
+        if (pools == null) {
+          measuredPools = pools = new ConcurrentHashMap<>();
+        }
+      }
+    }
+    return pools;
+  }
+
+  private MeasuredPool<RedisClient> getMeasuredPool(final ClientPool<RedisClient> pool) {
+    return getMeasuredPools().computeIfAbsent(pool, p -> new MeasuredPool<>(p, decayNanos));
+  }
+
+  @Override
+  public LoadBalancedPools<RedisClient, ReadMode> apply(final ReadMode defaultReadMode,
+      final ClientPool<RedisClient>[] slavePools) {
+
+    if (slavePools.length == 0) {
+      return (rm, def) -> def;
+    }
+
+    if (defaultReadMode == ReadMode.MASTER) {
+      // No load balancer needed for single master pool.
+      return null;
+    }
+
+    // Topology changes close replaced pools, forget them along with their measurements.
+    getMeasuredPools().keySet().removeIf(ClientPool::isClosed);
+
+    @SuppressWarnings("unchecked")
+    final MeasuredPool<RedisClient>[] pools = new MeasuredPool[slavePools.length];
+    for (int i = 0;i < pools.length;i++) {
+      pools[i] = getMeasuredPool(slavePools[i]);
+    }
+
+    return new PeakEwmaPools<>(pools, this::getMeasuredPool);
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder("PeakEwmaPoolsFactory [decayNanos=").append(decayNanos)
+        .append(", measuredPools=").append(measuredPools).append("]").toString();
+  }
+}
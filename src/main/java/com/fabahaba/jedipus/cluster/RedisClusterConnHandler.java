@@ -7,10 +7,12 @@ import com.fabahaba.jedipus.concurrent.ElementRetryDelay;
 import com.fabahaba.jedipus.concurrent.LoadBalancedPools;
 import com.fabahaba.jedipus.exceptions.RedisUnhandledException;
 import com.fabahaba.jedipus.exceptions.SlotMovedException;
+import com.fabahaba.jedipus.metrics.JedipusMetrics;
 import com.fabahaba.jedipus.pool.ClientPool;
 
 import java.time.Duration;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -19,20 +21,21 @@ final class RedisClusterConnHandler implements AutoCloseable {
 
   private final RedisClusterSlotCache slotPoolCache;
 
-  RedisClusterConnHandler(final ReadMode defaultReadMode, final boolean optimisticReads,
+  RedisClusterConnHandler(final ReadMode defaultReadMode,
       final Duration durationBetweenCacheRefresh, final Duration maxAwaitCacheRefresh,
+      final Duration durationBetweenBackgroundRefresh, final Duration warmUpTimeout,
       final Supplier<Collection<Node>> discoveryNodes,
       final PartitionedStrategyConfig partitionedStrategyConfig, final NodeMapper nodeMapper,
       final Function<Node, ClientPool<RedisClient>> masterPoolFactory,
       final Function<Node, ClientPool<RedisClient>> slavePoolFactory,
       final Function<Node, RedisClient> nodeUnknownFactory,
       final Function<ClientPool<RedisClient>[], LoadBalancedPools<RedisClient, ReadMode>> lbFactory,
-      final ElementRetryDelay<Node> clusterNodeRetryDelay) {
+      final ElementRetryDelay<Node> clusterNodeRetryDelay, final JedipusMetrics metrics) {
 
-    this.slotPoolCache = RedisClusterSlotCache.create(defaultReadMode, optimisticReads,
-        durationBetweenCacheRefresh, maxAwaitCacheRefresh, discoveryNodes,
-        partitionedStrategyConfig, nodeMapper, masterPoolFactory, slavePoolFactory,
-        nodeUnknownFactory, lbFactory, clusterNodeRetryDelay);
+    this.slotPoolCache = RedisClusterSlotCache.create(defaultReadMode,
+        durationBetweenCacheRefresh, maxAwaitCacheRefresh, durationBetweenBackgroundRefresh,
+        warmUpTimeout, discoveryNodes, partitionedStrategyConfig, nodeMapper, masterPoolFactory,
+        slavePoolFactory, nodeUnknownFactory, lbFactory, clusterNodeRetryDelay, metrics);
   }
 
   ReadMode getDefaultReadMode() {
@@ -75,6 +78,10 @@ final class RedisClusterConnHandler implements AutoCloseable {
     return slotPoolCache.getAllPools();
   }
 
+  List<ClientPool<RedisClient>> getShardPools(final ReadMode readMode) {
+    return slotPoolCache.getShardPools(readMode);
+  }
+
   ClientPool<RedisClient> getMasterPoolIfPresent(final Node node) {
     return slotPoolCache.getMasterPoolIfPresent(node);
   }
@@ -91,6 +98,10 @@ final class RedisClusterConnHandler implements AutoCloseable {
     slotPoolCache.discoverClusterSlots();
   }
 
+  void requestSlotCacheRefresh() {
+    slotPoolCache.requestClusterSlotsRefresh();
+  }
+
   void refreshSlotCache(final SlotMovedException moveEx) {
     slotPoolCache.discoverClusterSlots(moveEx);
   }
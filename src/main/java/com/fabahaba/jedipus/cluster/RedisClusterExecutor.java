@@ -1,16 +1,21 @@
 package com.fabahaba.jedipus.cluster;
 
+import com.fabahaba.jedipus.client.FutureReply;
 import com.fabahaba.jedipus.client.RedisClient;
 import com.fabahaba.jedipus.client.RedisPipeline;
 import com.fabahaba.jedipus.client.SerializableSupplier;
+import com.fabahaba.jedipus.metrics.LatencySnapshot;
 
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 public interface RedisClusterExecutor extends PrimClusterExecutor, AutoCloseable {
 
@@ -626,6 +631,25 @@ public interface RedisClusterExecutor extends PrimClusterExecutor, AutoCloseable
     }, maxRetries, executor);
   }
 
+  default <R> Map<Node, R> broadcastPipelinedMasters(
+      final Function<RedisPipeline, FutureReply<R>> pipelineCmds) {
+    return broadcastPipelinedMasters(pipelineCmds, getMaxRetries());
+  }
+
+  /**
+   * Queues and flushes the pipelined commands to every master before reading any replies, from
+   * the calling thread, so that the round trips to all masters overlap. Only nodes that could not
+   * be connected to, so that none of their commands were written, are retried individually. A
+   * failure after the commands were written is thrown once every other node has been read, as the
+   * commands may have been applied.
+   *
+   * @param pipelineCmds Queues commands on a node's pipeline and returns the reply to collect.
+   * @param maxRetries   The maximum number of connection retries per unwritten node.
+   * @return The collected reply per master node. Error replies to any queued command are thrown.
+   */
+  <R> Map<Node, R> broadcastPipelinedMasters(
+      final Function<RedisPipeline, FutureReply<R>> pipelineCmds, final int maxRetries);
+
   default void acceptAllSlaves(final Consumer<RedisClient> clientConsumer) {
     acceptAllSlaves(clientConsumer, getMaxRetries(), null);
   }
@@ -724,6 +748,17 @@ public interface RedisClusterExecutor extends PrimClusterExecutor, AutoCloseable
   <R> List<CompletableFuture<R>> applyAll(final Function<RedisClient, R> clientConsumer,
       final int maxRetries, final ExecutorService executor);
 
+  default <R> Map<Node, R> broadcastPipelined(
+      final Function<RedisPipeline, FutureReply<R>> pipelineCmds) {
+    return broadcastPipelined(pipelineCmds, getMaxRetries());
+  }
+
+  /**
+   * @see #broadcastPipelinedMasters(Function, int)
+   */
+  <R> Map<Node, R> broadcastPipelined(final Function<RedisPipeline, FutureReply<R>> pipelineCmds,
+      final int maxRetries);
+
   default void acceptAllPipelined(final Consumer<RedisPipeline> pipelineConsumer) {
     acceptAllPipelined(pipelineConsumer, getMaxRetries(), null);
   }
@@ -931,5 +966,178 @@ public interface RedisClusterExecutor extends PrimClusterExecutor, AutoCloseable
   <R> R applyUnknown(final Node node, final Function<RedisClient, R> clientConsumer,
       final int maxRetries);
 
+  default <R> R applyHedged(final String slotKey, final Function<RedisClient, R> clientConsumer,
+      final ExecutorService executor) {
+    return applyHedged(getDefaultReadMode(), CRC16.getSlot(slotKey), clientConsumer,
+        getMaxRetries(), executor);
+  }
+
+  default <R> R applyHedged(final byte[] slotKey, final Function<RedisClient, R> clientConsumer,
+      final ExecutorService executor) {
+    return applyHedged(getDefaultReadMode(), CRC16.getSlot(slotKey), clientConsumer,
+        getMaxRetries(), executor);
+  }
+
+  default <R> R applyHedged(final ReadMode readMode, final String slotKey,
+      final Function<RedisClient, R> clientConsumer, final ExecutorService executor) {
+    return applyHedged(readMode, CRC16.getSlot(slotKey), clientConsumer, getMaxRetries(),
+        executor);
+  }
+
+  /**
+   * Applies an idempotent read on the executor and, if it has not completed within the hedge
+   * delay, sends a second copy to another pool serving the slot. The first successful reply is
+   * returned. The slower copy still reads its reply before its client is returned to its pool, so
+   * no connection is left with a reply in flight. Under {@code ReadMode.MASTER}, or if the slot has
+   * no other pool, this behaves like {@link #apply(ReadMode, int, Function, int)}.
+   *
+   * @param readMode       The ReadMode used to select pools, typically {@code MIXED} or
+   *                       {@code SLAVES}.
+   * @param slot           The slot being read.
+   * @param clientConsumer The read, which may be applied twice concurrently.
+   * @param maxRetries     The maximum number of connection retries per copy.
+   * @param executor       Runs both copies while the calling thread waits.
+   * @return The first successful reply.
+   * @see ClusterExecutorBuilder#withHedgePercentile
+   */
+  <R> R applyHedged(final ReadMode readMode, final int slot,
+      final Function<RedisClient, R> clientConsumer, final int maxRetries,
+      final ExecutorService executor);
+
+  default <R> List<R> applyBatch(final Collection<byte[]> keys,
+      final BiFunction<RedisPipeline, byte[], FutureReply<R>> keyCmd) {
+    return applyBatch(getDefaultReadMode(), keys, keyCmd, getMaxRetries(), null);
+  }
+
+  default <R> List<R> applyBatch(final Collection<byte[]> keys,
+      final BiFunction<RedisPipeline, byte[], FutureReply<R>> keyCmd,
+      final ExecutorService executor) {
+    return applyBatch(getDefaultReadMode(), keys, keyCmd, getMaxRetries(), executor);
+  }
+
+  default <R> List<R> applyBatch(final ReadMode readMode, final Collection<byte[]> keys,
+      final BiFunction<RedisPipeline, byte[], FutureReply<R>> keyCmd, final int maxRetries,
+      final ExecutorService executor) {
+    return applyBatch(readMode, keys, key -> key, keyCmd, maxRetries, executor);
+  }
+
+  /**
+   * Groups elements by the pool serving the slot of their key and applies one pipeline per group.
+   * Elements redirected with ASK are replayed against the importing node. Elements redirected with
+   * MOVED, and the unanswered elements of a group whose connection failed, are re-grouped against
+   * the refreshed slot cache and sent again, up to the maximum number of redirections and retries.
+   * Commands should be idempotent, as a command may have been applied before its connection
+   * failed.
+   *
+   * @param readMode   The ReadMode used to select pools.
+   * @param elements   The elements to apply {@code elementCmd} to.
+   * @param slotKey    Maps an element to the key that determines its slot.
+   * @param elementCmd Queues the command for a single element and returns its reply.
+   * @param maxRetries The maximum number of connection retries for the batch.
+   * @param executor   Used to apply the groups in parallel, if null groups are applied serially on
+   *                   the calling thread.
+   * @return The reply for each element, in the iteration order of {@code elements}.
+   */
+  <E, R> List<R> applyBatch(final ReadMode readMode, final Collection<E> elements,
+      final Function<E, byte[]> slotKey,
+      final BiFunction<RedisPipeline, E, FutureReply<R>> elementCmd, final int maxRetries,
+      final ExecutorService executor);
+
+  default Stream<byte[]> scan(final byte[]... scanArgs) {
+    return scan(getDefaultReadMode(), null, 0, scanArgs);
+  }
+
+  default Stream<byte[]> scan(final ExecutorService executor, final int prefetch,
+      final byte[]... scanArgs) {
+    return scan(getDefaultReadMode(), executor, prefetch, scanArgs);
+  }
+
+  /**
+   * Streams the keys of every shard using one SCAN cursor per master, or per slave group under
+   * {@code ReadMode.SLAVES}. As with SCAN itself, keys may be returned more than once.
+   *
+   * Without an executor, shards are scanned lazily on the consuming thread, and a parallel stream
+   * splits the shards across its threads. With an executor, every shard is scanned concurrently
+   * and at most {@code prefetch} unconsumed reply batches are buffered. Further requests wait until
+   * they are consumed without holding an executor thread. Close the stream if it is not fully
+   * consumed to stop any in-flight scan tasks.
+   *
+   * @param readMode The ReadMode used to select one pool per shard.
+   * @param executor Used to scan shards concurrently, if null shards are scanned on demand.
+   * @param prefetch The maximum number of reply batches buffered ahead of the consumer.
+   * @param scanArgs SCAN arguments starting with the cursor, see {@code ScanParams}.
+   * @return A stream of keys.
+   */
+  Stream<byte[]> scan(final ReadMode readMode, final ExecutorService executor, final int prefetch,
+      final byte[]... scanArgs);
+
+  default Stream<byte[]> sscan(final byte[]... keyedScanArgs) {
+    return sscan(getDefaultReadMode(), null, 0, keyedScanArgs);
+  }
+
+  default Stream<byte[]> sscan(final ExecutorService executor, final int prefetch,
+      final byte[]... keyedScanArgs) {
+    return sscan(getDefaultReadMode(), executor, prefetch, keyedScanArgs);
+  }
+
+  /**
+   * Streams the members of a set. If the key is redirected to another node, its cursor is
+   * restarted there.
+   *
+   * @param readMode      The ReadMode used to select the pool for the key's slot.
+   * @param executor      Used to fetch reply batches ahead of the consumer, may be null.
+   * @param prefetch      The maximum number of reply batches buffered ahead of the consumer.
+   * @param keyedScanArgs SSCAN arguments starting with the key and cursor, see
+   *                      {@code ScanParams}.
+   * @return A stream of set members.
+   * @throws IllegalArgumentException if no key is given.
+   */
+  Stream<byte[]> sscan(final ReadMode readMode, final ExecutorService executor,
+      final int prefetch, final byte[]... keyedScanArgs);
+
+  default Stream<Map.Entry<byte[], byte[]>> hscan(final byte[]... keyedScanArgs) {
+    return hscan(getDefaultReadMode(), null, 0, keyedScanArgs);
+  }
+
+  default Stream<Map.Entry<byte[], byte[]>> hscan(final ExecutorService executor,
+      final int prefetch, final byte[]... keyedScanArgs) {
+    return hscan(getDefaultReadMode(), executor, prefetch, keyedScanArgs);
+  }
+
+  /**
+   * @return A stream of hash field and value pairs.
+   * @see #sscan(ReadMode, ExecutorService, int, byte[]...)
+   */
+  Stream<Map.Entry<byte[], byte[]>> hscan(final ReadMode readMode,
+      final ExecutorService executor, final int prefetch, final byte[]... keyedScanArgs);
+
+  default Stream<Map.Entry<byte[], byte[]>> zscan(final byte[]... keyedScanArgs) {
+    return zscan(getDefaultReadMode(), null, 0, keyedScanArgs);
+  }
+
+  default Stream<Map.Entry<byte[], byte[]>> zscan(final ExecutorService executor,
+      final int prefetch, final byte[]... keyedScanArgs) {
+    return zscan(getDefaultReadMode(), executor, prefetch, keyedScanArgs);
+  }
+
+  /**
+   * @return A stream of sorted set member and score pairs.
+   * @see #sscan(ReadMode, ExecutorService, int, byte[]...)
+   */
+  Stream<Map.Entry<byte[], byte[]>> zscan(final ReadMode readMode,
+      final ExecutorService executor, final int prefetch, final byte[]... keyedScanArgs);
+
   void refreshSlotCache();
+
+  /**
+   * @return Client side reply latencies per pooled node and command name, or an empty map if
+   * recording has not been enabled via {@link ClusterExecutorBuilder#withLatencyRecording}.
+   */
+  Map<Node, Map<String, LatencySnapshot>> getLatencySnapshots();
+
+  /**
+   * @param node The node to snapshot.
+   * @return Client side reply latencies per command name for the given node.
+   */
+  Map<String, LatencySnapshot> getLatencySnapshots(final Node node);
 }
@@ -11,30 +11,52 @@ import com.fabahaba.jedipus.exceptions.RedisClusterPartitionedException;
 import com.fabahaba.jedipus.exceptions.RedisConnectionException;
 import com.fabahaba.jedipus.exceptions.RedisRetryableUnhandledException;
 import com.fabahaba.jedipus.exceptions.SlotMovedException;
+import com.fabahaba.jedipus.metrics.JedipusMetrics;
 import com.fabahaba.jedipus.pool.ClientPool;
 import com.fabahaba.jedipus.pool.RedisClientPool;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.StampedLock;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
-class RedisClusterSlotCache implements AutoCloseable {
+/**
+ * Routes are read from an immutable {@link SlotRoutingTable} published through a single atomic
+ * reference, so request threads never lock. Refreshes and MOVED redirects build a new table from
+ * the current one and swap it in with a compare and set, and only the pools that are no longer
+ * referenced by the newly published table are closed.
+ *
+ * If background refreshes are enabled, a single daemon thread periodically polls CLUSTER SLOTS
+ * from one node and applies the slot ranges that differ from the current table. Refreshes
+ * requested by failing request threads are then also handed off to that thread.
+ */
+final class RedisClusterSlotCache implements AutoCloseable {
+
+  // Bounds how long close waits on in flight refreshes before closing their pools.
+  private static final long CLOSE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(1);
 
   private final ReadMode defaultReadMode;
 
@@ -42,42 +64,51 @@ class RedisClusterSlotCache implements AutoCloseable {
   private final PartitionedStrategyConfig partitionedStrategyConfig;
   private final NodeMapper nodeMapper;
 
-  final Map<Node, ClientPool<RedisClient>> masterPools;
-  private final ClientPool<RedisClient>[] masterSlots;
+  private final AtomicReference<SlotRoutingTable> routes;
 
   private final Function<ClientPool<RedisClient>[], LoadBalancedPools<RedisClient, ReadMode>>
       lbFactory;
-  final Map<Node, ClientPool<RedisClient>> slavePools;
-  private final LoadBalancedPools<RedisClient, ReadMode>[] slaveSlots;
 
-  private final boolean optimisticReads;
   private final long maxAwaitCacheRefreshNanos;
-  private final StampedLock lock;
+  // Serializes refreshes, never held by readers.
+  private final ReentrantLock refreshLock;
   private final long millisBetweenSlotCacheRefresh;
   private volatile long refreshStamp = 0;
+  private volatile boolean closed = false;
+
+  // Null if background refreshes are disabled.
+  private final ScheduledExecutorService refresher;
+  private final long millisBetweenBackgroundRefresh;
+  private final AtomicBoolean refreshScheduled;
+  // Only accessed by the refresher thread.
+  private int pollIndex = 0;
+  // Null if pools are not warmed up.
+  private final Duration warmUpTimeout;
+  // Runs blocking background work, warm ups of new pools and refreshes triggered by MOVED
+  // replies, off of the common fork join pool. Its threads exit when idle.
+  private final ExecutorService backgroundExecutor;
 
   private final Function<Node, ClientPool<RedisClient>> masterPoolFactory;
   private final Function<Node, ClientPool<RedisClient>> slavePoolFactory;
   final Function<Node, RedisClient> nodeUnknownFactory;
 
   private final ElementRetryDelay<Node> clusterNodeRetryDelay;
+  private final JedipusMetrics metrics;
 
   RedisClusterSlotCache(final ReadMode defaultReadMode,
-      final boolean optimisticReads,
       final Duration durationBetweenCacheRefresh,
       final Duration maxAwaitCacheRefresh,
+      final Duration durationBetweenBackgroundRefresh,
+      final Duration warmUpTimeout,
       final Supplier<Collection<Node>> discoveryNodes,
       final PartitionedStrategyConfig partitionedStrategyConfig,
       final NodeMapper nodeMapper,
-      final Map<Node, ClientPool<RedisClient>> masterPools,
-      final ClientPool<RedisClient>[] masterSlots,
-      final Map<Node, ClientPool<RedisClient>> slavePools,
-      final LoadBalancedPools<RedisClient, ReadMode>[] slaveSlots,
+      final SlotRoutingTable routes,
       final Function<Node, ClientPool<RedisClient>> masterPoolFactory,
       final Function<Node, ClientPool<RedisClient>> slavePoolFactory,
       final Function<Node, RedisClient> nodeUnknownFactory,
       final Function<ClientPool<RedisClient>[], LoadBalancedPools<RedisClient, ReadMode>> lbFactory,
-      final ElementRetryDelay<Node> clusterNodeRetryDelay) {
+      final ElementRetryDelay<Node> clusterNodeRetryDelay, final JedipusMetrics metrics) {
 
     this.refreshStamp = System.currentTimeMillis();
 
@@ -86,16 +117,27 @@ class RedisClusterSlotCache implements AutoCloseable {
     this.partitionedStrategyConfig = partitionedStrategyConfig;
     this.nodeMapper = nodeMapper;
 
-    this.masterPools = masterPools;
-    this.masterSlots = masterSlots;
+    this.routes = new AtomicReference<>(routes);
 
-    this.slavePools = slavePools;
-    this.slaveSlots = slaveSlots;
-
-    this.optimisticReads = optimisticReads;
     this.maxAwaitCacheRefreshNanos = maxAwaitCacheRefresh.toNanos();
     this.millisBetweenSlotCacheRefresh = durationBetweenCacheRefresh.toMillis();
-    this.lock = new StampedLock();
+    this.refreshLock = new ReentrantLock();
+
+    this.millisBetweenBackgroundRefresh =
+        durationBetweenBackgroundRefresh == null ? 0 : durationBetweenBackgroundRefresh.toMillis();
+    this.refresher = millisBetweenBackgroundRefresh <= 0 ? null
+        : new ScheduledThreadPoolExecutor(1, runnable -> {
+          final Thread thread = new Thread(runnable, "jedipus-slot-cache-refresher");
+          thread.setDaemon(true);
+          return thread;
+        });
+    this.refreshScheduled = new AtomicBoolean(false);
+    this.warmUpTimeout = warmUpTimeout;
+    this.backgroundExecutor = Executors.newCachedThreadPool(runnable -> {
+      final Thread thread = new Thread(runnable, "jedipus-slot-cache-background");
+      thread.setDaemon(true);
+      return thread;
+    });
 
     this.masterPoolFactory = masterPoolFactory;
     this.slavePoolFactory = slavePoolFactory;
@@ -103,6 +145,7 @@ class RedisClusterSlotCache implements AutoCloseable {
     this.lbFactory = lbFactory;
 
     this.clusterNodeRetryDelay = clusterNodeRetryDelay;
+    this.metrics = metrics;
   }
 
   ReadMode getDefaultReadMode() {
@@ -117,52 +160,24 @@ class RedisClusterSlotCache implements AutoCloseable {
     return clusterNodeRetryDelay;
   }
 
-  @SuppressWarnings("unchecked")
-  static RedisClusterSlotCache create(final ReadMode defaultReadMode, final boolean optimisticReads,
+  static RedisClusterSlotCache create(final ReadMode defaultReadMode,
       final Duration durationBetweenCacheRefresh, final Duration maxAwaitCacheRefresh,
-      final Supplier<Collection<Node>> discoveryNodes,
-      final PartitionedStrategyConfig partitionedStrategyConfig, final NodeMapper nodeMapper,
-      final Function<Node, ClientPool<RedisClient>> masterPoolFactory,
-      final Function<Node, ClientPool<RedisClient>> slavePoolFactory,
-      final Function<Node, RedisClient> nodeUnknownFactory,
-      final Function<ClientPool<RedisClient>[], LoadBalancedPools<RedisClient, ReadMode>> lbFactory,
-      final ElementRetryDelay<Node> clusterNodeRetryDelay) {
-
-    final Map<Node, ClientPool<RedisClient>> masterPools =
-        defaultReadMode == ReadMode.SLAVES ? Collections.emptyMap() : new ConcurrentHashMap<>();
-    final ClientPool<RedisClient>[] masterSlots =
-        defaultReadMode == ReadMode.SLAVES ? new ClientPool[0] : new ClientPool[CRC16.NUM_SLOTS];
-
-    final Map<Node, ClientPool<RedisClient>> slavePools =
-        defaultReadMode == ReadMode.MASTER ? Collections.emptyMap() : new ConcurrentHashMap<>();
-    final LoadBalancedPools<RedisClient, ReadMode>[] slaveSlots =
-        defaultReadMode == ReadMode.MASTER ? new LoadBalancedPools[0] :
-            new LoadBalancedPools[CRC16.NUM_SLOTS];
-
-    return create(defaultReadMode, optimisticReads, durationBetweenCacheRefresh,
-        maxAwaitCacheRefresh, discoveryNodes, partitionedStrategyConfig, nodeMapper,
-        masterPoolFactory, slavePoolFactory, nodeUnknownFactory, lbFactory, masterPools,
-        masterSlots, slavePools, slaveSlots, clusterNodeRetryDelay);
-  }
-
-  private static RedisClusterSlotCache create(final ReadMode defaultReadMode,
-      final boolean optimisticReads, final Duration durationBetweenCacheRefresh,
-      final Duration maxAwaitCacheRefresh, final Supplier<Collection<Node>> discoveryNodesSupplier,
+      final Duration durationBetweenBackgroundRefresh, final Duration warmUpTimeout,
+      final Supplier<Collection<Node>> discoveryNodesSupplier,
       final PartitionedStrategyConfig partitionedStrategyConfig, final NodeMapper nodeMapper,
       final Function<Node, ClientPool<RedisClient>> masterPoolFactory,
       final Function<Node, ClientPool<RedisClient>> slavePoolFactory,
       final Function<Node, RedisClient> nodeUnknownFactory,
       final Function<ClientPool<RedisClient>[], LoadBalancedPools<RedisClient, ReadMode>> lbFactory,
-      final Map<Node, ClientPool<RedisClient>> masterPools,
-      final ClientPool<RedisClient>[] masterSlots,
-      final Map<Node, ClientPool<RedisClient>> slavePools,
-      final LoadBalancedPools<RedisClient, ReadMode>[] slaveSlots,
-      final ElementRetryDelay<Node> clusterNodeRetryDelay) {
+      final ElementRetryDelay<Node> clusterNodeRetryDelay, final JedipusMetrics metrics) {
 
     final Collection<Node> discoveryNodes = discoveryNodesSupplier.get();
     final ClusterSlotVotes[] slotNodesCandidates = getSlotNodesVotes(discoveryNodes, nodeMapper,
         nodeUnknownFactory, new AtomicInteger(partitionedStrategyConfig.getMaxVotes()));
 
+    final SlotRoutingTable emptyRoutes = SlotRoutingTable.createEmpty(0, defaultReadMode);
+    SlotRoutingTable routes = emptyRoutes;
+
     switch (partitionedStrategyConfig.getStrategy()) {
       case THROW:
         if (slotNodesCandidates.length == 0) {
@@ -173,8 +188,9 @@ class RedisClusterSlotCache implements AutoCloseable {
           throw new RedisClusterPartitionedException(slotNodesCandidates);
         }
 
-        initSlotCache(slotNodesCandidates[0], defaultReadMode, nodeMapper, masterPoolFactory,
-            slavePoolFactory, lbFactory, masterPools, masterSlots, slavePools, slaveSlots);
+        routes = createRoutingTable(slotNodesCandidates[0], emptyRoutes, new HashMap<>(),
+            new HashMap<>(), defaultReadMode, nodeMapper, masterPoolFactory, slavePoolFactory,
+            lbFactory);
         break;
       case MAJORITY:
         if (slotNodesCandidates.length == 0) {
@@ -194,30 +210,48 @@ class RedisClusterSlotCache implements AutoCloseable {
           }
         }
 
-        initSlotCache(slotNodesCandidates[0], defaultReadMode, nodeMapper, masterPoolFactory,
-            slavePoolFactory, lbFactory, masterPools, masterSlots, slavePools, slaveSlots);
+        routes = createRoutingTable(slotNodesCandidates[0], emptyRoutes, new HashMap<>(),
+            new HashMap<>(), defaultReadMode, nodeMapper, masterPoolFactory, slavePoolFactory,
+            lbFactory);
         break;
       case TOP:
         if (slotNodesCandidates.length > 0) {
-          initSlotCache(slotNodesCandidates[0], defaultReadMode, nodeMapper, masterPoolFactory,
-              slavePoolFactory, lbFactory, masterPools, masterSlots, slavePools, slaveSlots);
+          routes = createRoutingTable(slotNodesCandidates[0], emptyRoutes, new HashMap<>(),
+              new HashMap<>(), defaultReadMode, nodeMapper, masterPoolFactory, slavePoolFactory,
+              lbFactory);
         }
         break;
       default:
         break;
     }
 
-    if (optimisticReads) {
-      return new OptimisticRedisClusterSlotCache(defaultReadMode, durationBetweenCacheRefresh,
-          maxAwaitCacheRefresh, discoveryNodesSupplier, partitionedStrategyConfig, nodeMapper,
-          masterPools, masterSlots, slavePools, slaveSlots, masterPoolFactory, slavePoolFactory,
-          nodeUnknownFactory, lbFactory, clusterNodeRetryDelay);
+    if (warmUpTimeout != null) {
+      ClientPool.warmUp(routes.getAllPools().values(), warmUpTimeout);
+    }
+
+    final RedisClusterSlotCache slotCache = new RedisClusterSlotCache(defaultReadMode,
+        durationBetweenCacheRefresh, maxAwaitCacheRefresh, durationBetweenBackgroundRefresh,
+        warmUpTimeout, discoveryNodesSupplier, partitionedStrategyConfig, nodeMapper, routes,
+        masterPoolFactory, slavePoolFactory, nodeUnknownFactory, lbFactory, clusterNodeRetryDelay,
+        metrics);
+
+    if (slotCache.refresher != null) {
+      slotCache.refresher.scheduleWithFixedDelay(slotCache::pollClusterSlots,
+          slotCache.millisBetweenBackgroundRefresh, slotCache.millisBetweenBackgroundRefresh,
+          TimeUnit.MILLISECONDS);
     }
 
-    return new RedisClusterSlotCache(defaultReadMode, false, durationBetweenCacheRefresh,
-        maxAwaitCacheRefresh, discoveryNodesSupplier, partitionedStrategyConfig, nodeMapper,
-        masterPools, masterSlots, slavePools, slaveSlots, masterPoolFactory, slavePoolFactory,
-        nodeUnknownFactory, lbFactory, clusterNodeRetryDelay);
+    return slotCache;
+  }
+
+  private void warmUpInBackground(final ClientPool<RedisClient> pool) {
+    if (warmUpTimeout != null) {
+      try {
+        pool.warmUp(backgroundExecutor);
+      } catch (final RejectedExecutionException closing) {
+        // The pool is closed along with this cache.
+      }
+    }
   }
 
   void discoverClusterSlots(final SlotMovedException moveEx) {
@@ -225,13 +259,16 @@ class RedisClusterSlotCache implements AutoCloseable {
       case MIXED_SLAVES:
       case MIXED:
       case MASTER:
-        synchronized (masterPoolFactory) {
-          if (!lock.isWriteLocked()) {
-            ForkJoinPool.commonPool().execute(this::discoverClusterSlots);
+        if (refresher != null) {
+          requestClusterSlotsRefresh();
+        } else if (!refreshLock.isLocked()) {
+          try {
+            backgroundExecutor.execute(() -> refreshInBackground(this::discoverClusterSlots));
+          } catch (final RejectedExecutionException closing) {
+            return;
           }
-          masterSlots[moveEx.getSlot()] = masterPools.computeIfAbsent(moveEx.getTargetNode(),
-              masterPoolFactory);
         }
+        routeMovedSlot(moveEx.getSlot(), moveEx.getTargetNode());
         return;
       case SLAVES:
       default:
@@ -240,30 +277,199 @@ class RedisClusterSlotCache implements AutoCloseable {
     }
   }
 
+  private void routeMovedSlot(final int slot, final Node node) {
+    ClientPool<RedisClient> createdPool = null;
+
+    for (;;) {
+      if (closed) {
+        closePool(createdPool);
+        return;
+      }
+
+      final SlotRoutingTable current = routes.get();
+      if (createdPool == null && current.getMasterPool(node) == null) {
+        createdPool = masterPoolFactory.apply(node);
+      }
+
+      final SlotRoutingTable next = current.withMovedSlot(slot, node, createdPool);
+      if (routes.compareAndSet(current, next)) {
+        if (createdPool != null) {
+          if (next.getMasterPool(node) == createdPool) {
+            warmUpInBackground(createdPool);
+          } else {
+            closePool(createdPool);
+          }
+        }
+        return;
+      }
+    }
+  }
+
+  /**
+   * Hands off the refresh to the background refresher if enabled, delayed rather than sleeping
+   * until the minimum duration between refreshes has passed. Otherwise refreshes on the calling
+   * thread.
+   */
+  void requestClusterSlotsRefresh() {
+    if (refresher == null) {
+      discoverClusterSlots();
+      return;
+    }
+
+    if (!refreshScheduled.compareAndSet(false, true)) {
+      return;
+    }
+
+    final long delayMillis = millisBetweenSlotCacheRefresh <= 0 ? 0
+        : (refreshStamp + millisBetweenSlotCacheRefresh) - System.currentTimeMillis();
+    try {
+      refresher.schedule(() -> {
+        refreshScheduled.set(false);
+        refreshInBackground(this::discoverClusterSlots);
+      }, Math.max(0, delayMillis), TimeUnit.MILLISECONDS);
+    } catch (final RejectedExecutionException closed) {
+      refreshScheduled.set(false);
+    }
+  }
+
+  /**
+   * Refreshes and their metrics are already reported, and are retried by the next poll, MOVED
+   * reply or connection failure, so failures must not escape a background thread. An escaping
+   * exception would also cancel the periodic poll.
+   */
+  private void refreshInBackground(final Runnable refresh) {
+    if (closed) {
+      return;
+    }
+    try {
+      refresh.run();
+    } catch (final RuntimeException e) {
+      // reported through metrics
+    }
+  }
+
+  private void pollClusterSlots() {
+    if (closed) {
+      return;
+    }
+
+    final long start = System.nanoTime();
+    final SlotRoutingTable current = routes.get();
+    final ClusterSlotVotes clusterSlots;
+    try {
+      clusterSlots = pollClusterSlots(current);
+    } catch (final RuntimeException e) {
+      // Polled again after the next period.
+      if (metrics != null && !closed) {
+        metrics.onSlotCacheRefresh(System.nanoTime() - start, false);
+      }
+      return;
+    }
+
+    if (clusterSlots == null || isSameTopology(current.getClusterSlots(), clusterSlots)) {
+      return;
+    }
+
+    switch (partitionedStrategyConfig.getStrategy()) {
+      case TOP:
+        refreshInBackground(() -> applyClusterSlots(clusterSlots));
+        return;
+      case MAJORITY:
+      case THROW:
+      default:
+        // Let the configured strategy decide if one node's view of the change is trusted.
+        refreshInBackground(this::discoverClusterSlots);
+        return;
+    }
+  }
+
+  private ClusterSlotVotes pollClusterSlots(final SlotRoutingTable current) {
+    final Map<Node, ClientPool<RedisClient>> pools = current.getMasterPools().isEmpty()
+        ? current.getSlavePools() : current.getMasterPools();
+
+    final List<Node> nodes = new ArrayList<>(pools.isEmpty() ? discoveryNodeSupplier.get()
+        : pools.keySet());
+    if (nodes.isEmpty()) {
+      return null;
+    }
+
+    pollIndex = pollIndex >= nodes.size() - 1 ? 0 : pollIndex + 1;
+    final Node node = nodes.get(pollIndex);
+    final ClientPool<RedisClient> pool = pools.get(node);
+
+    final RedisClient pooledClient = pool == null ? null : pool.borrowIfPresent();
+    if (pooledClient == null) {
+      try (final RedisClient client = nodeUnknownFactory.apply(node)) {
+        return client.clusterSlots();
+      }
+    }
+
+    try {
+      return pooledClient.clusterSlots();
+    } finally {
+      RedisClientPool.returnClient(pool, pooledClient);
+    }
+  }
+
+  private void applyClusterSlots(final ClusterSlotVotes clusterSlots) {
+    if (!refreshLock.tryLock()) {
+      // A refresh is already in progress.
+      return;
+    }
+
+    final long start = System.nanoTime();
+    boolean success = false;
+    try {
+      cacheClusterSlots(clusterSlots);
+      success = true;
+    } finally {
+      try {
+        refreshStamp = System.currentTimeMillis();
+      } finally {
+        refreshLock.unlock();
+        if (metrics != null) {
+          metrics.onSlotCacheRefresh(System.nanoTime() - start, success);
+        }
+      }
+    }
+  }
+
   void discoverClusterSlots() {
+    if (metrics == null) {
+      refreshClusterSlots();
+      return;
+    }
+
+    final long start = System.nanoTime();
+    boolean success = false;
+    try {
+      refreshClusterSlots();
+      success = true;
+    } finally {
+      metrics.onSlotCacheRefresh(System.nanoTime() - start, success);
+    }
+  }
+
+  private void refreshClusterSlots() {
     final long dedupeDiscovery = refreshStamp;
-    long writeStamp;
 
     try {
       if (maxAwaitCacheRefreshNanos == 0) {
-        writeStamp = lock.writeLock();
-      } else {
-        writeStamp = lock.tryWriteLock(maxAwaitCacheRefreshNanos, TimeUnit.NANOSECONDS);
-        if (writeStamp == 0) {
-          // allow dirty retry
-          return;
-        }
+        refreshLock.lock();
+      } else if (!refreshLock.tryLock(maxAwaitCacheRefreshNanos, TimeUnit.NANOSECONDS)) {
+        // allow dirty retry
+        return;
       }
     } catch (final InterruptedException ie) {
       Thread.currentThread().interrupt();
       throw new RuntimeException(ie);
     }
 
-    if (dedupeDiscovery != refreshStamp) {
-      return;
-    }
-
     try {
+      if (dedupeDiscovery != refreshStamp) {
+        return;
+      }
+
       final ClusterSlotVotes[] slotNodesCandidates = getSlotNodesVotes();
       if (slotNodesCandidates.length == 0) {
         return;
@@ -302,31 +508,64 @@ class RedisClusterSlotCache implements AutoCloseable {
       try {
         refreshStamp = System.currentTimeMillis();
       } finally {
-        lock.unlockWrite(writeStamp);
+        refreshLock.unlock();
       }
     }
   }
 
-  private static void initSlotCache(final ClusterSlotVotes clusterSlots,
+  /**
+   * Builds the routing table for the given slots, reusing the pools of the current table and then
+   * those already created by a previous attempt to publish the same slots. If the current table
+   * was built from a known topology, only the slot ranges that changed are re-routed.
+   */
+  static SlotRoutingTable createRoutingTable(final ClusterSlotVotes clusterSlots,
+      final SlotRoutingTable current, final Map<Node, ClientPool<RedisClient>> createdMasterPools,
+      final Map<Node, ClientPool<RedisClient>> createdSlavePools,
       final ReadMode defaultReadMode, final NodeMapper nodeMapper,
       final Function<Node, ClientPool<RedisClient>> masterPoolFactory,
       final Function<Node, ClientPool<RedisClient>> slavePoolFactory,
-      final Function<ClientPool<RedisClient>[], LoadBalancedPools<RedisClient, ReadMode>> lbFactory,
-      final Map<Node, ClientPool<RedisClient>> masterPools,
-      final ClientPool<RedisClient>[] masterSlots,
-      final Map<Node, ClientPool<RedisClient>> slavePools,
-      final LoadBalancedPools<RedisClient, ReadMode>[] slaveSlots) {
+      final Function<ClientPool<RedisClient>[], LoadBalancedPools<RedisClient, ReadMode>>
+      lbFactory) {
+
+    final Map<Integer, SlotNodes> previousSlots = getSlotNodesByBegin(current.getClusterSlots());
+
+    final Map<Node, ClientPool<RedisClient>> masterPools = new HashMap<>();
+    final ClientPool<RedisClient>[] masterSlots = previousSlots == null
+        ? SlotRoutingTable.createMasterSlots(defaultReadMode) : current.copyMasterSlots();
+    final Map<Node, ClientPool<RedisClient>> slavePools = new HashMap<>();
+    final LoadBalancedPools<RedisClient, ReadMode>[] slaveSlots = previousSlots == null
+        ? SlotRoutingTable.createSlaveSlots(defaultReadMode) : current.copySlaveSlots();
+
+    if (previousSlots != null) {
+      final Map<Integer, SlotNodes> nextSlots = getSlotNodesByBegin(clusterSlots);
+      for (final SlotNodes previous : previousSlots.values()) {
+        if (!isSameSlotNodes(previous, nextSlots.get(previous.getSlotBegin()))) {
+          if (masterSlots.length > 0) {
+            Arrays.fill(masterSlots, previous.getSlotBegin(), previous.getSlotEndExclusive(), null);
+          }
+          if (slaveSlots.length > 0) {
+            Arrays.fill(slaveSlots, previous.getSlotBegin(), previous.getSlotEndExclusive(), null);
+          }
+        }
+      }
+    }
 
     for (final SlotNodes slotNodes : clusterSlots.getClusterSlots()) {
+      final boolean changed = previousSlots == null
+          || !isSameSlotNodes(slotNodes, previousSlots.get(slotNodes.getSlotBegin()));
+
       switch (defaultReadMode) {
         case MIXED_SLAVES:
         case MIXED:
         case MASTER:
           final Node masterNode = nodeMapper.apply(slotNodes.getMaster());
-          final ClientPool<RedisClient> masterPool = masterPoolFactory.apply(masterNode);
-          masterPools.put(masterNode, masterPool);
-          Arrays.fill(masterSlots, slotNodes.getSlotBegin(), slotNodes.getSlotEndExclusive(),
-              masterPool);
+          final ClientPool<RedisClient> masterPool = masterPools.computeIfAbsent(masterNode,
+              node -> getOrCreatePool(node, current.getMasterPools(), createdMasterPools,
+                  masterPoolFactory));
+          if (changed) {
+            Arrays.fill(masterSlots, slotNodes.getSlotBegin(), slotNodes.getSlotEndExclusive(),
+                masterPool);
+          }
           break;
         case SLAVES:
         default:
@@ -347,9 +586,9 @@ class RedisClusterSlotCache implements AutoCloseable {
           case SLAVES:
           case MIXED:
           case MIXED_SLAVES:
-            final ClientPool<RedisClient> slavePool = slavePoolFactory.apply(slaveNode);
-            slavePools.put(slaveNode, slavePool);
-            slotSlavePools[poolIndex++] = slavePool;
+            slotSlavePools[poolIndex++] = slavePools.computeIfAbsent(slaveNode,
+                node -> getOrCreatePool(node, current.getSlavePools(), createdSlavePools,
+                    slavePoolFactory));
             break;
           case MASTER:
           default:
@@ -357,9 +596,74 @@ class RedisClusterSlotCache implements AutoCloseable {
         }
       }
 
-      final LoadBalancedPools<RedisClient, ReadMode> lbPools = lbFactory.apply(slotSlavePools);
-      Arrays.fill(slaveSlots, slotNodes.getSlotBegin(), slotNodes.getSlotEndExclusive(), lbPools);
+      if (changed) {
+        final LoadBalancedPools<RedisClient, ReadMode> lbPools = lbFactory.apply(slotSlavePools);
+        Arrays.fill(slaveSlots, slotNodes.getSlotBegin(), slotNodes.getSlotEndExclusive(),
+            lbPools);
+      }
+    }
+
+    return new SlotRoutingTable(current.getEpoch() + 1, clusterSlots, masterPools, masterSlots,
+        slavePools, slaveSlots);
+  }
+
+  private static Map<Integer, SlotNodes> getSlotNodesByBegin(final ClusterSlotVotes clusterSlots) {
+    if (clusterSlots == null) {
+      return null;
+    }
+
+    final SlotNodes[] slotNodes = clusterSlots.getClusterSlots();
+    final Map<Integer, SlotNodes> slotNodesByBegin = new HashMap<>(slotNodes.length * 2);
+    for (final SlotNodes nodes : slotNodes) {
+      slotNodesByBegin.put(nodes.getSlotBegin(), nodes);
+    }
+    return slotNodesByBegin;
+  }
+
+  // SlotNodes#equals only compares masters.
+  private static boolean isSameSlotNodes(final SlotNodes slotNodes, final SlotNodes other) {
+    if (other == null || slotNodes.getSlotEndExclusive() != other.getSlotEndExclusive()
+        || slotNodes.getNumNodesServingSlots() != other.getNumNodesServingSlots()) {
+      return false;
+    }
+
+    for (int i = 0;i < slotNodes.getNumNodesServingSlots();i++) {
+      if (!slotNodes.getNode(i).equals(other.getNode(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  static boolean isSameTopology(final ClusterSlotVotes clusterSlots,
+      final ClusterSlotVotes other) {
+
+    if (clusterSlots == null || other == null) {
+      return false;
+    }
+
+    final SlotNodes[] slotNodes = clusterSlots.getClusterSlots();
+    final SlotNodes[] otherSlotNodes = other.getClusterSlots();
+    if (slotNodes.length != otherSlotNodes.length) {
+      return false;
+    }
+
+    for (int i = 0;i < slotNodes.length;i++) {
+      if (slotNodes[i].getSlotBegin() != otherSlotNodes[i].getSlotBegin()
+          || !isSameSlotNodes(slotNodes[i], otherSlotNodes[i])) {
+        return false;
+      }
     }
+    return true;
+  }
+
+  private static ClientPool<RedisClient> getOrCreatePool(final Node node,
+      final Map<Node, ClientPool<RedisClient>> currentPools,
+      final Map<Node, ClientPool<RedisClient>> createdPools,
+      final Function<Node, ClientPool<RedisClient>> poolFactory) {
+
+    final ClientPool<RedisClient> pool = currentPools.get(node);
+    return pool == null ? createdPools.computeIfAbsent(node, poolFactory) : pool;
   }
 
   private void slotCacheRefreshDelay() {
@@ -394,6 +698,7 @@ class RedisClusterSlotCache implements AutoCloseable {
         final Queue<ForkJoinTask<?>> voteFutures = new ConcurrentLinkedQueue<>();
         final ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
 
+        final Map<Node, ClientPool<RedisClient>> masterPools = routes.get().getMasterPools();
         final Set<Node> knownMasters =
             Collections.newSetFromMap(new ConcurrentHashMap<>(masterPools.size()));
         knownMasters.addAll(masterPools.keySet());
@@ -574,135 +879,75 @@ class RedisClusterSlotCache implements AutoCloseable {
   }
 
   private void cacheClusterSlots(final ClusterSlotVotes clusterSlots) {
-    final Set<Node> staleMasterPools = new HashSet<>(masterPools.keySet());
-    final Set<Node> staleSlavePools = new HashSet<>(slavePools.keySet());
-
-    int expectedSlot = 0;
-
-    for (final SlotNodes slotNodes : clusterSlots.getClusterSlots()) {
-      if (slotNodes.getSlotBegin() != expectedSlot) {
-        if (masterSlots.length > 0) {
-          Arrays.fill(masterSlots, expectedSlot, slotNodes.getSlotBegin(), null);
-        }
-        if (slaveSlots.length > 0) {
-          Arrays.fill(slaveSlots, expectedSlot, slotNodes.getSlotBegin(), null);
-        }
-      }
-      expectedSlot = slotNodes.getSlotEndExclusive();
-
-      switch (defaultReadMode) {
-        case MIXED_SLAVES:
-        case MIXED:
-        case MASTER:
-          final Node masterNode = nodeMapper.apply(slotNodes.getMaster());
-          synchronized (masterPoolFactory) {
-            final ClientPool<RedisClient> masterPool = masterPools.computeIfAbsent(masterNode,
-                masterPoolFactory);
-            Arrays.fill(masterSlots, slotNodes.getSlotBegin(), slotNodes.getSlotEndExclusive(),
-                masterPool);
-          }
-          staleMasterPools.remove(masterNode);
-          break;
-        case SLAVES:
-        default:
-          break;
-      }
+    final Map<Node, ClientPool<RedisClient>> createdMasterPools = new HashMap<>();
+    final Map<Node, ClientPool<RedisClient>> createdSlavePools = new HashMap<>();
 
-      if (slotNodes.getNumNodesServingSlots() < 2 || defaultReadMode == ReadMode.MASTER) {
-        continue;
-      }
-
-      @SuppressWarnings("unchecked")
-      final ClientPool<RedisClient>[] slotSlavePools =
-          new ClientPool[slotNodes.getNumNodesServingSlots() - 1];
-
-      for (int i = 1, poolIndex = 0;i < slotNodes.getNumNodesServingSlots();i++) {
-        final Node slaveNode = nodeMapper.apply(slotNodes.getNode(i));
-        switch (defaultReadMode) {
-          case SLAVES:
-          case MIXED:
-          case MIXED_SLAVES:
-            staleSlavePools.remove(slaveNode);
-            slotSlavePools[poolIndex++] = slavePools.computeIfAbsent(slaveNode, slavePoolFactory);
-            break;
-          case MASTER:
-          default:
-            break;
-        }
+    for (;;) {
+      final SlotRoutingTable current = routes.get();
+      // Retried against concurrent MOVED updates, which only ever add routes.
+      final SlotRoutingTable next = createRoutingTable(clusterSlots, current, createdMasterPools,
+          createdSlavePools, defaultReadMode, nodeMapper, masterPoolFactory, slavePoolFactory,
+          lbFactory);
+
+      if (routes.compareAndSet(current, next)) {
+        closeStalePools(current.getMasterPools(), next.getMasterPools());
+        closeStalePools(current.getSlavePools(), next.getSlavePools());
+        closeStalePools(createdMasterPools, next.getMasterPools());
+        closeStalePools(createdSlavePools, next.getSlavePools());
+        createdMasterPools.values().stream()
+            .filter(pool -> next.getMasterPools().containsValue(pool))
+            .forEach(this::warmUpInBackground);
+        createdSlavePools.values().stream()
+            .filter(pool -> next.getSlavePools().containsValue(pool))
+            .forEach(this::warmUpInBackground);
+        return;
       }
-
-      final LoadBalancedPools<RedisClient, ReadMode> lbPools = lbFactory.apply(slotSlavePools);
-      Arrays.fill(slaveSlots, slotNodes.getSlotBegin(), slotNodes.getSlotEndExclusive(), lbPools);
     }
+  }
 
-    for (final Node staleMasterNode : staleMasterPools) {
-      clusterNodeRetryDelay.clear(staleMasterNode);
-      final ClientPool<RedisClient> removedPool = masterPools.remove(staleMasterNode);
-      if (removedPool != null) {
-        try {
-          removedPool.close();
-        } catch (final RuntimeException e) {
-          // closing anyways...
-        }
-      }
-    }
+  private void closeStalePools(final Map<Node, ClientPool<RedisClient>> previousPools,
+      final Map<Node, ClientPool<RedisClient>> nextPools) {
 
-    for (final Node staleSlaveNode : staleSlavePools) {
-      clusterNodeRetryDelay.clear(staleSlaveNode);
-      final ClientPool<RedisClient> removedPool = slavePools.remove(staleSlaveNode);
-      if (removedPool != null) {
-        try {
-          removedPool.close();
-        } catch (final RuntimeException e) {
-          // closing anyways...
-        }
+    for (final Entry<Node, ClientPool<RedisClient>> previous : previousPools.entrySet()) {
+      if (nextPools.get(previous.getKey()) != previous.getValue()) {
+        clusterNodeRetryDelay.clear(previous.getKey());
+        closePool(previous.getValue());
       }
     }
   }
 
-  ClientPool<RedisClient> getAskPool(final Node askNode) {
-
-    long readStamp = lock.tryOptimisticRead();
-    ClientPool<RedisClient> pool = getAskPoolGuarded(askNode);
-
-    if (!lock.validate(readStamp)) {
-      try {
-        readStamp = maxAwaitCacheRefreshNanos == 0 ? lock.readLock()
-            : lock.tryReadLock(maxAwaitCacheRefreshNanos, TimeUnit.NANOSECONDS);
-      } catch (final InterruptedException ie) {
-        Thread.currentThread().interrupt();
-        throw new RuntimeException(ie);
-      }
-
-      try {
-        pool = getAskPoolGuarded(askNode);
-      } finally {
-        if (readStamp > 0) {
-          lock.unlockRead(readStamp);
-        }
-      }
+  private static void closePool(final ClientPool<RedisClient> pool) {
+    if (pool == null) {
+      return;
+    }
+    try {
+      pool.close();
+    } catch (final RuntimeException e) {
+      // closing anyways...
     }
-
-    return pool == null ? new OneLifePool(nodeUnknownFactory.apply(askNode)) : pool;
   }
 
-  ClientPool<RedisClient> getAskPoolGuarded(final Node askNode) {
+  ClientPool<RedisClient> getAskPool(final Node askNode) {
+    final SlotRoutingTable routes = this.routes.get();
+    final ClientPool<RedisClient> pool;
 
     switch (defaultReadMode) {
       case MASTER:
-        return masterPools.get(askNode);
+        pool = routes.getMasterPool(askNode);
+        break;
       case MIXED:
       case MIXED_SLAVES:
-        ClientPool<RedisClient> pool = masterPools.get(askNode);
-        if (pool == null) {
-          pool = slavePools.get(askNode);
-        }
-        return pool;
+        pool = routes.getPool(askNode);
+        break;
       case SLAVES:
-        return slavePools.get(askNode);
+        pool = routes.getSlavePool(askNode);
+        break;
       default:
-        return null;
+        pool = null;
+        break;
     }
+
+    return pool == null ? new OneLifePool(nodeUnknownFactory.apply(askNode)) : pool;
   }
 
   ClientPool<RedisClient> getSlotPool(final ReadMode readMode, final int slot) {
@@ -710,279 +955,85 @@ class RedisClusterSlotCache implements AutoCloseable {
     switch (defaultReadMode) {
       case MASTER:
       case SLAVES:
-        return getSlotPoolModeChecked(defaultReadMode, slot);
+        return routes.get().getLoadBalancedPool(defaultReadMode, slot);
       case MIXED:
       case MIXED_SLAVES:
-        return getSlotPoolModeChecked(readMode, slot);
+        return routes.get().getLoadBalancedPool(readMode, slot);
       default:
         return null;
     }
   }
 
-  ClientPool<RedisClient> getSlotPoolModeChecked(final ReadMode readMode,
-      final int slot) {
-
-    long readStamp = lock.tryOptimisticRead();
-    final ClientPool<RedisClient> pool = getLoadBalancedPool(readMode, slot);
-
-    if (lock.validate(readStamp)) {
-      return pool;
-    }
-
-    try {
-      readStamp = maxAwaitCacheRefreshNanos == 0 ? lock.readLock()
-          : lock.tryReadLock(maxAwaitCacheRefreshNanos, TimeUnit.NANOSECONDS);
-    } catch (final InterruptedException ie) {
-      Thread.currentThread().interrupt();
-      throw new RuntimeException(ie);
-    }
-
-    try {
-      return getLoadBalancedPool(readMode, slot);
-    } finally {
-      if (readStamp > 0) {
-        lock.unlockRead(readStamp);
-      }
-    }
-  }
+  List<ClientPool<RedisClient>> getShardPools(final ReadMode readMode) {
 
-  ClientPool<RedisClient> getLoadBalancedPool(final ReadMode readMode, final int slot) {
+    final ReadMode shardReadMode =
+        defaultReadMode == ReadMode.MASTER || defaultReadMode == ReadMode.SLAVES ? defaultReadMode
+            : readMode;
 
-    switch (readMode) {
-      case MASTER:
-        return masterSlots[slot];
-      case MIXED:
-      case MIXED_SLAVES:
-        LoadBalancedPools<RedisClient, ReadMode> lbSlaves = slaveSlots[slot];
-        if (lbSlaves == null) {
-          return masterSlots[slot];
-        }
-        final ClientPool<RedisClient> slavePool = lbSlaves.next(readMode, null);
-        return slavePool == null ? masterSlots[slot] : slavePool;
-      case SLAVES:
-        lbSlaves = slaveSlots[slot];
-        if (lbSlaves == null) {
-          return masterSlots.length == 0 ? null : masterSlots[slot];
-        }
-        return lbSlaves.next(readMode, null);
-      default:
-        return null;
-    }
+    return routes.get().getShardPools(shardReadMode);
   }
 
   Map<Node, ClientPool<RedisClient>> getMasterPools() {
-
-    if (!lock.isWriteLocked()) {
-      return masterPools;
-    }
-
-    long readStamp;
-    try {
-      readStamp = maxAwaitCacheRefreshNanos == 0 ? lock.readLock()
-          : lock.tryReadLock(maxAwaitCacheRefreshNanos, TimeUnit.NANOSECONDS);
-    } catch (final InterruptedException ie) {
-      Thread.currentThread().interrupt();
-      throw new RuntimeException(ie);
-    }
-
-    try {
-      return masterPools;
-    } finally {
-      if (readStamp > 0) {
-        lock.unlockRead(readStamp);
-      }
-    }
+    return routes.get().getMasterPools();
   }
 
   Map<Node, ClientPool<RedisClient>> getSlavePools() {
-
-    if (!lock.isWriteLocked()) {
-      return slavePools;
-    }
-
-    long readStamp;
-    try {
-      readStamp = maxAwaitCacheRefreshNanos == 0 ? lock.readLock()
-          : lock.tryReadLock(maxAwaitCacheRefreshNanos, TimeUnit.NANOSECONDS);
-    } catch (final InterruptedException ie) {
-      Thread.currentThread().interrupt();
-      throw new RuntimeException(ie);
-    }
-
-    try {
-      return slavePools;
-    } finally {
-      if (readStamp > 0) {
-        lock.unlockRead(readStamp);
-      }
-    }
+    return routes.get().getSlavePools();
   }
 
   Map<Node, ClientPool<RedisClient>> getAllPools() {
-
-    long readStamp = lock.tryOptimisticRead();
-
-    final Map<Node, ClientPool<RedisClient>> allPools =
-        new HashMap<>(masterPools.size() + slavePools.size());
-    allPools.putAll(masterPools);
-    allPools.putAll(slavePools);
-
-    if (lock.validate(readStamp)) {
-      return allPools;
-    }
-
-    allPools.clear();
-
-    try {
-      readStamp = maxAwaitCacheRefreshNanos == 0 ? lock.readLock()
-          : lock.tryReadLock(maxAwaitCacheRefreshNanos, TimeUnit.NANOSECONDS);
-    } catch (final InterruptedException ie) {
-      Thread.currentThread().interrupt();
-      throw new RuntimeException(ie);
-    }
-
-    try {
-      allPools.putAll(masterPools);
-      allPools.putAll(slavePools);
-      return allPools;
-    } finally {
-      if (readStamp > 0) {
-        lock.unlockRead(readStamp);
-      }
-    }
+    return routes.get().getAllPools();
   }
 
   ClientPool<RedisClient> getMasterPoolIfPresent(final Node node) {
-
-    long readStamp = lock.tryOptimisticRead();
-    final ClientPool<RedisClient> pool = masterPools.get(node);
-
-    if (lock.validate(readStamp)) {
-      return pool;
-    }
-
-    try {
-      readStamp = maxAwaitCacheRefreshNanos == 0 ? lock.readLock()
-          : lock.tryReadLock(maxAwaitCacheRefreshNanos, TimeUnit.NANOSECONDS);
-    } catch (final InterruptedException ie) {
-      Thread.currentThread().interrupt();
-      throw new RuntimeException(ie);
-    }
-
-    try {
-      return masterPools.get(node);
-    } finally {
-      if (readStamp > 0) {
-        lock.unlockRead(readStamp);
-      }
-    }
+    return routes.get().getMasterPool(node);
   }
 
   ClientPool<RedisClient> getSlavePoolIfPresent(final Node node) {
-
-    long readStamp = lock.tryOptimisticRead();
-    final ClientPool<RedisClient> pool = slavePools.get(node);
-
-    if (lock.validate(readStamp)) {
-      return pool;
-    }
-
-    try {
-      readStamp = maxAwaitCacheRefreshNanos == 0 ? lock.readLock()
-          : lock.tryReadLock(maxAwaitCacheRefreshNanos, TimeUnit.NANOSECONDS);
-    } catch (final InterruptedException ie) {
-      Thread.currentThread().interrupt();
-      throw new RuntimeException(ie);
-    }
-
-    try {
-      return slavePools.get(node);
-    } finally {
-      if (readStamp > 0) {
-        lock.unlockRead(readStamp);
-      }
-    }
+    return routes.get().getSlavePool(node);
   }
 
   ClientPool<RedisClient> getPoolIfPresent(final Node node) {
-
-    long readStamp = lock.tryOptimisticRead();
-    ClientPool<RedisClient> pool = masterPools.get(node);
-    if (pool == null) {
-      pool = slavePools.get(node);
-    }
-
-    if (lock.validate(readStamp)) {
-      return pool;
-    }
-
-    try {
-      readStamp = maxAwaitCacheRefreshNanos == 0 ? lock.readLock()
-          : lock.tryReadLock(maxAwaitCacheRefreshNanos, TimeUnit.NANOSECONDS);
-    } catch (final InterruptedException ie) {
-      Thread.currentThread().interrupt();
-      throw new RuntimeException(ie);
-    }
-
-    try {
-      pool = masterPools.get(node);
-      if (pool == null) {
-        pool = slavePools.get(node);
-      }
-      return pool;
-    } finally {
-      if (readStamp > 0) {
-        lock.unlockRead(readStamp);
-      }
-    }
+    return routes.get().getPool(node);
   }
 
   @Override
   public void close() {
 
+    closed = true;
+    if (refresher != null) {
+      refresher.shutdownNow();
+    }
+    backgroundExecutor.shutdownNow();
+    discoveryNodeSupplier = () -> Collections.emptySet();
+
+    // Background refreshes and warm ups are interrupted and given a bounded time to stop using the
+    // pools before they are closed. Refreshes on request threads are awaited via the lock.
+    final long deadline = System.nanoTime() + CLOSE_TIMEOUT_NANOS;
     InterruptedException ie = null;
-    long writeStamp = 0;
+    boolean locked = false;
     try {
-      writeStamp = lock.tryWriteLock(Math.min(1_000_000_000, maxAwaitCacheRefreshNanos),
-          TimeUnit.NANOSECONDS);
+      if (refresher != null) {
+        refresher.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+      }
+      backgroundExecutor.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+      locked = refreshLock.tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
     } catch (final InterruptedException e) {
       // allow dirty write.
       ie = e;
     }
 
     try {
-      discoveryNodeSupplier = () -> Collections.emptySet();
+      final SlotRoutingTable closedRoutes = routes.getAndSet(
+          SlotRoutingTable.createEmpty(routes.get().getEpoch() + 1, defaultReadMode));
 
-      masterPools.forEach((node, pool) -> {
-        try {
-          if (pool != null) {
-            pool.close();
-          }
-        } catch (final RuntimeException e) {
-          // closing anyways...
-        }
-        clusterNodeRetryDelay.clear(node);
-      });
-
-      masterPools.clear();
-      Arrays.fill(masterSlots, null);
-
-      slavePools.forEach((node, pool) -> {
-        try {
-          if (pool != null) {
-            pool.close();
-          }
-        } catch (final RuntimeException e) {
-          // closing anyways...
-        }
+      closedRoutes.getAllPools().forEach((node, pool) -> {
+        closePool(pool);
         clusterNodeRetryDelay.clear(node);
       });
-
-      slavePools.clear();
-      Arrays.fill(slaveSlots, null);
     } finally {
-      if (writeStamp > 0) {
-        lock.unlockWrite(writeStamp);
+      if (locked) {
+        refreshLock.unlock();
       }
       if (ie != null) {
         Thread.currentThread().interrupt();
@@ -997,10 +1048,11 @@ class RedisClusterSlotCache implements AutoCloseable {
   @Override
   public String toString() {
     return new StringBuilder("RedisClusterSlotCache [defaultReadMode=").append(defaultReadMode)
-        .append(", discoveryNodes=").append(discoveryNodeSupplier).append(", optimisticReads=")
-        .append(optimisticReads).append(", maxAwaitCacheRefreshNanos=")
+        .append(", discoveryNodes=").append(discoveryNodeSupplier).append(", routes=")
+        .append(routes.get()).append(", maxAwaitCacheRefreshNanos=")
         .append(maxAwaitCacheRefreshNanos).append(", millisBetweenSlotCacheRefresh=")
-        .append(millisBetweenSlotCacheRefresh).append(", refreshStamp=").append(refreshStamp)
+        .append(millisBetweenSlotCacheRefresh).append(", millisBetweenBackgroundRefresh=")
+        .append(millisBetweenBackgroundRefresh).append(", refreshStamp=").append(refreshStamp)
         .append("]").toString();
   }
 }
@@ -0,0 +1,289 @@
+package com.fabahaba.jedipus.cluster;
+
+import com.fabahaba.jedipus.client.RedisClient;
+import com.fabahaba.jedipus.cmds.RESP;
+import com.fabahaba.jedipus.exceptions.RedisUnhandledException;
+import com.fabahaba.jedipus.params.ScanParams;
+import com.fabahaba.jedipus.pool.ClientPool;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Spliterates over the reply batches of one or more SCAN family cursors. Without an executor,
+ * batches are fetched lazily on the consuming thread and the cursors may be split across the
+ * threads of a parallel stream. With an executor, every cursor is advanced concurrently by its own
+ * task and at most {@code prefetch} unconsumed batches are buffered. Cursors waiting on the
+ * consumer are parked rather than holding an executor thread.
+ */
+final class ScanSpliterator implements Spliterator<Object[]>, AutoCloseable {
+
+  static final byte[] SCAN_SENTINEL = RESP.toBytes(ScanParams.SCAN_SENTINEL);
+
+  private static final Object END = new Object();
+
+  private final ScanCursor[] cursors;
+  private final Function<ScanCursor, Object[]> scanNext;
+  private final ExecutorService executor;
+  private final int prefetch;
+  private int index;
+  private final int fence;
+
+  private LinkedBlockingQueue<Object> batches;
+  // Guarded by waiting.
+  private ArrayDeque<ScanCursor> waiting;
+  private int permits;
+  private int numActive;
+  private volatile boolean closed;
+
+  ScanSpliterator(final ScanCursor[] cursors, final Function<ScanCursor, Object[]> scanNext,
+      final ExecutorService executor, final int prefetch) {
+    this(cursors, scanNext, executor, prefetch, 0, cursors.length);
+  }
+
+  private ScanSpliterator(final ScanCursor[] cursors,
+      final Function<ScanCursor, Object[]> scanNext, final ExecutorService executor,
+      final int prefetch, final int index, final int fence) {
+    this.cursors = cursors;
+    this.scanNext = scanNext;
+    this.executor = executor;
+    this.prefetch = prefetch;
+    this.index = index;
+    this.fence = fence;
+  }
+
+  @Override
+  public boolean tryAdvance(final Consumer<? super Object[]> action) {
+    return executor == null ? tryAdvanceSerial(action) : tryAdvanceAsync(action);
+  }
+
+  private boolean tryAdvanceSerial(final Consumer<? super Object[]> action) {
+    while (index < fence) {
+      final ScanCursor cursor = cursors[index];
+      if (cursor.isDone()) {
+        index++;
+        continue;
+      }
+
+      final Object[] batch = scanNext.apply(cursor);
+      if (batch.length > 0) {
+        action.accept(batch);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean tryAdvanceAsync(final Consumer<? super Object[]> action) {
+    if (batches == null) {
+      startAsync();
+    }
+
+    while (numActive > 0) {
+      final Object batch;
+      try {
+        batch = batches.take();
+      } catch (final InterruptedException ie) {
+        close();
+        Thread.currentThread().interrupt();
+        throw new RedisUnhandledException(null, "Interrupted while waiting for scan replies.", ie);
+      }
+
+      if (batch == END) {
+        numActive--;
+        continue;
+      }
+
+      if (batch instanceof RuntimeException) {
+        close();
+        throw (RuntimeException) batch;
+      }
+
+      releasePermit();
+      action.accept((Object[]) batch);
+      return true;
+    }
+    return false;
+  }
+
+  private void startAsync() {
+    batches = new LinkedBlockingQueue<>();
+    waiting = new ArrayDeque<>();
+    permits = Math.max(1, prefetch);
+    numActive = fence - index;
+
+    for (; index < fence; index++) {
+      final ScanCursor cursor = cursors[index];
+      executor.execute(() -> scanAsync(cursor));
+    }
+  }
+
+  // Hands a consumed batch's permit to a waiting cursor, resuming it on the executor.
+  private void releasePermit() {
+    final ScanCursor next;
+    synchronized (waiting) {
+      next = waiting.poll();
+      if (next == null) {
+        permits++;
+        return;
+      }
+    }
+    executor.execute(() -> scanAsync(next, true));
+  }
+
+  private void scanAsync(final ScanCursor cursor) {
+    scanAsync(cursor, false);
+  }
+
+  /**
+   * Fetches batches for the cursor while permits are available. Once they run out the cursor
+   * waits for the consumer to hand it a permit, rather than blocking an executor thread, so
+   * abandoned streams do not hold on to threads.
+   */
+  private void scanAsync(final ScanCursor cursor, final boolean resumed) {
+    boolean hasPermit = resumed;
+    try {
+      while (!closed && !cursor.isDone()) {
+        if (!hasPermit) {
+          synchronized (waiting) {
+            if (permits == 0) {
+              waiting.add(cursor);
+              return;
+            }
+            permits--;
+          }
+          hasPermit = true;
+        }
+
+        final Object[] batch = scanNext.apply(cursor);
+        if (Thread.currentThread().isInterrupted()) {
+          throw new RedisUnhandledException(null, "Interrupted while scanning " + cursor + '.');
+        }
+        if (batch.length > 0) {
+          batches.add(batch);
+          hasPermit = false;
+        }
+      }
+    } catch (final RuntimeException re) {
+      batches.add(re);
+    }
+    batches.add(END);
+  }
+
+  @Override
+  public Spliterator<Object[]> trySplit() {
+    if (executor != null) {
+      return null;
+    }
+
+    final int mid = (index + fence) >>> 1;
+    if (mid <= index) {
+      return null;
+    }
+
+    final Spliterator<Object[]> prefix =
+        new ScanSpliterator(cursors, scanNext, executor, prefetch, index, mid);
+    index = mid;
+    return prefix;
+  }
+
+  @Override
+  public long estimateSize() {
+    return Long.MAX_VALUE;
+  }
+
+  @Override
+  public int characteristics() {
+    return NONNULL;
+  }
+
+  /**
+   * Stops any asynchronous scan tasks after their in-flight request completes. An abandoned
+   * stream that is never closed holds at most {@code prefetch} batches, but no executor threads.
+   */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (waiting != null) {
+      synchronized (waiting) {
+        waiting.clear();
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder("ScanSpliterator [cursors=").append(Arrays.toString(cursors))
+        .append(", prefetch=").append(prefetch).append(", closed=").append(closed).append("]")
+        .toString();
+  }
+
+  static final class ScanCursor {
+
+    private final ClientPool<RedisClient> pool;
+    private final int slot;
+    private final byte[][] args;
+    private final int cursorIndex;
+    private Node node;
+    private volatile boolean done;
+
+    ScanCursor(final ClientPool<RedisClient> pool, final int slot, final byte[][] args,
+        final int cursorIndex) {
+      this.pool = pool;
+      this.slot = slot;
+      this.args = args;
+      this.cursorIndex = cursorIndex;
+      this.done = false;
+    }
+
+    // null for keyed cursors, which are routed by slot.
+    ClientPool<RedisClient> getPool() {
+      return pool;
+    }
+
+    int getSlot() {
+      return slot;
+    }
+
+    boolean isDone() {
+      return done;
+    }
+
+    /**
+     * Restarts the cursor if the scanned key is now served by a different node, as cursors are
+     * only meaningful to the node that issued them.
+     *
+     * @param scanNode The node about to be scanned.
+     * @return The arguments for the next request.
+     */
+    byte[][] getArgs(final Node scanNode) {
+      if (node != null && !node.equals(scanNode)) {
+        args[cursorIndex] = SCAN_SENTINEL;
+      }
+      node = scanNode;
+      return args;
+    }
+
+    Object[] onReply(final Object[] reply) {
+      final byte[] nextCursor = (byte[]) reply[0];
+      args[cursorIndex] = nextCursor;
+      done = Arrays.equals(SCAN_SENTINEL, nextCursor);
+      return (Object[]) reply[1];
+    }
+
+    @Override
+    public String toString() {
+      return new StringBuilder("ScanCursor [node=").append(node).append(", slot=").append(slot)
+          .append(", cursor=").append(RESP.toString(args[cursorIndex])).append(", done=")
+          .append(done).append("]").toString();
+    }
+  }
+}
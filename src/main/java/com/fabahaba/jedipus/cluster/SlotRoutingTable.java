@@ -0,0 +1,186 @@
+package com.fabahaba.jedipus.cluster;
+
+import com.fabahaba.jedipus.client.RedisClient;
+import com.fabahaba.jedipus.cluster.RedisClusterExecutor.ReadMode;
+import com.fabahaba.jedipus.cluster.data.ClusterSlotVotes;
+import com.fabahaba.jedipus.concurrent.LoadBalancedPools;
+import com.fabahaba.jedipus.pool.ClientPool;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable snapshot of the slot to pool routes. Routing changes never mutate a published
+ * table, they build and publish a new one with the next epoch, so readers may route without any
+ * locking or validation.
+ */
+final class SlotRoutingTable {
+
+  private final long epoch;
+  // The topology this table was built from, null once a MOVED redirect has been applied.
+  private final ClusterSlotVotes clusterSlots;
+  private final Map<Node, ClientPool<RedisClient>> masterPools;
+  private final ClientPool<RedisClient>[] masterSlots;
+  private final Map<Node, ClientPool<RedisClient>> slavePools;
+  private final LoadBalancedPools<RedisClient, ReadMode>[] slaveSlots;
+
+  SlotRoutingTable(final long epoch, final ClusterSlotVotes clusterSlots,
+      final Map<Node, ClientPool<RedisClient>> masterPools,
+      final ClientPool<RedisClient>[] masterSlots,
+      final Map<Node, ClientPool<RedisClient>> slavePools,
+      final LoadBalancedPools<RedisClient, ReadMode>[] slaveSlots) {
+
+    this.epoch = epoch;
+    this.clusterSlots = clusterSlots;
+    this.masterPools = Collections.unmodifiableMap(masterPools);
+    this.masterSlots = masterSlots;
+    this.slavePools = Collections.unmodifiableMap(slavePools);
+    this.slaveSlots = slaveSlots;
+  }
+
+  static SlotRoutingTable createEmpty(final long epoch, final ReadMode defaultReadMode) {
+    return new SlotRoutingTable(epoch, null, Collections.emptyMap(),
+        createMasterSlots(defaultReadMode), Collections.emptyMap(),
+        createSlaveSlots(defaultReadMode));
+  }
+
+  @SuppressWarnings("unchecked")
+  static ClientPool<RedisClient>[] createMasterSlots(final ReadMode defaultReadMode) {
+    return defaultReadMode == ReadMode.SLAVES ? new ClientPool[0]
+        : new ClientPool[CRC16.NUM_SLOTS];
+  }
+
+  @SuppressWarnings("unchecked")
+  static LoadBalancedPools<RedisClient, ReadMode>[] createSlaveSlots(
+      final ReadMode defaultReadMode) {
+    return defaultReadMode == ReadMode.MASTER ? new LoadBalancedPools[0]
+        : new LoadBalancedPools[CRC16.NUM_SLOTS];
+  }
+
+  long getEpoch() {
+    return epoch;
+  }
+
+  ClusterSlotVotes getClusterSlots() {
+    return clusterSlots;
+  }
+
+  ClientPool<RedisClient>[] copyMasterSlots() {
+    return masterSlots.clone();
+  }
+
+  LoadBalancedPools<RedisClient, ReadMode>[] copySlaveSlots() {
+    return slaveSlots.clone();
+  }
+
+  Map<Node, ClientPool<RedisClient>> getMasterPools() {
+    return masterPools;
+  }
+
+  Map<Node, ClientPool<RedisClient>> getSlavePools() {
+    return slavePools;
+  }
+
+  Map<Node, ClientPool<RedisClient>> getAllPools() {
+    final Map<Node, ClientPool<RedisClient>> allPools =
+        new HashMap<>(masterPools.size() + slavePools.size());
+    allPools.putAll(masterPools);
+    allPools.putAll(slavePools);
+    return allPools;
+  }
+
+  ClientPool<RedisClient> getMasterPool(final Node node) {
+    return masterPools.get(node);
+  }
+
+  ClientPool<RedisClient> getSlavePool(final Node node) {
+    return slavePools.get(node);
+  }
+
+  ClientPool<RedisClient> getPool(final Node node) {
+    final ClientPool<RedisClient> pool = masterPools.get(node);
+    return pool == null ? slavePools.get(node) : pool;
+  }
+
+  /**
+   * @param slot     The slot that moved.
+   * @param node     The master now serving the slot.
+   * @param nodePool The pool to use for the node if this table does not have one already.
+   * @return A copy of this table with the next epoch and the slot routed to the node's pool. The
+   *         copy no longer matches any known topology, so the next refresh rebuilds all routes.
+   */
+  SlotRoutingTable withMovedSlot(final int slot, final Node node,
+      final ClientPool<RedisClient> nodePool) {
+
+    final ClientPool<RedisClient> pool = masterPools.get(node);
+    final Map<Node, ClientPool<RedisClient>> nextMasterPools;
+    if (pool == null) {
+      nextMasterPools = new HashMap<>(masterPools);
+      nextMasterPools.put(node, nodePool);
+    } else {
+      nextMasterPools = masterPools;
+    }
+
+    final ClientPool<RedisClient>[] nextMasterSlots = masterSlots.clone();
+    nextMasterSlots[slot] = pool == null ? nodePool : pool;
+
+    return new SlotRoutingTable(epoch + 1, null, nextMasterPools, nextMasterSlots, slavePools,
+        slaveSlots);
+  }
+
+  ClientPool<RedisClient> getLoadBalancedPool(final ReadMode readMode, final int slot) {
+
+    switch (readMode) {
+      case MASTER:
+        return masterSlots[slot];
+      case MIXED:
+      case MIXED_SLAVES:
+        LoadBalancedPools<RedisClient, ReadMode> lbSlaves = slaveSlots[slot];
+        if (lbSlaves == null) {
+          return masterSlots[slot];
+        }
+        final ClientPool<RedisClient> masterPool = masterSlots[slot];
+        final ClientPool<RedisClient> slavePool = lbSlaves.next(readMode, masterPool);
+        return slavePool == null ? masterPool : slavePool;
+      case SLAVES:
+        lbSlaves = slaveSlots[slot];
+        if (lbSlaves == null) {
+          return masterSlots.length == 0 ? null : masterSlots[slot];
+        }
+        return lbSlaves.next(readMode, null);
+      default:
+        return null;
+    }
+  }
+
+  // Selects one pool per distinct master, or per slave group if masters are not managed.
+  List<ClientPool<RedisClient>> getShardPools(final ReadMode readMode) {
+
+    final List<ClientPool<RedisClient>> shardPools = new ArrayList<>();
+    final Set<Object> shards = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (int slot = 0; slot < CRC16.NUM_SLOTS; slot++) {
+      final Object shard = masterSlots.length == 0 ? slaveSlots[slot] : masterSlots[slot];
+      if (shard == null || !shards.add(shard)) {
+        continue;
+      }
+
+      final ClientPool<RedisClient> pool = getLoadBalancedPool(readMode, slot);
+      if (pool != null) {
+        shardPools.add(pool);
+      }
+    }
+    return shardPools;
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder("SlotRoutingTable [epoch=").append(epoch).append(", masterPools=")
+        .append(masterPools.keySet()).append(", slavePools=").append(slavePools.keySet())
+        .append("]").toString();
+  }
+}
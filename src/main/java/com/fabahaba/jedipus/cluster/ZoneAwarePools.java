@@ -0,0 +1,88 @@
+package com.fabahaba.jedipus.cluster;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import com.fabahaba.jedipus.cluster.RedisClusterExecutor.ReadMode;
+import com.fabahaba.jedipus.concurrent.LoadBalancedPools;
+import com.fabahaba.jedipus.pool.ClientPool;
+
+/**
+ * Round robins over the healthy pools in the local zone, and only if none are healthy over the
+ * healthy pools of other zones. Under {@code ReadMode.MIXED} the master takes part in the
+ * rotation of its own zone. If no pool is healthy, mixed read modes fall back to the master and
+ * {@code ReadMode.SLAVES} keeps rotating over all slaves.
+ */
+class ZoneAwarePools<T> implements LoadBalancedPools<T, ReadMode> {
+
+  private final String localZone;
+  private final ClientPool<T>[] pools;
+  private final ClientPool<T>[] localPools;
+  private final ClientPool<T>[] remotePools;
+  private final Predicate<Node> isHealthy;
+  private final AtomicInteger roundRobinIndex;
+
+  ZoneAwarePools(final String localZone, final ClientPool<T>[] pools,
+      final ClientPool<T>[] localPools, final ClientPool<T>[] remotePools,
+      final Predicate<Node> isHealthy) {
+    this.localZone = localZone;
+    this.pools = pools;
+    this.localPools = localPools;
+    this.remotePools = remotePools;
+    this.isHealthy = isHealthy;
+    this.roundRobinIndex = new AtomicInteger(0);
+  }
+
+  @Override
+  public ClientPool<T> next(final ReadMode readMode, final ClientPool<T> defaultPool) {
+    switch (readMode) {
+      case MIXED:
+        if (defaultPool != null) {
+          final boolean localMaster = localZone.equals(defaultPool.getNode().getZone());
+          final ClientPool<T> pool = nextHealthy(localPools, localMaster ? defaultPool : null);
+          if (pool != null) {
+            return pool;
+          }
+          // Null falls back to the master.
+          return nextHealthy(remotePools, localMaster ? null : defaultPool);
+        }
+        return nextHealthySlave();
+      case MIXED_SLAVES:
+        return nextHealthySlave();
+      case SLAVES:
+        final ClientPool<T> pool = nextHealthySlave();
+        if (pool != null) {
+          return pool;
+        }
+        // Nothing is known to be healthy, let the caller retry.
+        return pools[Math.floorMod(roundRobinIndex.getAndIncrement(), pools.length)];
+      case MASTER:
+      default:
+        return defaultPool;
+    }
+  }
+
+  private ClientPool<T> nextHealthySlave() {
+    final ClientPool<T> pool = nextHealthy(localPools, null);
+    return pool == null ? nextHealthy(remotePools, null) : pool;
+  }
+
+  private ClientPool<T> nextHealthy(final ClientPool<T>[] candidates, final ClientPool<T> extra) {
+    final int numCandidates = extra == null ? candidates.length : candidates.length + 1;
+    if (numCandidates == 0) {
+      return null;
+    }
+
+    final int start = Math.floorMod(roundRobinIndex.getAndIncrement(), numCandidates);
+    for (int i = 0, index = start;i < numCandidates;i++, index++) {
+      if (index == numCandidates) {
+        index = 0;
+      }
+      final ClientPool<T> pool = index == candidates.length ? extra : candidates[index];
+      if (!pool.isClosed() && isHealthy.test(pool.getNode())) {
+        return pool;
+      }
+    }
+    return null;
+  }
+}
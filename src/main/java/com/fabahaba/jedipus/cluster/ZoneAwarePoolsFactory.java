@@ -0,0 +1,68 @@
+package com.fabahaba.jedipus.cluster;
+
+import java.util.Arrays;
+
+import com.fabahaba.jedipus.client.RedisClient;
+import com.fabahaba.jedipus.cluster.RedisClusterExecutor.ReadMode;
+import com.fabahaba.jedipus.concurrent.ElementRetryDelay;
+import com.fabahaba.jedipus.concurrent.LoadBalancedPools;
+import com.fabahaba.jedipus.pool.ClientPool;
+
+/**
+ * Creates {@link ZoneAwarePools} by splitting slave pools on whether their node is located in the
+ * local zone. Nodes without a zone are treated as remote.
+ */
+final class ZoneAwarePoolsFactory implements LBPoolsFactory {
+
+  private static final long serialVersionUID = 3958121806937407735L;
+
+  private final String localZone;
+
+  ZoneAwarePoolsFactory(final String localZone) {
+    this.localZone = localZone;
+  }
+
+  @Override
+  public LoadBalancedPools<RedisClient, ReadMode> apply(final ReadMode defaultReadMode,
+      final ClientPool<RedisClient>[] slavePools) {
+    return apply(defaultReadMode, slavePools, null);
+  }
+
+  @Override
+  public LoadBalancedPools<RedisClient, ReadMode> apply(final ReadMode defaultReadMode,
+      final ClientPool<RedisClient>[] slavePools, final ElementRetryDelay<Node> retryDelay) {
+
+    if (slavePools.length == 0) {
+      return (rm, def) -> def;
+    }
+
+    if (defaultReadMode == ReadMode.MASTER) {
+      // No load balancer needed for single master pool.
+      return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    final ClientPool<RedisClient>[] localPools = new ClientPool[slavePools.length];
+    @SuppressWarnings("unchecked")
+    final ClientPool<RedisClient>[] remotePools = new ClientPool[slavePools.length];
+    int numLocal = 0;
+    int numRemote = 0;
+    for (final ClientPool<RedisClient> pool : slavePools) {
+      if (localZone.equals(pool.getNode().getZone())) {
+        localPools[numLocal++] = pool;
+      } else {
+        remotePools[numRemote++] = pool;
+      }
+    }
+
+    return new ZoneAwarePools<>(localZone, slavePools, Arrays.copyOf(localPools, numLocal),
+        Arrays.copyOf(remotePools, numRemote), retryDelay == null ? node -> true
+            : node -> retryDelay.getNextAttemptMillis(node) <= System.currentTimeMillis());
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder("ZoneAwarePoolsFactory [localZone=").append(localZone).append("]")
+        .toString();
+  }
+}
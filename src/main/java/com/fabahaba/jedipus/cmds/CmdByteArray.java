@@ -67,6 +67,9 @@ public class CmdByteArray<R> {
 
     public abstract Builder<R> addArg(final byte[] arg);
 
+    // A complete RESP bulk string, including its '$' length header and trailing CRLF.
+    protected abstract Builder<R> addEncodedArg(final byte[] encodedArg);
+
     public abstract Builder<R> reset();
 
     protected byte[] createArray() {
@@ -130,34 +133,37 @@ public class CmdByteArray<R> {
     }
 
     public Builder<R> addArg(final long arg) {
-      return addArg(RESP.toBytes(arg));
+      return addEncodedArg(RedisOutputStream.createLongArg(arg));
     }
 
     public Builder<R> addArgs(final long... args) {
       for (final long arg : args) {
-        addArg(RESP.toBytes(arg));
+        addArg(arg);
       }
       return this;
     }
 
     public Builder<R> addArg(final int arg) {
-      return addArg(RESP.toBytes(arg));
+      return addEncodedArg(RedisOutputStream.createLongArg(arg));
     }
 
     public Builder<R> addArgs(final int... args) {
       for (final int arg : args) {
-        addArg(RESP.toBytes(arg));
+        addArg(arg);
       }
       return this;
     }
 
     public Builder<R> addArg(final double arg) {
+      if (RedisOutputStream.isLongEncodable(arg)) {
+        return addArg((long) arg);
+      }
       return addArg(RESP.toBytes(arg));
     }
 
     public Builder<R> addArgs(final double... args) {
       for (final double arg : args) {
-        addArg(RESP.toBytes(arg));
+        addArg(arg);
       }
       return this;
     }
@@ -233,6 +239,16 @@ public class CmdByteArray<R> {
 
       return this;
     }
+
+    @Override
+    protected Builder<R> addEncodedArg(final byte[] encodedArg) {
+      cmdArgs.add(encodedArg);
+      numArgBytes += encodedArg.length;
+
+      numArgs++;
+
+      return this;
+    }
   }
 
   private static final class ArrayBuilder<R> extends Builder<R> {
@@ -252,7 +268,8 @@ public class CmdByteArray<R> {
     public <O> CmdByteArray<O> create(final Cmd<O> overrideReturnTypeCmd) {
       final byte[] cmdArgsBytes = createArray();
 
-      for (final byte[] cmdArg : cmdArgs) {
+      for (int i = 0; i < index; i++) {
+        final byte[] cmdArg = cmdArgs[i];
         System.arraycopy(cmdArg, 0, cmdArgsBytes, offset, cmdArg.length);
         offset += cmdArg.length;
       }
@@ -284,5 +301,13 @@ public class CmdByteArray<R> {
 
       return this;
     }
+
+    @Override
+    protected Builder<R> addEncodedArg(final byte[] encodedArg) {
+      cmdArgs[index++] = encodedArg;
+      numArgBytes += encodedArg.length;
+
+      return this;
+    }
   }
 }
@@ -38,6 +38,30 @@ public interface DirectCmds extends DirectPrimCmds {
 
   <T> T sendCmd(final Cmd<T> cmd, final Collection<String> args);
 
+  <T> T sendCmd(final Cmd<T> cmd, final byte[] key, final long arg);
+
+  <T> T sendCmd(final Cmd<T> cmd, final byte[] key, final double arg);
+
+  <T> T sendCmd(final Cmd<T> cmd, final byte[] key, final long arg, final byte[] value);
+
+  <T> T sendCmd(final Cmd<T> cmd, final byte[] key, final double arg, final byte[] value);
+
+  default <T> T sendCmd(final Cmd<T> cmd, final String key, final long arg) {
+    return sendCmd(cmd, RESP.toBytes(key), arg);
+  }
+
+  default <T> T sendCmd(final Cmd<T> cmd, final String key, final double arg) {
+    return sendCmd(cmd, RESP.toBytes(key), arg);
+  }
+
+  default <T> T sendCmd(final Cmd<T> cmd, final String key, final long arg, final String value) {
+    return sendCmd(cmd, RESP.toBytes(key), arg, RESP.toBytes(value));
+  }
+
+  default <T> T sendCmd(final Cmd<T> cmd, final String key, final double arg, final String value) {
+    return sendCmd(cmd, RESP.toBytes(key), arg, RESP.toBytes(value));
+  }
+
   default <T> T sendBlockingCmd(final Cmd<T> cmd) {
     return sendBlockingCmd(0, cmd);
   }
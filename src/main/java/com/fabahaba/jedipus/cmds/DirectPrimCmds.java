@@ -38,6 +38,30 @@ public interface DirectPrimCmds {
 
   long sendCmd(final PrimCmd cmd, final Collection<String> args);
 
+  long sendCmd(final PrimCmd cmd, final byte[] key, final long arg);
+
+  long sendCmd(final PrimCmd cmd, final byte[] key, final double arg);
+
+  long sendCmd(final PrimCmd cmd, final byte[] key, final long arg, final byte[] value);
+
+  long sendCmd(final PrimCmd cmd, final byte[] key, final double arg, final byte[] value);
+
+  default long sendCmd(final PrimCmd cmd, final String key, final long arg) {
+    return sendCmd(cmd, RESP.toBytes(key), arg);
+  }
+
+  default long sendCmd(final PrimCmd cmd, final String key, final double arg) {
+    return sendCmd(cmd, RESP.toBytes(key), arg);
+  }
+
+  default long sendCmd(final PrimCmd cmd, final String key, final long arg, final String value) {
+    return sendCmd(cmd, RESP.toBytes(key), arg, RESP.toBytes(value));
+  }
+
+  default long sendCmd(final PrimCmd cmd, final String key, final double arg, final String value) {
+    return sendCmd(cmd, RESP.toBytes(key), arg, RESP.toBytes(value));
+  }
+
   default long sendBlockingCmd(final PrimCmd cmd) {
     return sendBlockingCmd(0, cmd);
   }
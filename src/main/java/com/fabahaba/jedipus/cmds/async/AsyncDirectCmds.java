@@ -0,0 +1,86 @@
+package com.fabahaba.jedipus.cmds.async;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+import com.fabahaba.jedipus.cmds.Cmd;
+import com.fabahaba.jedipus.cmds.CmdByteArray;
+import com.fabahaba.jedipus.cmds.RESP;
+
+public interface AsyncDirectCmds extends AsyncDirectPrimCmds {
+
+  <T> CompletableFuture<T> sendCmdAsync(final Cmd<T> cmd);
+
+  <T> CompletableFuture<T> sendCmdAsync(final Cmd<?> cmd, final Cmd<T> subCmd);
+
+  <T> CompletableFuture<T> sendCmdAsync(final Cmd<?> cmd, final Cmd<T> subCmd, final byte[] arg);
+
+  <T> CompletableFuture<T> sendCmdAsync(final Cmd<?> cmd, final Cmd<T> subCmd,
+      final byte[]... args);
+
+  <T> CompletableFuture<T> sendCmdAsync(final Cmd<T> cmd, final byte[] arg);
+
+  <T> CompletableFuture<T> sendCmdAsync(final Cmd<T> cmd, final byte[] arg1, final byte[] arg2);
+
+  <T> CompletableFuture<T> sendCmdAsync(final Cmd<T> cmd, final byte[]... args);
+
+  default <T> CompletableFuture<T> sendCmdAsync(final Cmd<?> cmd, final Cmd<T> subCmd,
+      final String arg) {
+    return sendCmdAsync(cmd, subCmd, RESP.toBytes(arg));
+  }
+
+  <T> CompletableFuture<T> sendCmdAsync(final Cmd<?> cmd, final Cmd<T> subCmd,
+      final String... args);
+
+  <T> CompletableFuture<T> sendCmdAsync(final Cmd<?> cmd, final Cmd<T> subCmd,
+      final Collection<String> args);
+
+  default <T> CompletableFuture<T> sendCmdAsync(final Cmd<T> cmd, final String arg) {
+    return sendCmdAsync(cmd, RESP.toBytes(arg));
+  }
+
+  default <T> CompletableFuture<T> sendCmdAsync(final Cmd<T> cmd, final String arg1,
+      final String arg2) {
+    return sendCmdAsync(cmd, RESP.toBytes(arg1), RESP.toBytes(arg2));
+  }
+
+  <T> CompletableFuture<T> sendCmdAsync(final Cmd<T> cmd, final String... args);
+
+  <T> CompletableFuture<T> sendCmdAsync(final Cmd<T> cmd, final Collection<String> args);
+
+  <T> CompletableFuture<T> sendCmdAsync(final Cmd<T> cmd, final byte[] key, final long arg);
+
+  <T> CompletableFuture<T> sendCmdAsync(final Cmd<T> cmd, final byte[] key, final double arg);
+
+  <T> CompletableFuture<T> sendCmdAsync(final Cmd<T> cmd, final byte[] key, final long arg,
+      final byte[] value);
+
+  <T> CompletableFuture<T> sendCmdAsync(final Cmd<T> cmd, final byte[] key, final double arg,
+      final byte[] value);
+
+  default <T> CompletableFuture<T> sendCmdAsync(final Cmd<T> cmd, final String key,
+      final long arg) {
+    return sendCmdAsync(cmd, RESP.toBytes(key), arg);
+  }
+
+  default <T> CompletableFuture<T> sendCmdAsync(final Cmd<T> cmd, final String key,
+      final double arg) {
+    return sendCmdAsync(cmd, RESP.toBytes(key), arg);
+  }
+
+  default <T> CompletableFuture<T> sendCmdAsync(final Cmd<T> cmd, final String key, final long arg,
+      final String value) {
+    return sendCmdAsync(cmd, RESP.toBytes(key), arg, RESP.toBytes(value));
+  }
+
+  default <T> CompletableFuture<T> sendCmdAsync(final Cmd<T> cmd, final String key,
+      final double arg, final String value) {
+    return sendCmdAsync(cmd, RESP.toBytes(key), arg, RESP.toBytes(value));
+  }
+
+  default <R> CompletableFuture<R> sendDirectAsync(final CmdByteArray<R> cmdArgs) {
+    return sendDirectAsync(cmdArgs.getCmd(), cmdArgs.getCmdArgs());
+  }
+
+  <R> CompletableFuture<R> sendDirectAsync(final Cmd<R> cmd, final byte[] cmdArgs);
+}
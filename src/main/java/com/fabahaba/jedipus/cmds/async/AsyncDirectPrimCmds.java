@@ -0,0 +1,132 @@
+package com.fabahaba.jedipus.cmds.async;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+import com.fabahaba.jedipus.client.AsyncFutureLongReply;
+import com.fabahaba.jedipus.cmds.Cmd;
+import com.fabahaba.jedipus.cmds.CmdByteArray;
+import com.fabahaba.jedipus.cmds.PrimArrayCmd;
+import com.fabahaba.jedipus.cmds.PrimCmd;
+import com.fabahaba.jedipus.cmds.RESP;
+
+public interface AsyncDirectPrimCmds {
+
+  AsyncFutureLongReply sendCmdAsync(final PrimCmd cmd);
+
+  AsyncFutureLongReply sendCmdAsync(final Cmd<?> cmd, final PrimCmd subCmd);
+
+  AsyncFutureLongReply sendCmdAsync(final Cmd<?> cmd, final PrimCmd subCmd, final byte[] arg);
+
+  AsyncFutureLongReply sendCmdAsync(final Cmd<?> cmd, final PrimCmd subCmd, final byte[]... args);
+
+  AsyncFutureLongReply sendCmdAsync(final PrimCmd cmd, final byte[] arg);
+
+  AsyncFutureLongReply sendCmdAsync(final PrimCmd cmd, final byte[] arg1, final byte[] arg2);
+
+  AsyncFutureLongReply sendCmdAsync(final PrimCmd cmd, final byte[]... args);
+
+  default AsyncFutureLongReply sendCmdAsync(final Cmd<?> cmd, final PrimCmd subCmd,
+      final String arg) {
+    return sendCmdAsync(cmd, subCmd, RESP.toBytes(arg));
+  }
+
+  AsyncFutureLongReply sendCmdAsync(final Cmd<?> cmd, final PrimCmd subCmd, final String... args);
+
+  AsyncFutureLongReply sendCmdAsync(final Cmd<?> cmd, final PrimCmd subCmd,
+      final Collection<String> args);
+
+  default AsyncFutureLongReply sendCmdAsync(final PrimCmd cmd, final String arg) {
+    return sendCmdAsync(cmd, RESP.toBytes(arg));
+  }
+
+  default AsyncFutureLongReply sendCmdAsync(final PrimCmd cmd, final String arg1,
+      final String arg2) {
+    return sendCmdAsync(cmd, RESP.toBytes(arg1), RESP.toBytes(arg2));
+  }
+
+  AsyncFutureLongReply sendCmdAsync(final PrimCmd cmd, final String... args);
+
+  AsyncFutureLongReply sendCmdAsync(final PrimCmd cmd, final Collection<String> args);
+
+  AsyncFutureLongReply sendCmdAsync(final PrimCmd cmd, final byte[] key, final long arg);
+
+  AsyncFutureLongReply sendCmdAsync(final PrimCmd cmd, final byte[] key, final double arg);
+
+  AsyncFutureLongReply sendCmdAsync(final PrimCmd cmd, final byte[] key, final long arg,
+      final byte[] value);
+
+  AsyncFutureLongReply sendCmdAsync(final PrimCmd cmd, final byte[] key, final double arg,
+      final byte[] value);
+
+  default AsyncFutureLongReply sendCmdAsync(final PrimCmd cmd, final String key, final long arg) {
+    return sendCmdAsync(cmd, RESP.toBytes(key), arg);
+  }
+
+  default AsyncFutureLongReply sendCmdAsync(final PrimCmd cmd, final String key, final double arg) {
+    return sendCmdAsync(cmd, RESP.toBytes(key), arg);
+  }
+
+  default AsyncFutureLongReply sendCmdAsync(final PrimCmd cmd, final String key, final long arg,
+      final String value) {
+    return sendCmdAsync(cmd, RESP.toBytes(key), arg, RESP.toBytes(value));
+  }
+
+  default AsyncFutureLongReply sendCmdAsync(final PrimCmd cmd, final String key, final double arg,
+      final String value) {
+    return sendCmdAsync(cmd, RESP.toBytes(key), arg, RESP.toBytes(value));
+  }
+
+  CompletableFuture<long[]> sendCmdAsync(final PrimArrayCmd cmd);
+
+  CompletableFuture<long[]> sendCmdAsync(final Cmd<?> cmd, final PrimArrayCmd subCmd);
+
+  CompletableFuture<long[]> sendCmdAsync(final Cmd<?> cmd, final PrimArrayCmd subCmd,
+      final byte[] arg);
+
+  CompletableFuture<long[]> sendCmdAsync(final Cmd<?> cmd, final PrimArrayCmd subCmd,
+      final byte[]... args);
+
+  CompletableFuture<long[]> sendCmdAsync(final PrimArrayCmd cmd, final byte[] arg);
+
+  CompletableFuture<long[]> sendCmdAsync(final PrimArrayCmd cmd, final byte[] arg1,
+      final byte[] arg2);
+
+  CompletableFuture<long[]> sendCmdAsync(final PrimArrayCmd cmd, final byte[]... args);
+
+  default CompletableFuture<long[]> sendCmdAsync(final Cmd<?> cmd, final PrimArrayCmd subCmd,
+      final String arg) {
+    return sendCmdAsync(cmd, subCmd, RESP.toBytes(arg));
+  }
+
+  CompletableFuture<long[]> sendCmdAsync(final Cmd<?> cmd, final PrimArrayCmd subCmd,
+      final String... args);
+
+  CompletableFuture<long[]> sendCmdAsync(final Cmd<?> cmd, final PrimArrayCmd subCmd,
+      final Collection<String> args);
+
+  default CompletableFuture<long[]> sendCmdAsync(final PrimArrayCmd cmd, final String arg) {
+    return sendCmdAsync(cmd, RESP.toBytes(arg));
+  }
+
+  default CompletableFuture<long[]> sendCmdAsync(final PrimArrayCmd cmd, final String arg1,
+      final String arg2) {
+    return sendCmdAsync(cmd, RESP.toBytes(arg1), RESP.toBytes(arg2));
+  }
+
+  CompletableFuture<long[]> sendCmdAsync(final PrimArrayCmd cmd, final String... args);
+
+  CompletableFuture<long[]> sendCmdAsync(final PrimArrayCmd cmd, final Collection<String> args);
+
+  default AsyncFutureLongReply sendDirectPrimAsync(final CmdByteArray<?> cmdArgs) {
+    return sendDirectAsync(cmdArgs.getCmd().prim(), cmdArgs.getCmdArgs());
+  }
+
+  default CompletableFuture<long[]> sendDirectPrimArrayAsync(final CmdByteArray<?> cmdArgs) {
+    return sendDirectAsync(cmdArgs.getCmd().primArray(), cmdArgs.getCmdArgs());
+  }
+
+  AsyncFutureLongReply sendDirectAsync(final PrimCmd cmd, final byte[] cmdArgs);
+
+  CompletableFuture<long[]> sendDirectAsync(final PrimArrayCmd cmd, final byte[] cmdArgs);
+}
@@ -43,6 +43,34 @@ public interface PipelineDirectCmds extends PipelineDirectPrimCmds {
 
   <T> FutureReply<T> sendCmd(final Cmd<T> cmd, final Collection<String> args);
 
+  <T> FutureReply<T> sendCmd(final Cmd<T> cmd, final byte[] key, final long arg);
+
+  <T> FutureReply<T> sendCmd(final Cmd<T> cmd, final byte[] key, final double arg);
+
+  <T> FutureReply<T> sendCmd(final Cmd<T> cmd, final byte[] key, final long arg,
+      final byte[] value);
+
+  <T> FutureReply<T> sendCmd(final Cmd<T> cmd, final byte[] key, final double arg,
+      final byte[] value);
+
+  default <T> FutureReply<T> sendCmd(final Cmd<T> cmd, final String key, final long arg) {
+    return sendCmd(cmd, RESP.toBytes(key), arg);
+  }
+
+  default <T> FutureReply<T> sendCmd(final Cmd<T> cmd, final String key, final double arg) {
+    return sendCmd(cmd, RESP.toBytes(key), arg);
+  }
+
+  default <T> FutureReply<T> sendCmd(final Cmd<T> cmd, final String key, final long arg,
+      final String value) {
+    return sendCmd(cmd, RESP.toBytes(key), arg, RESP.toBytes(value));
+  }
+
+  default <T> FutureReply<T> sendCmd(final Cmd<T> cmd, final String key, final double arg,
+      final String value) {
+    return sendCmd(cmd, RESP.toBytes(key), arg, RESP.toBytes(value));
+  }
+
   default <R> FutureReply<R> sendDirect(final CmdByteArray<R> cmdArgs) {
     return sendDirect(cmdArgs.getCmd(), cmdArgs.getCmdArgs());
   }
@@ -46,6 +46,33 @@ public interface PipelineDirectPrimCmds {
 
   FutureLongReply sendCmd(final PrimCmd cmd, final Collection<String> args);
 
+  FutureLongReply sendCmd(final PrimCmd cmd, final byte[] key, final long arg);
+
+  FutureLongReply sendCmd(final PrimCmd cmd, final byte[] key, final double arg);
+
+  FutureLongReply sendCmd(final PrimCmd cmd, final byte[] key, final long arg, final byte[] value);
+
+  FutureLongReply sendCmd(final PrimCmd cmd, final byte[] key, final double arg,
+      final byte[] value);
+
+  default FutureLongReply sendCmd(final PrimCmd cmd, final String key, final long arg) {
+    return sendCmd(cmd, RESP.toBytes(key), arg);
+  }
+
+  default FutureLongReply sendCmd(final PrimCmd cmd, final String key, final double arg) {
+    return sendCmd(cmd, RESP.toBytes(key), arg);
+  }
+
+  default FutureLongReply sendCmd(final PrimCmd cmd, final String key, final long arg,
+      final String value) {
+    return sendCmd(cmd, RESP.toBytes(key), arg, RESP.toBytes(value));
+  }
+
+  default FutureLongReply sendCmd(final PrimCmd cmd, final String key, final double arg,
+      final String value) {
+    return sendCmd(cmd, RESP.toBytes(key), arg, RESP.toBytes(value));
+  }
+
   FutureReply<long[]> sendCmd(final PrimArrayCmd cmd);
 
   FutureReply<long[]> sendCmd(final Cmd<?> cmd, final PrimArrayCmd subCmd);
@@ -0,0 +1,170 @@
+package com.fabahaba.jedipus.concurrent;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ObjLongConsumer;
+
+import com.fabahaba.jedipus.client.SerializableLongFunction;
+
+/**
+ * An {@link ElementRetryDelay} with a closed, open and half open circuit per element.
+ *
+ * <p>No thread ever sleeps. While closed, the first failure is retried immediately and later ones
+ * back off for the delay of the current number of failures: {@link #tryAttempt} rejects requests
+ * to the element until then, so callers fail fast or reschedule for
+ * {@link #getNextAttemptMillis}. After {@code failuresToOpen} consecutive failures the circuit
+ * opens and requests are rejected in the same way until the delay for the current number of
+ * failures has elapsed, after which a single trial request is let through and the circuit is half
+ * open. A
+ * successful trial closes the circuit, a failed one re-opens it with the next delay. If a trial
+ * never reports back another one is permitted after the same delay.
+ */
+final class CircuitBreakerRetryDelay<E> implements ElementRetryDelay<E>, Serializable {
+
+  private static final long serialVersionUID = -2361428104395876342L;
+
+  private enum State {
+    CLOSED, OPEN, HALF_OPEN
+  }
+
+  private final ConcurrentHashMap<E, Circuit> circuits;
+  private final int failuresToOpen;
+  private final SerializableLongFunction<Duration> delayFunction;
+  private final transient ObjLongConsumer<E> failureListener;
+
+  CircuitBreakerRetryDelay(final int failuresToOpen,
+      final SerializableLongFunction<Duration> delayFunction,
+      final ObjLongConsumer<E> failureListener) {
+    this.circuits = new ConcurrentHashMap<>();
+    this.failuresToOpen = failuresToOpen;
+    this.delayFunction = delayFunction;
+    this.failureListener = failureListener;
+  }
+
+  @Override
+  public long markFailure(final E element, final long maxRetries, final RuntimeException cause,
+      final long retry) {
+
+    if (retry >= maxRetries) {
+      if (element != null) {
+        recordFailure(element, circuits.computeIfAbsent(element, e -> new Circuit()));
+      }
+      throw cause;
+    }
+
+    if (element == null) {
+      return retry + 1;
+    }
+
+    final Circuit circuit = circuits.computeIfAbsent(element, e -> new Circuit());
+    if (recordFailure(element, circuit) != State.CLOSED) {
+      throw cause;
+    }
+    return retry + 1;
+  }
+
+  private State recordFailure(final E element, final Circuit circuit) {
+
+    final long numFailures;
+    final State state;
+    synchronized (circuit) {
+      numFailures = ++circuit.numFailures;
+      if (circuit.state == State.HALF_OPEN || numFailures >= failuresToOpen) {
+        circuit.state = State.OPEN;
+        circuit.nextAttemptMillis =
+            System.currentTimeMillis() + delayFunction.apply(numFailures).toMillis();
+      } else if (numFailures > 1) {
+        // Backs off while closed, retries are rejected by tryAttempt until the delay has elapsed.
+        circuit.nextAttemptMillis =
+            System.currentTimeMillis() + delayFunction.apply(numFailures).toMillis();
+      }
+      state = circuit.state;
+    }
+
+    if (failureListener != null) {
+      failureListener.accept(element, numFailures);
+    }
+    return state;
+  }
+
+  @Override
+  public boolean tryAttempt(final E element) {
+
+    final Circuit circuit = circuits.get(element);
+    if (circuit == null) {
+      return true;
+    }
+    if (circuit.state == State.CLOSED) {
+      return System.currentTimeMillis() >= circuit.nextAttemptMillis;
+    }
+
+    synchronized (circuit) {
+      final long now = System.currentTimeMillis();
+      if (circuit.state == State.CLOSED) {
+        return now >= circuit.nextAttemptMillis;
+      }
+
+      if (now < circuit.nextAttemptMillis) {
+        return false;
+      }
+
+      circuit.state = State.HALF_OPEN;
+      circuit.nextAttemptMillis = now + delayFunction.apply(circuit.numFailures).toMillis();
+      return true;
+    }
+  }
+
+  @Override
+  public long getNextAttemptMillis(final E element) {
+
+    final Circuit circuit = circuits.get(element);
+    return circuit == null ? 0 : circuit.nextAttemptMillis;
+  }
+
+  @Override
+  public void markSuccess(final E element) {
+    // Called after every request, only lock a bin if the element has failed.
+    if (!circuits.isEmpty() && circuits.containsKey(element)) {
+      circuits.remove(element);
+    }
+  }
+
+  @Override
+  public void clear(final E element) {
+    circuits.remove(element);
+  }
+
+  @Override
+  public long getNumFailures(final E element) {
+    final Circuit circuit = circuits.get(element);
+    if (circuit == null) {
+      return 0;
+    }
+    synchronized (circuit) {
+      return circuit.numFailures;
+    }
+  }
+
+  private static final class Circuit implements Serializable {
+
+    private static final long serialVersionUID = 6510813372620944235L;
+
+    private volatile State state = State.CLOSED;
+    private volatile long nextAttemptMillis;
+    private long numFailures;
+
+    @Override
+    public String toString() {
+      return new StringBuilder("Circuit [state=").append(state).append(", nextAttemptMillis=")
+          .append(nextAttemptMillis).append(", numFailures=").append(numFailures).append("]")
+          .toString();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder("CircuitBreakerRetryDelay [failuresToOpen=").append(failuresToOpen)
+        .append(", circuits=").append(circuits).append("]").toString();
+  }
+}
@@ -2,6 +2,7 @@ package com.fabahaba.jedipus.concurrent;
 
 import com.fabahaba.jedipus.client.SerializableLongFunction;
 import com.fabahaba.jedipus.cluster.Node;
+import com.fabahaba.jedipus.metrics.JedipusMetrics;
 
 import java.io.Serializable;
 import java.time.Duration;
@@ -60,6 +61,27 @@ public interface ElementRetryDelay<E> {
    */
   long getNumFailures(final E element);
 
+  /**
+   * Checks, without blocking, whether a request may be sent to the element now. Callers that get
+   * {@code false} should fail fast or reschedule for {@link #getNextAttemptMillis}.
+   *
+   * @param element The element the next request will be sent to.
+   * @return true if the request may be attempted. Delays with a half open state may reserve the
+   *         attempt as its single trial request.
+   */
+  default boolean tryAttempt(final E element) {
+    return true;
+  }
+
+  /**
+   * @param element The element to retrieve the next permitted attempt time for.
+   * @return The {@code System#currentTimeMillis} time at which a request to the element will be
+   *         permitted, or zero if it is permitted now.
+   */
+  default long getNextAttemptMillis(final E element) {
+    return 0;
+  }
+
   /**
    * @param baseFactor used as {@code Math.exp(x) * baseFactor}.
    * @return A {@code LongFunction<Duration>} that applies an exponential function to the input and
@@ -126,6 +148,9 @@ public interface ElementRetryDelay<E> {
     private SerializableLongFunction<Duration> delayFunction;
     private Duration maxDelay;
     private int numConurrentRetries = 1;
+    // Zero keeps the blocking SemaphoredRetryDelay.
+    private int failuresToOpenCircuit = 0;
+    private transient JedipusMetrics metrics = null;
 
     private Builder() {}
 
@@ -138,7 +163,12 @@ public interface ElementRetryDelay<E> {
             StaticDelayFunction.create(ElementRetryDelay.exponentialBackoff(baseDelayMillis,
                 maxDelay), maxDelay);
       }
-      return new SemaphoredRetryDelay<>(numConurrentRetries, delayFunction);
+      if (failuresToOpenCircuit > 0) {
+        return new CircuitBreakerRetryDelay<>(failuresToOpenCircuit, delayFunction,
+            metrics == null ? null : metrics::onNodeFailure);
+      }
+      return new SemaphoredRetryDelay<>(numConurrentRetries, delayFunction,
+          metrics == null ? null : metrics::onNodeFailure);
     }
 
     public LongFunction<Duration> getDelayFunction() {
@@ -168,6 +198,31 @@ public interface ElementRetryDelay<E> {
       return this;
     }
 
+    public int getFailuresToOpenCircuit() {
+      return failuresToOpenCircuit;
+    }
+
+    /**
+     * @param failuresToOpenCircuit If positive, creates a delay with a circuit per node. Failed
+     *        requests back off, without holding up other requests, until this many consecutive
+     *        failures open the node's circuit, after which requests to the node fail fast until
+     *        the delay function's delay has passed and a single trial request succeeds.
+     * @return this builder.
+     */
+    public Builder withFailuresToOpenCircuit(final int failuresToOpenCircuit) {
+      this.failuresToOpenCircuit = failuresToOpenCircuit;
+      return this;
+    }
+
+    public JedipusMetrics getMetrics() {
+      return metrics;
+    }
+
+    public Builder withMetrics(final JedipusMetrics metrics) {
+      this.metrics = metrics;
+      return this;
+    }
+
     public int getBaseDelayMillis() {
       return baseDelayMillis;
     }
@@ -181,7 +236,8 @@ public interface ElementRetryDelay<E> {
     public String toString() {
       return new StringBuilder("Builder [maxDelay=").append(maxDelay)
           .append(", numConurrentRetries=").append(numConurrentRetries).append(", baseDelayMillis=")
-          .append(baseDelayMillis).append("]").toString();
+          .append(baseDelayMillis).append(", failuresToOpenCircuit=").append(failuresToOpenCircuit)
+          .append("]").toString();
     }
   }
 }
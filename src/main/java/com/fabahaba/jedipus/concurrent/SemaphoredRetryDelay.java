@@ -5,6 +5,7 @@ import java.time.Duration;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ObjLongConsumer;
 
 import com.fabahaba.jedipus.client.SerializableFunction;
 import com.fabahaba.jedipus.client.SerializableLongFunction;
@@ -16,12 +17,20 @@ final class SemaphoredRetryDelay<E> implements ElementRetryDelay<E>, Serializabl
   private final ConcurrentHashMap<E, RetrySemaphore> retrySemaphores;
   private final SerializableLongFunction<Duration> delayFunction;
   private final SerializableFunction<E, RetrySemaphore> retrySemaphoreFactory;
+  private final transient ObjLongConsumer<E> failureListener;
 
   SemaphoredRetryDelay(final int numConurrentRetries,
       final SerializableLongFunction<Duration> delayFunction) {
+    this(numConurrentRetries, delayFunction, null);
+  }
+
+  SemaphoredRetryDelay(final int numConurrentRetries,
+      final SerializableLongFunction<Duration> delayFunction,
+      final ObjLongConsumer<E> failureListener) {
     this.retrySemaphores = new ConcurrentHashMap<>();
     this.retrySemaphoreFactory = e -> new RetrySemaphore(numConurrentRetries);
     this.delayFunction = delayFunction;
+    this.failureListener = failureListener;
   }
 
   @Override
@@ -39,6 +48,10 @@ final class SemaphoredRetryDelay<E> implements ElementRetryDelay<E>, Serializabl
         retrySemaphores.computeIfAbsent(element, retrySemaphoreFactory);
 
     final long numFailures = retrySemaphore.incrAndGet();
+    if (failureListener != null) {
+      failureListener.accept(element, numFailures);
+    }
+
     if (numFailures == 1) {
       return numFailures;
     }
@@ -67,7 +80,8 @@ final class SemaphoredRetryDelay<E> implements ElementRetryDelay<E>, Serializabl
 
   @Override
   public void markSuccess(final E element) {
-    if (!retrySemaphores.isEmpty()) {
+    // Called after every request, only lock a bin if the element has failed.
+    if (!retrySemaphores.isEmpty() && retrySemaphores.containsKey(element)) {
       retrySemaphores.remove(element);
     }
   }
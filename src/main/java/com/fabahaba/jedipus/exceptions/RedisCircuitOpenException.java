@@ -0,0 +1,27 @@
+package com.fabahaba.jedipus.exceptions;
+
+import com.fabahaba.jedipus.cluster.Node;
+
+/**
+ * Thrown instead of attempting a request against a node whose circuit is open, see
+ * {@code ElementRetryDelay#tryAttempt}.
+ */
+@SuppressWarnings("serial")
+public class RedisCircuitOpenException extends RedisUnhandledException {
+
+  private final long nextAttemptMillis;
+
+  public RedisCircuitOpenException(final Node node, final long nextAttemptMillis) {
+    super(node, "Circuit open, next attempt permitted in "
+        + Math.max(0, nextAttemptMillis - System.currentTimeMillis()) + "ms.");
+    this.nextAttemptMillis = nextAttemptMillis;
+  }
+
+  /**
+   * @return The {@code System#currentTimeMillis} time at which the node will accept a trial
+   *         request.
+   */
+  public long getNextAttemptMillis() {
+    return nextAttemptMillis;
+  }
+}
@@ -3,6 +3,7 @@ package com.fabahaba.jedipus.executor;
 import com.fabahaba.jedipus.client.RedisClient;
 import com.fabahaba.jedipus.cluster.Node;
 import com.fabahaba.jedipus.concurrent.ElementRetryDelay;
+import com.fabahaba.jedipus.exceptions.RedisCircuitOpenException;
 import com.fabahaba.jedipus.exceptions.RedisConnectionException;
 import com.fabahaba.jedipus.pool.ClientPool;
 import com.fabahaba.jedipus.pool.RedisClientPool;
@@ -38,7 +39,7 @@ final class RedisClientPoolExecutor implements RedisClientExecutor {
       final ClientPool<RedisClient> clientPool = this.clientPool;
       RedisClient client = null;
       try {
-        client = RedisClientPool.borrowClient(clientPool);
+        client = borrowClient(clientPool);
         final long result = clientConsumer.applyAsLong(client);
         retryDelay.markSuccess(client.getNode());
         return result;
@@ -56,7 +57,7 @@ final class RedisClientPoolExecutor implements RedisClientExecutor {
       final ClientPool<RedisClient> clientPool = this.clientPool;
       RedisClient client = null;
       try {
-        client = RedisClientPool.borrowClient(clientPool);
+        client = borrowClient(clientPool);
         final R result = clientConsumer.apply(client);
         retryDelay.markSuccess(client.getNode());
         return result;
@@ -68,6 +69,14 @@ final class RedisClientPoolExecutor implements RedisClientExecutor {
     }
   }
 
+  private RedisClient borrowClient(final ClientPool<RedisClient> clientPool) {
+    final Node node = clientPool.getNode();
+    if (!retryDelay.tryAttempt(node)) {
+      throw new RedisCircuitOpenException(node, retryDelay.getNextAttemptMillis(node));
+    }
+    return RedisClientPool.borrowClient(clientPool);
+  }
+
   private void handleRCE(final int maxRetries, final Node failedNode,
       final RedisConnectionException rce) {
     final Node node = nodeSupplier.get();
@@ -3,6 +3,7 @@ package com.fabahaba.jedipus.lua;
 import com.fabahaba.jedipus.client.FutureReply;
 import com.fabahaba.jedipus.client.RedisClient;
 import com.fabahaba.jedipus.client.RedisPipeline;
+import com.fabahaba.jedipus.cluster.Node;
 import com.fabahaba.jedipus.cluster.RedisClusterExecutor;
 import com.fabahaba.jedipus.cmds.CmdByteArray;
 import com.fabahaba.jedipus.cmds.Cmds;
@@ -18,6 +19,7 @@ import java.io.InputStreamReader;
 import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -50,7 +52,29 @@ public interface LuaScript {
       final LuaScript... luaScripts) {
     final byte[][] scriptSha1Bytes =
         Stream.of(luaScripts).map(LuaScript::getSha1HexBytes).toArray(byte[][]::new);
-    rce.acceptAllMasters(client -> loadIfNotExists(client, scriptSha1Bytes, luaScripts));
+    final Map<Node, Object[]> existResults = rce.broadcastPipelinedMasters(
+        pipeline -> pipeline.sendCmd(Cmds.SCRIPT, Cmds.SCRIPT_EXISTS, scriptSha1Bytes));
+
+    // Only load the scripts each master reported missing, on that master.
+    for (final Map.Entry<Node, Object[]> existResult : existResults.entrySet()) {
+      final Object[] exists = existResult.getValue();
+      for (int i = 0; i < exists.length; i++) {
+        if (RESP.longValue(exists[i]) == 0) {
+          rce.acceptIfPresent(existResult.getKey(),
+              client -> loadMissing(client, exists, luaScripts));
+          break;
+        }
+      }
+    }
+  }
+
+  static void loadMissing(final RedisClient client, final Object[] exists,
+      final LuaScript[] luaScripts) {
+    for (int i = 0; i < exists.length; i++) {
+      if (RESP.longValue(exists[i]) == 0) {
+        client.skip().scriptLoad(RESP.toBytes(luaScripts[i].getLuaScript()));
+      }
+    }
   }
 
   static void loadMissingScripts(final RedisClient client, final LuaScript... luaScripts) {
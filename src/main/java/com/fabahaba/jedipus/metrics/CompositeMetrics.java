@@ -0,0 +1,75 @@
+package com.fabahaba.jedipus.metrics;
+
+import com.fabahaba.jedipus.cluster.Node;
+
+final class CompositeMetrics implements JedipusMetrics {
+
+  private final JedipusMetrics first;
+  private final JedipusMetrics second;
+
+  CompositeMetrics(final JedipusMetrics first, final JedipusMetrics second) {
+    this.first = first;
+    this.second = second;
+  }
+
+  @Override
+  public void onCommand(final Node node, final long durationNanos, final boolean success) {
+    first.onCommand(node, durationNanos, success);
+    second.onCommand(node, durationNanos, success);
+  }
+
+  @Override
+  public void onReply(final Node node, final String cmd, final long durationNanos) {
+    first.onReply(node, cmd, durationNanos);
+    second.onReply(node, cmd, durationNanos);
+  }
+
+  @Override
+  public void onBorrow(final Node node, final long waitNanos, final int numActive,
+      final int numIdle) {
+    first.onBorrow(node, waitNanos, numActive, numIdle);
+    second.onBorrow(node, waitNanos, numActive, numIdle);
+  }
+
+  @Override
+  public void onReturn(final Node node, final int numActive, final int numIdle) {
+    first.onReturn(node, numActive, numIdle);
+    second.onReturn(node, numActive, numIdle);
+  }
+
+  @Override
+  public void onMoved(final Node node, final Node targetNode, final int slot) {
+    first.onMoved(node, targetNode, slot);
+    second.onMoved(node, targetNode, slot);
+  }
+
+  @Override
+  public void onAsk(final Node node, final Node targetNode, final int slot) {
+    first.onAsk(node, targetNode, slot);
+    second.onAsk(node, targetNode, slot);
+  }
+
+  @Override
+  public void onHedge(final Node node, final Node hedgeNode, final int slot) {
+    first.onHedge(node, hedgeNode, slot);
+    second.onHedge(node, hedgeNode, slot);
+  }
+
+  @Override
+  public void onSlotCacheRefresh(final long durationNanos, final boolean success) {
+    first.onSlotCacheRefresh(durationNanos, success);
+    second.onSlotCacheRefresh(durationNanos, success);
+  }
+
+  @Override
+  public void onNodeFailure(final Node node, final long numFailures) {
+    first.onNodeFailure(node, numFailures);
+    second.onNodeFailure(node, numFailures);
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder("CompositeMetrics [first=").append(first).append(", second=")
+        .append(second).append("]").toString();
+  }
+}
@@ -0,0 +1,104 @@
+package com.fabahaba.jedipus.metrics;
+
+import com.fabahaba.jedipus.cluster.Node;
+
+/**
+ * Listener for client side measurements. Implementations are called inline on the request path and
+ * should be non-blocking and cheap, e.g., incrementing {@code LongAdder}s or recording into a
+ * pre-allocated histogram.
+ *
+ * When no listener is configured, callers skip both the clock reads and the callbacks entirely.
+ */
+public interface JedipusMetrics {
+
+  /**
+   * Called after a user function has been applied to a client from a cluster executor.
+   *
+   * @param node          The node the client is connected to.
+   * @param durationNanos The duration of the function, including any network round trips.
+   * @param success       false if the function threw an exception.
+   */
+  default void onCommand(final Node node, final long durationNanos, final boolean success) {}
+
+  /**
+   * Called after the reply to a directly issued command has been read. Pipelined and asynchronous
+   * replies are not reported.
+   *
+   * @param node          The node the client is connected to.
+   * @param cmd           The command name.
+   * @param durationNanos The time between flushing the request and reading its reply, including
+   *                      the time to read an error reply or time out.
+   */
+  default void onReply(final Node node, final String cmd, final long durationNanos) {}
+
+  /**
+   * Called after a client has been borrowed from a pool.
+   *
+   * @param node      The node of the pool.
+   * @param waitNanos The time spent waiting for, or creating, the client.
+   * @param numActive The number of clients borrowed from the pool after this borrow.
+   * @param numIdle   The number of idle clients in the pool after this borrow.
+   */
+  default void onBorrow(final Node node, final long waitNanos, final int numActive,
+      final int numIdle) {}
+
+  /**
+   * Called after a client has been returned to a pool.
+   *
+   * @param node      The node of the pool.
+   * @param numActive The number of clients borrowed from the pool after this return.
+   * @param numIdle   The number of idle clients in the pool after this return.
+   */
+  default void onReturn(final Node node, final int numActive, final int numIdle) {}
+
+  /**
+   * Called when a node responds with a MOVED redirection.
+   *
+   * @param node       The node that responded.
+   * @param targetNode The node now serving the slot.
+   * @param slot       The redirected slot.
+   */
+  default void onMoved(final Node node, final Node targetNode, final int slot) {}
+
+  /**
+   * Called when a node responds with an ASK redirection.
+   *
+   * @param node       The node that responded.
+   * @param targetNode The node importing the slot.
+   * @param slot       The redirected slot.
+   */
+  default void onAsk(final Node node, final Node targetNode, final int slot) {}
+
+  /**
+   * Called when a read has not been answered within the hedge delay and a second copy is sent.
+   *
+   * @param node      The node that has not answered yet.
+   * @param hedgeNode The node the hedged copy is sent to.
+   * @param slot      The slot being read.
+   */
+  default void onHedge(final Node node, final Node hedgeNode, final int slot) {}
+
+  /**
+   * Called after a cluster slot cache refresh has completed or failed.
+   *
+   * @param durationNanos The duration of the refresh, including time spent waiting on the lock.
+   * @param success       false if the refresh threw an exception.
+   */
+  default void onSlotCacheRefresh(final long durationNanos, final boolean success) {}
+
+  /**
+   * Called when a failure is recorded against a node by an {@code ElementRetryDelay}.
+   *
+   * @param node        The failed node.
+   * @param numFailures The number of consecutive failures for this node.
+   */
+  default void onNodeFailure(final Node node, final long numFailures) {}
+
+  /**
+   * @param next The listener to call after this one.
+   * @return A listener that forwards every callback to this listener and then to the next.
+   */
+  default JedipusMetrics andThen(final JedipusMetrics next) {
+    return new CompositeMetrics(this, next);
+  }
+}
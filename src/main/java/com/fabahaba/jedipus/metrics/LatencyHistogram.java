@@ -0,0 +1,98 @@
+package com.fabahaba.jedipus.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free, fixed-memory histogram of nanosecond latencies. Values are bucketed by their
+ * highest set bit and then linearly into {@value #SUB_BUCKET_COUNT} sub-buckets, bounding the
+ * relative error of any recorded value to 1/{@value #SUB_BUCKET_COUNT}. Values above
+ * {@link #MAX_TRACKABLE_NANOS} are clamped into the last bucket.
+ */
+public final class LatencyHistogram {
+
+  static final int SUB_BUCKET_BITS = 4;
+  static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  // ~18 minutes.
+  public static final long MAX_TRACKABLE_NANOS = (1L << 40) - 1;
+  static final int NUM_BUCKETS = bucketIndex(MAX_TRACKABLE_NANOS) + 1;
+
+  private final AtomicLongArray counts;
+  private final LongAdder totalCount;
+  private final LongAdder totalNanos;
+  private final LongAccumulator minNanos;
+  private final LongAccumulator maxNanos;
+
+  public LatencyHistogram() {
+    this.counts = new AtomicLongArray(NUM_BUCKETS);
+    this.totalCount = new LongAdder();
+    this.totalNanos = new LongAdder();
+    this.minNanos = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    this.maxNanos = new LongAccumulator(Math::max, 0);
+  }
+
+  // Expects values within [0, MAX_TRACKABLE_NANOS].
+  static int bucketIndex(final long nanos) {
+    if (nanos < SUB_BUCKET_COUNT) {
+      return (int) nanos;
+    }
+    final int shift = 63 - Long.numberOfLeadingZeros(nanos) - SUB_BUCKET_BITS;
+    return (shift + 1) * SUB_BUCKET_COUNT + (int) ((nanos >>> shift) - SUB_BUCKET_COUNT);
+  }
+
+  static long bucketUpperBound(final int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    final int shift = index / SUB_BUCKET_COUNT - 1;
+    final long subBucket = index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+    return ((subBucket + 1) << shift) - 1;
+  }
+
+  public void record(final long nanos) {
+    final long value = nanos < 0 ? 0 : Math.min(nanos, MAX_TRACKABLE_NANOS);
+    counts.incrementAndGet(bucketIndex(value));
+    totalCount.increment();
+    totalNanos.add(value);
+    minNanos.accumulate(value);
+    maxNanos.accumulate(value);
+  }
+
+  /**
+   * Concurrent recordings may or may not be reflected in the returned snapshot, and the totals
+   * may be slightly inconsistent with the bucket counts while recordings are in flight.
+   *
+   * @return An immutable copy of the current state of this histogram.
+   */
+  public LatencySnapshot snapshot() {
+    final long[] snapshotCounts = new long[NUM_BUCKETS];
+    long count = 0;
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+      count += snapshotCounts[i] = counts.get(i);
+    }
+    return new LatencySnapshot(snapshotCounts, count, totalNanos.sum(),
+        count == 0 ? 0 : minNanos.get(), maxNanos.get());
+  }
+
+  public long getCount() {
+    return totalCount.sum();
+  }
+
+  public void reset() {
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+      counts.set(i, 0);
+    }
+    totalCount.reset();
+    totalNanos.reset();
+    minNanos.reset();
+    maxNanos.reset();
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder("LatencyHistogram [count=").append(totalCount.sum())
+        .append(", minNanos=").append(minNanos.get()).append(", maxNanos=").append(maxNanos.get())
+        .append("]").toString();
+  }
+}
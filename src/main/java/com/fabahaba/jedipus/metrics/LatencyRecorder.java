@@ -0,0 +1,82 @@
+package com.fabahaba.jedipus.metrics;
+
+import com.fabahaba.jedipus.cluster.Node;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records client side reply latencies, measured from the request flush until its reply has been
+ * read, into a {@link LatencyHistogram} per {@link Node} and command name. Memory is fixed per
+ * node and command, and recording does not allocate after the first reply for a given pair.
+ */
+public final class LatencyRecorder implements JedipusMetrics {
+
+  private final ConcurrentHashMap<Node, ConcurrentHashMap<String, LatencyHistogram>> histograms;
+
+  public LatencyRecorder() {
+    this.histograms = new ConcurrentHashMap<>();
+  }
+
+  @Override
+  public void onReply(final Node node, final String cmd, final long durationNanos) {
+    getHistogram(node, cmd).record(durationNanos);
+  }
+
+  public LatencyHistogram getHistogram(final Node node, final String cmd) {
+    ConcurrentHashMap<String, LatencyHistogram> nodeHistograms = histograms.get(node);
+    if (nodeHistograms == null) {
+      nodeHistograms = histograms.computeIfAbsent(node, n -> new ConcurrentHashMap<>());
+    }
+
+    final LatencyHistogram histogram = nodeHistograms.get(cmd);
+    return histogram == null ? nodeHistograms.computeIfAbsent(cmd, c -> new LatencyHistogram())
+        : histogram;
+  }
+
+  /**
+   * @param node The node to snapshot.
+   * @return A snapshot per command name recorded against the given node.
+   */
+  public Map<String, LatencySnapshot> getSnapshots(final Node node) {
+    final ConcurrentHashMap<String, LatencyHistogram> nodeHistograms = histograms.get(node);
+    if (nodeHistograms == null) {
+      return Collections.emptyMap();
+    }
+
+    final Map<String, LatencySnapshot> snapshots = new HashMap<>(nodeHistograms.size());
+    nodeHistograms.forEach((cmd, histogram) -> snapshots.put(cmd, histogram.snapshot()));
+    return snapshots;
+  }
+
+  /**
+   * @return A snapshot per node and command name.
+   */
+  public Map<Node, Map<String, LatencySnapshot>> getSnapshots() {
+    final Map<Node, Map<String, LatencySnapshot>> snapshots = new HashMap<>(histograms.size());
+    histograms.keySet().forEach(node -> snapshots.put(node, getSnapshots(node)));
+    return snapshots;
+  }
+
+  /**
+   * Stops tracking the given node, e.g., after it has been removed from the cluster.
+   *
+   * @param node The node to remove.
+   */
+  public void remove(final Node node) {
+    histograms.remove(node);
+  }
+
+  public void reset() {
+    histograms.values().forEach(nodeHistograms -> nodeHistograms.values()
+        .forEach(LatencyHistogram::reset));
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder("LatencyRecorder [nodes=").append(histograms.keySet()).append("]")
+        .toString();
+  }
+}
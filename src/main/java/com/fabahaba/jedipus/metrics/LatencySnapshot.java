@@ -0,0 +1,87 @@
+package com.fabahaba.jedipus.metrics;
+
+/**
+ * An immutable point in time copy of a {@link LatencyHistogram}.
+ */
+public final class LatencySnapshot {
+
+  private final long[] counts;
+  private final long count;
+  private final long totalNanos;
+  private final long minNanos;
+  private final long maxNanos;
+
+  LatencySnapshot(final long[] counts, final long count, final long totalNanos,
+      final long minNanos, final long maxNanos) {
+    this.counts = counts;
+    this.count = count;
+    this.totalNanos = totalNanos;
+    this.minNanos = minNanos;
+    this.maxNanos = maxNanos;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public long getMinNanos() {
+    return minNanos;
+  }
+
+  public long getMaxNanos() {
+    return maxNanos;
+  }
+
+  public double getMeanNanos() {
+    return count == 0 ? 0 : (double) totalNanos / count;
+  }
+
+  /**
+   * @param percentile A value between 0 and 100, e.g., 99.9.
+   * @return The highest value equivalent to the bucket containing the given percentile, or zero if
+   * nothing has been recorded.
+   */
+  public long getValueAtPercentile(final double percentile) {
+    if (count == 0) {
+      return 0;
+    }
+
+    final double boundedPercentile = Math.min(Math.max(percentile, 0), 100);
+    final long countAtPercentile =
+        Math.max(1, (long) Math.ceil(boundedPercentile / 100.0 * count));
+
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= countAtPercentile) {
+        return Math.min(LatencyHistogram.bucketUpperBound(i), maxNanos);
+      }
+    }
+    return maxNanos;
+  }
+
+  /**
+   * @param previous An earlier snapshot of the same histogram.
+   * @return The recordings made between the previous snapshot and this one. Min and max are those
+   * of this snapshot.
+   */
+  public LatencySnapshot minus(final LatencySnapshot previous) {
+    final long[] deltaCounts = new long[counts.length];
+    long deltaCount = 0;
+    for (int i = 0; i < counts.length; i++) {
+      deltaCount += deltaCounts[i] = Math.max(0, counts[i] - previous.counts[i]);
+    }
+    return new LatencySnapshot(deltaCounts, deltaCount,
+        Math.max(0, totalNanos - previous.totalNanos), minNanos, maxNanos);
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder("LatencySnapshot [count=").append(count).append(", minNanos=")
+        .append(minNanos).append(", meanNanos=").append((long) getMeanNanos())
+        .append(", p50Nanos=").append(getValueAtPercentile(50)).append(", p99Nanos=")
+        .append(getValueAtPercentile(99)).append(", p999Nanos=")
+        .append(getValueAtPercentile(99.9)).append(", maxNanos=").append(maxNanos).append("]")
+        .toString();
+  }
+}
@@ -0,0 +1,472 @@
+package com.fabahaba.jedipus.pool;
+
+import com.fabahaba.jedipus.cluster.Node;
+import com.fabahaba.jedipus.metrics.JedipusMetrics;
+
+import java.time.Duration;
+import java.util.Deque;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Configuration, client life cycle and idle eviction shared by the pool implementations, which
+ * only differ in how idle clients are stored and how borrowers wait for them.
+ */
+abstract class BaseClientPool<C> implements ClientPool<C> {
+
+  protected final int maxIdle;
+  protected final int maxTotal;
+  protected final boolean blockWhenExhausted;
+  private final long defaultBorrowTimeoutNanos;
+  protected final boolean lifo;
+  protected final boolean fairness;
+  private final boolean testOnCreate;
+  private final boolean testOnBorrow;
+  private final boolean testOnReturn;
+  private final boolean testWhileIdle;
+
+  private final int numTestsPerEvictionRun;
+  private final EvictionConfig evictionConfig;
+  private final EvictionStrategy<C> evictionPolicy;
+  private final long evictionDelayNanos;
+  private final ScheduledThreadPoolExecutor evictionRunExecutor;
+  protected final ExecutorService evictionExecutor;
+
+  protected final PooledClientFactory<C> clientFactory;
+  protected final JedipusMetrics metrics;
+
+  protected final AtomicLong totalClients;
+
+  // Null unless a wrapping pool has to piggyback on eviction runs.
+  private volatile Runnable evictionRunListener = null;
+  protected volatile boolean closed = false;
+
+  protected BaseClientPool(final ExecutorService evictionExecutor,
+      final PooledClientFactory<C> clientFactory, final Builder poolBuilder,
+      final EvictionStrategy<C> evictionStrategy) {
+
+    this.lifo = poolBuilder.isLifo();
+    this.fairness = poolBuilder.isFair();
+    this.maxTotal = poolBuilder.getMaxTotal() < 0 ? Integer.MAX_VALUE : poolBuilder.getMaxTotal();
+    this.maxIdle = Math.min(maxTotal, poolBuilder.getMaxIdle());
+    this.blockWhenExhausted = poolBuilder.isBlockWhenExhausted();
+    this.defaultBorrowTimeoutNanos = poolBuilder.getBorrowTimeout() != null && blockWhenExhausted
+        ? poolBuilder.getBorrowTimeout().toNanos() : Long.MIN_VALUE;
+    this.testOnCreate = poolBuilder.isTestOnCreate();
+    this.testOnBorrow = poolBuilder.isTestOnBorrow();
+    this.testOnReturn = poolBuilder.isTestOnReturn();
+    this.testWhileIdle = poolBuilder.isTestWhileIdle();
+
+    if (clientFactory == null) {
+      throw new IllegalStateException("Cannot add objects without a factory.");
+    }
+    this.clientFactory = clientFactory;
+    this.metrics = poolBuilder.getMetrics();
+
+    this.totalClients = new AtomicLong(0);
+
+    this.numTestsPerEvictionRun = poolBuilder.getNumTestsPerEvictionRun();
+    this.evictionConfig = new EvictionConfig(poolBuilder.getMinEvictableIdleDuration(),
+        poolBuilder.getSoftMinEvictableIdleDuration(), Math.min(poolBuilder.getMinIdle(), maxIdle));
+    this.evictionPolicy = evictionStrategy;
+    if (poolBuilder.getDurationBetweenEvictionRuns() == null) {
+      this.evictionDelayNanos = 0;
+      this.evictionRunExecutor = null;
+      this.evictionExecutor = null;
+    } else {
+      this.evictionDelayNanos = poolBuilder.getDurationBetweenEvictionRuns().toNanos();
+      this.evictionExecutor =
+          evictionExecutor == null ? ForkJoinPool.commonPool() : evictionExecutor;
+      this.evictionRunExecutor = new ScheduledThreadPoolExecutor(1);
+    }
+  }
+
+  /**
+   * Called at the end of sub class constructors, so that eviction runs never see a partially
+   * constructed pool.
+   */
+  protected final void scheduleEvictionRuns() {
+    if (evictionRunExecutor == null) {
+      return;
+    }
+
+    evictionRunExecutor.scheduleWithFixedDelay(() -> {
+      final Runnable listener = evictionRunListener;
+      if (listener != null) {
+        try {
+          listener.run();
+        } catch (final RuntimeException e) {
+          // An exception would cancel all further runs.
+        }
+      }
+      execEvictionTests();
+      try {
+        ensureMinIdle(getMinIdle());
+      } catch (final RuntimeException e) {
+        //
+      }
+    }, evictionDelayNanos, evictionDelayNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * @param evictionRunListener Run at the start of each eviction run, if eviction runs are enabled.
+   */
+  void setEvictionRunListener(final Runnable evictionRunListener) {
+    this.evictionRunListener = evictionRunListener;
+  }
+
+  protected final void shutdownEvictionRuns() {
+    if (evictionRunExecutor != null) {
+      evictionRunExecutor.shutdownNow();
+      evictionExecutor.shutdownNow();
+    }
+  }
+
+  protected abstract PooledClient<C> getPooledClient(final C client);
+
+  protected abstract void addClient(final PooledClient<C> pooledClient);
+
+  protected abstract void removeClient(final PooledClient<C> pooledClient);
+
+  protected abstract void addIdleClient(final PooledClient<C> pooledClient);
+
+  /**
+   * @return False if the client is no longer idle, e.g. because a borrower claimed it while it
+   *         was being tested.
+   */
+  protected abstract boolean removeIdleClient(final PooledClient<C> pooledClient);
+
+  protected abstract Deque<PooledClient<C>> getIdleDeque();
+
+  protected abstract C pollOrCreate();
+
+  protected abstract C pollOrCreate(final long timeout, final TimeUnit unit);
+
+  public abstract void execEvictionTests();
+
+  /**
+   * Called whenever the total number of clients drops.
+   */
+  protected void onClientRemoved() {}
+
+  /**
+   * Called instead of {@link #addIdleClient} for clients created by {@link #warmUp}.
+   */
+  protected void addWarmedUpClient(final PooledClient<C> pooledClient) {
+    addIdleClient(pooledClient);
+  }
+
+  @Override
+  public Node getNode() {
+    return clientFactory.getNode();
+  }
+
+  public int getMaxIdle() {
+    return maxIdle;
+  }
+
+  public int getMinIdle() {
+    return evictionConfig.getMinIdle();
+  }
+
+  public int getMaxTotal() {
+    return maxTotal;
+  }
+
+  public boolean isBlockWhenExhausted() {
+    return blockWhenExhausted;
+  }
+
+  public long getDefaultBorrowTimeoutNanos() {
+    return defaultBorrowTimeoutNanos;
+  }
+
+  public boolean isLifo() {
+    return lifo;
+  }
+
+  public boolean isFairness() {
+    return fairness;
+  }
+
+  public boolean isTestOnCreate() {
+    return testOnCreate;
+  }
+
+  public boolean isTestOnBorrow() {
+    return testOnBorrow;
+  }
+
+  public boolean isTestOnReturn() {
+    return testOnReturn;
+  }
+
+  public boolean isTestWhileIdle() {
+    return testWhileIdle;
+  }
+
+  public int getNumTestsPerEvictionRun() {
+    return numTestsPerEvictionRun;
+  }
+
+  public Duration getMinEvictableIdleDuration() {
+    return evictionConfig.getIdleEvictDuration();
+  }
+
+  public Duration getSoftMinEvictableIdleDuration() {
+    return evictionConfig.getIdleSoftEvictDuration();
+  }
+
+  protected PooledClient<C> create() {
+
+    final long newCreateCount = totalClients.incrementAndGet();
+
+    if (newCreateCount > maxTotal) {
+      totalClients.decrementAndGet();
+      return null;
+    }
+
+    try {
+      final PooledClient<C> pooledClient = clientFactory.createClient();
+      addClient(pooledClient);
+      return pooledClient;
+    } catch (final RuntimeException e) {
+      totalClients.decrementAndGet();
+      onClientRemoved();
+      throw e;
+    }
+  }
+
+  protected void destroy(final PooledClient<C> toDestroy) {
+
+    if (!toDestroy.invalidate()) {
+      return;
+    }
+
+    try {
+      removeClient(toDestroy);
+    } finally {
+      totalClients.decrementAndGet();
+      onClientRemoved();
+    }
+
+    clientFactory.destroyClient(toDestroy);
+  }
+
+  private void destroyIdle(final PooledClient<C> toDestroy) {
+    // A borrower may have claimed the client mid test, in which case it is no longer ours to evict.
+    if (removeIdleClient(toDestroy)) {
+      destroy(toDestroy);
+    }
+  }
+
+  @Override
+  public C borrowClient() {
+    if (metrics == null) {
+      return borrowDefault();
+    }
+
+    final long start = System.nanoTime();
+    final C client = borrowDefault();
+    metrics.onBorrow(getNode(), System.nanoTime() - start, getNumActive(), getNumIdle());
+    return client;
+  }
+
+  private C borrowDefault() {
+    if (defaultBorrowTimeoutNanos == Long.MIN_VALUE) {
+      return pollOrCreate();
+    }
+
+    return pollOrCreate(defaultBorrowTimeoutNanos, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public C borrowClient(final long timeout, final TimeUnit unit) {
+    if (metrics == null) {
+      return pollOrCreate(timeout, unit);
+    }
+
+    final long start = System.nanoTime();
+    final C client = pollOrCreate(timeout, unit);
+    metrics.onBorrow(getNode(), System.nanoTime() - start, getNumActive(), getNumIdle());
+    return client;
+  }
+
+  protected boolean activate(final PooledClient<C> pooledClient, final boolean created) {
+
+    if (pooledClient.allocate()) {
+      clientFactory.activateClient(pooledClient);
+      return testBorrowed(pooledClient, created);
+    }
+    return false;
+  }
+
+  private boolean testBorrowed(final PooledClient<C> pooledClient, final boolean created) {
+
+    if (!testOnBorrow || testOnCreate && !created) {
+      return true;
+    }
+
+    try {
+      if (clientFactory.validateClient(pooledClient)) {
+        return true;
+      }
+    } catch (final RuntimeException e) {
+      destroy(pooledClient);
+      throw e;
+    }
+
+    destroy(pooledClient);
+    if (created) {
+      throw new NoSuchElementException("Unable to validate object");
+    }
+
+    return false;
+  }
+
+  @Override
+  public void returnClient(final C client) {
+
+    final PooledClient<C> pooledClient = getPooledClient(client);
+    if (pooledClient == null) {
+      return; // Client was abandoned and removed
+    }
+
+    pooledClient.markReturning();
+
+    try {
+      if (testOnReturn) {
+        if (!clientFactory.validateClient(pooledClient)) {
+          destroy(pooledClient);
+          if (getMinIdle() > 0) {
+            ensureMinIdle(1);
+          }
+          return;
+        }
+      }
+
+      clientFactory.passivateClient(pooledClient);
+    } catch (final RuntimeException e) {
+      destroy(pooledClient);
+      if (getMinIdle() > 0) {
+        ensureMinIdle(1);
+      }
+      throw e;
+    }
+
+    if (!pooledClient.deallocate()) {
+      throw new IllegalStateException(
+          "Client has already been returned to this pool or is invalid.");
+    }
+
+    addIdleClient(pooledClient);
+
+    if (metrics != null) {
+      metrics.onReturn(getNode(), getNumActive(), getNumIdle());
+    }
+  }
+
+  @Override
+  public void invalidateClient(final C client) {
+
+    final PooledClient<C> pooledClient = getPooledClient(client);
+
+    if (pooledClient == null) {
+      throw new IllegalStateException("Invalidated object not currently part of this pool.");
+    }
+
+    destroy(pooledClient);
+    if (getMinIdle() > 0) {
+      ensureMinIdle(1);
+    }
+  }
+
+  protected final void assertOpen() throws IllegalStateException {
+    if (closed) {
+      throw new IllegalStateException("Pool not open.");
+    }
+  }
+
+  protected int getNumTests(final int idle) {
+
+    if (numTestsPerEvictionRun < 0) {
+      return (int) (Math.ceil(idle / Math.abs((double) numTestsPerEvictionRun)));
+    }
+
+    return Math.min(numTestsPerEvictionRun, idle);
+  }
+
+  protected void tryEvict(final PooledClient<C> underTest) {
+
+    if (closed || !underTest.startEvictionTest()) {
+      return;
+    }
+
+    if (evictionPolicy.evict(underTest, getNumIdle())) {
+      destroyIdle(underTest);
+      return;
+    }
+
+    if (testWhileIdle) {
+      try {
+        clientFactory.activateClient(underTest);
+
+        if (!clientFactory.validateClient(underTest)) {
+          destroyIdle(underTest);
+        } else {
+          clientFactory.passivateClient(underTest);
+        }
+      } catch (final RuntimeException e) {
+        destroyIdle(underTest);
+        throw e;
+      }
+    }
+
+    underTest.endEvictionTest(getIdleDeque());
+  }
+
+  protected void ensureMinIdle(final int minIdle) {
+    while (!closed && getNumIdle() < minIdle) {
+      final PooledClient<C> pooledClient = create();
+      if (pooledClient == null) {
+        return;
+      }
+      addIdleClient(pooledClient);
+    }
+  }
+
+  @Override
+  public CompletableFuture<Void> warmUp(final Executor executor) {
+    final int minIdle = getMinIdle();
+    final int numToCreate = Math.min(minIdle - getNumIdle(),
+        (int) Math.min(Integer.MAX_VALUE, maxTotal - totalClients.get()));
+    if (numToCreate <= 0) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    final CompletableFuture<?>[] creates = new CompletableFuture<?>[numToCreate];
+    for (int i = 0;i < numToCreate;i++) {
+      creates[i] = CompletableFuture.runAsync(() -> {
+        if (closed || getNumIdle() >= minIdle) {
+          return;
+        }
+        final PooledClient<C> pooledClient = create();
+        if (pooledClient != null) {
+          addWarmedUpClient(pooledClient);
+        }
+      }, executor);
+    }
+    return CompletableFuture.allOf(creates);
+  }
+
+  @Override
+  public final boolean isClosed() {
+    return closed;
+  }
+}
@@ -1,13 +1,24 @@
 package com.fabahaba.jedipus.pool;
 
+import com.fabahaba.jedipus.client.AsyncRedisClient;
+import com.fabahaba.jedipus.client.RedisClient;
 import com.fabahaba.jedipus.cluster.Node;
+import com.fabahaba.jedipus.metrics.JedipusMetrics;
 import com.fabahaba.jedipus.pool.EvictionStrategy.DefaultEvictionStrategy;
 
 import java.io.Serializable;
 import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 
 public interface ClientPool<C> extends AutoCloseable {
 
@@ -36,6 +47,83 @@ public interface ClientPool<C> extends AutoCloseable {
 
   boolean isClosed();
 
+  /**
+   * Opens new clients concurrently on the given executor until the pool's configured minimum
+   * number of idle clients is reached, so that connection setup happens before the first borrow.
+   *
+   * @param executor Runs one client creation task per missing idle client.
+   * @return A future completed once every task has finished, or exceptionally with the first
+   *         creation failure.
+   */
+  default CompletableFuture<Void> warmUp(final Executor executor) {
+    return CompletableFuture.completedFuture(null);
+  }
+
+  /**
+   * Warms up all of the given pools concurrently and waits for them until the timeout elapses.
+   * Pools that fail to warm up in time remain usable and create their clients lazily.
+   *
+   * @param pools    The pools to warm up.
+   * @param executor Runs the client creation tasks of every pool.
+   * @param timeout  The maximum duration to wait, null waits forever.
+   * @return true if every pool reached its minimum number of idle clients before the timeout.
+   */
+  static boolean warmUp(final Collection<? extends ClientPool<?>> pools,
+      final Executor executor, final Duration timeout) {
+
+    final CompletableFuture<?>[] warmUps = new CompletableFuture<?>[pools.size()];
+    int index = 0;
+    for (final ClientPool<?> pool : pools) {
+      warmUps[index++] = pool.warmUp(executor);
+    }
+
+    try {
+      if (timeout == null) {
+        CompletableFuture.allOf(warmUps).get();
+      } else {
+        CompletableFuture.allOf(warmUps).get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+      }
+      return true;
+    } catch (final InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      return false;
+    } catch (final ExecutionException | TimeoutException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Warms up all of the given pools on a dedicated executor, as connection setup blocks, and
+   * waits for them until the timeout elapses. The executor's daemon threads exit once their
+   * clients have been created, even if the timeout elapses first.
+   *
+   * @see #warmUp(Collection, Executor, Duration)
+   */
+  static boolean warmUp(final Collection<? extends ClientPool<?>> pools, final Duration timeout) {
+    if (pools.isEmpty()) {
+      return true;
+    }
+
+    final ExecutorService warmUpExecutor = createWarmUpExecutor();
+    try {
+      return warmUp(pools, warmUpExecutor, timeout);
+    } finally {
+      warmUpExecutor.shutdown();
+    }
+  }
+
+  /**
+   * @return A cached pool of daemon threads for blocking client creation, so that warm ups do
+   *         not starve the common fork join pool.
+   */
+  static ExecutorService createWarmUpExecutor() {
+    return Executors.newCachedThreadPool(runnable -> {
+      final Thread thread = new Thread(runnable, "jedipus-pool-warm-up");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
   static Builder startBuilding() {
 
     return new Builder();
@@ -51,6 +139,12 @@ public interface ClientPool<C> extends AutoCloseable {
 
     private boolean lifo = true;
     private boolean fair = false;
+    // Selects StripedClientPool over FinalClientPool.
+    private boolean striped = false;
+    // Parks returned clients with the returning thread.
+    private boolean threadAffinity = false;
+    // One keeps a single pool per node.
+    private int numShards = 1;
     // Null blocks forever
     private Duration borrowTimeout = null;
     private boolean blockWhenExhausted = true;
@@ -69,6 +163,12 @@ public interface ClientPool<C> extends AutoCloseable {
     private int maxTotal = MAX_IDLE * 2;
     private int maxIdle = maxTotal;
     private int minIdle = 0;
+    // Null skips warming up min idle clients on create.
+    private Duration warmUpTimeout = null;
+    // Null warms up on a dedicated executor per created pool.
+    private transient Executor warmUpExecutor = null;
+    // Null disables borrow/return callbacks.
+    private transient JedipusMetrics metrics = null;
 
     private Builder() {}
 
@@ -78,10 +178,7 @@ public interface ClientPool<C> extends AutoCloseable {
 
     public <C> ClientPool<C> create(final ExecutorService evictionExecutor,
         final PooledClientFactory<C> clientFactory) {
-      return new FinalClientPool<>(evictionExecutor, clientFactory, this,
-          durationBetweenEvictionRuns == null ? null
-              : new DefaultEvictionStrategy<>(softMinEvictableIdleDuration,
-                  minEvictableIdleDuration, minIdle));
+      return warmUp(createPool(evictionExecutor, clientFactory, createEvictionStrategy()));
     }
 
     public <C> ClientPool<C> create(final PooledClientFactory<C> clientFactory,
@@ -91,7 +188,84 @@ public interface ClientPool<C> extends AutoCloseable {
 
     public <C> ClientPool<C> create(final ExecutorService evictionExecutor,
         final PooledClientFactory<C> clientFactory, final EvictionStrategy<C> evictionStrategy) {
-      return new FinalClientPool<>(evictionExecutor, clientFactory, this, evictionStrategy);
+      return warmUp(createPool(evictionExecutor, clientFactory, evictionStrategy));
+    }
+
+    public ClientPool<RedisClient> createMultiplexed(
+        final Function<Node, AsyncRedisClient> asyncClientFactory,
+        final PooledClientFactory<RedisClient> dedicatedClientFactory) {
+      return createMultiplexed(asyncClientFactory, dedicatedClientFactory,
+          createEvictionStrategy());
+    }
+
+    public ClientPool<RedisClient> createMultiplexed(
+        final Function<Node, AsyncRedisClient> asyncClientFactory,
+        final PooledClientFactory<RedisClient> dedicatedClientFactory,
+        final EvictionStrategy<RedisClient> evictionStrategy) {
+      return warmUp(new MultiplexedClientPool(dedicatedClientFactory.getNode(), asyncClientFactory,
+          createPool(null, dedicatedClientFactory, evictionStrategy)));
+    }
+
+    private <C> ClientPool<C> createPool(final ExecutorService evictionExecutor,
+        final PooledClientFactory<C> clientFactory, final EvictionStrategy<C> evictionStrategy) {
+      if (numShards > 1) {
+        return new ShardedClientPool<>(clientFactory, numShards, blockWhenExhausted,
+            borrowTimeout == null ? Long.MIN_VALUE : borrowTimeout.toNanos(),
+            (shard, shardFactory) -> createShardBuilder(shard).createPool(evictionExecutor,
+                shardFactory, evictionStrategy));
+      }
+
+      final BaseClientPool<C> pool = striped
+          ? new StripedClientPool<>(evictionExecutor, clientFactory, this, evictionStrategy)
+          : new FinalClientPool<>(evictionExecutor, clientFactory, this, evictionStrategy);
+      return threadAffinity ? new ThreadAffineClientPool<>(pool) : pool;
+    }
+
+    // Splits the client limits across shards so that the shard limits add up to the pool limits.
+    private Builder createShardBuilder(final int shard) {
+      final Builder shardBuilder = new Builder();
+      shardBuilder.lifo = lifo;
+      shardBuilder.fair = fair;
+      shardBuilder.striped = striped;
+      shardBuilder.threadAffinity = threadAffinity;
+      shardBuilder.borrowTimeout = borrowTimeout;
+      shardBuilder.blockWhenExhausted = blockWhenExhausted;
+      shardBuilder.minEvictableIdleDuration = minEvictableIdleDuration;
+      shardBuilder.softMinEvictableIdleDuration = softMinEvictableIdleDuration;
+      shardBuilder.durationBetweenEvictionRuns = durationBetweenEvictionRuns;
+      shardBuilder.numTestsPerEvictionRun = numTestsPerEvictionRun;
+      shardBuilder.testOnCreate = testOnCreate;
+      shardBuilder.testOnBorrow = testOnBorrow;
+      shardBuilder.testOnReturn = testOnReturn;
+      shardBuilder.testWhileIdle = testWhileIdle;
+      shardBuilder.maxTotal = divideLimit(maxTotal, shard);
+      shardBuilder.maxIdle = divideLimit(maxIdle, shard);
+      shardBuilder.minIdle = divideLimit(minIdle, shard);
+      shardBuilder.metrics = metrics;
+      return shardBuilder;
+    }
+
+    // Negative limits are unbounded. The remainder goes to the lowest shards.
+    private int divideLimit(final int limit, final int shard) {
+      return limit <= 0 ? limit : limit / numShards + (shard < limit % numShards ? 1 : 0);
+    }
+
+    private <C> EvictionStrategy<C> createEvictionStrategy() {
+      return durationBetweenEvictionRuns == null ? null
+          : new DefaultEvictionStrategy<>(softMinEvictableIdleDuration, minEvictableIdleDuration,
+              minIdle);
+    }
+
+    private <C> ClientPool<C> warmUp(final ClientPool<C> pool) {
+      if (warmUpTimeout == null) {
+        return pool;
+      }
+      if (warmUpExecutor == null) {
+        ClientPool.warmUp(Collections.singleton(pool), warmUpTimeout);
+      } else {
+        ClientPool.warmUp(Collections.singleton(pool), warmUpExecutor, warmUpTimeout);
+      }
+      return pool;
     }
 
     public boolean isLifo() {
@@ -112,6 +286,57 @@ public interface ClientPool<C> extends AutoCloseable {
       return this;
     }
 
+    public boolean isStriped() {
+      return striped;
+    }
+
+    /**
+     * @param striped If true, pools keep idle clients in per thread slots backed by a shared
+     *        lock-free deque instead of a single locked deque. Borrowing and returning then never
+     *        lock, which helps when many threads share a pool, while the other settings of this
+     *        builder keep their meaning. Fairness only applies to borrowers waiting on an
+     *        exhausted pool.
+     * @return this builder.
+     */
+    public Builder withStriped(final boolean striped) {
+      this.striped = striped;
+      return this;
+    }
+
+    public boolean isThreadAffinity() {
+      return threadAffinity;
+    }
+
+    /**
+     * @param threadAffinity If true, a returned client is kept for the thread that returned it and
+     *        handed back on that thread's next borrow without going through the pool. Clients kept
+     *        by other threads are taken over before a borrower waits on an exhausted pool. Reused
+     *        clients skip borrow and return testing, and are not subject to idle eviction.
+     * @return this builder.
+     */
+    public Builder withThreadAffinity(final boolean threadAffinity) {
+      this.threadAffinity = threadAffinity;
+      return this;
+    }
+
+    public int getNumShards() {
+      return numShards;
+    }
+
+    /**
+     * @param numShards If greater than one, the clients of each pool are split across this many
+     *        independent pools, selected by the id of the borrowing thread, so that threads on
+     *        different shards never contend on the same pool. Max total, max idle and min idle are
+     *        divided between the shards so that the shard limits add up to the configured limits.
+     *        Borrowers take idle clients, and then spare capacity, from other shards before waiting
+     *        on their own, and keep checking the other shards while they wait.
+     * @return this builder.
+     */
+    public Builder withNumShards(final int numShards) {
+      this.numShards = numShards;
+      return this;
+    }
+
     public Duration getBorrowTimeout() {
       return borrowTimeout;
     }
@@ -228,5 +453,42 @@ public interface ClientPool<C> extends AutoCloseable {
       this.minIdle = minIdle;
       return this;
     }
+
+    public Duration getWarmUpTimeout() {
+      return warmUpTimeout;
+    }
+
+    /**
+     * @param warmUpTimeout If not null, {@code create} opens the min idle clients concurrently
+     *        and waits up to this long for them before returning the pool.
+     * @return this builder.
+     */
+    public Builder withWarmUpTimeout(final Duration warmUpTimeout) {
+      this.warmUpTimeout = warmUpTimeout;
+      return this;
+    }
+
+    public Executor getWarmUpExecutor() {
+      return warmUpExecutor;
+    }
+
+    /**
+     * @param warmUpExecutor Runs the client creations of a warm up, if null each created pool is
+     *        warmed up on its own short lived executor.
+     * @return this builder.
+     */
+    public Builder withWarmUpExecutor(final Executor warmUpExecutor) {
+      this.warmUpExecutor = warmUpExecutor;
+      return this;
+    }
+
+    public JedipusMetrics getMetrics() {
+      return metrics;
+    }
+
+    public Builder withMetrics(final JedipusMetrics metrics) {
+      this.metrics = metrics;
+      return this;
+    }
   }
 }
@@ -0,0 +1,158 @@
+package com.fabahaba.jedipus.pool;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import com.fabahaba.jedipus.client.AsyncRedisClient;
+import com.fabahaba.jedipus.client.RedisClient;
+import com.fabahaba.jedipus.cluster.Node;
+
+final class MultiplexedClientPool implements ClientPool<RedisClient> {
+
+  private final Node node;
+  private final Function<Node, AsyncRedisClient> asyncClientFactory;
+  private final ClientPool<RedisClient> dedicatedPool;
+  private final AtomicInteger numActive = new AtomicInteger(0);
+  private volatile AsyncRedisClient asyncClient;
+  private volatile boolean closed = false;
+
+  MultiplexedClientPool(final Node node,
+      final Function<Node, AsyncRedisClient> asyncClientFactory,
+      final ClientPool<RedisClient> dedicatedPool) {
+    this.node = node;
+    this.asyncClientFactory = asyncClientFactory;
+    this.dedicatedPool = dedicatedPool;
+  }
+
+  @Override
+  public Node getNode() {
+    return node;
+  }
+
+  private AsyncRedisClient getAsyncClient() {
+    final AsyncRedisClient client = asyncClient;
+    if (client != null && !client.isBroken()) {
+      return client;
+    }
+
+    synchronized (this) {
+      if (closed) {
+        throw new IllegalStateException("Pool has been closed.");
+      }
+
+      if (asyncClient == null || asyncClient.isBroken()) {
+        if (asyncClient != null) {
+          asyncClient.close();
+        }
+        asyncClient = asyncClientFactory.apply(node);
+      }
+      return asyncClient;
+    }
+  }
+
+  @Override
+  public RedisClient borrowClient() throws NoSuchElementException {
+    final MultiplexedRedisClient client =
+        new MultiplexedRedisClient(dedicatedPool, getAsyncClient());
+    numActive.getAndIncrement();
+    return client;
+  }
+
+  @Override
+  public RedisClient borrowClient(final long timeout, final TimeUnit unit)
+      throws NoSuchElementException {
+    return borrowClient();
+  }
+
+  @Override
+  public RedisClient borrowIfCapacity() {
+    return borrowClient();
+  }
+
+  @Override
+  public RedisClient borrowIfPresent() {
+    final AsyncRedisClient client = asyncClient;
+    if (client == null || client.isBroken()) {
+      return null;
+    }
+    numActive.getAndIncrement();
+    return new MultiplexedRedisClient(dedicatedPool, client);
+  }
+
+  @Override
+  public void returnClient(final RedisClient client) {
+    numActive.getAndDecrement();
+    ((MultiplexedRedisClient) client).releaseDedicated();
+  }
+
+  @Override
+  public void invalidateClient(final RedisClient client) {
+    numActive.getAndDecrement();
+    final MultiplexedRedisClient multiplexedClient = (MultiplexedRedisClient) client;
+
+    if (multiplexedClient.getDedicated() != null) {
+      multiplexedClient.invalidateDedicated();
+      return;
+    }
+
+    final AsyncRedisClient brokenClient = multiplexedClient.getAsyncClient();
+    if (brokenClient.isBroken()) {
+      synchronized (this) {
+        if (asyncClient == brokenClient) {
+          asyncClient = null;
+        }
+      }
+      brokenClient.close();
+    }
+  }
+
+  @Override
+  public CompletableFuture<Void> warmUp(final Executor executor) {
+    return CompletableFuture.allOf(CompletableFuture.runAsync(this::getAsyncClient, executor),
+        dedicatedPool.warmUp(executor));
+  }
+
+  @Override
+  public int getNumIdle() {
+    return dedicatedPool.getNumIdle();
+  }
+
+  @Override
+  public int getNumActive() {
+    return numActive.get();
+  }
+
+  @Override
+  public void clear() {
+    dedicatedPool.clear();
+  }
+
+  @Override
+  public void close() {
+    synchronized (this) {
+      closed = true;
+      if (asyncClient != null) {
+        asyncClient.close();
+        asyncClient = null;
+      }
+    }
+    dedicatedPool.close();
+  }
+
+  @Override
+  public boolean isClosed() {
+    return closed;
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder("MultiplexedClientPool [node=").append(node)
+        .append(", asyncClient=").append(asyncClient).append(", numActive=")
+        .append(numActive.get()).append(", dedicatedPool=").append(dedicatedPool).append("]")
+        .toString();
+  }
+}
@@ -0,0 +1,781 @@
+package com.fabahaba.jedipus.pool;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import com.fabahaba.jedipus.client.AsyncRedisClient;
+import com.fabahaba.jedipus.client.HostPort;
+import com.fabahaba.jedipus.client.RedisClient;
+import com.fabahaba.jedipus.client.RedisPipeline;
+import com.fabahaba.jedipus.client.RespReplyVisitor;
+import com.fabahaba.jedipus.cluster.Node;
+import com.fabahaba.jedipus.cmds.Cmd;
+import com.fabahaba.jedipus.cmds.PrimArrayCmd;
+import com.fabahaba.jedipus.cmds.PrimCmd;
+import com.fabahaba.jedipus.pubsub.RedisSubscriber;
+
+final class MultiplexedRedisClient implements RedisClient {
+
+  // Commands that neither change nor depend on connection state and never block the connection.
+  private static final Set<String> MULTIPLEXED_CMDS = new HashSet<>(Arrays.asList(
+      // generic
+      "del", "dump", "exists", "expire", "expireat", "keys", "migrate", "move", "object",
+      "persist", "pexpire", "pexpireat", "pttl", "randomkey", "rename", "renamenx", "restore",
+      "scan", "sort", "touch", "ttl", "type",
+      // strings
+      "append", "bitcount", "bitfield", "bitop", "bitpos", "decr", "decrby", "get", "getbit",
+      "getrange", "getset", "incr", "incrby", "incrbyfloat", "mget", "mset", "msetnx", "psetex",
+      "set", "setbit", "setex", "setnx", "setrange", "strlen",
+      // hashes
+      "hdel", "hexists", "hget", "hgetall", "hincrby", "hincrbyfloat", "hkeys", "hlen", "hmget",
+      "hmset", "hscan", "hset", "hsetnx", "hstrlen", "hvals",
+      // lists, without the blocking pops
+      "lindex", "linsert", "llen", "lpop", "lpush", "lpushx", "lrange", "lrem", "lset", "ltrim",
+      "rpop", "rpoplpush", "rpush", "rpushx",
+      // sets
+      "sadd", "scard", "sdiff", "sdiffstore", "sinter", "sinterstore", "sismember", "smembers",
+      "smove", "spop", "srandmember", "srem", "sscan", "sunion", "sunionstore",
+      // sorted sets
+      "zadd", "zcard", "zcount", "zincrby", "zinterstore", "zlexcount", "zrange", "zrangebylex",
+      "zrangebyscore", "zrank", "zrem", "zremrangebylex", "zremrangebyrank",
+      "zremrangebyscore", "zrevrange", "zrevrangebylex", "zrevrangebyscore", "zrevrank", "zscan",
+      "zscore", "zunionstore",
+      // hyperloglog and geo
+      "pfadd", "pfcount", "pfmerge", "geoadd", "geodist", "geohash", "geopos", "georadius",
+      "georadiusbymember",
+      // scripting, pub/sub and server
+      "eval", "evalsha", "publish", "pubsub", "echo", "ping", "dbsize", "info", "time",
+      "lastsave", "role", "command", "cluster"));
+
+  private final ClientPool<RedisClient> dedicatedPool;
+  private final AsyncRedisClient asyncClient;
+  private RedisClient dedicated;
+
+  MultiplexedRedisClient(final ClientPool<RedisClient> dedicatedPool,
+      final AsyncRedisClient asyncClient) {
+    this.dedicatedPool = dedicatedPool;
+    this.asyncClient = asyncClient;
+  }
+
+  AsyncRedisClient getAsyncClient() {
+    return asyncClient;
+  }
+
+  RedisClient getDedicated() {
+    return dedicated;
+  }
+
+  // Stateful calls cannot share the multiplexed connection, switch to a dedicated pooled client
+  // for the remainder of this borrow.
+  private RedisClient dedicated() {
+    if (dedicated == null) {
+      dedicated = RedisClientPool.borrowClient(dedicatedPool);
+    }
+    return dedicated;
+  }
+
+  void releaseDedicated() {
+    if (dedicated != null) {
+      final RedisClient client = dedicated;
+      dedicated = null;
+      RedisClientPool.returnClient(dedicatedPool, client);
+    }
+  }
+
+  void invalidateDedicated() {
+    if (dedicated != null) {
+      final RedisClient client = dedicated;
+      dedicated = null;
+      dedicatedPool.invalidateClient(client);
+    }
+  }
+
+  // Anything else, including transactions, SELECT, CLIENT, READONLY, SCRIPT DEBUG, blocking and
+  // subscribe commands, switches to the dedicated client so that other callers are not affected.
+  private RedisClient getClient(final String cmdName) {
+    if (dedicated != null) {
+      return dedicated;
+    }
+    return MULTIPLEXED_CMDS.contains(cmdName) ? null : dedicated();
+  }
+
+  private static <R> R getReply(final CompletableFuture<R> futureReply) {
+    try {
+      return futureReply.join();
+    } catch (final CompletionException ce) {
+      if (ce.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ce.getCause();
+      }
+      throw ce;
+    }
+  }
+
+  @Override
+  public Node getNode() {
+    return asyncClient.getNode();
+  }
+
+  @Override
+  public HostPort getHostPort() {
+    return asyncClient.getHostPort();
+  }
+
+  @Override
+  public boolean isBroken() {
+    return dedicated == null ? asyncClient.isBroken() : dedicated.isBroken();
+  }
+
+  @Override
+  public void resetState() {
+    if (dedicated != null) {
+      dedicated.resetState();
+    }
+  }
+
+  @Override
+  public void close() {
+    invalidateDedicated();
+  }
+
+  @Override
+  public void flush() {
+    if (dedicated != null) {
+      dedicated.flush();
+    }
+  }
+
+  @Override
+  public void asking() {
+    dedicated().asking();
+  }
+
+  @Override
+  public String replyOn() {
+    return dedicated().replyOn();
+  }
+
+  @Override
+  public RedisClient replyOff() {
+    dedicated().replyOff();
+    return this;
+  }
+
+  @Override
+  public RedisClient skip() {
+    dedicated().skip();
+    return this;
+  }
+
+  @Override
+  public void setSoTimeout(final int soTimeoutMillis) {
+    dedicated().setSoTimeout(soTimeoutMillis);
+  }
+
+  @Override
+  public void setInfinitSoTimeout() {
+    dedicated().setInfinitSoTimeout();
+  }
+
+  @Override
+  public void resetSoTimeout() {
+    dedicated().resetSoTimeout();
+  }
+
+  @Override
+  public int getSoTimeout() {
+    return dedicated().getSoTimeout();
+  }
+
+  @Override
+  public String setClientName(final String clientName) {
+    return dedicated().setClientName(clientName);
+  }
+
+  @Override
+  public String getClientName() {
+    return dedicated().getClientName();
+  }
+
+  @Override
+  public String[] getClientList() {
+    return dedicated().getClientList();
+  }
+
+  @Override
+  public RedisPipeline pipeline() {
+    return dedicated().pipeline();
+  }
+
+  @Override
+  public String watch(final String... keys) {
+    return dedicated().watch(keys);
+  }
+
+  @Override
+  public String watch(final byte[] key) {
+    return dedicated().watch(key);
+  }
+
+  @Override
+  public String watch(final byte[]... keys) {
+    return dedicated().watch(keys);
+  }
+
+  @Override
+  public String unwatch() {
+    return dedicated().unwatch();
+  }
+
+  @Override
+  public void subscribe(final String... channels) {
+    dedicated().subscribe(channels);
+  }
+
+  @Override
+  public void subscribe(final Collection<String> channels) {
+    dedicated().subscribe(channels);
+  }
+
+  @Override
+  public void psubscribe(final String... patterns) {
+    dedicated().psubscribe(patterns);
+  }
+
+  @Override
+  public void psubscribe(final Collection<String> patterns) {
+    dedicated().psubscribe(patterns);
+  }
+
+  @Override
+  public void unsubscribe(final String... channels) {
+    dedicated().unsubscribe(channels);
+  }
+
+  @Override
+  public void unsubscribe(final Collection<String> channels) {
+    dedicated().unsubscribe(channels);
+  }
+
+  @Override
+  public void punsubscribe(final String... patterns) {
+    dedicated().punsubscribe(patterns);
+  }
+
+  @Override
+  public void punsubscribe(final Collection<String> patterns) {
+    dedicated().punsubscribe(patterns);
+  }
+
+  @Override
+  public void pubsubPing() {
+    dedicated().pubsubPing();
+  }
+
+  @Override
+  public void pubsubPing(final String pong) {
+    dedicated().pubsubPing(pong);
+  }
+
+  @Override
+  public boolean consumePubSub(final int soTimeoutMillis, final RedisSubscriber subscriber) {
+    return dedicated().consumePubSub(soTimeoutMillis, subscriber);
+  }
+
+  @Override
+  public <V extends RespReplyVisitor> V visitCmd(final Cmd<?> cmd, final V visitor,
+      final byte[]... args) {
+    return dedicated().visitCmd(cmd, visitor, args);
+  }
+
+  @Override
+  public long sendBulkCmd(final Cmd<?> cmd, final ByteBuffer dst, final byte[]... args) {
+    return dedicated().sendBulkCmd(cmd, dst, args);
+  }
+
+  @Override
+  public long sendBulkCmd(final Cmd<?> cmd, final WritableByteChannel dst, final byte[]... args) {
+    return dedicated().sendBulkCmd(cmd, dst, args);
+  }
+
+  @Override
+  public long publish(final byte[] channel, final byte[] payload) {
+    if (dedicated != null) {
+      return dedicated.publish(channel, payload);
+    }
+    return asyncClient.sendCmdAsync(PUBLISH.prim(), channel, payload).getAsLong();
+  }
+
+  @Override
+  public <T> T sendCmd(final Cmd<T> cmd) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd);
+    }
+    return getReply(asyncClient.sendCmdAsync(cmd));
+  }
+
+  @Override
+  public <T> T sendCmd(final Cmd<?> cmd, final Cmd<T> subCmd) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, subCmd);
+    }
+    return getReply(asyncClient.sendCmdAsync(cmd, subCmd));
+  }
+
+  @Override
+  public <T> T sendCmd(final Cmd<?> cmd, final Cmd<T> subCmd, final byte[] arg) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, subCmd, arg);
+    }
+    return getReply(asyncClient.sendCmdAsync(cmd, subCmd, arg));
+  }
+
+  @Override
+  public <T> T sendCmd(final Cmd<?> cmd, final Cmd<T> subCmd, final byte[]... args) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, subCmd, args);
+    }
+    return getReply(asyncClient.sendCmdAsync(cmd, subCmd, args));
+  }
+
+  @Override
+  public <T> T sendCmd(final Cmd<T> cmd, final byte[] arg) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, arg);
+    }
+    return getReply(asyncClient.sendCmdAsync(cmd, arg));
+  }
+
+  @Override
+  public <T> T sendCmd(final Cmd<T> cmd, final byte[] arg1, final byte[] arg2) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, arg1, arg2);
+    }
+    return getReply(asyncClient.sendCmdAsync(cmd, arg1, arg2));
+  }
+
+  @Override
+  public <T> T sendCmd(final Cmd<T> cmd, final byte[]... args) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, args);
+    }
+    return getReply(asyncClient.sendCmdAsync(cmd, args));
+  }
+
+  @Override
+  public <T> T sendCmd(final Cmd<?> cmd, final Cmd<T> subCmd, final String... args) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, subCmd, args);
+    }
+    return getReply(asyncClient.sendCmdAsync(cmd, subCmd, args));
+  }
+
+  @Override
+  public <T> T sendCmd(final Cmd<?> cmd, final Cmd<T> subCmd, final Collection<String> args) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, subCmd, args);
+    }
+    return getReply(asyncClient.sendCmdAsync(cmd, subCmd, args));
+  }
+
+  @Override
+  public <T> T sendCmd(final Cmd<T> cmd, final String... args) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, args);
+    }
+    return getReply(asyncClient.sendCmdAsync(cmd, args));
+  }
+
+  @Override
+  public <T> T sendCmd(final Cmd<T> cmd, final Collection<String> args) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, args);
+    }
+    return getReply(asyncClient.sendCmdAsync(cmd, args));
+  }
+
+  @Override
+  public <T> T sendCmd(final Cmd<T> cmd, final byte[] key, final long arg) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, key, arg);
+    }
+    return getReply(asyncClient.sendCmdAsync(cmd, key, arg));
+  }
+
+  @Override
+  public <T> T sendCmd(final Cmd<T> cmd, final byte[] key, final double arg) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, key, arg);
+    }
+    return getReply(asyncClient.sendCmdAsync(cmd, key, arg));
+  }
+
+  @Override
+  public <T> T sendCmd(final Cmd<T> cmd, final byte[] key, final long arg, final byte[] value) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, key, arg, value);
+    }
+    return getReply(asyncClient.sendCmdAsync(cmd, key, arg, value));
+  }
+
+  @Override
+  public <T> T sendCmd(final Cmd<T> cmd, final byte[] key, final double arg, final byte[] value) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, key, arg, value);
+    }
+    return getReply(asyncClient.sendCmdAsync(cmd, key, arg, value));
+  }
+
+  @Override
+  public <T> T sendDirect(final Cmd<T> cmd, final byte[] cmdArgs) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendDirect(cmd, cmdArgs);
+    }
+    return getReply(asyncClient.sendDirectAsync(cmd, cmdArgs));
+  }
+
+  @Override
+  public <T> T sendBlockingCmd(final int timeoutMillis, final Cmd<T> cmd) {
+    return dedicated().sendBlockingCmd(timeoutMillis, cmd);
+  }
+
+  @Override
+  public <T> T sendBlockingCmd(final int timeoutMillis, final Cmd<T> cmd, final byte[]... args) {
+    return dedicated().sendBlockingCmd(timeoutMillis, cmd, args);
+  }
+
+  @Override
+  public <T> T sendBlockingCmd(final int timeoutMillis, final Cmd<T> cmd, final String... args) {
+    return dedicated().sendBlockingCmd(timeoutMillis, cmd, args);
+  }
+
+  @Override
+  public <T> T sendBlockingCmd(final int timeoutMillis, final Cmd<T> cmd,
+      final Collection<String> args) {
+    return dedicated().sendBlockingCmd(timeoutMillis, cmd, args);
+  }
+
+  @Override
+  public long sendCmd(final PrimCmd cmd) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd);
+    }
+    return asyncClient.sendCmdAsync(cmd).getAsLong();
+  }
+
+  @Override
+  public long sendCmd(final Cmd<?> cmd, final PrimCmd subCmd) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, subCmd);
+    }
+    return asyncClient.sendCmdAsync(cmd, subCmd).getAsLong();
+  }
+
+  @Override
+  public long sendCmd(final Cmd<?> cmd, final PrimCmd subCmd, final byte[] arg) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, subCmd, arg);
+    }
+    return asyncClient.sendCmdAsync(cmd, subCmd, arg).getAsLong();
+  }
+
+  @Override
+  public long sendCmd(final Cmd<?> cmd, final PrimCmd subCmd, final byte[]... args) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, subCmd, args);
+    }
+    return asyncClient.sendCmdAsync(cmd, subCmd, args).getAsLong();
+  }
+
+  @Override
+  public long sendCmd(final PrimCmd cmd, final byte[] arg) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, arg);
+    }
+    return asyncClient.sendCmdAsync(cmd, arg).getAsLong();
+  }
+
+  @Override
+  public long sendCmd(final PrimCmd cmd, final byte[] arg1, final byte[] arg2) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, arg1, arg2);
+    }
+    return asyncClient.sendCmdAsync(cmd, arg1, arg2).getAsLong();
+  }
+
+  @Override
+  public long sendCmd(final PrimCmd cmd, final byte[]... args) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, args);
+    }
+    return asyncClient.sendCmdAsync(cmd, args).getAsLong();
+  }
+
+  @Override
+  public long sendCmd(final Cmd<?> cmd, final PrimCmd subCmd, final String... args) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, subCmd, args);
+    }
+    return asyncClient.sendCmdAsync(cmd, subCmd, args).getAsLong();
+  }
+
+  @Override
+  public long sendCmd(final Cmd<?> cmd, final PrimCmd subCmd, final Collection<String> args) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, subCmd, args);
+    }
+    return asyncClient.sendCmdAsync(cmd, subCmd, args).getAsLong();
+  }
+
+  @Override
+  public long sendCmd(final PrimCmd cmd, final String... args) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, args);
+    }
+    return asyncClient.sendCmdAsync(cmd, args).getAsLong();
+  }
+
+  @Override
+  public long sendCmd(final PrimCmd cmd, final Collection<String> args) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, args);
+    }
+    return asyncClient.sendCmdAsync(cmd, args).getAsLong();
+  }
+
+  @Override
+  public long sendCmd(final PrimCmd cmd, final byte[] key, final long arg) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, key, arg);
+    }
+    return asyncClient.sendCmdAsync(cmd, key, arg).getAsLong();
+  }
+
+  @Override
+  public long sendCmd(final PrimCmd cmd, final byte[] key, final double arg) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, key, arg);
+    }
+    return asyncClient.sendCmdAsync(cmd, key, arg).getAsLong();
+  }
+
+  @Override
+  public long sendCmd(final PrimCmd cmd, final byte[] key, final long arg, final byte[] value) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, key, arg, value);
+    }
+    return asyncClient.sendCmdAsync(cmd, key, arg, value).getAsLong();
+  }
+
+  @Override
+  public long sendCmd(final PrimCmd cmd, final byte[] key, final double arg, final byte[] value) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, key, arg, value);
+    }
+    return asyncClient.sendCmdAsync(cmd, key, arg, value).getAsLong();
+  }
+
+  @Override
+  public long sendDirect(final PrimCmd cmd, final byte[] cmdArgs) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendDirect(cmd, cmdArgs);
+    }
+    return asyncClient.sendDirectAsync(cmd, cmdArgs).getAsLong();
+  }
+
+  @Override
+  public long sendBlockingCmd(final int timeoutMillis, final PrimCmd cmd) {
+    return dedicated().sendBlockingCmd(timeoutMillis, cmd);
+  }
+
+  @Override
+  public long sendBlockingCmd(final int timeoutMillis, final PrimCmd cmd, final byte[]... args) {
+    return dedicated().sendBlockingCmd(timeoutMillis, cmd, args);
+  }
+
+  @Override
+  public long sendBlockingCmd(final int timeoutMillis, final PrimCmd cmd, final String... args) {
+    return dedicated().sendBlockingCmd(timeoutMillis, cmd, args);
+  }
+
+  @Override
+  public long sendBlockingCmd(final int timeoutMillis, final PrimCmd cmd,
+      final Collection<String> args) {
+    return dedicated().sendBlockingCmd(timeoutMillis, cmd, args);
+  }
+
+  @Override
+  public long[] sendCmd(final PrimArrayCmd cmd) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd);
+    }
+    return getReply(asyncClient.sendCmdAsync(cmd));
+  }
+
+  @Override
+  public long[] sendCmd(final Cmd<?> cmd, final PrimArrayCmd subCmd) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, subCmd);
+    }
+    return getReply(asyncClient.sendCmdAsync(cmd, subCmd));
+  }
+
+  @Override
+  public long[] sendCmd(final Cmd<?> cmd, final PrimArrayCmd subCmd, final byte[] arg) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, subCmd, arg);
+    }
+    return getReply(asyncClient.sendCmdAsync(cmd, subCmd, arg));
+  }
+
+  @Override
+  public long[] sendCmd(final Cmd<?> cmd, final PrimArrayCmd subCmd, final byte[]... args) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, subCmd, args);
+    }
+    return getReply(asyncClient.sendCmdAsync(cmd, subCmd, args));
+  }
+
+  @Override
+  public long[] sendCmd(final PrimArrayCmd cmd, final byte[] arg) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, arg);
+    }
+    return getReply(asyncClient.sendCmdAsync(cmd, arg));
+  }
+
+  @Override
+  public long[] sendCmd(final PrimArrayCmd cmd, final byte[] arg1, final byte[] arg2) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, arg1, arg2);
+    }
+    return getReply(asyncClient.sendCmdAsync(cmd, arg1, arg2));
+  }
+
+  @Override
+  public long[] sendCmd(final PrimArrayCmd cmd, final byte[]... args) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, args);
+    }
+    return getReply(asyncClient.sendCmdAsync(cmd, args));
+  }
+
+  @Override
+  public long[] sendCmd(final Cmd<?> cmd, final PrimArrayCmd subCmd, final String... args) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, subCmd, args);
+    }
+    return getReply(asyncClient.sendCmdAsync(cmd, subCmd, args));
+  }
+
+  @Override
+  public long[] sendCmd(final Cmd<?> cmd, final PrimArrayCmd subCmd,
+      final Collection<String> args) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, subCmd, args);
+    }
+    return getReply(asyncClient.sendCmdAsync(cmd, subCmd, args));
+  }
+
+  @Override
+  public long[] sendCmd(final PrimArrayCmd cmd, final String... args) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, args);
+    }
+    return getReply(asyncClient.sendCmdAsync(cmd, args));
+  }
+
+  @Override
+  public long[] sendCmd(final PrimArrayCmd cmd, final Collection<String> args) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendCmd(cmd, args);
+    }
+    return getReply(asyncClient.sendCmdAsync(cmd, args));
+  }
+
+  @Override
+  public long[] sendDirect(final PrimArrayCmd cmd, final byte[] cmdArgs) {
+    final RedisClient client = getClient(cmd.name());
+    if (client != null) {
+      return client.sendDirect(cmd, cmdArgs);
+    }
+    return getReply(asyncClient.sendDirectAsync(cmd, cmdArgs));
+  }
+
+  @Override
+  public long[] sendBlockingCmd(final int timeoutMillis, final PrimArrayCmd cmd) {
+    return dedicated().sendBlockingCmd(timeoutMillis, cmd);
+  }
+
+  @Override
+  public long[] sendBlockingCmd(final int timeoutMillis, final PrimArrayCmd cmd,
+      final byte[]... args) {
+    return dedicated().sendBlockingCmd(timeoutMillis, cmd, args);
+  }
+
+  @Override
+  public long[] sendBlockingCmd(final int timeoutMillis, final PrimArrayCmd cmd,
+      final String... args) {
+    return dedicated().sendBlockingCmd(timeoutMillis, cmd, args);
+  }
+
+  @Override
+  public long[] sendBlockingCmd(final int timeoutMillis, final PrimArrayCmd cmd,
+      final Collection<String> args) {
+    return dedicated().sendBlockingCmd(timeoutMillis, cmd, args);
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder("MultiplexedRedisClient [asyncClient=").append(asyncClient)
+        .append(", dedicated=").append(dedicated).append("]").toString();
+  }
+}
@@ -0,0 +1,319 @@
+package com.fabahaba.jedipus.pool;
+
+import com.fabahaba.jedipus.cluster.Node;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+
+/**
+ * Splits the clients of a node across independent shard pools keyed by the id of the calling
+ * thread, so threads on different shards never touch the same pool structures. A borrower takes
+ * idle clients, and then spare capacity, from other shards before waiting on an exhausted pool.
+ * Waiting borrowers are signalled whenever a client is returned to, or invalidated in, any shard;
+ * returns only read the number of waiters when no one is waiting.
+ *
+ * <p>Clients are returned to the shard that created them, found through a map that is only
+ * written when clients are created or destroyed.
+ */
+final class ShardedClientPool<C> implements ClientPool<C> {
+
+  private final Node node;
+  private final boolean blockWhenExhausted;
+  private final long defaultBorrowTimeoutNanos;
+  private final ClientPool<C>[] shards;
+  private final ConcurrentHashMap<C, Integer> owners;
+
+  private final AtomicInteger numWaiters;
+  private final ReentrantLock releaseLock;
+  private final Condition released;
+  // Guarded by releaseLock, counts the returns and invalidations seen by waiting borrowers.
+  private volatile long numReleases;
+
+  /**
+   * @param defaultBorrowTimeoutNanos The timeout used by {@link #borrowClient()},
+   *        {@code Long.MIN_VALUE} waits forever.
+   * @param shardFactory Creates the pool of the shard with the given index.
+   */
+  @SuppressWarnings("unchecked")
+  ShardedClientPool(final PooledClientFactory<C> clientFactory, final int numShards,
+      final boolean blockWhenExhausted, final long defaultBorrowTimeoutNanos,
+      final BiFunction<Integer, PooledClientFactory<C>, ClientPool<C>> shardFactory) {
+    this.node = clientFactory.getNode();
+    this.blockWhenExhausted = blockWhenExhausted;
+    this.defaultBorrowTimeoutNanos = defaultBorrowTimeoutNanos;
+    this.shards = new ClientPool[numShards];
+    this.owners = new ConcurrentHashMap<>();
+    this.numWaiters = new AtomicInteger(0);
+    this.releaseLock = new ReentrantLock();
+    this.released = releaseLock.newCondition();
+    for (int i = 0;i < numShards;i++) {
+      shards[i] = shardFactory.apply(i, new ShardClientFactory(clientFactory, i));
+    }
+  }
+
+  private final class ShardClientFactory implements PooledClientFactory<C> {
+
+    private final PooledClientFactory<C> delegate;
+    private final Integer shard;
+
+    private ShardClientFactory(final PooledClientFactory<C> delegate, final int shard) {
+      this.delegate = delegate;
+      this.shard = shard;
+    }
+
+    @Override
+    public Node getNode() {
+      return delegate.getNode();
+    }
+
+    @Override
+    public PooledClient<C> createClient() {
+      final PooledClient<C> pooledClient = delegate.createClient();
+      owners.put(pooledClient.getClient(), shard);
+      return pooledClient;
+    }
+
+    @Override
+    public void destroyClient(final PooledClient<C> pooledClient) {
+      owners.remove(pooledClient.getClient());
+      delegate.destroyClient(pooledClient);
+    }
+
+    @Override
+    public boolean validateClient(final PooledClient<C> pooledClient) {
+      return delegate.validateClient(pooledClient);
+    }
+
+    @Override
+    public void activateClient(final PooledClient<C> pooledClient) {
+      delegate.activateClient(pooledClient);
+    }
+
+    @Override
+    public void passivateClient(final PooledClient<C> pooledClient) {
+      delegate.passivateClient(pooledClient);
+    }
+  }
+
+  private int getShardIndex() {
+    return (int) (Thread.currentThread().getId() % shards.length);
+  }
+
+  private ClientPool<C> getOwner(final C client) {
+    final Integer shard = owners.get(client);
+    return shards[shard == null ? getShardIndex() : shard];
+  }
+
+  private C borrowIdleFromOthers(final int shard) {
+    for (int i = 1;i < shards.length;i++) {
+      final int index = shard + i;
+      final C client = shards[index < shards.length ? index : index - shards.length]
+          .borrowIfPresent();
+      if (client != null) {
+        return client;
+      }
+    }
+    return null;
+  }
+
+  private C borrowCapacityFromOthers(final int shard) {
+    for (int i = 1;i < shards.length;i++) {
+      final int index = shard + i;
+      final C client = shards[index < shards.length ? index : index - shards.length]
+          .borrowIfCapacity();
+      if (client != null) {
+        return client;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public Node getNode() {
+    return node;
+  }
+
+  @Override
+  public C borrowClient() throws NoSuchElementException {
+    return borrowClientNanos(defaultBorrowTimeoutNanos);
+  }
+
+  @Override
+  public C borrowClient(final long timeout, final TimeUnit unit) throws NoSuchElementException {
+    return borrowClientNanos(unit.toNanos(timeout));
+  }
+
+  private C borrowClientNanos(final long timeoutNanos) {
+    final int shard = getShardIndex();
+    final C client = borrowNow(shard);
+    if (client != null) {
+      return client;
+    }
+
+    if (!blockWhenExhausted) {
+      return shards[shard].borrowClient();
+    }
+
+    return awaitClient(shard, timeoutNanos);
+  }
+
+  // Idle clients from any shard, then spare capacity from any shard, starting with our own.
+  private C borrowNow(final int shard) {
+    final C client = shards[shard].borrowIfPresent();
+    if (client != null) {
+      return client;
+    }
+
+    final C idle = borrowIdleFromOthers(shard);
+    if (idle != null) {
+      return idle;
+    }
+
+    final C created = shards[shard].borrowIfCapacity();
+    return created == null ? borrowCapacityFromOthers(shard) : created;
+  }
+
+  // Waits until a client is released to any shard, then retries every shard.
+  private C awaitClient(final int shard, final long timeoutNanos) {
+    final boolean forever = timeoutNanos == Long.MIN_VALUE;
+    long remainingNanos = timeoutNanos;
+
+    numWaiters.incrementAndGet();
+    try {
+      for (;;) {
+        // Releases after this read are either seen by borrowNow or wake us up.
+        final long seenReleases = numReleases;
+        final C client = borrowNow(shard);
+        if (client != null) {
+          return client;
+        }
+
+        releaseLock.lock();
+        try {
+          while (numReleases == seenReleases) {
+            if (forever) {
+              released.await();
+            } else if (remainingNanos <= 0) {
+              throw new NoSuchElementException("Pool exhausted, timed out waiting for object.");
+            } else {
+              remainingNanos = released.awaitNanos(remainingNanos);
+            }
+          }
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new RuntimeException(e);
+        } finally {
+          releaseLock.unlock();
+        }
+      }
+    } finally {
+      numWaiters.decrementAndGet();
+    }
+  }
+
+  private void signalWaiter() {
+    if (numWaiters.get() == 0) {
+      return;
+    }
+
+    releaseLock.lock();
+    try {
+      numReleases++;
+      released.signal();
+    } finally {
+      releaseLock.unlock();
+    }
+  }
+
+  @Override
+  public C borrowIfCapacity() {
+    return borrowNow(getShardIndex());
+  }
+
+  @Override
+  public C borrowIfPresent() {
+    final int shard = getShardIndex();
+    final C client = shards[shard].borrowIfPresent();
+    return client == null ? borrowIdleFromOthers(shard) : client;
+  }
+
+  @Override
+  public void returnClient(final C client) {
+    getOwner(client).returnClient(client);
+    signalWaiter();
+  }
+
+  @Override
+  public void invalidateClient(final C client) {
+    getOwner(client).invalidateClient(client);
+    signalWaiter();
+  }
+
+  @Override
+  public int getNumIdle() {
+    int numIdle = 0;
+    for (final ClientPool<C> shard : shards) {
+      numIdle += shard.getNumIdle();
+    }
+    return numIdle;
+  }
+
+  @Override
+  public int getNumActive() {
+    int numActive = 0;
+    for (final ClientPool<C> shard : shards) {
+      numActive += shard.getNumActive();
+    }
+    return numActive;
+  }
+
+  @Override
+  public void clear() {
+    for (final ClientPool<C> shard : shards) {
+      shard.clear();
+    }
+  }
+
+  @Override
+  public void close() {
+    for (final ClientPool<C> shard : shards) {
+      shard.close();
+    }
+
+    releaseLock.lock();
+    try {
+      numReleases++;
+      released.signalAll();
+    } finally {
+      releaseLock.unlock();
+    }
+  }
+
+  @Override
+  public boolean isClosed() {
+    return shards[0].isClosed();
+  }
+
+  @Override
+  public CompletableFuture<Void> warmUp(final Executor executor) {
+    final CompletableFuture<?>[] futures = new CompletableFuture[shards.length];
+    for (int i = 0;i < shards.length;i++) {
+      futures[i] = shards[i].warmUp(executor);
+    }
+    return CompletableFuture.allOf(futures);
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder("ShardedClientPool [node=").append(node).append(", shards=")
+        .append(Arrays.toString(shards)).append("]").toString();
+  }
+}
@@ -0,0 +1,366 @@
+package com.fabahaba.jedipus.pool;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link ClientPool} that borrows and returns without locking. When lifo, each thread first
+ * tries an idle slot selected by its thread id, so a thread usually gets back the client it last
+ * returned, then falls back to a shared concurrent deque and finally steals from other slots. When
+ * not lifo, all idle clients go through the shared deque in FIFO order.
+ *
+ * <p>The lock is only taken by borrowers that have to wait for an exhausted pool, and by returners
+ * while such a borrower is waiting. Clients are tracked with their own {@code equals} and
+ * {@code hashCode}, which for the clients created by this library is identity.
+ */
+final class StripedClientPool<C> extends BaseClientPool<C> {
+
+  private final ConcurrentHashMap<C, PooledClient<C>> allClients;
+
+  private final int stripeMask;
+  private final AtomicReferenceArray<PooledClient<C>> idleSlots;
+  private final ConcurrentLinkedDeque<PooledClient<C>> sharedIdleClients;
+  private final AtomicInteger numIdle;
+
+  private final AtomicInteger numWaiters;
+  private final ReentrantLock waitLock;
+  private final Condition newIdleClient;
+
+  StripedClientPool(final ExecutorService evictionExecutor,
+      final PooledClientFactory<C> clientFactory, final Builder poolBuilder,
+      final EvictionStrategy<C> evictionStrategy) {
+
+    super(evictionExecutor, clientFactory, poolBuilder, evictionStrategy);
+
+    this.allClients = new ConcurrentHashMap<>(Math.min(128, maxTotal));
+
+    // Enough slots to spread the returning threads, but never more than can be idle.
+    final int numStripes = Math.max(1, Math.min(maxIdle, MAX_IDLE * 2));
+    this.stripeMask = Integer.highestOneBit((numStripes << 1) - 1) - 1;
+    this.idleSlots = new AtomicReferenceArray<>(stripeMask + 1);
+    this.sharedIdleClients = new ConcurrentLinkedDeque<>();
+    this.numIdle = new AtomicInteger(0);
+
+    this.numWaiters = new AtomicInteger(0);
+    this.waitLock = new ReentrantLock(fairness);
+    this.newIdleClient = waitLock.newCondition();
+
+    scheduleEvictionRuns();
+  }
+
+  public int getNumStripes() {
+    return idleSlots.length();
+  }
+
+  private int getStripe() {
+    final long threadId = Thread.currentThread().getId();
+    return (int) ((threadId * 0x9E3779B97F4A7C15L) >>> 32) & stripeMask;
+  }
+
+  @Override
+  protected void addClient(final PooledClient<C> pooledClient) {
+    allClients.put(pooledClient.getClient(), pooledClient);
+  }
+
+  @Override
+  protected void removeClient(final PooledClient<C> pooledClient) {
+    allClients.remove(pooledClient.getClient(), pooledClient);
+  }
+
+  @Override
+  protected void onClientRemoved() {
+    signalWaiter();
+  }
+
+  @Override
+  protected PooledClient<C> getPooledClient(final C client) {
+    return allClients.get(client);
+  }
+
+  private PooledClient<C> pollClient() {
+
+    if (numIdle.get() <= 0) {
+      return null;
+    }
+
+    final int stripe = getStripe();
+    PooledClient<C> pooledClient = idleSlots.get(stripe);
+    if (pooledClient != null && idleSlots.compareAndSet(stripe, pooledClient, null)) {
+      numIdle.decrementAndGet();
+      return pooledClient;
+    }
+
+    pooledClient = lifo ? sharedIdleClients.pollFirst() : sharedIdleClients.pollLast();
+    if (pooledClient != null) {
+      numIdle.decrementAndGet();
+      return pooledClient;
+    }
+
+    for (int i = 1;i <= stripeMask;i++) {
+      final int index = (stripe + i) & stripeMask;
+      pooledClient = idleSlots.get(index);
+      if (pooledClient != null && idleSlots.compareAndSet(index, pooledClient, null)) {
+        numIdle.decrementAndGet();
+        return pooledClient;
+      }
+    }
+
+    return null;
+  }
+
+  @Override
+  protected void addIdleClient(final PooledClient<C> pooledClient) {
+    addIdleClient(pooledClient, lifo);
+  }
+
+  @Override
+  protected void addWarmedUpClient(final PooledClient<C> pooledClient) {
+    // The warming thread will never borrow it, so skip its slot.
+    addIdleClient(pooledClient, false);
+  }
+
+  private void addIdleClient(final PooledClient<C> pooledClient, final boolean threadAffine) {
+
+    if (closed) {
+      destroy(pooledClient);
+      return;
+    }
+
+    // Counted before publishing so waiters never sleep while a client is on its way back.
+    if (numIdle.incrementAndGet() > maxIdle) {
+      numIdle.decrementAndGet();
+      destroy(pooledClient);
+      return;
+    }
+
+    if (!threadAffine || !idleSlots.compareAndSet(getStripe(), null, pooledClient)) {
+      sharedIdleClients.addFirst(pooledClient);
+    }
+
+    if (closed) {
+      clearIdle();
+      return;
+    }
+
+    signalWaiter();
+  }
+
+  @Override
+  protected boolean removeIdleClient(final PooledClient<C> pooledClient) {
+
+    for (int i = 0;i <= stripeMask;i++) {
+      if (idleSlots.get(i) == pooledClient && idleSlots.compareAndSet(i, pooledClient, null)) {
+        numIdle.decrementAndGet();
+        return true;
+      }
+    }
+
+    if (sharedIdleClients.remove(pooledClient)) {
+      numIdle.decrementAndGet();
+      return true;
+    }
+
+    return false;
+  }
+
+  @Override
+  protected Deque<PooledClient<C>> getIdleDeque() {
+    return sharedIdleClients;
+  }
+
+  private void signalWaiter() {
+
+    if (numWaiters.get() <= 0) {
+      return;
+    }
+
+    waitLock.lock();
+    try {
+      newIdleClient.signal();
+    } finally {
+      waitLock.unlock();
+    }
+  }
+
+  @Override
+  public C borrowIfCapacity() {
+    for (;;) {
+      assertOpen();
+      PooledClient<C> pooledClient = pollClient();
+      if (pooledClient != null) {
+        if (activate(pooledClient, false)) {
+          return pooledClient.getClient();
+        }
+        continue;
+      }
+      pooledClient = create();
+      if (pooledClient == null) {
+        return null;
+      }
+      if (activate(pooledClient, true)) {
+        return pooledClient.getClient();
+      }
+    }
+  }
+
+  @Override
+  public C borrowIfPresent() {
+    for (;;) {
+      assertOpen();
+      final PooledClient<C> pooledClient = pollClient();
+      if (pooledClient == null) {
+        return null;
+      }
+      if (activate(pooledClient, false)) {
+        return pooledClient.getClient();
+      }
+    }
+  }
+
+  @Override
+  protected C pollOrCreate() {
+    return borrow(false, 0);
+  }
+
+  @Override
+  protected C pollOrCreate(final long timeout, final TimeUnit unit) {
+    return borrow(true, unit.toNanos(timeout));
+  }
+
+  private C borrow(final boolean timed, final long timeoutNanos) {
+
+    final long deadline = timed ? System.nanoTime() + timeoutNanos : 0;
+
+    for (;;) {
+      final C client = borrowIfCapacity();
+      if (client != null) {
+        return client;
+      }
+
+      if (!blockWhenExhausted) {
+        throw new NoSuchElementException("Pool exhausted.");
+      }
+
+      numWaiters.incrementAndGet();
+      waitLock.lock();
+      try {
+        while (numIdle.get() <= 0 && totalClients.get() >= maxTotal) {
+          assertOpen();
+          if (!timed) {
+            newIdleClient.await();
+            continue;
+          }
+          final long remainingNanos = deadline - System.nanoTime();
+          if (remainingNanos <= 0) {
+            throw new NoSuchElementException("Pool exhausted, timed out waiting for object.");
+          }
+          newIdleClient.awaitNanos(remainingNanos);
+        }
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
+      } finally {
+        waitLock.unlock();
+        numWaiters.decrementAndGet();
+      }
+    }
+  }
+
+  private List<PooledClient<C>> getIdleClients() {
+
+    final List<PooledClient<C>> idleClients = new ArrayList<>(Math.max(0, numIdle.get()));
+    // Oldest shared clients first, the deque is always added to at its head.
+    for (final Iterator<PooledClient<C>> iterator =
+        sharedIdleClients.descendingIterator(); iterator.hasNext();) {
+      idleClients.add(iterator.next());
+    }
+    for (int i = 0;i <= stripeMask;i++) {
+      final PooledClient<C> pooledClient = idleSlots.get(i);
+      if (pooledClient != null) {
+        idleClients.add(pooledClient);
+      }
+    }
+    return idleClients;
+  }
+
+  @Override
+  public void execEvictionTests() {
+
+    if (closed || numIdle.get() <= 0) {
+      return;
+    }
+
+    final List<PooledClient<C>> idleClients = getIdleClients();
+    for (int i = 0, maxTests = getNumTests(idleClients.size());i < maxTests;i++) {
+      final PooledClient<C> underTest = idleClients.get(i);
+      evictionExecutor.execute(() -> tryEvict(underTest));
+    }
+  }
+
+  @Override
+  public int getNumActive() {
+    return allClients.size() - numIdle.get();
+  }
+
+  @Override
+  public int getNumIdle() {
+    return numIdle.get();
+  }
+
+  private void clearIdle() {
+
+    for (int i = 0;i <= stripeMask;i++) {
+      final PooledClient<C> pooledClient = idleSlots.getAndSet(i, null);
+      if (pooledClient != null) {
+        numIdle.decrementAndGet();
+        destroy(pooledClient);
+      }
+    }
+
+    for (PooledClient<C> pooledClient = sharedIdleClients.poll(); pooledClient != null;
+        pooledClient = sharedIdleClients.poll()) {
+      numIdle.decrementAndGet();
+      destroy(pooledClient);
+    }
+  }
+
+  /**
+   * Destroys all idle clients. Unlike {@link FinalClientPool}, borrowed clients remain tracked so
+   * that they are still destroyed or re-pooled when returned.
+   */
+  @Override
+  public void clear() {
+    clearIdle();
+  }
+
+  @Override
+  public void close() {
+
+    waitLock.lock();
+    try {
+      if (closed) {
+        return;
+      }
+
+      closed = true;
+      shutdownEvictionRuns();
+
+      newIdleClient.signalAll();
+    } finally {
+      waitLock.unlock();
+    }
+
+    clearIdle();
+  }
+}
@@ -0,0 +1,278 @@
+package com.fabahaba.jedipus.pool;
+
+import com.fabahaba.jedipus.cluster.Node;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Parks each returned client in a slot owned by the returning thread instead of handing it back
+ * to the delegate pool, so the next borrow from that thread reuses it without touching the shared
+ * pool. Parked clients stay borrowed from the delegate's point of view.
+ *
+ * <p>A borrower that would otherwise have to wait on the delegate first steals clients parked by
+ * other threads, and while any borrower is waiting, returning threads hand their clients straight
+ * back to the delegate. Slots of threads that have died are reclaimed by the same scan and by the
+ * eviction runs of the delegate, if enabled. Eviction runs also hand back clients that have been
+ * parked for longer than the delegate's min evictable idle duration, so that clients of idle
+ * threads are again subject to the delegate's idle eviction and tests.
+ *
+ * <p>Returning a client that is already parked fails with an {@code IllegalStateException}, as
+ * returning a client twice to the delegate does.
+ */
+final class ThreadAffineClientPool<C> implements ClientPool<C> {
+
+  private static final class AffinitySlot<C> extends AtomicReference<C> {
+
+    private static final long serialVersionUID = -3346473405937934637L;
+
+    private final WeakReference<Thread> owner;
+    private volatile long parkedNanos;
+
+    AffinitySlot(final Thread owner) {
+      this.owner = new WeakReference<>(owner);
+    }
+
+    boolean isOwnerAlive() {
+      final Thread thread = owner.get();
+      return thread != null && thread.isAlive();
+    }
+  }
+
+  private final ClientPool<C> delegate;
+  private final ConcurrentLinkedQueue<AffinitySlot<C>> slots;
+  // Clients are tracked with their own equals and hashCode, like the striped pool does.
+  private final Set<C> parkedClients;
+  private final ThreadLocal<AffinitySlot<C>> threadSlot;
+  private final AtomicInteger numWaiters;
+  private final long maxParkedNanos;
+  private volatile boolean closed = false;
+
+  ThreadAffineClientPool(final BaseClientPool<C> delegate) {
+    this.delegate = delegate;
+    final Duration minEvictableIdle = delegate.getMinEvictableIdleDuration();
+    this.maxParkedNanos = minEvictableIdle == null ? Long.MAX_VALUE : minEvictableIdle.toNanos();
+    this.slots = new ConcurrentLinkedQueue<>();
+    this.parkedClients = ConcurrentHashMap.newKeySet();
+    this.numWaiters = new AtomicInteger(0);
+    this.threadSlot = ThreadLocal.withInitial(() -> {
+      final AffinitySlot<C> slot = new AffinitySlot<>(Thread.currentThread());
+      slots.add(slot);
+      return slot;
+    });
+    delegate.setEvictionRunListener(this::reclaimSlots);
+  }
+
+  @Override
+  public Node getNode() {
+    return delegate.getNode();
+  }
+
+  private C pollParked() {
+    final AffinitySlot<C> slot = threadSlot.get();
+    final C client = slot.get();
+    return client != null && slot.compareAndSet(client, null) ? unpark(client) : null;
+  }
+
+  private C unpark(final C client) {
+    parkedClients.remove(client);
+    return client;
+  }
+
+  private C stealParked() {
+
+    for (final Iterator<AffinitySlot<C>> iterator = slots.iterator(); iterator.hasNext();) {
+      final AffinitySlot<C> slot = iterator.next();
+      final C client = slot.getAndSet(null);
+      if (!slot.isOwnerAlive()) {
+        iterator.remove();
+      }
+      if (client != null) {
+        return unpark(client);
+      }
+    }
+    return null;
+  }
+
+  private void reclaimSlots() {
+
+    final long now = System.nanoTime();
+    for (final Iterator<AffinitySlot<C>> iterator = slots.iterator(); iterator.hasNext();) {
+      final AffinitySlot<C> slot = iterator.next();
+      if (slot.isOwnerAlive()) {
+        final C client = slot.get();
+        if (client != null && now - slot.parkedNanos >= maxParkedNanos
+            && slot.compareAndSet(client, null)) {
+          delegate.returnClient(unpark(client));
+        }
+        continue;
+      }
+      iterator.remove();
+      final C client = slot.getAndSet(null);
+      if (client != null) {
+        delegate.returnClient(unpark(client));
+      }
+    }
+  }
+
+  @Override
+  public C borrowClient() throws NoSuchElementException {
+    final C client = borrowIfCapacity();
+    if (client != null) {
+      return client;
+    }
+
+    numWaiters.incrementAndGet();
+    try {
+      final C stolen = stealParked();
+      return stolen == null ? delegate.borrowClient() : stolen;
+    } finally {
+      numWaiters.decrementAndGet();
+    }
+  }
+
+  @Override
+  public C borrowClient(final long timeout, final TimeUnit unit) throws NoSuchElementException {
+    final C client = borrowIfCapacity();
+    if (client != null) {
+      return client;
+    }
+
+    numWaiters.incrementAndGet();
+    try {
+      final C stolen = stealParked();
+      return stolen == null ? delegate.borrowClient(timeout, unit) : stolen;
+    } finally {
+      numWaiters.decrementAndGet();
+    }
+  }
+
+  @Override
+  public C borrowIfCapacity() {
+    assertOpen();
+    final C client = pollParked();
+    if (client != null) {
+      return client;
+    }
+
+    final C borrowed = delegate.borrowIfCapacity();
+    return borrowed == null ? stealParked() : borrowed;
+  }
+
+  @Override
+  public C borrowIfPresent() {
+    assertOpen();
+    final C client = pollParked();
+    if (client != null) {
+      return client;
+    }
+
+    final C borrowed = delegate.borrowIfPresent();
+    return borrowed == null ? stealParked() : borrowed;
+  }
+
+  @Override
+  public void returnClient(final C client) {
+    if (closed) {
+      delegate.returnClient(client);
+      return;
+    }
+
+    if (!parkedClients.add(client)) {
+      throw new IllegalStateException(
+          "Client has already been returned to this pool or is invalid.");
+    }
+
+    final AffinitySlot<C> slot = threadSlot.get();
+    slot.parkedNanos = System.nanoTime();
+    if (!slot.compareAndSet(null, client)) {
+      delegate.returnClient(unpark(client));
+      return;
+    }
+
+    // Parked before checking, so a waiter or close either takes it or it is handed back here.
+    if ((numWaiters.get() > 0 || closed) && slot.compareAndSet(client, null)) {
+      delegate.returnClient(unpark(client));
+    }
+  }
+
+  @Override
+  public void invalidateClient(final C client) {
+    delegate.invalidateClient(client);
+  }
+
+  int getNumParked() {
+    int numParked = 0;
+    for (final AffinitySlot<C> slot : slots) {
+      if (slot.get() != null) {
+        numParked++;
+      }
+    }
+    return numParked;
+  }
+
+  @Override
+  public int getNumIdle() {
+    return delegate.getNumIdle() + getNumParked();
+  }
+
+  @Override
+  public int getNumActive() {
+    return Math.max(0, delegate.getNumActive() - getNumParked());
+  }
+
+  private void returnParked() {
+    for (final AffinitySlot<C> slot : slots) {
+      final C client = slot.getAndSet(null);
+      if (client != null) {
+        delegate.returnClient(unpark(client));
+      }
+    }
+  }
+
+  @Override
+  public void clear() {
+    returnParked();
+    delegate.clear();
+  }
+
+  @Override
+  public CompletableFuture<Void> warmUp(final Executor executor) {
+    return delegate.warmUp(executor);
+  }
+
+  private void assertOpen() throws IllegalStateException {
+    if (closed) {
+      throw new IllegalStateException("Pool not open.");
+    }
+  }
+
+  @Override
+  public boolean isClosed() {
+    return closed;
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    returnParked();
+    slots.clear();
+    delegate.close();
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder("ThreadAffineClientPool [delegate=").append(delegate)
+        .append(", numParked=").append(getNumParked()).append("]").toString();
+  }
+}
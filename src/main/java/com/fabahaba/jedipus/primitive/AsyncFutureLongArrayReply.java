@@ -0,0 +1,24 @@
+package com.fabahaba.jedipus.primitive;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+final class AsyncFutureLongArrayReply extends CompletableFuture<long[]> implements AsyncReply {
+
+  private final Function<long[], long[]> adapter;
+
+  AsyncFutureLongArrayReply(final Function<long[], long[]> adapter) {
+    this.adapter = adapter;
+  }
+
+  @Override
+  public void setReply(final PrimRedisConn conn) {
+    final long[] reply = conn.getLongArray();
+    complete(adapter.apply(reply));
+  }
+
+  @Override
+  public void setException(final RuntimeException exception) {
+    completeExceptionally(exception);
+  }
+}
@@ -0,0 +1,24 @@
+package com.fabahaba.jedipus.primitive;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+final class AsyncFutureReply<T> extends CompletableFuture<T> implements AsyncReply {
+
+  private final Function<Object, T> adapter;
+
+  AsyncFutureReply(final Function<Object, T> adapter) {
+    this.adapter = adapter;
+  }
+
+  @Override
+  public void setReply(final PrimRedisConn conn) {
+    final Object reply = conn.getReply();
+    complete(adapter.apply(reply));
+  }
+
+  @Override
+  public void setException(final RuntimeException exception) {
+    completeExceptionally(exception);
+  }
+}
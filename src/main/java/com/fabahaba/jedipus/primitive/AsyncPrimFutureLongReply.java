@@ -0,0 +1,117 @@
+package com.fabahaba.jedipus.primitive;
+
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.LongUnaryOperator;
+
+import com.fabahaba.jedipus.client.AsyncFutureLongReply;
+import com.fabahaba.jedipus.exceptions.RedisUnhandledException;
+
+final class AsyncPrimFutureLongReply implements AsyncFutureLongReply, AsyncReply {
+
+  private final LongUnaryOperator adapter;
+  private long reply;
+  private RuntimeException exception;
+  private volatile boolean done = false;
+  private LongConsumer onReply;
+  private Consumer<RuntimeException> onException;
+
+  AsyncPrimFutureLongReply(final LongUnaryOperator adapter) {
+    this.adapter = adapter;
+  }
+
+  @Override
+  public void setReply(final PrimRedisConn conn) {
+    final long reply = adapter.applyAsLong(conn.getLong());
+
+    final LongConsumer onReply;
+    synchronized (this) {
+      if (done) {
+        return;
+      }
+      this.reply = reply;
+      done = true;
+      onReply = this.onReply;
+      notifyAll();
+    }
+
+    if (onReply != null) {
+      onReply.accept(reply);
+    }
+  }
+
+  @Override
+  public void setException(final RuntimeException exception) {
+    final Consumer<RuntimeException> onException;
+    synchronized (this) {
+      if (done) {
+        return;
+      }
+      this.exception = exception;
+      done = true;
+      onException = this.onException;
+      notifyAll();
+    }
+
+    if (onException != null) {
+      onException.accept(exception);
+    }
+  }
+
+  @Override
+  public boolean isDone() {
+    return done;
+  }
+
+  @Override
+  public AsyncFutureLongReply checkReply() {
+    if (!done) {
+      synchronized (this) {
+        while (!done) {
+          try {
+            wait();
+          } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new RedisUnhandledException(null, "Interrupted while waiting for reply.", ie);
+          }
+        }
+      }
+    }
+
+    if (exception != null) {
+      throw exception;
+    }
+    return this;
+  }
+
+  @Override
+  public long getAsLong() {
+    checkReply();
+    return reply;
+  }
+
+  @Override
+  public AsyncFutureLongReply whenComplete(final LongConsumer onReply,
+      final Consumer<RuntimeException> onException) {
+    synchronized (this) {
+      if (!done) {
+        this.onReply = onReply;
+        this.onException = onException;
+        return this;
+      }
+    }
+
+    if (exception == null) {
+      onReply.accept(reply);
+    } else {
+      onException.accept(exception);
+    }
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder("AsyncPrimFutureLongReply [done=").append(done).append(", reply=")
+        .append(reply).append(", exception=").append(exception).append("]").toString();
+  }
+}
@@ -0,0 +1,485 @@
+package com.fabahaba.jedipus.primitive;
+
+import java.nio.channels.SelectionKey;
+import java.util.Collection;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.fabahaba.jedipus.client.AsyncFutureLongReply;
+import com.fabahaba.jedipus.client.AsyncRedisClient;
+import com.fabahaba.jedipus.client.NioSocket;
+import com.fabahaba.jedipus.cluster.Node;
+import com.fabahaba.jedipus.cmds.Cmd;
+import com.fabahaba.jedipus.cmds.PrimArrayCmd;
+import com.fabahaba.jedipus.cmds.PrimCmd;
+import com.fabahaba.jedipus.exceptions.RedisConnectionException;
+
+final class AsyncPrimRedisClient implements AsyncRedisClient, Runnable {
+
+  // Shared by all event loop driven clients. A thread is only taken once reply bytes have arrived,
+  // and is released as soon as no more are buffered, so idle and waiting connections hold none.
+  private static final Executor REPLY_READERS = Executors.newCachedThreadPool(runnable -> {
+    final Thread thread = new Thread(runnable, "jedipus-async-reply-reader");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final PrimRedisConn conn;
+  private final ReentrantLock writeLock = new ReentrantLock();
+  private final BlockingQueue<AsyncReply> pendingReplies = new LinkedBlockingQueue<>();
+  // Null if replies are read when the event loop reports the socket as readable.
+  private final Thread reader;
+  private final NioSocket nioSocket;
+  // True while a read is armed with the event loop or replies are being read.
+  private final AtomicBoolean reading = new AtomicBoolean(false);
+  private volatile boolean closed = false;
+
+  AsyncPrimRedisClient(final PrimRedisConn conn) {
+    this.conn = conn;
+    this.nioSocket = conn.getNioSocket();
+    if (nioSocket == null) {
+      this.reader = new Thread(this, "jedipus-async-reader-" + conn.getNode());
+      reader.setDaemon(true);
+    } else {
+      this.reader = null;
+    }
+  }
+
+  AsyncPrimRedisClient start() {
+    if (reader != null) {
+      reader.start();
+    }
+    return this;
+  }
+
+  @Override
+  public Node getNode() {
+    return conn.getNode();
+  }
+
+  @Override
+  public boolean isBroken() {
+    return closed || conn.isBroken();
+  }
+
+  @Override
+  public int getNumPendingReplies() {
+    return pendingReplies.size();
+  }
+
+  private <R extends AsyncReply> R send(final R reply, final Runnable write) {
+    writeLock.lock();
+    try {
+      if (closed) {
+        reply.setException(new RedisConnectionException(getNode(), "Client has been closed."));
+        return reply;
+      }
+
+      try {
+        write.run();
+        pendingReplies.add(reply);
+        // Every thread waiting on the lock either writes and then flushes unless others are still
+        // waiting, or closes the client and fails all pending replies, so the last writer in a
+        // burst flushes on behalf of the others.
+        if (!writeLock.hasQueuedThreads()) {
+          conn.flushOS();
+          if (nioSocket != null) {
+            readWhenReady();
+          }
+        }
+      } catch (final RuntimeException re) {
+        pendingReplies.remove(reply);
+        reply.setException(re);
+        // Part of this command may be buffered or sent, and unflushed commands queued before it
+        // may never be sent, so the reply stream can no longer be matched to the requests.
+        closeLocked(new RedisConnectionException(getNode(), "Client closed after a failed write.",
+            re));
+      }
+    } finally {
+      writeLock.unlock();
+    }
+    return reply;
+  }
+
+  // Must hold the write lock, so that no writer can queue a reply after the pending replies are
+  // drained.
+  private void closeLocked(final RedisConnectionException cause) {
+    if (!closed) {
+      closed = true;
+      try {
+        conn.close();
+      } catch (final RuntimeException re) {
+        // closing anyways
+      }
+      // Closing the socket fails any read armed with the event loop.
+      if (reader != null && Thread.currentThread() != reader) {
+        reader.interrupt();
+      }
+    }
+    failPendingReplies(cause);
+  }
+
+  private void close(final RedisConnectionException cause) {
+    writeLock.lock();
+    try {
+      closeLocked(cause);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public void run() {
+    try {
+      while (!closed) {
+        if (!readReply(pendingReplies.take())) {
+          return;
+        }
+      }
+    } catch (final InterruptedException ie) {
+      // closing
+    }
+    close(new RedisConnectionException(getNode(), "Client has been closed."));
+  }
+
+  private boolean readReply(final AsyncReply reply) {
+    try {
+      reply.setReply(conn);
+      return true;
+    } catch (final RedisConnectionException rce) {
+      // Closed first, so that callers observing the failure see a closed client.
+      close(rce);
+      reply.setException(rce);
+      return false;
+    } catch (final RuntimeException re) {
+      reply.setException(re);
+      return true;
+    }
+  }
+
+  private void readWhenReady() {
+    if (reading.compareAndSet(false, true)) {
+      armRead();
+    }
+  }
+
+  private void armRead() {
+    nioSocket.whenReady(SelectionKey.OP_READ).whenCompleteAsync((ready, ex) -> {
+      if (ex == null) {
+        readReplies();
+        return;
+      }
+      close(new RedisConnectionException(getNode(), ex));
+    }, REPLY_READERS);
+  }
+
+  // Reads replies until none are left or the socket has no more buffered bytes, at which point
+  // reading is re-armed with the event loop rather than blocking this thread on the socket.
+  private void readReplies() {
+    for (boolean readable = true;; readable = false) {
+      if (pendingReplies.isEmpty()) {
+        reading.set(false);
+        // A writer may have queued a reply after the check above, while reading was still set.
+        if (pendingReplies.isEmpty() || !reading.compareAndSet(false, true)) {
+          return;
+        }
+        readable = false;
+      }
+      if (!readable && !conn.isReplyBuffered()) {
+        armRead();
+        return;
+      }
+      final AsyncReply reply = pendingReplies.poll();
+      if (reply != null && !readReply(reply)) {
+        return;
+      }
+    }
+  }
+
+  private void failPendingReplies(final RedisConnectionException cause) {
+    for (AsyncReply reply; (reply = pendingReplies.poll()) != null;) {
+      reply.setException(cause);
+    }
+  }
+
+  @Override
+  public <T> CompletableFuture<T> sendCmdAsync(final Cmd<T> cmd) {
+    return send(new AsyncFutureReply<>(cmd), () -> conn.sendCmd(cmd.getCmdBytes()));
+  }
+
+  @Override
+  public <T> CompletableFuture<T> sendCmdAsync(final Cmd<?> cmd, final Cmd<T> subCmd) {
+    return send(new AsyncFutureReply<>(subCmd), () -> conn.sendCmd(cmd.getCmdBytes(),
+        subCmd.getCmdBytes()));
+  }
+
+  @Override
+  public <T> CompletableFuture<T> sendCmdAsync(final Cmd<?> cmd, final Cmd<T> subCmd,
+      final byte[] arg) {
+    return send(new AsyncFutureReply<>(subCmd), () -> conn.sendCmd(cmd.getCmdBytes(),
+        subCmd.getCmdBytes(), arg));
+  }
+
+  @Override
+  public <T> CompletableFuture<T> sendCmdAsync(final Cmd<?> cmd, final Cmd<T> subCmd,
+      final byte[]... args) {
+    return send(new AsyncFutureReply<>(subCmd), () -> conn.sendCmd(cmd.getCmdBytes(),
+        subCmd.getCmdBytes(), args));
+  }
+
+  @Override
+  public <T> CompletableFuture<T> sendCmdAsync(final Cmd<T> cmd, final byte[] arg) {
+    return send(new AsyncFutureReply<>(cmd), () -> conn.sendCmd(cmd.getCmdBytes(), arg));
+  }
+
+  @Override
+  public <T> CompletableFuture<T> sendCmdAsync(final Cmd<T> cmd, final byte[] arg1,
+      final byte[] arg2) {
+    return send(new AsyncFutureReply<>(cmd), () -> conn.sendCmd(cmd.getCmdBytes(), arg1, arg2));
+  }
+
+  @Override
+  public <T> CompletableFuture<T> sendCmdAsync(final Cmd<T> cmd, final byte[]... args) {
+    return send(new AsyncFutureReply<>(cmd), () -> conn.sendCmd(cmd.getCmdBytes(), args));
+  }
+
+  @Override
+  public <T> CompletableFuture<T> sendCmdAsync(final Cmd<?> cmd, final Cmd<T> subCmd,
+      final String... args) {
+    return send(new AsyncFutureReply<>(subCmd), () -> conn.sendCmd(cmd.getCmdBytes(),
+        subCmd.getCmdBytes(), args));
+  }
+
+  @Override
+  public <T> CompletableFuture<T> sendCmdAsync(final Cmd<?> cmd, final Cmd<T> subCmd,
+      final Collection<String> args) {
+    return send(new AsyncFutureReply<>(subCmd), () -> conn.sendCmd(cmd.getCmdBytes(),
+        subCmd.getCmdBytes(), args));
+  }
+
+  @Override
+  public <T> CompletableFuture<T> sendCmdAsync(final Cmd<T> cmd, final String... args) {
+    return send(new AsyncFutureReply<>(cmd), () -> conn.sendCmd(cmd.getCmdBytes(), args));
+  }
+
+  @Override
+  public <T> CompletableFuture<T> sendCmdAsync(final Cmd<T> cmd, final Collection<String> args) {
+    return send(new AsyncFutureReply<>(cmd), () -> conn.sendCmd(cmd.getCmdBytes(), args));
+  }
+
+  @Override
+  public <T> CompletableFuture<T> sendCmdAsync(final Cmd<T> cmd, final byte[] key, final long arg) {
+    return send(new AsyncFutureReply<>(cmd), () -> conn.sendCmd(cmd.getCmdBytes(), key, arg));
+  }
+
+  @Override
+  public <T> CompletableFuture<T> sendCmdAsync(final Cmd<T> cmd, final byte[] key,
+      final double arg) {
+    return send(new AsyncFutureReply<>(cmd), () -> conn.sendCmd(cmd.getCmdBytes(), key, arg));
+  }
+
+  @Override
+  public <T> CompletableFuture<T> sendCmdAsync(final Cmd<T> cmd, final byte[] key, final long arg,
+      final byte[] value) {
+    return send(new AsyncFutureReply<>(cmd),
+        () -> conn.sendCmd(cmd.getCmdBytes(), key, arg, value));
+  }
+
+  @Override
+  public <T> CompletableFuture<T> sendCmdAsync(final Cmd<T> cmd, final byte[] key, final double arg,
+      final byte[] value) {
+    return send(new AsyncFutureReply<>(cmd),
+        () -> conn.sendCmd(cmd.getCmdBytes(), key, arg, value));
+  }
+
+  @Override
+  public <T> CompletableFuture<T> sendDirectAsync(final Cmd<T> cmd, final byte[] cmdArgs) {
+    return send(new AsyncFutureReply<>(cmd), () -> conn.sendDirect(cmdArgs));
+  }
+
+  @Override
+  public AsyncFutureLongReply sendCmdAsync(final PrimCmd cmd) {
+    return send(new AsyncPrimFutureLongReply(cmd), () -> conn.sendCmd(cmd.getCmdBytes()));
+  }
+
+  @Override
+  public AsyncFutureLongReply sendCmdAsync(final Cmd<?> cmd, final PrimCmd subCmd) {
+    return send(new AsyncPrimFutureLongReply(subCmd), () -> conn.sendCmd(cmd.getCmdBytes(),
+        subCmd.getCmdBytes()));
+  }
+
+  @Override
+  public AsyncFutureLongReply sendCmdAsync(final Cmd<?> cmd, final PrimCmd subCmd,
+      final byte[] arg) {
+    return send(new AsyncPrimFutureLongReply(subCmd), () -> conn.sendCmd(cmd.getCmdBytes(),
+        subCmd.getCmdBytes(), arg));
+  }
+
+  @Override
+  public AsyncFutureLongReply sendCmdAsync(final Cmd<?> cmd, final PrimCmd subCmd,
+      final byte[]... args) {
+    return send(new AsyncPrimFutureLongReply(subCmd), () -> conn.sendCmd(cmd.getCmdBytes(),
+        subCmd.getCmdBytes(), args));
+  }
+
+  @Override
+  public AsyncFutureLongReply sendCmdAsync(final PrimCmd cmd, final byte[] arg) {
+    return send(new AsyncPrimFutureLongReply(cmd), () -> conn.sendCmd(cmd.getCmdBytes(), arg));
+  }
+
+  @Override
+  public AsyncFutureLongReply sendCmdAsync(final PrimCmd cmd, final byte[] arg1,
+      final byte[] arg2) {
+    return send(new AsyncPrimFutureLongReply(cmd), () -> conn.sendCmd(cmd.getCmdBytes(), arg1,
+        arg2));
+  }
+
+  @Override
+  public AsyncFutureLongReply sendCmdAsync(final PrimCmd cmd, final byte[]... args) {
+    return send(new AsyncPrimFutureLongReply(cmd), () -> conn.sendCmd(cmd.getCmdBytes(), args));
+  }
+
+  @Override
+  public AsyncFutureLongReply sendCmdAsync(final Cmd<?> cmd, final PrimCmd subCmd,
+      final String... args) {
+    return send(new AsyncPrimFutureLongReply(subCmd), () -> conn.sendCmd(cmd.getCmdBytes(),
+        subCmd.getCmdBytes(), args));
+  }
+
+  @Override
+  public AsyncFutureLongReply sendCmdAsync(final Cmd<?> cmd, final PrimCmd subCmd,
+      final Collection<String> args) {
+    return send(new AsyncPrimFutureLongReply(subCmd), () -> conn.sendCmd(cmd.getCmdBytes(),
+        subCmd.getCmdBytes(), args));
+  }
+
+  @Override
+  public AsyncFutureLongReply sendCmdAsync(final PrimCmd cmd, final String... args) {
+    return send(new AsyncPrimFutureLongReply(cmd), () -> conn.sendCmd(cmd.getCmdBytes(), args));
+  }
+
+  @Override
+  public AsyncFutureLongReply sendCmdAsync(final PrimCmd cmd, final Collection<String> args) {
+    return send(new AsyncPrimFutureLongReply(cmd), () -> conn.sendCmd(cmd.getCmdBytes(), args));
+  }
+
+  @Override
+  public AsyncFutureLongReply sendCmdAsync(final PrimCmd cmd, final byte[] key, final long arg) {
+    return send(new AsyncPrimFutureLongReply(cmd),
+        () -> conn.sendCmd(cmd.getCmdBytes(), key, arg));
+  }
+
+  @Override
+  public AsyncFutureLongReply sendCmdAsync(final PrimCmd cmd, final byte[] key, final double arg) {
+    return send(new AsyncPrimFutureLongReply(cmd),
+        () -> conn.sendCmd(cmd.getCmdBytes(), key, arg));
+  }
+
+  @Override
+  public AsyncFutureLongReply sendCmdAsync(final PrimCmd cmd, final byte[] key, final long arg,
+      final byte[] value) {
+    return send(new AsyncPrimFutureLongReply(cmd),
+        () -> conn.sendCmd(cmd.getCmdBytes(), key, arg, value));
+  }
+
+  @Override
+  public AsyncFutureLongReply sendCmdAsync(final PrimCmd cmd, final byte[] key, final double arg,
+      final byte[] value) {
+    return send(new AsyncPrimFutureLongReply(cmd),
+        () -> conn.sendCmd(cmd.getCmdBytes(), key, arg, value));
+  }
+
+  @Override
+  public AsyncFutureLongReply sendDirectAsync(final PrimCmd cmd, final byte[] cmdArgs) {
+    return send(new AsyncPrimFutureLongReply(cmd), () -> conn.sendDirect(cmdArgs));
+  }
+
+  @Override
+  public CompletableFuture<long[]> sendCmdAsync(final PrimArrayCmd cmd) {
+    return send(new AsyncFutureLongArrayReply(cmd), () -> conn.sendCmd(cmd.getCmdBytes()));
+  }
+
+  @Override
+  public CompletableFuture<long[]> sendCmdAsync(final Cmd<?> cmd, final PrimArrayCmd subCmd) {
+    return send(new AsyncFutureLongArrayReply(subCmd), () -> conn.sendCmd(cmd.getCmdBytes(),
+        subCmd.getCmdBytes()));
+  }
+
+  @Override
+  public CompletableFuture<long[]> sendCmdAsync(final Cmd<?> cmd, final PrimArrayCmd subCmd,
+      final byte[] arg) {
+    return send(new AsyncFutureLongArrayReply(subCmd), () -> conn.sendCmd(cmd.getCmdBytes(),
+        subCmd.getCmdBytes(), arg));
+  }
+
+  @Override
+  public CompletableFuture<long[]> sendCmdAsync(final Cmd<?> cmd, final PrimArrayCmd subCmd,
+      final byte[]... args) {
+    return send(new AsyncFutureLongArrayReply(subCmd), () -> conn.sendCmd(cmd.getCmdBytes(),
+        subCmd.getCmdBytes(), args));
+  }
+
+  @Override
+  public CompletableFuture<long[]> sendCmdAsync(final PrimArrayCmd cmd, final byte[] arg) {
+    return send(new AsyncFutureLongArrayReply(cmd), () -> conn.sendCmd(cmd.getCmdBytes(), arg));
+  }
+
+  @Override
+  public CompletableFuture<long[]> sendCmdAsync(final PrimArrayCmd cmd, final byte[] arg1,
+      final byte[] arg2) {
+    return send(new AsyncFutureLongArrayReply(cmd), () -> conn.sendCmd(cmd.getCmdBytes(), arg1,
+        arg2));
+  }
+
+  @Override
+  public CompletableFuture<long[]> sendCmdAsync(final PrimArrayCmd cmd, final byte[]... args) {
+    return send(new AsyncFutureLongArrayReply(cmd), () -> conn.sendCmd(cmd.getCmdBytes(), args));
+  }
+
+  @Override
+  public CompletableFuture<long[]> sendCmdAsync(final Cmd<?> cmd, final PrimArrayCmd subCmd,
+      final String... args) {
+    return send(new AsyncFutureLongArrayReply(subCmd), () -> conn.sendCmd(cmd.getCmdBytes(),
+        subCmd.getCmdBytes(), args));
+  }
+
+  @Override
+  public CompletableFuture<long[]> sendCmdAsync(final Cmd<?> cmd, final PrimArrayCmd subCmd,
+      final Collection<String> args) {
+    return send(new AsyncFutureLongArrayReply(subCmd), () -> conn.sendCmd(cmd.getCmdBytes(),
+        subCmd.getCmdBytes(), args));
+  }
+
+  @Override
+  public CompletableFuture<long[]> sendCmdAsync(final PrimArrayCmd cmd, final String... args) {
+    return send(new AsyncFutureLongArrayReply(cmd), () -> conn.sendCmd(cmd.getCmdBytes(), args));
+  }
+
+  @Override
+  public CompletableFuture<long[]> sendCmdAsync(final PrimArrayCmd cmd,
+      final Collection<String> args) {
+    return send(new AsyncFutureLongArrayReply(cmd), () -> conn.sendCmd(cmd.getCmdBytes(), args));
+  }
+
+  @Override
+  public CompletableFuture<long[]> sendDirectAsync(final PrimArrayCmd cmd, final byte[] cmdArgs) {
+    return send(new AsyncFutureLongArrayReply(cmd), () -> conn.sendDirect(cmdArgs));
+  }
+
+  @Override
+  public void close() {
+    close(new RedisConnectionException(getNode(), "Client has been closed."));
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder("AsyncPrimRedisClient [conn=").append(conn)
+        .append(", pendingReplies=").append(pendingReplies.size()).append(", closed=")
+        .append(closed).append("]").toString();
+  }
+}
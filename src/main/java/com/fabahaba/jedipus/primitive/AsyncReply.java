@@ -0,0 +1,8 @@
+package com.fabahaba.jedipus.primitive;
+
+interface AsyncReply {
+
+  void setReply(final PrimRedisConn conn);
+
+  void setException(final RuntimeException exception);
+}
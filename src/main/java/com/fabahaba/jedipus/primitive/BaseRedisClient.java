@@ -2,6 +2,7 @@ package com.fabahaba.jedipus.primitive;
 
 import com.fabahaba.jedipus.client.HostPort;
 import com.fabahaba.jedipus.client.RedisClient;
+import com.fabahaba.jedipus.client.RespReplyVisitor;
 import com.fabahaba.jedipus.cluster.Node;
 import com.fabahaba.jedipus.cmds.Cmd;
 import com.fabahaba.jedipus.cmds.Cmds;
@@ -11,6 +12,9 @@ import com.fabahaba.jedipus.cmds.PrimCmd;
 import com.fabahaba.jedipus.cmds.RESP;
 import com.fabahaba.jedipus.pubsub.RedisSubscriber;
 
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.WritableByteChannel;
 import java.util.Collection;
 
 abstract class BaseRedisClient implements RedisClient {
@@ -137,6 +141,29 @@ abstract class BaseRedisClient implements RedisClient {
     return conn.consumePubSub(soTimeoutMillis, subscriber);
   }
 
+  @Override
+  public <V extends RespReplyVisitor> V visitCmd(final Cmd<?> cmd, final V visitor,
+      final byte[]... args) {
+    conn.sendCmd(cmd.getCmdBytes(), args);
+    return conn.getReply(visitor);
+  }
+
+  @Override
+  public long sendBulkCmd(final Cmd<?> cmd, final ByteBuffer dst, final byte[]... args) {
+    if (dst.isReadOnly()) {
+      // Failing mid reply would leave the rest of it on the connection.
+      throw new ReadOnlyBufferException();
+    }
+    conn.sendCmd(cmd.getCmdBytes(), args);
+    return conn.getBulkReply(dst);
+  }
+
+  @Override
+  public long sendBulkCmd(final Cmd<?> cmd, final WritableByteChannel dst, final byte[]... args) {
+    conn.sendCmd(cmd.getCmdBytes(), args);
+    return conn.getBulkReply(dst);
+  }
+
   @Override
   public <R> R sendDirect(final Cmd<R> cmd, final byte[] cmdArgs) {
     conn.sendDirect(cmdArgs);
@@ -221,6 +248,30 @@ abstract class BaseRedisClient implements RedisClient {
     return conn.getReply(cmd);
   }
 
+  @Override
+  public <T> T sendCmd(final Cmd<T> cmd, final byte[] key, final long arg) {
+    conn.sendCmd(cmd.getCmdBytes(), key, arg);
+    return conn.getReply(cmd);
+  }
+
+  @Override
+  public <T> T sendCmd(final Cmd<T> cmd, final byte[] key, final double arg) {
+    conn.sendCmd(cmd.getCmdBytes(), key, arg);
+    return conn.getReply(cmd);
+  }
+
+  @Override
+  public <T> T sendCmd(final Cmd<T> cmd, final byte[] key, final long arg, final byte[] value) {
+    conn.sendCmd(cmd.getCmdBytes(), key, arg, value);
+    return conn.getReply(cmd);
+  }
+
+  @Override
+  public <T> T sendCmd(final Cmd<T> cmd, final byte[] key, final double arg, final byte[] value) {
+    conn.sendCmd(cmd.getCmdBytes(), key, arg, value);
+    return conn.getReply(cmd);
+  }
+
   @Override
   public <T> T sendBlockingCmd(final int timeoutMillis, final Cmd<T> cmd) {
     conn.setSoTimeout(timeoutMillis);
@@ -447,6 +498,30 @@ abstract class BaseRedisClient implements RedisClient {
     return conn.getReply(cmd);
   }
 
+  @Override
+  public long sendCmd(final PrimCmd cmd, final byte[] key, final long arg) {
+    conn.sendCmd(cmd.getCmdBytes(), key, arg);
+    return conn.getReply(cmd);
+  }
+
+  @Override
+  public long sendCmd(final PrimCmd cmd, final byte[] key, final double arg) {
+    conn.sendCmd(cmd.getCmdBytes(), key, arg);
+    return conn.getReply(cmd);
+  }
+
+  @Override
+  public long sendCmd(final PrimCmd cmd, final byte[] key, final long arg, final byte[] value) {
+    conn.sendCmd(cmd.getCmdBytes(), key, arg, value);
+    return conn.getReply(cmd);
+  }
+
+  @Override
+  public long sendCmd(final PrimCmd cmd, final byte[] key, final double arg, final byte[] value) {
+    conn.sendCmd(cmd.getCmdBytes(), key, arg, value);
+    return conn.getReply(cmd);
+  }
+
   @Override
   public long sendBlockingCmd(final int timeoutMillis, final PrimCmd cmd) {
     conn.setSoTimeout(timeoutMillis);
@@ -0,0 +1,32 @@
+package com.fabahaba.jedipus.primitive;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+final class DirectBufferPool {
+
+  private static final int MAX_POOLED_PER_CAPACITY = 64;
+  private static final ConcurrentHashMap<Integer, Queue<ByteBuffer>> POOLS =
+      new ConcurrentHashMap<>();
+
+  private DirectBufferPool() {}
+
+  static ByteBuffer acquire(final int capacity) {
+    final Queue<ByteBuffer> pool = POOLS.get(capacity);
+    if (pool != null) {
+      final ByteBuffer buffer = pool.poll();
+      if (buffer != null) {
+        buffer.clear();
+        return buffer;
+      }
+    }
+    return ByteBuffer.allocateDirect(capacity);
+  }
+
+  static void release(final ByteBuffer buffer) {
+    POOLS.computeIfAbsent(buffer.capacity(),
+        capacity -> new ArrayBlockingQueue<>(MAX_POOLED_PER_CAPACITY)).offer(buffer);
+  }
+}
@@ -3,6 +3,7 @@ package com.fabahaba.jedipus.primitive;
 import com.fabahaba.jedipus.client.NodeMapper;
 import com.fabahaba.jedipus.client.RedisClient;
 import com.fabahaba.jedipus.cluster.Node;
+import com.fabahaba.jedipus.metrics.JedipusMetrics;
 import com.fabahaba.jedipus.pool.PooledClient;
 import com.fabahaba.jedipus.pool.PooledClientState;
 
@@ -19,9 +20,9 @@ final class PooledRedisClient extends PrimRedisClient implements PooledClient<Re
 
   PooledRedisClient(final Node node, final ReplyMode replyMode, final NodeMapper nodeMapper,
       final Socket socket, final int soTimeoutMillis, final int outputBufferSize,
-      final int inputBufferSize) {
+      final int inputBufferSize, final JedipusMetrics metrics) {
     super(node, replyMode, nodeMapper, socket, soTimeoutMillis, outputBufferSize,
-        inputBufferSize);
+        inputBufferSize, metrics);
   }
 
   @Override
@@ -2,8 +2,10 @@ package com.fabahaba.jedipus.primitive;
 
 import com.fabahaba.jedipus.client.FutureLongReply;
 import com.fabahaba.jedipus.client.FutureReply;
+import com.fabahaba.jedipus.client.RedisClient;
 import com.fabahaba.jedipus.client.RedisClient.ReplyMode;
 import com.fabahaba.jedipus.client.RedisPipeline;
+import com.fabahaba.jedipus.cluster.Node;
 import com.fabahaba.jedipus.cmds.ClientCmds;
 import com.fabahaba.jedipus.cmds.Cmd;
 import com.fabahaba.jedipus.cmds.PrimArrayCmd;
@@ -11,11 +13,20 @@ import com.fabahaba.jedipus.cmds.PrimCmd;
 import com.fabahaba.jedipus.cmds.RESP;
 import com.fabahaba.jedipus.exceptions.AskNodeException;
 import com.fabahaba.jedipus.exceptions.RedisUnhandledException;
+import com.fabahaba.jedipus.exceptions.SlotMovedException;
+import com.fabahaba.jedipus.exceptions.SlotRedirectException;
 import com.fabahaba.jedipus.exceptions.UnhandledAskNodeException;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.LongUnaryOperator;
 
@@ -25,6 +36,10 @@ final class PrimPipeline implements RedisPipeline {
   private final Queue<StatefulFutureReply<?>> pipelineReplies;
 
   private Queue<StatefulFutureReply<?>> multiReplies;
+  // Non-null while replaying ASK redirects, with the RESP encoded commands aligned to
+  // pipelineReplies.
+  private BiConsumer<Node, Consumer<RedisClient>> askClients;
+  private Queue<byte[]> pipelineCmds;
 
   PrimPipeline(final PrimRedisClient client) {
     this.client = client;
@@ -34,6 +49,11 @@ final class PrimPipeline implements RedisPipeline {
   @Override
   public void close() {
     pipelineReplies.clear();
+    if (askClients != null) {
+      askClients = null;
+      pipelineCmds.clear();
+      client.conn.stopRecording();
+    }
     if (multiReplies != null) {
       multiReplies.clear();
     }
@@ -47,6 +67,13 @@ final class PrimPipeline implements RedisPipeline {
     return multiReplies;
   }
 
+  private void queueReply(final StatefulFutureReply<?> futureReply) {
+    pipelineReplies.add(futureReply);
+    if (askClients != null) {
+      pipelineCmds.add(client.conn.forwardRecorded());
+    }
+  }
+
   private <T> FutureReply<T> queueFutureReply(final Function<Object, T> builder) {
     return client.conn.isInMulti() ? queueMultiPipelinedReply(builder)
         : queuePipelinedReply(builder);
@@ -56,19 +83,21 @@ final class PrimPipeline implements RedisPipeline {
     switch (client.conn.getReplyMode()) {
       case ON:
         final StatefulFutureReply<T> futureReply = new DeserializedFutureReply<>(builder);
-        pipelineReplies.add(futureReply);
+        queueReply(futureReply);
         return futureReply;
       case SKIP:
         client.conn.setReplyMode(ReplyMode.ON);
+        client.conn.forwardRecorded();
         return null;
       case OFF:
       default:
+        client.conn.forwardRecorded();
         return null;
     }
   }
 
   private <T> FutureReply<T> queueMultiPipelinedReply(final Function<Object, T> builder) {
-    pipelineReplies.add(new DirectFutureReply<>());
+    queueReply(new DirectFutureReply<>());
     final StatefulFutureReply<T> futureReply = new DeserializedFutureReply<>(builder);
     getMultiReplies().add(futureReply);
     return futureReply;
@@ -83,19 +112,21 @@ final class PrimPipeline implements RedisPipeline {
     switch (client.conn.getReplyMode()) {
       case ON:
         final StatefulFutureReply<Void> futureReply = new AdaptedFutureLongReply(adapter);
-        pipelineReplies.add(futureReply);
+        queueReply(futureReply);
         return futureReply;
       case SKIP:
         client.conn.setReplyMode(ReplyMode.ON);
+        client.conn.forwardRecorded();
         return null;
       case OFF:
       default:
+        client.conn.forwardRecorded();
         return null;
     }
   }
 
   private FutureLongReply queueMultiPipelinedReply(final LongUnaryOperator adapter) {
-    pipelineReplies.add(new DirectFutureReply<>());
+    queueReply(new DirectFutureReply<>());
     final StatefulFutureReply<Void> futureReply = new AdaptedFutureLongReply(adapter);
     getMultiReplies().add(futureReply);
     return futureReply;
@@ -110,19 +141,21 @@ final class PrimPipeline implements RedisPipeline {
     switch (client.conn.getReplyMode()) {
       case ON:
         final StatefulFutureReply<long[]> futureReply = new AdaptedFutureLongArrayReply(builder);
-        pipelineReplies.add(futureReply);
+        queueReply(futureReply);
         return futureReply;
       case SKIP:
         client.conn.setReplyMode(ReplyMode.ON);
+        client.conn.forwardRecorded();
         return null;
       case OFF:
       default:
+        client.conn.forwardRecorded();
         return null;
     }
   }
 
   private FutureReply<long[]> queueMultiPipelinedReply(final PrimArrayCmd adapter) {
-    pipelineReplies.add(new DirectFutureReply<>());
+    queueReply(new DirectFutureReply<>());
     final StatefulFutureReply<long[]> futureReply = new AdaptedFutureLongArrayReply(adapter);
     getMultiReplies().add(futureReply);
     return futureReply;
@@ -137,12 +170,14 @@ final class PrimPipeline implements RedisPipeline {
   @Override
   public RedisPipeline skip() {
     client.skip();
+    client.conn.forwardRecorded();
     return this;
   }
 
   @Override
   public RedisPipeline replyOff() {
     client.replyOff();
+    client.conn.forwardRecorded();
     return this;
   }
 
@@ -172,6 +207,26 @@ final class PrimPipeline implements RedisPipeline {
     return queuePipelinedReply(Cmd.STRING_REPLY);
   }
 
+  @Override
+  public void flush() {
+    client.conn.flushOS();
+  }
+
+  @Override
+  public RedisPipeline replayAsks(final BiConsumer<Node, Consumer<RedisClient>> askClients) {
+    if (!pipelineReplies.isEmpty()) {
+      client.conn.drainIS();
+      throw new RedisUnhandledException(client.getNode(),
+          "ASK replays must be enabled before sending commands.");
+    }
+    if (pipelineCmds == null) {
+      pipelineCmds = new ArrayDeque<>();
+    }
+    this.askClients = askClients;
+    client.conn.startRecording();
+    return this;
+  }
+
   @Override
   public void sync(final boolean throwUnchecked) {
     if (client.conn.isInMulti()) {
@@ -180,14 +235,28 @@ final class PrimPipeline implements RedisPipeline {
     }
 
     client.conn.flushOS();
+    if (askClients != null) {
+      syncReplayingAsks(throwUnchecked, false);
+      return;
+    }
+    SlotMovedException moveEx = null;
     for (;;) {
       final StatefulFutureReply<?> futureReply = pipelineReplies.poll();
       if (futureReply == null) {
+        if (moveEx != null) {
+          throw moveEx;
+        }
         return;
       }
 
       try {
         futureReply.setReply(client.conn);
+      } catch (final SlotMovedException redirectEx) {
+        // Keep reading so that only the redirected replies fail and the connection stays usable.
+        futureReply.setException(redirectEx);
+        if (moveEx == null) {
+          moveEx = redirectEx;
+        }
       } catch (final AskNodeException askEx) {
         client.conn.drainIS();
         throw new UnhandledAskNodeException(client.getNode(),
@@ -210,14 +279,28 @@ final class PrimPipeline implements RedisPipeline {
     }
 
     client.conn.flushOS();
+    if (askClients != null) {
+      syncReplayingAsks(throwUnchecked, true);
+      return;
+    }
+    SlotMovedException moveEx = null;
     for (;;) {
       final StatefulFutureReply<?> futureReply = pipelineReplies.poll();
       if (futureReply == null) {
+        if (moveEx != null) {
+          throw moveEx;
+        }
         return;
       }
 
       try {
         futureReply.setMultiReply(client.conn.getLongArray());
+      } catch (final SlotMovedException redirectEx) {
+        // Keep reading so that only the redirected replies fail and the connection stays usable.
+        futureReply.setException(redirectEx);
+        if (moveEx == null) {
+          moveEx = redirectEx;
+        }
       } catch (final AskNodeException askEx) {
         client.conn.drainIS();
         throw new UnhandledAskNodeException(client.getNode(),
@@ -232,6 +315,182 @@ final class PrimPipeline implements RedisPipeline {
     }
   }
 
+  private static final class AskReplay {
+
+    // Replayed after an ASKING request, the reply to the last command completes futureReply.
+    private final List<byte[]> cmds;
+    private final StatefulFutureReply<?> futureReply;
+
+    private AskReplay(final List<byte[]> cmds, final StatefulFutureReply<?> futureReply) {
+      this.cmds = cmds;
+      this.futureReply = futureReply;
+    }
+  }
+
+  private static void setReply(final StatefulFutureReply<?> futureReply, final PrimRedisConn conn,
+      final boolean primArray) {
+    if (primArray) {
+      futureReply.setMultiReply(conn.getLongArray());
+      return;
+    }
+    futureReply.setReply(conn);
+  }
+
+  private static boolean isExecReply(final StatefulFutureReply<?> futureReply) {
+    return futureReply instanceof ExecFutureReply
+        || futureReply instanceof PrimArrayExecFutureReply
+        || futureReply instanceof Prim2DArrayExecFutureReply;
+  }
+
+  private static Map<Node, List<AskReplay>> addAskReplay(Map<Node, List<AskReplay>> askReplays,
+      final Node targetNode, final AskReplay askReplay) {
+    if (askReplays == null) {
+      askReplays = new LinkedHashMap<>();
+    }
+    askReplays.computeIfAbsent(targetNode, node -> new ArrayList<>()).add(askReplay);
+    return askReplays;
+  }
+
+  /**
+   * Reads every reply, collecting the commands redirected with ASK instead of failing on the first
+   * one. Commands queued in a transaction are collected along with the MULTI before them and
+   * replayed as a whole if any was redirected, as Redis then aborts the EXEC. The first MOVED
+   * redirect is thrown once every reply has been read and the ASK redirects replayed.
+   */
+  private void syncReplayingAsks(final boolean throwUnchecked, final boolean primArray) {
+    Map<Node, List<AskReplay>> askReplays = null;
+    byte[] prevCmd = null;
+    List<byte[]> txCmds = null;
+    Node txAskNode = null;
+    SlotMovedException moveEx = null;
+
+    for (;;) {
+      final StatefulFutureReply<?> futureReply = pipelineReplies.poll();
+      if (futureReply == null) {
+        break;
+      }
+      final byte[] cmd = pipelineCmds.poll();
+
+      if (futureReply instanceof DirectFutureReply) {
+        if (txCmds == null) {
+          txCmds = new ArrayList<>();
+          txCmds.add(prevCmd);
+        }
+        txCmds.add(cmd);
+        try {
+          setReply(futureReply, client.conn, primArray);
+        } catch (final AskNodeException askEx) {
+          txAskNode = askEx.getTargetNode();
+        } catch (final SlotMovedException redirectEx) {
+          futureReply.setException(redirectEx);
+          if (moveEx == null) {
+            moveEx = redirectEx;
+          }
+        } catch (final RedisUnhandledException re) {
+          if (throwUnchecked) {
+            client.conn.drainIS();
+            throw re;
+          }
+          futureReply.setException(re);
+        }
+        continue;
+      }
+
+      if (txCmds != null) {
+        if (txAskNode != null && isExecReply(futureReply)) {
+          txCmds.add(cmd);
+          try {
+            setReply(futureReply, client.conn, primArray);
+          } catch (final RedisUnhandledException execAbortEx) {
+            askReplays = addAskReplay(askReplays, txAskNode, new AskReplay(txCmds, futureReply));
+          }
+          txCmds = null;
+          txAskNode = null;
+          continue;
+        }
+        // EXEC without redirects or DISCARD.
+        txCmds = null;
+        txAskNode = null;
+      }
+
+      prevCmd = cmd;
+      try {
+        setReply(futureReply, client.conn, primArray);
+      } catch (final AskNodeException askEx) {
+        askReplays = addAskReplay(askReplays, askEx.getTargetNode(),
+            new AskReplay(Collections.singletonList(cmd), futureReply));
+      } catch (final SlotMovedException redirectEx) {
+        futureReply.setException(redirectEx);
+        if (moveEx == null) {
+          moveEx = redirectEx;
+        }
+      } catch (final RedisUnhandledException re) {
+        if (throwUnchecked) {
+          client.conn.drainIS();
+          throw re;
+        }
+        futureReply.setException(re);
+      }
+    }
+
+    if (askReplays != null) {
+      for (final Map.Entry<Node, List<AskReplay>> targetReplays : askReplays.entrySet()) {
+        askClients.accept(targetReplays.getKey(),
+            askClient -> replay(askClient, targetReplays.getValue(), throwUnchecked, primArray));
+      }
+    }
+    if (moveEx != null) {
+      throw moveEx;
+    }
+  }
+
+  private static void replay(final RedisClient askClient, final List<AskReplay> askReplays,
+      final boolean throwUnchecked, final boolean primArray) {
+    try (final RedisPipeline askPipeline = askClient.pipeline()) {
+      if (!(askPipeline instanceof PrimPipeline)) {
+        throw new RedisUnhandledException(askClient.getNode(),
+            "ASK redirects can only be replayed against primitive clients.");
+      }
+      replay(((PrimPipeline) askPipeline).client.conn, askReplays, throwUnchecked, primArray);
+    }
+  }
+
+  private static void replay(final PrimRedisConn askConn, final List<AskReplay> askReplays,
+      final boolean throwUnchecked, final boolean primArray) {
+
+    for (final AskReplay askReplay : askReplays) {
+      askConn.sendCmd(PrimRedisClient.ASKING.getCmdBytes());
+      for (final byte[] cmd : askReplay.cmds) {
+        askConn.sendRecorded(cmd);
+      }
+    }
+    askConn.flushOS();
+
+    for (final AskReplay askReplay : askReplays) {
+      // Skip the ASKING reply and, for transactions, the MULTI and QUEUED replies. Errors queueing
+      // commands surface through the EXEC reply.
+      for (int i = 0;i < askReplay.cmds.size();i++) {
+        try {
+          askConn.getReply();
+        } catch (final RedisUnhandledException re) {
+          // Surfaces through the EXEC reply.
+        }
+      }
+      try {
+        setReply(askReplay.futureReply, askConn, primArray);
+      } catch (final SlotRedirectException redirectEx) {
+        // The slot moved on again, left to the caller to retry from the future reply.
+        askReplay.futureReply.setException(redirectEx);
+      } catch (final RedisUnhandledException re) {
+        if (throwUnchecked) {
+          askConn.drainIS();
+          throw re;
+        }
+        askReplay.futureReply.setException(re);
+      }
+    }
+  }
+
   @Override
   public FutureReply<String> multi() {
     if (client.conn.isInMulti()) {
@@ -251,7 +510,7 @@ final class PrimPipeline implements RedisPipeline {
 
     client.conn.exec();
     final StatefulFutureReply<Object[]> futureMultiExecReply = new ExecFutureReply<>(multiReplies);
-    pipelineReplies.add(futureMultiExecReply);
+    queueReply(futureMultiExecReply);
     return futureMultiExecReply;
   }
 
@@ -265,7 +524,7 @@ final class PrimPipeline implements RedisPipeline {
     client.conn.exec();
     final StatefulFutureReply<long[]> futureMultiExecReply =
         new PrimArrayExecFutureReply(multiReplies);
-    pipelineReplies.add(futureMultiExecReply);
+    queueReply(futureMultiExecReply);
     return futureMultiExecReply;
   }
 
@@ -279,7 +538,7 @@ final class PrimPipeline implements RedisPipeline {
     client.conn.exec();
     final StatefulFutureReply<long[][]> futureMultiExecReply =
         new Prim2DArrayExecFutureReply(multiReplies);
-    pipelineReplies.add(futureMultiExecReply);
+    queueReply(futureMultiExecReply);
     return futureMultiExecReply;
   }
 
@@ -355,6 +614,32 @@ final class PrimPipeline implements RedisPipeline {
     return queueFutureReply(cmd);
   }
 
+  @Override
+  public <T> FutureReply<T> sendCmd(final Cmd<T> cmd, final byte[] key, final long arg) {
+    client.conn.sendCmd(cmd.getCmdBytes(), key, arg);
+    return queueFutureReply(cmd);
+  }
+
+  @Override
+  public <T> FutureReply<T> sendCmd(final Cmd<T> cmd, final byte[] key, final double arg) {
+    client.conn.sendCmd(cmd.getCmdBytes(), key, arg);
+    return queueFutureReply(cmd);
+  }
+
+  @Override
+  public <T> FutureReply<T> sendCmd(final Cmd<T> cmd, final byte[] key, final long arg,
+      final byte[] value) {
+    client.conn.sendCmd(cmd.getCmdBytes(), key, arg, value);
+    return queueFutureReply(cmd);
+  }
+
+  @Override
+  public <T> FutureReply<T> sendCmd(final Cmd<T> cmd, final byte[] key, final double arg,
+      final byte[] value) {
+    client.conn.sendCmd(cmd.getCmdBytes(), key, arg, value);
+    return queueFutureReply(cmd);
+  }
+
   @Override
   public <T> FutureReply<T> sendCmd(final Cmd<?> cmd, final Cmd<T> subCmd, final String... args) {
     client.conn.sendCmd(cmd.getCmdBytes(), subCmd.getCmdBytes(), args);
@@ -435,6 +720,32 @@ final class PrimPipeline implements RedisPipeline {
     return queueFutureReply(cmd);
   }
 
+  @Override
+  public FutureLongReply sendCmd(final PrimCmd cmd, final byte[] key, final long arg) {
+    client.conn.sendCmd(cmd.getCmdBytes(), key, arg);
+    return queueFutureReply(cmd);
+  }
+
+  @Override
+  public FutureLongReply sendCmd(final PrimCmd cmd, final byte[] key, final double arg) {
+    client.conn.sendCmd(cmd.getCmdBytes(), key, arg);
+    return queueFutureReply(cmd);
+  }
+
+  @Override
+  public FutureLongReply sendCmd(final PrimCmd cmd, final byte[] key, final long arg,
+      final byte[] value) {
+    client.conn.sendCmd(cmd.getCmdBytes(), key, arg, value);
+    return queueFutureReply(cmd);
+  }
+
+  @Override
+  public FutureLongReply sendCmd(final PrimCmd cmd, final byte[] key, final double arg,
+      final byte[] value) {
+    client.conn.sendCmd(cmd.getCmdBytes(), key, arg, value);
+    return queueFutureReply(cmd);
+  }
+
   @Override
   public FutureReply<long[]> sendCmd(final PrimArrayCmd cmd) {
     client.conn.sendCmd(cmd.getCmdBytes());
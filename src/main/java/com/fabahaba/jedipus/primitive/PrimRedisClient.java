@@ -5,6 +5,7 @@ import com.fabahaba.jedipus.client.RedisPipeline;
 import com.fabahaba.jedipus.cluster.Node;
 import com.fabahaba.jedipus.cmds.ClientCmds;
 import com.fabahaba.jedipus.cmds.Cmd;
+import com.fabahaba.jedipus.metrics.JedipusMetrics;
 
 import java.net.Socket;
 
@@ -14,10 +15,10 @@ class PrimRedisClient extends BaseRedisClient {
 
   PrimRedisClient(final Node node, final ReplyMode replyMode, final NodeMapper nodeMapper,
       final Socket socket, final int soTimeoutMillis, final int outputBufferSize,
-      final int inputBufferSize) {
+      final int inputBufferSize, final JedipusMetrics metrics) {
 
     super(new PrimRedisConn(node, replyMode, nodeMapper, socket, soTimeoutMillis,
-        outputBufferSize, inputBufferSize));
+        outputBufferSize, inputBufferSize, metrics));
   }
 
   @Override
@@ -1,14 +1,22 @@
 package com.fabahaba.jedipus.primitive;
 
 import com.fabahaba.jedipus.client.NodeMapper;
+import com.fabahaba.jedipus.client.RedisClient;
+import com.fabahaba.jedipus.client.RespReplyVisitor;
 import com.fabahaba.jedipus.client.RedisClient.ReplyMode;
 import com.fabahaba.jedipus.cluster.Node;
 import com.fabahaba.jedipus.cmds.ClientCmds;
+import com.fabahaba.jedipus.cmds.Cmd;
 import com.fabahaba.jedipus.cmds.MultiCmds;
+import com.fabahaba.jedipus.cmds.PrimArrayCmd;
+import com.fabahaba.jedipus.cmds.PrimCmd;
 import com.fabahaba.jedipus.cmds.RESP;
 import com.fabahaba.jedipus.exceptions.RedisUnhandledException;
+import com.fabahaba.jedipus.metrics.JedipusMetrics;
 
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.util.function.Function;
 import java.util.function.LongUnaryOperator;
 
@@ -17,12 +25,14 @@ final class PrimRedisConn extends RedisConn {
   private boolean multi;
   private boolean watching;
   private ReplyMode replyMode;
+  private final JedipusMetrics metrics;
 
   PrimRedisConn(final Node node, final ReplyMode replyMode, final NodeMapper nodeMapper,
       final Socket socket, final int soTimeoutMillis, final int outputBufferSize,
-      final int inputBufferSize) {
+      final int inputBufferSize, final JedipusMetrics metrics) {
     super(node, nodeMapper, socket, soTimeoutMillis, outputBufferSize, inputBufferSize);
     this.replyMode = replyMode;
+    this.metrics = metrics;
   }
 
   boolean isInMulti() {
@@ -107,8 +117,19 @@ final class PrimRedisConn extends RedisConn {
         setReplyMode(ReplyMode.ON);
         return null;
       case ON:
-        flushOS();
-        return replyHandler.apply(getReply());
+        if (metrics == null || !(replyHandler instanceof Cmd)) {
+          flushOS();
+          return replyHandler.apply(getReply());
+        }
+        final long start = System.nanoTime();
+        final Object reply;
+        try {
+          flushOS();
+          reply = getReply();
+        } finally {
+          onReply(((Cmd<?>) replyHandler).name(), start);
+        }
+        return replyHandler.apply(reply);
       default:
         return null;
     }
@@ -125,8 +146,19 @@ final class PrimRedisConn extends RedisConn {
         setReplyMode(ReplyMode.ON);
         return null;
       case ON:
-        flushOS();
-        return replyHandler.apply(getLongArray());
+        if (metrics == null || !(replyHandler instanceof PrimArrayCmd)) {
+          flushOS();
+          return replyHandler.apply(getLongArray());
+        }
+        final long start = System.nanoTime();
+        final long[] reply;
+        try {
+          flushOS();
+          reply = getLongArray();
+        } finally {
+          onReply(((PrimArrayCmd) replyHandler).name(), start);
+        }
+        return replyHandler.apply(reply);
       default:
         return null;
     }
@@ -140,13 +172,74 @@ final class PrimRedisConn extends RedisConn {
         setReplyMode(ReplyMode.ON);
         return 0;
       case ON:
-        flushOS();
-        return replyHandler.applyAsLong(getLong());
+        if (metrics == null || !(replyHandler instanceof PrimCmd)) {
+          flushOS();
+          return replyHandler.applyAsLong(getLong());
+        }
+        final long start = System.nanoTime();
+        final long reply;
+        try {
+          flushOS();
+          reply = getLong();
+        } finally {
+          onReply(((PrimCmd) replyHandler).name(), start);
+        }
+        return replyHandler.applyAsLong(reply);
       default:
         return 0;
     }
   }
 
+  private void onReply(final String cmd, final long startNanos) {
+    metrics.onReply(getNode(), cmd, System.nanoTime() - startNanos);
+  }
+
+  <V extends RespReplyVisitor> V getReply(final V visitor) {
+    switch (replyMode) {
+      case OFF:
+        return visitor;
+      case SKIP:
+        setReplyMode(ReplyMode.ON);
+        return visitor;
+      case ON:
+        flushOS();
+        visitReply(visitor);
+        return visitor;
+      default:
+        return visitor;
+    }
+  }
+
+  long getBulkReply(final ByteBuffer dst) {
+    switch (replyMode) {
+      case OFF:
+        return RedisClient.NO_BULK_REPLY;
+      case SKIP:
+        setReplyMode(ReplyMode.ON);
+        return RedisClient.NO_BULK_REPLY;
+      case ON:
+        flushOS();
+        return readBulkReply(dst);
+      default:
+        return RedisClient.NO_BULK_REPLY;
+    }
+  }
+
+  long getBulkReply(final WritableByteChannel dst) {
+    switch (replyMode) {
+      case OFF:
+        return RedisClient.NO_BULK_REPLY;
+      case SKIP:
+        setReplyMode(ReplyMode.ON);
+        return RedisClient.NO_BULK_REPLY;
+      case ON:
+        flushOS();
+        return readBulkReply(dst);
+      default:
+        return RedisClient.NO_BULK_REPLY;
+    }
+  }
+
   ReplyMode getReplyMode() {
     return replyMode;
   }
@@ -1,6 +1,7 @@
 package com.fabahaba.jedipus.primitive;
 
 import com.fabahaba.jedipus.client.NodeMapper;
+import com.fabahaba.jedipus.client.RespReplyVisitor;
 import com.fabahaba.jedipus.cluster.Node;
 import com.fabahaba.jedipus.cmds.RESP;
 import com.fabahaba.jedipus.exceptions.AskNodeException;
@@ -12,6 +13,8 @@ import com.fabahaba.jedipus.exceptions.SlotMovedException;
 import com.fabahaba.jedipus.pubsub.RedisSubscriber;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.util.Collection;
 
 final class RESProtocol {
@@ -32,6 +35,7 @@ final class RESProtocol {
   private static final byte[] ONE_CMD = RedisOutputStream.createIntCRLF(ASTERISK_BYTE, 1);
   private static final byte[] TWO_CMD = RedisOutputStream.createIntCRLF(ASTERISK_BYTE, 2);
   private static final byte[] THREE_CMD = RedisOutputStream.createIntCRLF(ASTERISK_BYTE, 3);
+  private static final byte[] FOUR_CMD = RedisOutputStream.createIntCRLF(ASTERISK_BYTE, 4);
 
   static void sendDirect(final RedisOutputStream os, final byte[] data) throws IOException {
     os.writeDirect(data, 0, data.length);
@@ -102,6 +106,40 @@ final class RESProtocol {
     writeArgs(os, args);
   }
 
+  static void sendCmd(final RedisOutputStream os, final byte[] cmd, final byte[] key,
+      final long arg) throws IOException {
+    os.write(THREE_CMD);
+    writeArg(os, cmd);
+    writeArg(os, key);
+    os.writeLongArg(arg);
+  }
+
+  static void sendCmd(final RedisOutputStream os, final byte[] cmd, final byte[] key,
+      final double arg) throws IOException {
+    os.write(THREE_CMD);
+    writeArg(os, cmd);
+    writeArg(os, key);
+    writeArg(os, arg);
+  }
+
+  static void sendCmd(final RedisOutputStream os, final byte[] cmd, final byte[] key,
+      final long arg, final byte[] value) throws IOException {
+    os.write(FOUR_CMD);
+    writeArg(os, cmd);
+    writeArg(os, key);
+    os.writeLongArg(arg);
+    writeArg(os, value);
+  }
+
+  static void sendCmd(final RedisOutputStream os, final byte[] cmd, final byte[] key,
+      final double arg, final byte[] value) throws IOException {
+    os.write(FOUR_CMD);
+    writeArg(os, cmd);
+    writeArg(os, key);
+    writeArg(os, arg);
+    writeArg(os, value);
+  }
+
   private static void startWrite(final RedisOutputStream os, final int numArgs) throws IOException {
     os.write(ASTERISK_BYTE);
     os.write(numArgs);
@@ -114,6 +152,14 @@ final class RESProtocol {
     os.writeCRLF();
   }
 
+  private static void writeArg(final RedisOutputStream os, final double arg) throws IOException {
+    if (RedisOutputStream.isLongEncodable(arg)) {
+      os.writeLongArg((long) arg);
+      return;
+    }
+    writeArg(os, RESP.toBytes(arg));
+  }
+
   private static void writeArgs(final RedisOutputStream os, final byte[][] args)
       throws IOException {
     for (final byte[] arg : args) {
@@ -195,6 +241,56 @@ final class RESProtocol {
     }
   }
 
+  static void visit(final Node node, final NodeMapper nodeMapper, final RedisInputStream is,
+      final RespReplyVisitor visitor) {
+    final byte bite = is.readByte();
+    switch (bite) {
+      case PLUS_BYTE:
+        final byte[] line = is.readLineBytes();
+        visitor.onSimpleString(line, 0, line.length);
+        return;
+      case DOLLAR_BYTE:
+        final int len = is.readIntCRLF();
+        if (len == -1) {
+          visitor.onNull();
+          return;
+        }
+        is.visitBulk(len, visitor);
+        return;
+      case ASTERISK_BYTE:
+        final int num = is.readIntCRLF();
+        if (num == -1) {
+          visitor.onNull();
+          return;
+        }
+
+        visitor.onArrayStart(num);
+        try {
+          for (int i = 0; i < num; i++) {
+            visit(node, nodeMapper, is, visitor);
+          }
+        } catch (final RedisConnectionException rce) {
+          throw rce;
+        } catch (final RuntimeException re) {
+          is.drain();
+          throw re;
+        }
+        visitor.onArrayEnd();
+        return;
+      case COLON_BYTE:
+        visitor.onLong(is.readLongCRLF());
+        return;
+      case MINUS_BYTE:
+        visitor.onError(processError(node, nodeMapper, is.readLine()));
+        return;
+      default:
+        final String msg = String.format(
+            "Unknown reply where data type expected. Recieved '%s'. Supported types are '+', '-', ':', '$' and '*'.",
+            (char) bite);
+        throw new RedisUnhandledException(node, msg);
+    }
+  }
+
   static long readLong(final Node node, final NodeMapper nodeMapper, final RedisInputStream is) {
     final byte bite = is.readByte();
     switch (bite) {
@@ -248,6 +344,91 @@ final class RESProtocol {
     return read;
   }
 
+  static long readBulkReply(final Node node, final NodeMapper nodeMapper,
+      final RedisInputStream is, final ByteBuffer dst) {
+    final byte bite = is.readByte();
+    switch (bite) {
+      case DOLLAR_BYTE:
+        final int len = is.readIntCRLF();
+        if (len == -1) {
+          return -1;
+        }
+
+        if (len > dst.remaining()) {
+          is.skipBytes(len + 2);
+          throw new RedisUnhandledException(node,
+              String.format("Bulk reply of %d bytes exceeds the %d bytes remaining in the buffer.",
+                  len, dst.remaining()));
+        }
+
+        is.read(dst, len);
+        is.readByte();
+        is.readByte();
+        return len;
+      case MINUS_BYTE:
+        throw processError(node, nodeMapper, is.readLine());
+      case PLUS_BYTE:
+        is.drain();
+        throw new RedisUnhandledException(null,
+            "Expected a Bulk String ($) reply type, received a Simple String (+) reply.");
+      case COLON_BYTE:
+        is.drain();
+        throw new RedisUnhandledException(null,
+            "Expected a Bulk String ($) reply type, received an Integer (:) reply.");
+      case ASTERISK_BYTE:
+        is.drain();
+        throw new RedisUnhandledException(null,
+            "Expected a Bulk String ($) reply type, received an Array (*) reply.");
+      default:
+        final String msg = String.format(
+            "Unknown reply where data type expected. Recieved '%s'. Supported types are '+', '-', ':', '$' and '*'.",
+            (char) bite);
+        throw new RedisUnhandledException(node, msg);
+    }
+  }
+
+  static long readBulkReply(final Node node, final NodeMapper nodeMapper,
+      final RedisInputStream is, final WritableByteChannel dst) {
+    final byte bite = is.readByte();
+    switch (bite) {
+      case DOLLAR_BYTE:
+        final int len = is.readIntCRLF();
+        if (len == -1) {
+          return -1;
+        }
+
+        try {
+          is.transferTo(dst, len);
+        } catch (final IOException ioe) {
+          is.readByte();
+          is.readByte();
+          throw new RedisUnhandledException(node, "Failed to transfer bulk reply.", ioe);
+        }
+        is.readByte();
+        is.readByte();
+        return len;
+      case MINUS_BYTE:
+        throw processError(node, nodeMapper, is.readLine());
+      case PLUS_BYTE:
+        is.drain();
+        throw new RedisUnhandledException(null,
+            "Expected a Bulk String ($) reply type, received a Simple String (+) reply.");
+      case COLON_BYTE:
+        is.drain();
+        throw new RedisUnhandledException(null,
+            "Expected a Bulk String ($) reply type, received an Integer (:) reply.");
+      case ASTERISK_BYTE:
+        is.drain();
+        throw new RedisUnhandledException(null,
+            "Expected a Bulk String ($) reply type, received an Array (*) reply.");
+      default:
+        final String msg = String.format(
+            "Unknown reply where data type expected. Recieved '%s'. Supported types are '+', '-', ':', '$' and '*'.",
+            (char) bite);
+        throw new RedisUnhandledException(node, msg);
+    }
+  }
+
   private static Object[] readMultiBulkReply(final Node node, final NodeMapper nodeMapper,
       final RedisInputStream is) {
     final int num = is.readIntCRLF();
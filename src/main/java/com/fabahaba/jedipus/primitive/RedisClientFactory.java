@@ -1,8 +1,11 @@
 package com.fabahaba.jedipus.primitive;
 
+import com.fabahaba.jedipus.client.AsyncRedisClient;
 import com.fabahaba.jedipus.client.BaseConnectedSocketFactory;
 import com.fabahaba.jedipus.client.ConnectedSocketFactory;
 import com.fabahaba.jedipus.client.IOFactory;
+import com.fabahaba.jedipus.client.NioConnectedSocketFactory;
+import com.fabahaba.jedipus.client.NioEventLoop;
 import com.fabahaba.jedipus.client.NodeMapper;
 import com.fabahaba.jedipus.client.RedisClient;
 import com.fabahaba.jedipus.client.RedisClient.ReplyMode;
@@ -11,6 +14,7 @@ import com.fabahaba.jedipus.cmds.ClientCmds;
 import com.fabahaba.jedipus.cmds.Cmds;
 import com.fabahaba.jedipus.cmds.RESP;
 import com.fabahaba.jedipus.exceptions.RedisConnectionException;
+import com.fabahaba.jedipus.metrics.JedipusMetrics;
 import com.fabahaba.jedipus.pool.PooledClient;
 import com.fabahaba.jedipus.pool.PooledClientFactory;
 
@@ -37,12 +41,22 @@ public class RedisClientFactory implements PooledClientFactory<RedisClient>, Ser
 
   private final int outputBufferSize;
   private final int inputBufferSize;
+  private final transient JedipusMetrics metrics;
 
   protected RedisClientFactory(final Node node, final NodeMapper nodeMapper,
       final int connTimeoutMillis, final ConnectedSocketFactory<? extends Socket> socketFactory,
       final int soTimeoutMillis, final String pass, final String clientName,
       final boolean initReadOnly, final ReplyMode replyMode, final int db,
       final int outputBufferSize, final int inputBufferSize) {
+    this(node, nodeMapper, connTimeoutMillis, socketFactory, soTimeoutMillis, pass, clientName,
+        initReadOnly, replyMode, db, outputBufferSize, inputBufferSize, null);
+  }
+
+  protected RedisClientFactory(final Node node, final NodeMapper nodeMapper,
+      final int connTimeoutMillis, final ConnectedSocketFactory<? extends Socket> socketFactory,
+      final int soTimeoutMillis, final String pass, final String clientName,
+      final boolean initReadOnly, final ReplyMode replyMode, final int db,
+      final int outputBufferSize, final int inputBufferSize, final JedipusMetrics metrics) {
 
     this.node = node;
     this.nodeMapper = nodeMapper;
@@ -56,6 +70,7 @@ public class RedisClientFactory implements PooledClientFactory<RedisClient>, Ser
     this.db = db == 0 ? new byte[0] : RESP.toBytes(db);
     this.outputBufferSize = outputBufferSize;
     this.inputBufferSize = inputBufferSize;
+    this.metrics = metrics;
   }
 
   @Override
@@ -102,7 +117,7 @@ public class RedisClientFactory implements PooledClientFactory<RedisClient>, Ser
       final Socket socket = socketFactory.create(node.getHost(), node.getPort(), connTimeoutMillis);
 
       final PooledRedisClient client = new PooledRedisClient(node, replyMode, nodeMapper, socket,
-          soTimeoutMillis, outputBufferSize, inputBufferSize);
+          soTimeoutMillis, outputBufferSize, inputBufferSize, metrics);
 
       initClient(client);
 
@@ -163,6 +178,10 @@ public class RedisClientFactory implements PooledClientFactory<RedisClient>, Ser
 
     private volatile ConnectedSocketFactory<? extends Socket> connectedSocketFactory;
     private IOFactory<Socket> socketFactory;
+    private boolean nio = false;
+    private transient NioEventLoop nioEventLoop;
+    // Null disables reply latency callbacks.
+    private transient JedipusMetrics metrics;
 
     private Builder() {}
 
@@ -188,7 +207,7 @@ public class RedisClientFactory implements PooledClientFactory<RedisClient>, Ser
       initConnectedSocketFactory();
       return new RedisClientFactory(node, nodeMapper, connTimeoutMillis, connectedSocketFactory,
           soTimeoutMillis, pass, clientName, initReadOnly, replyMode, db, outputBufferSize,
-          inputBufferSize);
+          inputBufferSize, metrics);
     }
 
     public RedisClient create(final Node node) {
@@ -197,12 +216,27 @@ public class RedisClientFactory implements PooledClientFactory<RedisClient>, Ser
 
     public Builder initConnectedSocketFactory() {
       if (connectedSocketFactory == null) {
-        connectedSocketFactory = new BaseConnectedSocketFactory(socketFactory, soTimeoutMillis);
+        connectedSocketFactory = nio ? new NioConnectedSocketFactory(nioEventLoop, soTimeoutMillis)
+            : new BaseConnectedSocketFactory(socketFactory, soTimeoutMillis);
       }
       return this;
     }
 
     public RedisClient create(final Node node, final boolean initReadOnly) {
+      return create(node, initReadOnly, replyMode);
+    }
+
+    public AsyncRedisClient createAsync(final Node node) {
+      return createAsync(node, initReadOnly);
+    }
+
+    public AsyncRedisClient createAsync(final Node node, final boolean initReadOnly) {
+      final PrimRedisClient client = create(node, initReadOnly, ReplyMode.ON);
+      return new AsyncPrimRedisClient(client.getConn()).start();
+    }
+
+    private PrimRedisClient create(final Node node, final boolean initReadOnly,
+        final ReplyMode replyMode) {
 
       initConnectedSocketFactory();
 
@@ -211,7 +245,7 @@ public class RedisClientFactory implements PooledClientFactory<RedisClient>, Ser
             connectedSocketFactory.create(node.getHost(), node.getPort(), connTimeoutMillis);
 
         final PrimRedisClient client = new PrimRedisClient(node, replyMode, nodeMapper, socket,
-            soTimeoutMillis, outputBufferSize, inputBufferSize);
+            soTimeoutMillis, outputBufferSize, inputBufferSize, metrics);
 
         if (pass != null) {
           client.sendCmd(Cmds.AUTH.raw(), pass);
@@ -378,14 +412,42 @@ public class RedisClientFactory implements PooledClientFactory<RedisClient>, Ser
       return this;
     }
 
+    public boolean isNio() {
+      return nio;
+    }
+
+    public Builder withNio(final boolean nio) {
+      this.nio = nio;
+      return this;
+    }
+
+    public NioEventLoop getNioEventLoop() {
+      return nioEventLoop;
+    }
+
+    public Builder withNioEventLoop(final NioEventLoop nioEventLoop) {
+      this.nioEventLoop = nioEventLoop;
+      this.nio = nioEventLoop != null || nio;
+      return this;
+    }
+
+    public JedipusMetrics getMetrics() {
+      return metrics;
+    }
+
+    public Builder withMetrics(final JedipusMetrics metrics) {
+      this.metrics = metrics;
+      return this;
+    }
+
     @Override
     public String toString() {
       return new StringBuilder("Builder [host=").append(host).append(", port=").append(port)
           .append(", connTimeout=").append(connTimeoutMillis).append(", soTimeout=")
           .append(soTimeoutMillis).append(", pass=").append(pass).append(", clientName=")
           .append(clientName).append(", initReadOnly=").append(initReadOnly).append(", replyMode=")
-          .append(replyMode).append(", sslSocketFactory=").append(connectedSocketFactory)
-          .append("]").toString();
+          .append(replyMode).append(", nio=").append(nio).append(", sslSocketFactory=")
+          .append(connectedSocketFactory).append("]").toString();
     }
   }
 }
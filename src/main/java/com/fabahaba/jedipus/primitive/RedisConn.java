@@ -1,12 +1,17 @@
 package com.fabahaba.jedipus.primitive;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.Socket;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.util.Collection;
 
+import com.fabahaba.jedipus.client.NioSocket;
 import com.fabahaba.jedipus.client.NodeMapper;
+import com.fabahaba.jedipus.client.RespReplyVisitor;
 import com.fabahaba.jedipus.cluster.Node;
 import com.fabahaba.jedipus.exceptions.RedisConnectionException;
 import com.fabahaba.jedipus.exceptions.RedisUnhandledException;
@@ -20,6 +25,9 @@ abstract class RedisConn implements AutoCloseable {
   private final RedisInputStream inputStream;
   private final int soTimeoutMillis;
   private boolean broken = false;
+  // Non-null while commands are recorded for replays, see PrimPipeline#replayAsks.
+  private ByteArrayOutputStream recorded = null;
+  private RedisOutputStream recordingStream = null;
 
   protected RedisConn(final Node node, final NodeMapper nodeMapper, final Socket socket,
       final int soTimeoutMillis, final int outputBufferSize, final int inputBufferSize) {
@@ -27,8 +35,10 @@ abstract class RedisConn implements AutoCloseable {
     this.soTimeoutMillis = soTimeoutMillis;
     this.socket = socket;
     try {
-      outputStream = new RedisOutputStream(socket.getOutputStream(),
-          Math.min(outputBufferSize, socket.getSendBufferSize()));
+      final int outputSize = Math.min(outputBufferSize, socket.getSendBufferSize());
+      outputStream = socket instanceof NioSocket
+          ? new RedisOutputStream(((NioSocket) socket).getGatheringChannel(), outputSize)
+          : new RedisOutputStream(socket.getOutputStream(), outputSize);
       inputStream = new RedisInputStream(node, socket.getInputStream(),
           Math.min(inputBufferSize, socket.getReceiveBufferSize()));
     } catch (final IOException ex) {
@@ -53,6 +63,7 @@ abstract class RedisConn implements AutoCloseable {
       } catch (final IOException ex) {
         // closing anyways
       }
+      outputStream.release();
     }
   }
 
@@ -91,9 +102,57 @@ abstract class RedisConn implements AutoCloseable {
     }
   }
 
+  private RedisOutputStream getOutputStream() {
+    return recordingStream == null ? outputStream : recordingStream;
+  }
+
+  void startRecording() {
+    if (recorded == null) {
+      recorded = new ByteArrayOutputStream();
+      recordingStream = new RedisOutputStream(recorded, 1024);
+    }
+  }
+
+  void stopRecording() {
+    if (recorded != null) {
+      forwardRecorded();
+      recorded = null;
+      recordingStream = null;
+    }
+  }
+
+  /**
+   * Writes the commands recorded since the previous call through to the connection.
+   *
+   * @return The RESP encoded commands, or null if not recording.
+   */
+  byte[] forwardRecorded() {
+    if (recorded == null) {
+      return null;
+    }
+    try {
+      recordingStream.flush();
+      final byte[] cmds = recorded.toByteArray();
+      recorded.reset();
+      outputStream.write(cmds);
+      return cmds;
+    } catch (final IOException ioe) {
+      handleWriteException(ioe);
+      return null;
+    }
+  }
+
+  void sendRecorded(final byte[] cmds) {
+    try {
+      outputStream.write(cmds);
+    } catch (final IOException ioe) {
+      handleWriteException(ioe);
+    }
+  }
+
   public void sendDirect(final byte[] cmdArgs) {
     try {
-      RESProtocol.sendDirect(outputStream, cmdArgs);
+      RESProtocol.sendDirect(getOutputStream(), cmdArgs);
     } catch (final NullPointerException npe) {
       throw new RedisUnhandledException(getNode(), "Values sent to redis cannot be null.", npe);
     } catch (final IOException ioe) {
@@ -103,7 +162,7 @@ abstract class RedisConn implements AutoCloseable {
 
   public void sendCmd(final byte[] cmd) {
     try {
-      RESProtocol.sendCmd(outputStream, cmd);
+      RESProtocol.sendCmd(getOutputStream(), cmd);
     } catch (final NullPointerException npe) {
       throw new RedisUnhandledException(getNode(), "Values sent to redis cannot be null.", npe);
     } catch (final IOException ioe) {
@@ -113,7 +172,7 @@ abstract class RedisConn implements AutoCloseable {
 
   public void sendCmd(final byte[] cmd, final byte[][] args) {
     try {
-      RESProtocol.sendCmd(outputStream, cmd, args);
+      RESProtocol.sendCmd(getOutputStream(), cmd, args);
     } catch (final NullPointerException npe) {
       throw new RedisUnhandledException(getNode(), "Values sent to redis cannot be null.", npe);
     } catch (final IOException ioe) {
@@ -123,7 +182,7 @@ abstract class RedisConn implements AutoCloseable {
 
   public void sendCmd(final byte[] cmd, final byte[] subcmd) {
     try {
-      RESProtocol.sendCmd(outputStream, cmd, subcmd);
+      RESProtocol.sendCmd(getOutputStream(), cmd, subcmd);
     } catch (final NullPointerException npe) {
       throw new RedisUnhandledException(getNode(), "Values sent to redis cannot be null.", npe);
     } catch (final IOException ioe) {
@@ -133,7 +192,7 @@ abstract class RedisConn implements AutoCloseable {
 
   public void sendCmd(final byte[] cmd, final byte[] subcmd, final byte[] args) {
     try {
-      RESProtocol.sendCmd(outputStream, cmd, subcmd, args);
+      RESProtocol.sendCmd(getOutputStream(), cmd, subcmd, args);
     } catch (final NullPointerException npe) {
       throw new RedisUnhandledException(getNode(), "Values sent to redis cannot be null.", npe);
     } catch (final IOException ioe) {
@@ -143,7 +202,7 @@ abstract class RedisConn implements AutoCloseable {
 
   public void sendCmd(final byte[] cmd, final byte[] subcmd, final byte[][] args) {
     try {
-      RESProtocol.sendCmd(outputStream, cmd, subcmd, args);
+      RESProtocol.sendCmd(getOutputStream(), cmd, subcmd, args);
     } catch (final NullPointerException npe) {
       throw new RedisUnhandledException(getNode(), "Values sent to redis cannot be null.", npe);
     } catch (final IOException ioe) {
@@ -153,7 +212,7 @@ abstract class RedisConn implements AutoCloseable {
 
   public void sendCmd(final byte[] cmd, final String[] args) {
     try {
-      RESProtocol.sendCmd(outputStream, cmd, args);
+      RESProtocol.sendCmd(getOutputStream(), cmd, args);
     } catch (final NullPointerException npe) {
       throw new RedisUnhandledException(getNode(), "Values sent to redis cannot be null.", npe);
     } catch (final IOException ioe) {
@@ -163,7 +222,49 @@ abstract class RedisConn implements AutoCloseable {
 
   public void sendCmd(final byte[] cmd, final Collection<String> args) {
     try {
-      RESProtocol.sendCmd(outputStream, cmd, args);
+      RESProtocol.sendCmd(getOutputStream(), cmd, args);
+    } catch (final NullPointerException npe) {
+      throw new RedisUnhandledException(getNode(), "Values sent to redis cannot be null.", npe);
+    } catch (final IOException ioe) {
+      handleWriteException(ioe);
+    }
+  }
+
+  public void sendCmd(final byte[] cmd, final byte[] key, final long arg) {
+    try {
+      RESProtocol.sendCmd(getOutputStream(), cmd, key, arg);
+    } catch (final NullPointerException npe) {
+      throw new RedisUnhandledException(getNode(), "Values sent to redis cannot be null.", npe);
+    } catch (final IOException ioe) {
+      handleWriteException(ioe);
+    }
+  }
+
+  public void sendCmd(final byte[] cmd, final byte[] key, final double arg) {
+    try {
+      RESProtocol.sendCmd(getOutputStream(), cmd, key, arg);
+    } catch (final NullPointerException npe) {
+      throw new RedisUnhandledException(getNode(), "Values sent to redis cannot be null.", npe);
+    } catch (final IOException ioe) {
+      handleWriteException(ioe);
+    }
+  }
+
+  public void sendCmd(final byte[] cmd, final byte[] key, final long arg,
+      final byte[] value) {
+    try {
+      RESProtocol.sendCmd(getOutputStream(), cmd, key, arg, value);
+    } catch (final NullPointerException npe) {
+      throw new RedisUnhandledException(getNode(), "Values sent to redis cannot be null.", npe);
+    } catch (final IOException ioe) {
+      handleWriteException(ioe);
+    }
+  }
+
+  public void sendCmd(final byte[] cmd, final byte[] key, final double arg,
+      final byte[] value) {
+    try {
+      RESProtocol.sendCmd(getOutputStream(), cmd, key, arg, value);
     } catch (final NullPointerException npe) {
       throw new RedisUnhandledException(getNode(), "Values sent to redis cannot be null.", npe);
     } catch (final IOException ioe) {
@@ -173,7 +274,7 @@ abstract class RedisConn implements AutoCloseable {
 
   public void sendCmd(final byte[] cmd, final byte[] subcmd, final String[] args) {
     try {
-      RESProtocol.sendCmd(outputStream, cmd, subcmd, args);
+      RESProtocol.sendCmd(getOutputStream(), cmd, subcmd, args);
     } catch (final NullPointerException npe) {
       throw new RedisUnhandledException(getNode(), "Values sent to redis cannot be null.", npe);
     } catch (final IOException ioe) {
@@ -183,7 +284,7 @@ abstract class RedisConn implements AutoCloseable {
 
   public void sendCmd(final byte[] cmd, final byte[] subcmd, final Collection<String> args) {
     try {
-      RESProtocol.sendCmd(outputStream, cmd, subcmd, args);
+      RESProtocol.sendCmd(getOutputStream(), cmd, subcmd, args);
     } catch (final NullPointerException npe) {
       throw new RedisUnhandledException(getNode(), "Values sent to redis cannot be null.", npe);
     } catch (final IOException ioe) {
@@ -202,6 +303,7 @@ abstract class RedisConn implements AutoCloseable {
   }
 
   void flushOS() {
+    forwardRecorded();
     try {
       outputStream.flush();
     } catch (final IOException ex) {
@@ -210,6 +312,16 @@ abstract class RedisConn implements AutoCloseable {
     }
   }
 
+  // Null if reads block the calling thread rather than wait on an event loop.
+  NioSocket getNioSocket() {
+    return socket instanceof NioSocket ? (NioSocket) socket : null;
+  }
+
+  // True if the next reply can be at least partially read without waiting on the socket.
+  boolean isReplyBuffered() {
+    return inputStream.isBuffered();
+  }
+
   void drainIS() {
     inputStream.drain();
   }
@@ -258,6 +370,33 @@ abstract class RedisConn implements AutoCloseable {
     }
   }
 
+  protected void visitReply(final RespReplyVisitor visitor) {
+    try {
+      RESProtocol.visit(getNode(), nodeMapper, inputStream, visitor);
+    } catch (final RedisConnectionException rce) {
+      broken = true;
+      throw rce;
+    }
+  }
+
+  protected long readBulkReply(final ByteBuffer dst) {
+    try {
+      return RESProtocol.readBulkReply(getNode(), nodeMapper, inputStream, dst);
+    } catch (final RedisConnectionException rce) {
+      broken = true;
+      throw rce;
+    }
+  }
+
+  protected long readBulkReply(final WritableByteChannel dst) {
+    try {
+      return RESProtocol.readBulkReply(getNode(), nodeMapper, inputStream, dst);
+    } catch (final RedisConnectionException rce) {
+      broken = true;
+      throw rce;
+    }
+  }
+
   protected long getLong() {
     try {
       return RESProtocol.readLong(getNode(), nodeMapper, inputStream);
@@ -1,10 +1,13 @@
 package com.fabahaba.jedipus.primitive;
 
+import com.fabahaba.jedipus.client.RespReplyVisitor;
 import com.fabahaba.jedipus.cluster.Node;
 import com.fabahaba.jedipus.exceptions.RedisConnectionException;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 
 public final class RedisInputStream extends InputStream {
 
@@ -27,6 +30,10 @@ public final class RedisInputStream extends InputStream {
     return node;
   }
 
+  boolean isBuffered() {
+    return pos < limit;
+  }
+
   public byte readByte() {
     ensureFill();
     return buf[pos++];
@@ -138,6 +145,100 @@ public final class RedisInputStream extends InputStream {
     return length;
   }
 
+  public void read(final ByteBuffer dst, final int len) {
+    int remaining = len;
+
+    final int buffered = Math.min(limit - pos, remaining);
+    if (buffered > 0) {
+      dst.put(buf, pos, buffered);
+      pos += buffered;
+      remaining -= buffered;
+    }
+
+    if (dst.hasArray()) {
+      // Read the rest straight into the destination to skip the intermediate copy.
+      final byte[] array = dst.array();
+      while (remaining > 0) {
+        final int read = readChecked(array, dst.arrayOffset() + dst.position(), remaining);
+        dst.position(dst.position() + read);
+        remaining -= read;
+      }
+      return;
+    }
+
+    while (remaining > 0) {
+      ensureFill();
+      final int length = Math.min(limit - pos, remaining);
+      dst.put(buf, pos, length);
+      pos += length;
+      remaining -= length;
+    }
+  }
+
+  public void transferTo(final WritableByteChannel dst, final int len) throws IOException {
+    for (int remaining = len; remaining > 0;) {
+      ensureFill();
+      final int length = Math.min(limit - pos, remaining);
+      final ByteBuffer chunk = ByteBuffer.wrap(buf, pos, length);
+      pos += length;
+      remaining -= length;
+      try {
+        do {
+          dst.write(chunk);
+        } while (chunk.hasRemaining());
+      } catch (final IOException ioe) {
+        // Consume the rest of the reply to keep the stream usable.
+        skipBytes(remaining);
+        throw ioe;
+      }
+    }
+  }
+
+  void visitBulk(final int len, final RespReplyVisitor visitor) {
+    final int lenCRLF = len + 2;
+    if (lenCRLF > buf.length) {
+      final byte[] bulk = new byte[len];
+      for (int offset = 0; offset < len;) {
+        offset += read(bulk, offset, len - offset);
+      }
+      readByte();
+      readByte();
+      visitor.onBulk(bulk, 0, len);
+      return;
+    }
+
+    fill(lenCRLF);
+    final int offset = pos;
+    pos += lenCRLF;
+    visitor.onBulk(buf, offset, len);
+  }
+
+  private void fill(final int len) {
+    if (limit - pos >= len) {
+      return;
+    }
+
+    if (buf.length - pos < len) {
+      final int buffered = limit - pos;
+      System.arraycopy(buf, pos, buf, 0, buffered);
+      pos = 0;
+      limit = buffered;
+    }
+
+    while (limit - pos < len) {
+      limit += readChecked(limit, buf.length - limit);
+    }
+  }
+
+  public void skipBytes(final int len) {
+    for (int remaining = len; remaining > 0;) {
+      ensureFill();
+      final int length = Math.min(limit - pos, remaining);
+      pos += length;
+      remaining -= length;
+    }
+  }
+
   private void ensureFill() {
     if (pos < limit) {
       return;
@@ -151,8 +252,12 @@ public final class RedisInputStream extends InputStream {
   }
 
   private int readChecked(final int off, final int len) {
+    return readChecked(buf, off, len);
+  }
+
+  private int readChecked(final byte[] dst, final int off, final int len) {
     try {
-      final int read = in.read(buf, off, len);
+      final int read = in.read(dst, off, len);
 
       if (read == -1) {
         limit = 0;
@@ -3,12 +3,17 @@ package com.fabahaba.jedipus.primitive;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.charset.StandardCharsets;
 
 public final class RedisOutputStream extends OutputStream {
 
   private final OutputStream out;
-  private final byte[] buf;
-  private int count;
+  private final GatheringByteChannel channel;
+  // Nulled on release so that a pooled direct buffer is never written to by its previous owner.
+  private ByteBuffer buf;
+  private final ByteBuffer[] gather;
+  private volatile boolean released = false;
 
   private static final int[] sizeTable =
       {9, 99, 999, 9999, 99999, 999999, 9999999, 99999999, 999999999, Integer.MAX_VALUE};
@@ -27,6 +32,12 @@ public final class RedisOutputStream extends OutputStream {
       '8', '9', '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', '0', '1', '2', '3', '4', '5', '6',
       '7', '8', '9', '0', '1', '2', '3', '4', '5', '6', '7', '8', '9',};
 
+  private static final byte[] MIN_LONG_BYTES =
+      Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+
+  // Doubles with no fractional part within this magnitude are encoded as longs.
+  private static final double MAX_EXACT_LONG_DOUBLE = 1L << 53;
+
   private static final byte[] digits =
       {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f', 'g', 'h',
           'i', 'j', 'k', 'l', 'm', 'n', 'o', 'p', 'q', 'r', 's', 't', 'u', 'v', 'w', 'x', 'y', 'z'};
@@ -36,13 +47,52 @@ public final class RedisOutputStream extends OutputStream {
       throw new IllegalArgumentException("Buffer size <= 0");
     }
     this.out = out;
-    buf = new byte[size];
+    this.channel = null;
+    this.buf = ByteBuffer.wrap(new byte[size]);
+    this.gather = null;
+  }
+
+  RedisOutputStream(final GatheringByteChannel channel, final int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("Buffer size <= 0");
+    }
+    this.out = null;
+    this.channel = channel;
+    this.buf = DirectBufferPool.acquire(size);
+    this.gather = new ByteBuffer[2];
+  }
+
+  private void ensureOpen() throws IOException {
+    if (released) {
+      throw new IOException("Stream has been released.");
+    }
   }
 
   private void flushBuffer() throws IOException {
-    if (count > 0) {
-      out.write(buf, 0, count);
-      count = 0;
+    if (buf.position() == 0) {
+      return;
+    }
+
+    if (channel == null) {
+      out.write(buf.array(), buf.arrayOffset(), buf.position());
+      buf.clear();
+      return;
+    }
+
+    buf.flip();
+    channel.write(buf);
+    buf.clear();
+  }
+
+  private void writeGathered(final byte[] data, final int off, final int len) throws IOException {
+    buf.flip();
+    gather[0] = buf;
+    gather[1] = ByteBuffer.wrap(data, off, len);
+    try {
+      channel.write(gather);
+    } finally {
+      gather[1] = null;
+      buf.clear();
     }
   }
 
@@ -52,10 +102,11 @@ public final class RedisOutputStream extends OutputStream {
   }
 
   public void write(final byte data) throws IOException {
-    if (count == buf.length) {
+    ensureOpen();
+    if (!buf.hasRemaining()) {
       flushBuffer();
     }
-    buf[count++] = data;
+    buf.put(data);
   }
 
   @Override
@@ -65,24 +116,32 @@ public final class RedisOutputStream extends OutputStream {
 
   @Override
   public void write(final byte[] data, final int off, final int len) throws IOException {
-    if (len >= buf.length) {
-      flushBuffer();
-      out.write(data, off, len);
-      return;
-    }
+    ensureOpen();
+    if (len >= buf.remaining()) {
+      if (channel != null) {
+        writeGathered(data, off, len);
+        return;
+      }
 
-    if (len >= buf.length - count) {
       flushBuffer();
+
+      if (len >= buf.capacity()) {
+        out.write(data, off, len);
+        return;
+      }
     }
 
-    System.arraycopy(data, off, buf, count, len);
-    count += len;
+    buf.put(data, off, len);
   }
 
   public void writeDirect(final byte[] data, final int off, final int len) throws IOException {
+    ensureOpen();
+    if (channel != null) {
+      writeGathered(data, off, len);
+      return;
+    }
     flushBuffer();
     out.write(data, off, len);
-    return;
   }
 
   public static boolean isSurrogate(final char ch) {
@@ -90,14 +149,15 @@ public final class RedisOutputStream extends OutputStream {
   }
 
   public void writeCRLF() throws IOException {
-    if (2 >= buf.length - count) {
+    ensureOpen();
+    if (2 >= buf.remaining()) {
       flushBuffer();
     }
-    buf[count++] = '\r';
-    buf[count++] = '\n';
+    buf.put((byte) '\r').put((byte) '\n');
   }
 
   public void writeIntCRLF(int value) throws IOException {
+    ensureOpen();
     if (value < 0) {
       write((byte) '-');
       value = -value;
@@ -109,36 +169,168 @@ public final class RedisOutputStream extends OutputStream {
     }
 
     size++;
-    if (size >= buf.length - count) {
+    if (size >= buf.remaining()) {
       flushBuffer();
     }
 
     int q1;
     int r1;
+    final int count = buf.position();
     int charPos = count + size;
 
     while (value >= 65536) {
       q1 = value / 100;
       r1 = value - ((q1 << 6) + (q1 << 5) + (q1 << 2));
       value = q1;
-      buf[--charPos] = DigitOnes[r1];
-      buf[--charPos] = DigitTens[r1];
+      buf.put(--charPos, DigitOnes[r1]);
+      buf.put(--charPos, DigitTens[r1]);
     }
 
     for (;;) {
       q1 = (value * 52429) >>> (16 + 3);
       r1 = value - ((q1 << 3) + (q1 << 1));
-      buf[--charPos] = digits[r1];
+      buf.put(--charPos, digits[r1]);
       value = q1;
       if (value == 0) {
         break;
       }
     }
-    count += size;
+    buf.position(count + size);
+
+    writeCRLF();
+  }
+
+  public void writeLongArg(final long value) throws IOException {
+    ensureOpen();
+    final int size = longStringSize(value);
+    if (value == Long.MIN_VALUE || size >= buf.capacity()) {
+      write(createLongArg(value));
+      return;
+    }
+
+    write((byte) '$');
+    writeIntCRLF(size);
+
+    if (size >= buf.remaining()) {
+      flushBuffer();
+    }
+    final int count = buf.position();
+    long writeVal = value;
+    if (value < 0) {
+      buf.put(count, (byte) '-');
+      writeVal = -value;
+    }
+    int charPos = count + size;
+
+    while (writeVal > Integer.MAX_VALUE) {
+      final long q = writeVal / 100;
+      final int r = (int) (writeVal - ((q << 6) + (q << 5) + (q << 2)));
+      writeVal = q;
+      buf.put(--charPos, DigitOnes[r]);
+      buf.put(--charPos, DigitTens[r]);
+    }
+
+    int intVal = (int) writeVal;
+    int q1;
+    int r1;
+
+    while (intVal >= 65536) {
+      q1 = intVal / 100;
+      r1 = intVal - ((q1 << 6) + (q1 << 5) + (q1 << 2));
+      intVal = q1;
+      buf.put(--charPos, DigitOnes[r1]);
+      buf.put(--charPos, DigitTens[r1]);
+    }
+
+    for (;;) {
+      q1 = (intVal * 52429) >>> (16 + 3);
+      r1 = intVal - ((q1 << 3) + (q1 << 1));
+      buf.put(--charPos, digits[r1]);
+      intVal = q1;
+      if (intVal == 0) {
+        break;
+      }
+    }
+    buf.position(count + size);
 
     writeCRLF();
   }
 
+  public static boolean isLongEncodable(final double value) {
+    return value == (long) value && Math.abs(value) <= MAX_EXACT_LONG_DOUBLE;
+  }
+
+  public static int longStringSize(final long value) {
+    if (value < 0) {
+      return value == Long.MIN_VALUE ? MIN_LONG_BYTES.length : 1 + longStringSize(-value);
+    }
+    long bound = 10;
+    for (int size = 1; size < 19; size++, bound *= 10) {
+      if (value < bound) {
+        return size;
+      }
+    }
+    return 19;
+  }
+
+  /**
+   * @return A complete RESP bulk string argument, '$' length CRLF digits CRLF, for the given value.
+   */
+  public static byte[] createLongArg(final long value) {
+    if (value == Long.MIN_VALUE) {
+      final byte[] lengthCRLF = createIntCRLF((byte) '$', MIN_LONG_BYTES.length);
+      final byte[] arg = new byte[lengthCRLF.length + MIN_LONG_BYTES.length + 2];
+      System.arraycopy(lengthCRLF, 0, arg, 0, lengthCRLF.length);
+      System.arraycopy(MIN_LONG_BYTES, 0, arg, lengthCRLF.length, MIN_LONG_BYTES.length);
+      arg[arg.length - 2] = '\r';
+      arg[arg.length - 1] = '\n';
+      return arg;
+    }
+
+    final int size = longStringSize(value);
+    final int headerSize = size < 10 ? 4 : 5;
+    final byte[] arg = new byte[headerSize + size + 2];
+    arg[0] = '$';
+    if (size < 10) {
+      arg[1] = digits[size];
+    } else {
+      arg[1] = DigitTens[size];
+      arg[2] = DigitOnes[size];
+    }
+    arg[headerSize - 2] = '\r';
+    arg[headerSize - 1] = '\n';
+
+    long writeVal = value;
+    if (value < 0) {
+      arg[headerSize] = '-';
+      writeVal = -value;
+    }
+    int charPos = headerSize + size;
+
+    while (writeVal >= 65536) {
+      final long q = writeVal / 100;
+      final int r = (int) (writeVal - ((q << 6) + (q << 5) + (q << 2)));
+      writeVal = q;
+      arg[--charPos] = DigitOnes[r];
+      arg[--charPos] = DigitTens[r];
+    }
+
+    int intVal = (int) writeVal;
+    for (;;) {
+      final int q1 = (intVal * 52429) >>> (16 + 3);
+      final int r1 = intVal - ((q1 << 3) + (q1 << 1));
+      arg[--charPos] = digits[r1];
+      intVal = q1;
+      if (intVal == 0) {
+        break;
+      }
+    }
+
+    arg[arg.length - 2] = '\r';
+    arg[arg.length - 1] = '\n';
+    return arg;
+  }
+
   public static byte[] createIntCRLF(final byte prefix, final int value) {
     int writeVal = value;
     int charPos = 1; // prefix
@@ -218,7 +410,26 @@ public final class RedisOutputStream extends OutputStream {
 
   @Override
   public void flush() throws IOException {
+    if (released) {
+      return;
+    }
     flushBuffer();
-    out.flush();
+    if (out != null) {
+      out.flush();
+    }
+  }
+
+  // Returns a pooled direct buffer; writes afterwards throw and flushes are ignored.
+  synchronized void release() {
+    if (released) {
+      return;
+    }
+    released = true;
+    final ByteBuffer releasedBuf = buf;
+    buf = null;
+    if (channel != null) {
+      releasedBuf.clear();
+      DirectBufferPool.release(releasedBuf);
+    }
   }
 }
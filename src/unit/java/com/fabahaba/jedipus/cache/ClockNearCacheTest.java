@@ -0,0 +1,189 @@
+package com.fabahaba.jedipus.cache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+import com.fabahaba.jedipus.client.RedisClient;
+import com.fabahaba.jedipus.cluster.RedisClusterExecutor;
+import com.fabahaba.jedipus.cluster.RedisClusterExecutor.ReadMode;
+import com.fabahaba.jedipus.cmds.RESP;
+
+public class ClockNearCacheTest {
+
+  private static final Duration TTL = Duration.ofMinutes(1);
+
+  private final List<String> loads = new CopyOnWriteArrayList<>();
+  private final List<ReadMode> loadReadModes = new CopyOnWriteArrayList<>();
+
+  // Runs loaders directly, without a client, recording the read mode used.
+  @SuppressWarnings("unchecked")
+  private final RedisClusterExecutor rce = (RedisClusterExecutor) Proxy.newProxyInstance(
+      getClass().getClassLoader(), new Class<?>[] {RedisClusterExecutor.class},
+      (proxy, method, args) -> {
+        switch (method.getName()) {
+          case "apply":
+            loadReadModes.add((ReadMode) args[0]);
+            return ((Function<RedisClient, Object>) args[2]).apply(null);
+          case "getMaxRetries":
+            return 0;
+          case "getDefaultReadMode":
+            return ReadMode.SLAVES;
+          default:
+            return null;
+        }
+      });
+
+  private NearCache createCache(final int maxSize) {
+    return NearCache.startBuilding().withMaxSize(maxSize).create(rce);
+  }
+
+  private String get(final NearCache cache, final String key) {
+    return get(cache, key, TTL);
+  }
+
+  private String get(final NearCache cache, final String key, final Duration ttl) {
+    return cache.apply(RESP.toBytes(key), null, client -> {
+      loads.add(key);
+      return "value-" + key;
+    }, ttl);
+  }
+
+  private String hget(final NearCache cache, final String key, final String field) {
+    return cache.apply(RESP.toBytes(key), RESP.toBytes(field), client -> {
+      loads.add(key + ":" + field);
+      return "value-" + field;
+    }, TTL);
+  }
+
+  @Test
+  public void testRepliesAreCached() {
+    final NearCache cache = createCache(8);
+    assertEquals("value-a", get(cache, "a"));
+    assertEquals("value-a", get(cache, "a"));
+    assertEquals(1, loads.size());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+
+    // Null replies are cached too.
+    assertNull(cache.apply(RESP.toBytes("b"), null, client -> {
+      loads.add("b");
+      return null;
+    }, TTL));
+    assertNull(cache.apply(RESP.toBytes("b"), null, client -> {
+      loads.add("b");
+      return null;
+    }, TTL));
+    assertEquals(2, loads.size());
+  }
+
+  @Test
+  public void testMissesAreLoadedFromMastersByDefault() {
+    get(createCache(8), "a");
+    get(NearCache.startBuilding().withReadMode(null).create(rce), "a");
+    assertEquals("[MASTER, SLAVES]", loadReadModes.toString());
+  }
+
+  @Test
+  public void testRepliesExpire() {
+    final NearCache cache = createCache(8);
+    get(cache, "a", Duration.ZERO);
+    get(cache, "a", Duration.ZERO);
+    assertEquals(2, loads.size());
+
+    get(cache, "b", TTL);
+    get(cache, "b", TTL);
+    assertEquals(3, loads.size());
+  }
+
+  @Test
+  public void testInvalidation() {
+    final NearCache cache = createCache(8);
+    get(cache, "a");
+    get(cache, "b");
+    hget(cache, "h", "f");
+
+    cache.invalidate(RESP.toBytes("a"));
+    get(cache, "a");
+    get(cache, "b");
+    assertEquals("[a, b, h:f, a]", loads.toString());
+
+    // Invalidation messages carry the key.
+    cache.accept(cache.getInvalidationChannel(), "h");
+    hget(cache, "h", "f");
+    get(cache, "b");
+    assertEquals("[a, b, h:f, a, h:f]", loads.toString());
+
+    // An empty message invalidates every key.
+    cache.accept(cache.getInvalidationChannel(), new byte[0]);
+    assertEquals(0, cache.size());
+    get(cache, "b");
+    assertEquals("[a, b, h:f, a, h:f, b]", loads.toString());
+  }
+
+  @Test
+  public void testFrequentKeysAreAdmittedOverOneOffReads() {
+    final NearCache cache = createCache(2);
+    for (int i = 0; i < 4; i++) {
+      get(cache, "hot");
+      get(cache, "warm");
+    }
+    assertEquals(2, loads.size());
+
+    for (int i = 0; i < 16; i++) {
+      get(cache, "once-" + i);
+    }
+    loads.clear();
+    get(cache, "hot");
+    get(cache, "warm");
+    assertEquals(0, loads.size());
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void testFieldsCountTowardsTheLimit() {
+    final NearCache cache = createCache(4);
+    for (int i = 0; i < 8; i++) {
+      hget(cache, "h", "f" + i);
+    }
+    assertEquals(8, loads.size());
+
+    // Only the first four fields fit.
+    loads.clear();
+    hget(cache, "h", "f0");
+    hget(cache, "h", "f7");
+    assertEquals("[h:f7]", loads.toString());
+
+    // A more frequently read key evicts the key holding every field.
+    for (int i = 0; i < 16; i++) {
+      get(cache, "hot");
+    }
+    loads.clear();
+    get(cache, "hot");
+    hget(cache, "h", "f0");
+    assertEquals("[h:f0]", loads.toString());
+  }
+
+  @Test
+  public void testCallersMayReuseTheirKeyArrays() {
+    final NearCache cache = createCache(8);
+    final byte[] key = RESP.toBytes("a");
+    final byte[] field = RESP.toBytes("f");
+    cache.apply(key, field, client -> "value-a:f", TTL);
+
+    // Overwriting the caller's arrays must not corrupt the cached keys.
+    key[0] = 'b';
+    field[0] = 'g';
+    assertEquals("value-a:f", hget(cache, "a", "f"));
+    assertEquals("value-g", hget(cache, "b", "g"));
+    assertEquals(Arrays.asList("b:g"), loads);
+  }
+}
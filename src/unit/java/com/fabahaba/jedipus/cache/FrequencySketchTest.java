@@ -0,0 +1,34 @@
+package com.fabahaba.jedipus.cache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FrequencySketchTest {
+
+  @Test
+  public void testIncrementSaturates() {
+    final FrequencySketch sketch = new FrequencySketch(512);
+    for (int i = 0; i < 20; i++) {
+      sketch.increment(42);
+    }
+    assertEquals(15, sketch.frequency(42));
+    assertTrue(sketch.frequency(43) < 15);
+  }
+
+  @Test
+  public void testPopularityDecays() {
+    final FrequencySketch sketch = new FrequencySketch(16);
+    for (int i = 0; i < 10; i++) {
+      sketch.increment(7);
+    }
+    assertEquals(10, sketch.frequency(7));
+
+    // A full sample of other increments halves every counter.
+    for (int i = 0; i < 1000; i++) {
+      sketch.increment(1000 + i);
+    }
+    assertTrue(sketch.frequency(7) <= 5);
+  }
+}
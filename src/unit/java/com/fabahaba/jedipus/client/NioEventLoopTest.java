@@ -0,0 +1,110 @@
+package com.fabahaba.jedipus.client;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class NioEventLoopTest {
+
+  private NioEventLoop eventLoop;
+  private Pipe pipe;
+
+  @Before
+  public void before() throws IOException {
+    eventLoop = NioEventLoop.start("nio-event-loop-test");
+    pipe = Pipe.open();
+    pipe.source().configureBlocking(false);
+  }
+
+  @After
+  public void after() throws IOException {
+    eventLoop.close();
+    pipe.source().close();
+    pipe.sink().close();
+  }
+
+  private static void assertLoopRuns(final NioEventLoop eventLoop) throws Exception {
+    final CompletableFuture<String> ran = new CompletableFuture<>();
+    eventLoop.execute(() -> ran.complete(Thread.currentThread().getName()));
+    assertEquals("nio-event-loop-test", ran.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test(timeout = 10000)
+  public void testFailedTaskDoesNotStopTheLoop() throws Exception {
+    eventLoop.execute(() -> {
+      throw new IllegalStateException("Failed.");
+    });
+    assertLoopRuns(eventLoop);
+    assertFalse(eventLoop.isClosed());
+  }
+
+  @Test(timeout = 10000)
+  public void testFailedCallbackDoesNotStopTheLoop() throws Exception {
+    final SelectionKey key = eventLoop.register(pipe.source(), ops -> {
+      throw new IllegalStateException("Failed.");
+    });
+    eventLoop.interest(key, SelectionKey.OP_READ);
+    pipe.sink().write(ByteBuffer.wrap(new byte[] {'+'}));
+    assertLoopRuns(eventLoop);
+    assertFalse(eventLoop.isClosed());
+  }
+
+  @Test(timeout = 10000)
+  public void testInterestInCancelledKeyFailsReadiness() throws Exception {
+    final CompletableFuture<Integer> notified = new CompletableFuture<>();
+    final SelectionKey key = eventLoop.register(pipe.source(), notified::complete);
+    key.cancel();
+    eventLoop.interest(key, SelectionKey.OP_READ);
+    assertEquals(0, notified.get(5, TimeUnit.SECONDS).intValue());
+    assertLoopRuns(eventLoop);
+  }
+
+  @Test(timeout = 10000)
+  public void testClosingFailsRegistrations() throws Exception {
+    final CompletableFuture<Integer> notified = new CompletableFuture<>();
+    eventLoop.register(pipe.source(), notified::complete);
+    eventLoop.close();
+    assertEquals(0, notified.get(5, TimeUnit.SECONDS).intValue());
+    assertTrue(eventLoop.isClosed());
+
+    try {
+      eventLoop.register(pipe.source(), ops -> {
+      });
+      fail("Expected registering with a closed loop to fail.");
+    } catch (final IllegalStateException | IOException expected) {
+      // expected
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testSocketsFailWhenTheLoopCloses() throws Exception {
+    try (final ServerSocketChannel server = ServerSocketChannel.open()) {
+      server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+      try (final NioSocket socket = new NioSocket(eventLoop)) {
+        socket.connect(server.getLocalAddress(), 1000);
+        eventLoop.close();
+        try {
+          socket.getInputStream().read();
+          fail("Expected reads to fail once the event loop was closed.");
+        } catch (final IOException expected) {
+          // expected
+        }
+      }
+    }
+  }
+}
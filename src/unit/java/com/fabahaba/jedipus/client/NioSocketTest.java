@@ -0,0 +1,135 @@
+package com.fabahaba.jedipus.client;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class NioSocketTest {
+
+  private NioEventLoop eventLoop;
+  private ServerSocketChannel server;
+
+  @Before
+  public void before() throws IOException {
+    eventLoop = NioEventLoop.start("nio-socket-test");
+    server = ServerSocketChannel.open();
+    server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+  }
+
+  @After
+  public void after() throws IOException {
+    server.close();
+    eventLoop.close();
+  }
+
+  private NioSocket connect() throws IOException {
+    final NioSocket socket = new NioSocket(eventLoop);
+    socket.connect(server.getLocalAddress(), 1000);
+    return socket;
+  }
+
+  private static byte[] ascii(final String str) {
+    return str.getBytes(StandardCharsets.US_ASCII);
+  }
+
+  @Test(timeout = 10000)
+  public void testRoundTrip() throws IOException {
+    try (final NioSocket socket = connect(); final SocketChannel peer = server.accept()) {
+      socket.getOutputStream().write(ascii("PING\r\n"));
+
+      final ByteBuffer received = ByteBuffer.allocate(6);
+      while (received.hasRemaining()) {
+        peer.read(received);
+      }
+      assertArrayEquals(ascii("PING\r\n"), received.array());
+
+      peer.write(ByteBuffer.wrap(ascii("+PONG\r\n")));
+      final byte[] reply = new byte[7];
+      for (int offset = 0;offset < reply.length;) {
+        offset += socket.getInputStream().read(reply, offset, reply.length - offset);
+      }
+      assertArrayEquals(ascii("+PONG\r\n"), reply);
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testReadsTimeOut() throws IOException {
+    try (final NioSocket socket = connect(); final SocketChannel peer = server.accept()) {
+      socket.setSoTimeout(20);
+      try {
+        socket.getInputStream().read();
+        fail("Expected the read to time out.");
+      } catch (final SocketTimeoutException expected) {
+        // expected
+      }
+      // The socket is still usable after a timeout.
+      peer.write(ByteBuffer.wrap(ascii("+")));
+      socket.setSoTimeout(0);
+      assertEquals('+', socket.getInputStream().read());
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testReadinessIsCompletedByTheEventLoop() throws Exception {
+    try (final NioSocket socket = connect(); final SocketChannel peer = server.accept()) {
+      final CompletableFuture<Void> ready = socket.whenReady(SelectionKey.OP_READ);
+      assertFalse(ready.isDone());
+      assertTrue(ready == socket.whenReady(SelectionKey.OP_READ));
+
+      final CompletableFuture<String> completingThread =
+          ready.thenApply(v -> Thread.currentThread().getName());
+      peer.write(ByteBuffer.wrap(ascii("+OK\r\n")));
+      assertEquals("nio-socket-test", completingThread.get(5, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testCloseFailsPendingReadiness() throws Exception {
+    final NioSocket socket = connect();
+    try (final SocketChannel peer = server.accept()) {
+      final CompletableFuture<Void> ready = socket.whenReady(SelectionKey.OP_READ);
+      socket.close();
+      try {
+        ready.get(5, TimeUnit.SECONDS);
+        fail("Expected readiness to fail once the socket was closed.");
+      } catch (final ExecutionException expected) {
+        assertTrue(expected.getCause() instanceof SocketException);
+      }
+      assertTrue(socket.whenReady(SelectionKey.OP_READ).isCompletedExceptionally());
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testClosingTheEventLoopFailsPendingReadiness() throws Exception {
+    try (final NioSocket socket = connect(); final SocketChannel peer = server.accept()) {
+      final CompletableFuture<Void> ready = socket.whenReady(SelectionKey.OP_READ);
+      eventLoop.close();
+      try {
+        ready.get(5, TimeUnit.SECONDS);
+        fail("Expected readiness to fail once the event loop was closed.");
+      } catch (final ExecutionException expected) {
+        assertTrue(expected.getCause() instanceof SocketException);
+      }
+    }
+  }
+}
@@ -0,0 +1,444 @@
+package com.fabahaba.jedipus.cluster;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import com.fabahaba.jedipus.client.ConnectedSocketFactory;
+import com.fabahaba.jedipus.metrics.JedipusMetrics;
+import com.fabahaba.jedipus.pool.ClientPool;
+import com.fabahaba.jedipus.primitive.RedisClientFactory;
+
+/**
+ * An in-memory cluster of masters and replicas served over unconnected sockets that parse the
+ * commands written to them. Keys are stored once for the whole cluster, nodes that do not serve
+ * the slot of a key reply with MOVED, or with ASK if the key is being migrated. CLIENT REPLY
+ * SKIP, OFF and ON suppress replies like Redis does.
+ */
+final class FakeCluster implements ConnectedSocketFactory<Socket> {
+
+  private static final long serialVersionUID = -5236096226474412391L;
+
+  static final String HOST = "localhost";
+
+  private final int[] slotMasters = new int[CRC16.NUM_SLOTS];
+  private final Map<Integer, int[]> replicas = new ConcurrentHashMap<>();
+  private final Map<String, String> data = new ConcurrentHashMap<>();
+  private final Map<String, Integer> migrating = new ConcurrentHashMap<>();
+  private final Set<Integer> down = ConcurrentHashMap.newKeySet();
+  private final Map<Integer, AtomicInteger> failedConnects = new ConcurrentHashMap<>();
+  private final Map<Integer, List<String>> received = new ConcurrentHashMap<>();
+  // Overrides the reply to a command if it returns a non-null RESP reply.
+  private volatile BiFunction<Integer, List<String>, String> handler = (port, args) -> null;
+
+  /**
+   * @param masterPorts Each master serves an equal range of slots, in order.
+   */
+  FakeCluster(final int... masterPorts) {
+    final int slotsPerMaster = CRC16.NUM_SLOTS / masterPorts.length;
+    for (int i = 0;i < masterPorts.length;i++) {
+      final int end = i == masterPorts.length - 1 ? CRC16.NUM_SLOTS : (i + 1) * slotsPerMaster;
+      Arrays.fill(slotMasters, i * slotsPerMaster, end, masterPorts[i]);
+      replicas.put(masterPorts[i], new int[0]);
+    }
+  }
+
+  static Node node(final int port) {
+    return Node.create(HOST, port);
+  }
+
+  ClusterExecutorBuilder startBuilding(final int discoveryPort) {
+    return startBuilding(discoveryPort, null);
+  }
+
+  // Custom factories are not given the executor's metrics, so they are configured here.
+  ClusterExecutorBuilder startBuilding(final int discoveryPort, final JedipusMetrics metrics) {
+    final RedisClientFactory.Builder factory = RedisClientFactory.startBuilding()
+        .withConnectedSocketFactory(this).withMetrics(metrics);
+    final ClientPool.Builder poolBuilder = ClientPool.startBuilding().withMaxTotal(4)
+        .withMaxIdle(4).withBlockWhenExhausted(true).withMetrics(metrics);
+    return RedisClusterExecutor.startBuilding(node(discoveryPort))
+        .withMasterPoolFactory(node -> poolBuilder.create(factory.createPooled(node)))
+        .withSlavePoolFactory(node -> poolBuilder.create(factory.createPooled(node, true)))
+        .withNodeUnknownFactory(factory::create).withDurationBetweenCacheRefresh(Duration.ZERO);
+  }
+
+  synchronized FakeCluster withReplicas(final int masterPort, final int... replicaPorts) {
+    replicas.put(masterPort, replicaPorts);
+    return this;
+  }
+
+  synchronized void moveSlot(final int slot, final int port) {
+    slotMasters[slot] = port;
+  }
+
+  synchronized void moveSlots(final int fromPort, final int toPort) {
+    for (int slot = 0;slot < slotMasters.length;slot++) {
+      if (slotMasters[slot] == fromPort) {
+        slotMasters[slot] = toPort;
+      }
+    }
+    replicas.remove(fromPort);
+  }
+
+  synchronized int getMaster(final int slot) {
+    return slotMasters[slot];
+  }
+
+  void migrate(final String key, final int toPort) {
+    migrating.put(key, toPort);
+  }
+
+  void put(final String key, final String value) {
+    data.put(key, value);
+  }
+
+  void setDown(final int port, final boolean isDown) {
+    if (isDown) {
+      down.add(port);
+    } else {
+      down.remove(port);
+    }
+  }
+
+  void failConnects(final int port, final int numConnects) {
+    failedConnects.put(port, new AtomicInteger(numConnects));
+  }
+
+  void setHandler(final BiFunction<Integer, List<String>, String> handler) {
+    this.handler = handler;
+  }
+
+  /**
+   * @return The commands received by the node, each joined by spaces, excluding CLUSTER SLOTS.
+   */
+  List<String> getReceived(final int port) {
+    return received.computeIfAbsent(port, p -> new CopyOnWriteArrayList<>());
+  }
+
+  void clearReceived() {
+    received.clear();
+  }
+
+  @Override
+  public Socket create(final String host, final int port, final int connTimeoutMillis)
+      throws IOException {
+    final AtomicInteger numFailures = failedConnects.get(port);
+    if (down.contains(port) || numFailures != null && numFailures.getAndDecrement() > 0) {
+      throw new ConnectException("Connection refused to " + port);
+    }
+    return new FakeSocket(port);
+  }
+
+  @Override
+  public int getSoTimeoutMillis() {
+    return 0;
+  }
+
+  private static String bulk(final String value) {
+    return value == null ? "$-1\r\n"
+        : "$" + value.getBytes(StandardCharsets.UTF_8).length + "\r\n" + value + "\r\n";
+  }
+
+  private synchronized String clusterSlots() {
+    final List<String> ranges = new ArrayList<>();
+    for (int begin = 0;begin < slotMasters.length;) {
+      final int master = slotMasters[begin];
+      int end = begin;
+      while (end + 1 < slotMasters.length && slotMasters[end + 1] == master) {
+        end++;
+      }
+      final int[] replicaPorts = replicas.getOrDefault(master, new int[0]);
+      final StringBuilder range = new StringBuilder("*").append(3 + replicaPorts.length)
+          .append("\r\n:").append(begin).append("\r\n:").append(end).append("\r\n");
+      range.append("*2\r\n").append(bulk(HOST)).append(':').append(master).append("\r\n");
+      for (final int replica : replicaPorts) {
+        range.append("*2\r\n").append(bulk(HOST)).append(':').append(replica).append("\r\n");
+      }
+      ranges.add(range.toString());
+      begin = end + 1;
+    }
+    final StringBuilder reply = new StringBuilder("*").append(ranges.size()).append("\r\n");
+    ranges.forEach(reply::append);
+    return reply.toString();
+  }
+
+  private synchronized boolean serves(final int port, final int slot) {
+    final int master = slotMasters[slot];
+    if (master == port) {
+      return true;
+    }
+    for (final int replica : replicas.getOrDefault(master, new int[0])) {
+      if (replica == port) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private String reply(final FakeSocket socket, final List<String> args) {
+    final String cmd = args.get(0).toLowerCase();
+    if (cmd.equals("cluster") && args.get(1).equalsIgnoreCase("slots")) {
+      return clusterSlots();
+    }
+
+    getReceived(socket.port).add(String.join(" ", args));
+    final String override = handler.apply(socket.port, args);
+    if (override != null) {
+      return override;
+    }
+
+    final boolean asking = socket.asking;
+    socket.asking = false;
+    switch (cmd) {
+      case "ping":
+        return "+PONG\r\n";
+      case "asking":
+        socket.asking = true;
+        return "+OK\r\n";
+      case "get":
+      case "set":
+      case "del":
+        final String key = args.get(1);
+        final int slot = CRC16.getSlot(key);
+        final Integer migratingTo = migrating.get(key);
+        if (migratingTo != null) {
+          if (migratingTo != socket.port) {
+            return "-ASK " + slot + " " + HOST + ":" + migratingTo + "\r\n";
+          }
+          if (!asking) {
+            return "-MOVED " + slot + " " + HOST + ":" + getMaster(slot) + "\r\n";
+          }
+        } else if (!serves(socket.port, slot)) {
+          return "-MOVED " + slot + " " + HOST + ":" + getMaster(slot) + "\r\n";
+        }
+        switch (cmd) {
+          case "get":
+            return bulk(data.get(key));
+          case "set":
+            data.put(key, args.get(2));
+            return "+OK\r\n";
+          default:
+            return ":" + (data.remove(key) == null ? 0 : 1) + "\r\n";
+        }
+      default:
+        return "+OK\r\n";
+    }
+  }
+
+  private final class FakeSocket extends Socket {
+
+    private final int port;
+    private final LinkedBlockingQueue<byte[]> replies = new LinkedBlockingQueue<>();
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private volatile boolean closed = false;
+    private boolean asking = false;
+    private boolean skipNext = false;
+    private boolean repliesOff = false;
+
+    private final InputStream in = new InputStream() {
+
+      private byte[] chunk = new byte[0];
+      private int pos = 0;
+
+      @Override
+      public int read() throws IOException {
+        final byte[] single = new byte[1];
+        return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+      }
+
+      @Override
+      public int read(final byte[] bytes, final int off, final int len) throws IOException {
+        while (pos == chunk.length) {
+          if (closed || down.contains(port)) {
+            return -1;
+          }
+          try {
+            chunk = replies.take();
+          } catch (final InterruptedException ie) {
+            throw new IOException(ie);
+          }
+          pos = 0;
+        }
+        final int numRead = Math.min(len, chunk.length - pos);
+        System.arraycopy(chunk, pos, bytes, off, numRead);
+        pos += numRead;
+        return numRead;
+      }
+
+      @Override
+      public int available() {
+        return chunk.length - pos;
+      }
+    };
+
+    private final OutputStream out = new OutputStream() {
+
+      @Override
+      public void write(final int bite) throws IOException {
+        write(new byte[] {(byte) bite}, 0, 1);
+      }
+
+      @Override
+      public void write(final byte[] bytes, final int off, final int len) throws IOException {
+        if (closed || down.contains(port)) {
+          throw new IOException("Connection reset by " + port);
+        }
+        pending.write(bytes, off, len);
+        parseCommands();
+      }
+    };
+
+    private FakeSocket(final int port) {
+      this.port = port;
+    }
+
+    private void parseCommands() {
+      final byte[] bytes = pending.toByteArray();
+      int pos = 0;
+      for (;;) {
+        final List<String> args = new ArrayList<>();
+        final int next = parseCommand(bytes, pos, args);
+        if (next < 0) {
+          break;
+        }
+        pos = next;
+        final String reply = reply(this, args);
+        if (!replyMode(args) && !repliesOff) {
+          if (skipNext) {
+            skipNext = false;
+          } else {
+            replies.add(reply.getBytes(StandardCharsets.UTF_8));
+          }
+        }
+      }
+      pending.reset();
+      pending.write(bytes, pos, bytes.length - pos);
+    }
+
+    // Returns true if the command changed the reply mode and must not be replied to.
+    private boolean replyMode(final List<String> args) {
+      if (args.size() != 3 || !args.get(0).equalsIgnoreCase("client")
+          || !args.get(1).equalsIgnoreCase("reply")) {
+        return false;
+      }
+      switch (args.get(2).toLowerCase()) {
+        case "skip":
+          skipNext = !repliesOff;
+          return true;
+        case "off":
+          repliesOff = true;
+          return true;
+        default:
+          repliesOff = false;
+          return false;
+      }
+    }
+
+    // Returns the position after the command, or -1 if it has not been completely written.
+    private int parseCommand(final byte[] bytes, int pos, final List<String> args) {
+      final int numArgsEnd = indexOfCRLF(bytes, pos);
+      if (numArgsEnd < 0) {
+        return -1;
+      }
+      final int numArgs = Integer.parseInt(new String(bytes, pos + 1, numArgsEnd - pos - 1,
+          StandardCharsets.US_ASCII));
+      pos = numArgsEnd + 2;
+      for (int i = 0;i < numArgs;i++) {
+        final int lenEnd = indexOfCRLF(bytes, pos);
+        if (lenEnd < 0) {
+          return -1;
+        }
+        final int len = Integer.parseInt(new String(bytes, pos + 1, lenEnd - pos - 1,
+            StandardCharsets.US_ASCII));
+        pos = lenEnd + 2;
+        if (pos + len + 2 > bytes.length) {
+          return -1;
+        }
+        args.add(new String(bytes, pos, len, StandardCharsets.UTF_8));
+        pos += len + 2;
+      }
+      return pos;
+    }
+
+    private int indexOfCRLF(final byte[] bytes, final int from) {
+      for (int i = from;i < bytes.length - 1;i++) {
+        if (bytes[i] == '\r' && bytes[i + 1] == '\n') {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+      return in;
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+      return out;
+    }
+
+    @Override
+    public int getSendBufferSize() {
+      return 64;
+    }
+
+    @Override
+    public int getReceiveBufferSize() {
+      return 64;
+    }
+
+    @Override
+    public synchronized void setSoTimeout(final int timeout) {}
+
+    @Override
+    public synchronized int getSoTimeout() {
+      return 0;
+    }
+
+    @Override
+    public void setKeepAlive(final boolean on) {}
+
+    @Override
+    public void setTcpNoDelay(final boolean on) {}
+
+    @Override
+    public synchronized void close() {
+      closed = true;
+      replies.add(new byte[0]);
+    }
+
+    @Override
+    public boolean isClosed() {
+      return closed;
+    }
+
+    @Override
+    public boolean isConnected() {
+      return !closed;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder("FakeCluster [received=").append(received).append(", down=")
+        .append(down).append("]").toString();
+  }
+}
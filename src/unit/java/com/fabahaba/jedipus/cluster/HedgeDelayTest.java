@@ -0,0 +1,62 @@
+package com.fabahaba.jedipus.cluster;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class HedgeDelayTest {
+
+  @Test
+  public void testInitialDelayUntilRecomputed() {
+    final HedgeDelay delay = new HedgeDelay(95, 1_000);
+    for (int i = 0;i < 63;i++) {
+      delay.record(1_000_000);
+    }
+    assertEquals(10_000_000, delay.getDelayNanos(Runnable::run));
+    delay.record(1_000_000);
+    final long delayNanos = delay.getDelayNanos(Runnable::run);
+    assertTrue(delayNanos >= 900_000 && delayNanos < 1_100_000);
+
+    // A larger min delay replaces the initial delay.
+    assertEquals(50_000_000, new HedgeDelay(95, 50_000_000).getDelayNanos());
+  }
+
+  @Test
+  public void testFollowsPercentile() {
+    final HedgeDelay delay = new HedgeDelay(90, 1);
+    for (int i = 0;i < 640;i++) {
+      delay.record(i % 10 == 0 ? 50_000_000 : 100_000);
+    }
+    final long delayNanos = delay.getDelayNanos(Runnable::run);
+    assertTrue(delayNanos >= 100_000 && delayNanos < 110_000);
+  }
+
+  @Test
+  public void testRecomputesOnTheExecutor() {
+    final HedgeDelay delay = new HedgeDelay(95, 1_000);
+    assertFalse(delay.isEnabled());
+
+    final List<Runnable> tasks = new ArrayList<>();
+    assertEquals(10_000_000, delay.getDelayNanos(tasks::add));
+    assertTrue(delay.isEnabled());
+    assertTrue(tasks.isEmpty());
+
+    for (int i = 0;i < 64;i++) {
+      delay.record(1_000_000);
+    }
+    assertEquals(10_000_000, delay.getDelayNanos(tasks::add));
+    // A single recomputation is handed off however many reads ask for it.
+    assertEquals(10_000_000, delay.getDelayNanos(tasks::add));
+    assertEquals(1, tasks.size());
+
+    tasks.get(0).run();
+    final long delayNanos = delay.getDelayNanos(tasks::add);
+    assertTrue(delayNanos >= 900_000 && delayNanos < 1_100_000);
+    assertEquals(1, tasks.size());
+  }
+}
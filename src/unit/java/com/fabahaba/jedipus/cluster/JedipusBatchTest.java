@@ -0,0 +1,193 @@
+package com.fabahaba.jedipus.cluster;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.fabahaba.jedipus.cmds.Cmds;
+import com.fabahaba.jedipus.concurrent.ElementRetryDelay;
+import com.fabahaba.jedipus.exceptions.MaxRedirectsExceededException;
+import com.fabahaba.jedipus.exceptions.RedisConnectionException;
+
+public class JedipusBatchTest {
+
+  private static final int MASTER_A = 7000;
+  private static final int MASTER_B = 7001;
+
+  private final FakeCluster cluster = new FakeCluster(MASTER_A, MASTER_B);
+
+  private List<String> createKeys(final int port, final int numKeys) {
+    final List<String> keys = new ArrayList<>(numKeys);
+    for (int i = 0;keys.size() < numKeys;i++) {
+      final String key = port + "-key-" + i;
+      if (cluster.getMaster(CRC16.getSlot(key)) == port) {
+        keys.add(key);
+        cluster.put(key, "value-" + key);
+      }
+    }
+    return keys;
+  }
+
+  private RedisClusterExecutor createExecutor(final int maxRetries) {
+    final RedisClusterExecutor rce = cluster.startBuilding(MASTER_A).withMaxRetries(maxRetries)
+        .withRefreshSlotCacheEvery(1)
+        .withHostPortRetryDelay(ElementRetryDelay.startBuilding().withBaseDelayMillis(1).create())
+        .create();
+    // Ignore the commands sent while discovering the slots.
+    cluster.clearReceived();
+    return rce;
+  }
+
+  private static List<String> get(final RedisClusterExecutor rce, final List<String> keys,
+      final ExecutorService executor) {
+    return rce.applyBatch(RedisClusterExecutor.ReadMode.MASTER, keys, String::getBytes,
+        (pipeline, key) -> pipeline.sendCmd(Cmds.GET, key), rce.getMaxRetries(), executor);
+  }
+
+  private static List<String> expectedValues(final List<String> keys) {
+    final List<String> values = new ArrayList<>(keys.size());
+    keys.forEach(key -> values.add("value-" + key));
+    return values;
+  }
+
+  private static long count(final List<String> received, final String cmd) {
+    return received.stream().filter(cmd::equals).count();
+  }
+
+  @Test(timeout = 10000)
+  public void testOnlyMovedElementsAreResent() {
+    final List<String> keys = createKeys(MASTER_A, 4);
+    keys.addAll(createKeys(MASTER_B, 4));
+
+    try (final RedisClusterExecutor rce = createExecutor(2)) {
+      final String moved = keys.get(1);
+      cluster.moveSlot(CRC16.getSlot(moved), MASTER_B);
+
+      assertEquals(expectedValues(keys), get(rce, keys, null));
+
+      final List<String> receivedA = cluster.getReceived(MASTER_A);
+      final List<String> receivedB = cluster.getReceived(MASTER_B);
+      for (final String key : keys) {
+        final long numSent = count(receivedA, "get " + key) + count(receivedB, "get " + key);
+        assertEquals(key, key.equals(moved) ? 2 : 1, numSent);
+      }
+      assertEquals(1, count(receivedB, "get " + moved));
+
+      // The moved slot is routed to its new node.
+      cluster.clearReceived();
+      assertEquals(expectedValues(keys), get(rce, keys, null));
+      assertEquals(0, count(cluster.getReceived(MASTER_A), "get " + moved));
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testAskedElementsAreReplayed() {
+    final List<String> keys = createKeys(MASTER_A, 4);
+    keys.addAll(createKeys(MASTER_B, 4));
+
+    try (final RedisClusterExecutor rce = createExecutor(2)) {
+      final String asked = keys.get(2);
+      cluster.migrate(asked, MASTER_B);
+
+      assertEquals(expectedValues(keys), get(rce, keys, null));
+
+      final List<String> receivedB = cluster.getReceived(MASTER_B);
+      final int askedIndex = receivedB.indexOf("get " + asked);
+      assertTrue(askedIndex > 0);
+      assertEquals("asking", receivedB.get(askedIndex - 1));
+      for (final String key : keys) {
+        if (!key.equals(asked)) {
+          assertEquals(key, 1, count(cluster.getReceived(MASTER_A), "get " + key)
+              + count(receivedB, "get " + key));
+        }
+      }
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testAskReplaysRetryConnectionFailures() {
+    final List<String> keys = createKeys(MASTER_A, 4);
+
+    try (final RedisClusterExecutor rce = createExecutor(2)) {
+      final String asked = keys.get(0);
+      cluster.migrate(asked, MASTER_B);
+      cluster.failConnects(MASTER_B, 1);
+
+      assertEquals(expectedValues(keys), get(rce, keys, null));
+      assertEquals(Arrays.asList("asking", "get " + asked), cluster.getReceived(MASTER_B));
+      for (final String key : keys) {
+        assertEquals(key, 1, count(cluster.getReceived(MASTER_A), "get " + key));
+      }
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testFailedGroupIsRegroupedAfterRefresh() {
+    final List<String> keys = createKeys(MASTER_A, 4);
+    final List<String> keysB = createKeys(MASTER_B, 4);
+    keys.addAll(keysB);
+
+    try (final RedisClusterExecutor rce = createExecutor(3)) {
+      // Fail over the slots of B to A without the client knowing.
+      cluster.setDown(MASTER_B, true);
+      cluster.moveSlots(MASTER_B, MASTER_A);
+
+      final ExecutorService executor = Executors.newFixedThreadPool(2);
+      try {
+        assertEquals(expectedValues(keys), get(rce, keys, executor));
+      } finally {
+        executor.shutdown();
+      }
+
+      // Every key was read once from A, only the slots of B were re-grouped.
+      for (final String key : keys) {
+        assertEquals(key, 1, count(cluster.getReceived(MASTER_A), "get " + key));
+      }
+      assertEquals(0, cluster.getReceived(MASTER_B).size());
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testRetriesAreBounded() {
+    final List<String> keys = createKeys(MASTER_B, 2);
+
+    try (final RedisClusterExecutor rce = createExecutor(1)) {
+      cluster.setDown(MASTER_B, true);
+      try {
+        get(rce, keys, null);
+        fail("Expected the batch to fail once retries were exhausted.");
+      } catch (final RedisConnectionException expected) {
+        assertEquals(FakeCluster.node(MASTER_B), expected.getNode());
+      }
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testRedirectsAreBounded() {
+    final List<String> keys = createKeys(MASTER_A, 2);
+
+    try (final RedisClusterExecutor rce = createExecutor(2)) {
+      // Both nodes keep redirecting the key to each other.
+      final String key = keys.get(0);
+      final int slot = CRC16.getSlot(key);
+      cluster.setHandler((port, args) -> args.size() > 1 && args.get(1).equals(key)
+          ? "-MOVED " + slot + " " + FakeCluster.HOST + ":" + (port == MASTER_A ? MASTER_B
+              : MASTER_A) + "\r\n"
+          : null);
+      try {
+        get(rce, Arrays.asList(key), null);
+        fail("Expected the batch to fail once redirects were exhausted.");
+      } catch (final MaxRedirectsExceededException expected) {
+        // expected
+      }
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package com.fabahaba.jedipus.cluster;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.fabahaba.jedipus.cmds.Cmds;
+import com.fabahaba.jedipus.concurrent.ElementRetryDelay;
+import com.fabahaba.jedipus.exceptions.RedisConnectionException;
+import com.fabahaba.jedipus.exceptions.RedisUnhandledException;
+import com.fabahaba.jedipus.lua.LuaScript;
+
+public class JedipusBroadcastTest {
+
+  private static final int MASTER_A = 7000;
+  private static final int MASTER_B = 7001;
+
+  private final FakeCluster cluster = new FakeCluster(MASTER_A, MASTER_B);
+
+  private RedisClusterExecutor createExecutor() {
+    final RedisClusterExecutor rce = cluster.startBuilding(MASTER_A).withMaxRetries(2)
+        .withHostPortRetryDelay(ElementRetryDelay.startBuilding().withBaseDelayMillis(1).create())
+        .create();
+    // Ignore the commands sent while discovering the slots.
+    cluster.clearReceived();
+    return rce;
+  }
+
+  @Test(timeout = 10000)
+  public void testUnwrittenNodesAreRetried() {
+    try (final RedisClusterExecutor rce = createExecutor()) {
+      cluster.failConnects(MASTER_B, 1);
+
+      final Map<Node, String> replies =
+          rce.broadcastPipelinedMasters(pipeline -> pipeline.sendCmd(Cmds.FLUSHALL));
+
+      assertEquals("OK", replies.get(FakeCluster.node(MASTER_A)));
+      assertEquals("OK", replies.get(FakeCluster.node(MASTER_B)));
+      assertEquals(Collections.singletonList("flushall"), cluster.getReceived(MASTER_A));
+      assertEquals(Collections.singletonList("flushall"), cluster.getReceived(MASTER_B));
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testWrittenNodesAreNotResent() {
+    try (final RedisClusterExecutor rce = createExecutor()) {
+      // B drops the connection after receiving the command.
+      cluster.setHandler((port, args) -> {
+        if (port == MASTER_B) {
+          cluster.setDown(MASTER_B, true);
+        }
+        return null;
+      });
+
+      try {
+        rce.broadcastPipelinedMasters(pipeline -> pipeline.sendCmd(Cmds.FLUSHALL));
+        fail("Expected the failure after writing to B to be thrown.");
+      } catch (final RedisConnectionException expected) {
+        // expected
+      }
+
+      assertEquals(Collections.singletonList("flushall"), cluster.getReceived(MASTER_A));
+      assertEquals(Collections.singletonList("flushall"), cluster.getReceived(MASTER_B));
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testErrorRepliesDoNotStopOtherNodesFromBeingRead() {
+    try (final RedisClusterExecutor rce = createExecutor()) {
+      cluster.setHandler((port, args) -> port == MASTER_A ? "-ERR failed\r\n" : null);
+
+      try {
+        rce.broadcastPipelinedMasters(pipeline -> pipeline.sendCmd(Cmds.FLUSHALL));
+        fail("Expected the error reply from A to be thrown.");
+      } catch (final RedisUnhandledException expected) {
+        assertEquals(FakeCluster.node(MASTER_A), expected.getNode());
+      }
+
+      // Both clients were returned in sync, so no new connections are needed.
+      cluster.setHandler((port, args) -> null);
+      cluster.failConnects(MASTER_A, Integer.MAX_VALUE);
+      cluster.failConnects(MASTER_B, Integer.MAX_VALUE);
+      final Map<Node, String> replies =
+          rce.broadcastPipelinedMasters(pipeline -> pipeline.sendCmd(Cmds.FLUSHALL));
+      assertEquals("OK", replies.get(FakeCluster.node(MASTER_A)));
+      assertEquals("OK", replies.get(FakeCluster.node(MASTER_B)));
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testOnlyMissingScriptsAreLoaded() {
+    final LuaScript loaded = LuaScript.create("return 1");
+    final LuaScript missingOnA = LuaScript.create("return 2");
+
+    try (final RedisClusterExecutor rce = createExecutor()) {
+      cluster.setHandler((port, args) -> {
+        if (!args.get(0).equals("script")) {
+          return null;
+        }
+        if (args.get(1).equals("exists")) {
+          return port == MASTER_A ? "*2\r\n:1\r\n:0\r\n" : "*2\r\n:1\r\n:1\r\n";
+        }
+        final String sha1 = LuaScript.sha1(args.get(2));
+        return "$" + sha1.length() + "\r\n" + sha1 + "\r\n";
+      });
+
+      LuaScript.loadMissingScripts(rce, loaded, missingOnA);
+
+      final String exists =
+          "script exists " + loaded.getSha1Hex() + " " + missingOnA.getSha1Hex();
+      assertEquals(Arrays.asList(exists, "script load return 2"), cluster.getReceived(MASTER_A)
+          .stream().filter(cmd -> cmd.startsWith("script")).collect(Collectors.toList()));
+      assertEquals(Collections.singletonList(exists), cluster.getReceived(MASTER_B));
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package com.fabahaba.jedipus.cluster;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.time.Duration;
+
+import com.fabahaba.jedipus.cluster.RedisClusterExecutor.ReadMode;
+import com.fabahaba.jedipus.cmds.Cmds;
+import com.fabahaba.jedipus.concurrent.ElementRetryDelay;
+import com.fabahaba.jedipus.exceptions.RedisCircuitOpenException;
+import com.fabahaba.jedipus.exceptions.RedisConnectionException;
+
+public class JedipusCircuitBreakerTest {
+
+  private static final int MASTER_A = 7000;
+  private static final int MASTER_B = 7001;
+  private static final int SLAVE_A = 7002;
+  private static final String KEY = "key";
+
+  private final ElementRetryDelay<Node> retryDelay = ElementRetryDelay.startBuilding()
+      .withFailuresToOpenCircuit(1).withDelayFunction(numFailures -> Duration.ofSeconds(10))
+      .create();
+
+  private void openCircuit(final int port) {
+    final Node node = FakeCluster.node(port);
+    try {
+      retryDelay.markFailure(node, 10, new RedisConnectionException(node, "down"), 0);
+      fail("Expected the circuit to open.");
+    } catch (final RedisConnectionException expected) {
+      // expected
+    }
+  }
+
+  private static String get(final RedisClusterExecutor rce, final ReadMode readMode) {
+    return rce.apply(readMode, CRC16.getSlot(KEY), client -> client.sendCmd(Cmds.GET, KEY),
+        rce.getMaxRetries());
+  }
+
+  @Test(timeout = 10000)
+  public void testLoadBalancedReadsSkipOpenCircuits() {
+    final FakeCluster cluster = new FakeCluster(MASTER_A).withReplicas(MASTER_A, SLAVE_A);
+    cluster.put(KEY, "value");
+
+    try (final RedisClusterExecutor rce = cluster.startBuilding(MASTER_A)
+        .withReadMode(ReadMode.MIXED).withHostPortRetryDelay(retryDelay).create()) {
+      openCircuit(SLAVE_A);
+      cluster.clearReceived();
+
+      for (int i = 0;i < 8;i++) {
+        assertEquals("value", get(rce, ReadMode.MIXED));
+      }
+      assertEquals(8, cluster.getReceived(MASTER_A).size());
+      assertEquals(0, cluster.getReceived(SLAVE_A).size());
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testOpenMasterCircuitRefreshesSlots() {
+    final FakeCluster cluster = new FakeCluster(MASTER_A, MASTER_B);
+    cluster.put(KEY, "value");
+
+    try (final RedisClusterExecutor rce = cluster.startBuilding(MASTER_A)
+        .withHostPortRetryDelay(retryDelay).withRefreshSlotCacheEvery(1).withMaxRetries(2)
+        .create()) {
+      final int master = cluster.getMaster(CRC16.getSlot(KEY));
+      final int failover = master == MASTER_A ? MASTER_B : MASTER_A;
+      openCircuit(master);
+      cluster.moveSlots(master, failover);
+
+      assertEquals("value", get(rce, ReadMode.MASTER));
+      assertEquals(1, cluster.getReceived(failover).stream().filter("get key"::equals).count());
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testOpenCircuitFailsFastOnceRetriesAreExhausted() {
+    final FakeCluster cluster = new FakeCluster(MASTER_A);
+
+    try (final RedisClusterExecutor rce = cluster.startBuilding(MASTER_A)
+        .withHostPortRetryDelay(retryDelay).withMaxRetries(2).create()) {
+      openCircuit(MASTER_A);
+      try {
+        get(rce, ReadMode.MASTER);
+        fail("Expected the open circuit to fail the request.");
+      } catch (final RedisCircuitOpenException expected) {
+        assertEquals(FakeCluster.node(MASTER_A), expected.getNode());
+      }
+      assertEquals(0, cluster.getReceived(MASTER_A).stream().filter("get key"::equals).count());
+    }
+  }
+}
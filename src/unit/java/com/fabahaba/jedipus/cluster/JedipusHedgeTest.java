@@ -0,0 +1,128 @@
+package com.fabahaba.jedipus.cluster;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.fabahaba.jedipus.cluster.RedisClusterExecutor.ReadMode;
+import com.fabahaba.jedipus.cmds.Cmds;
+import com.fabahaba.jedipus.exceptions.RedisUnhandledException;
+
+public class JedipusHedgeTest {
+
+  private static final int MASTER = 7000;
+  private static final int SLAVE_A = 7001;
+  private static final int SLAVE_B = 7002;
+  private static final String KEY = "key";
+
+  private final FakeCluster cluster =
+      new FakeCluster(MASTER).withReplicas(MASTER, SLAVE_A, SLAVE_B);
+  private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+  @After
+  public void after() {
+    executor.shutdownNow();
+  }
+
+  private RedisClusterExecutor createExecutor(final Duration minHedgeDelay) {
+    return createExecutor(ReadMode.SLAVES, minHedgeDelay);
+  }
+
+  private RedisClusterExecutor createExecutor(final ReadMode readMode,
+      final Duration minHedgeDelay) {
+    final RedisClusterExecutor rce = cluster.startBuilding(MASTER).withReadMode(readMode)
+        .withMinHedgeDelay(minHedgeDelay).create();
+    cluster.clearReceived();
+    return rce;
+  }
+
+  private String getHedged(final RedisClusterExecutor rce) {
+    return rce.applyHedged(ReadMode.SLAVES, KEY, client -> client.sendCmd(Cmds.GET, KEY),
+        executor);
+  }
+
+  private int numGets(final int port) {
+    return (int) cluster.getReceived(port).stream().filter(cmd -> cmd.startsWith("get")).count();
+  }
+
+  // The first GET is answered after the given delay, with a reply naming it slow.
+  private void delayFirstGet(final long delayMillis) {
+    final AtomicBoolean delayed = new AtomicBoolean();
+    cluster.setHandler((port, args) -> {
+      if (!args.get(0).equals("get") || !delayed.compareAndSet(false, true)) {
+        return null;
+      }
+      try {
+        Thread.sleep(delayMillis);
+      } catch (final InterruptedException ie) {
+        Thread.currentThread().interrupt();
+      }
+      return "$4\r\nslow\r\n";
+    });
+  }
+
+  @Test(timeout = 10000)
+  public void testFastReadsAreNotHedged() {
+    cluster.put(KEY, "value");
+    try (final RedisClusterExecutor rce = createExecutor(Duration.ofSeconds(5))) {
+      for (int i = 0;i < 4;i++) {
+        assertEquals("value", getHedged(rce));
+      }
+      assertEquals(4, numGets(SLAVE_A) + numGets(SLAVE_B));
+      assertEquals(0, numGets(MASTER));
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testSlowReadIsHedgedToAnotherReplica() {
+    cluster.put(KEY, "value");
+    try (final RedisClusterExecutor rce = createExecutor(Duration.ofMillis(10))) {
+      delayFirstGet(2000);
+
+      final long start = System.nanoTime();
+      assertEquals("value", getHedged(rce));
+      assertTrue(System.nanoTime() - start < Duration.ofMillis(1500).toNanos());
+      assertEquals(1, numGets(SLAVE_A));
+      assertEquals(1, numGets(SLAVE_B));
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testInterruptedHedgedReadFails() {
+    cluster.put(KEY, "value");
+    try (final RedisClusterExecutor rce = createExecutor(Duration.ofMillis(10))) {
+      delayFirstGet(200);
+
+      Thread.currentThread().interrupt();
+      try {
+        getHedged(rce);
+        fail("Expected the interrupted hedged read to fail.");
+      } catch (final RedisUnhandledException expected) {
+        assertTrue(expected.getCause() instanceof InterruptedException);
+        assertTrue(Thread.interrupted());
+      }
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testMasterReadsAreNotHedged() {
+    cluster.put(KEY, "value");
+    try (final RedisClusterExecutor rce =
+        createExecutor(ReadMode.MIXED, Duration.ofMillis(10))) {
+      delayFirstGet(100);
+
+      assertEquals("slow", rce.applyHedged(ReadMode.MASTER, KEY,
+          client -> client.sendCmd(Cmds.GET, KEY), executor));
+      assertEquals(1, numGets(MASTER));
+      assertEquals(0, numGets(SLAVE_A) + numGets(SLAVE_B));
+    }
+  }
+}
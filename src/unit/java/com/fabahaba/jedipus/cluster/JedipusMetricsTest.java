@@ -0,0 +1,207 @@
+package com.fabahaba.jedipus.cluster;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.fabahaba.jedipus.cmds.Cmds;
+import com.fabahaba.jedipus.concurrent.ElementRetryDelay;
+import com.fabahaba.jedipus.exceptions.RedisConnectionException;
+import com.fabahaba.jedipus.metrics.JedipusMetrics;
+
+public class JedipusMetricsTest {
+
+  private static final int MASTER_A = 7000;
+  private static final int MASTER_B = 7001;
+
+  private final FakeCluster cluster = new FakeCluster(MASTER_A, MASTER_B);
+  private final RecordingMetrics metrics = new RecordingMetrics();
+
+  private static final class RecordingMetrics implements JedipusMetrics {
+
+    private final List<String> events = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void onCommand(final Node node, final long durationNanos, final boolean success) {
+      assertTrue(durationNanos >= 0);
+      events.add("command " + node.getPort() + " " + success);
+    }
+
+    @Override
+    public void onReply(final Node node, final String cmd, final long durationNanos) {
+      assertTrue(durationNanos >= 0);
+      events.add("reply " + node.getPort() + " " + cmd.toLowerCase());
+    }
+
+    @Override
+    public void onBorrow(final Node node, final long waitNanos, final int numActive,
+        final int numIdle) {
+      assertTrue(waitNanos >= 0);
+      events.add("borrow " + node.getPort() + " " + numActive);
+    }
+
+    @Override
+    public void onReturn(final Node node, final int numActive, final int numIdle) {
+      events.add("return " + node.getPort() + " " + numActive);
+    }
+
+    @Override
+    public void onMoved(final Node node, final Node targetNode, final int slot) {
+      events.add("moved " + node.getPort() + " " + targetNode.getPort() + " " + slot);
+    }
+
+    @Override
+    public void onAsk(final Node node, final Node targetNode, final int slot) {
+      events.add("ask " + node.getPort() + " " + targetNode.getPort() + " " + slot);
+    }
+
+    @Override
+    public void onSlotCacheRefresh(final long durationNanos, final boolean success) {
+      assertTrue(durationNanos >= 0);
+      events.add("refresh " + success);
+    }
+
+    @Override
+    public void onNodeFailure(final Node node, final long numFailures) {
+      events.add("failure " + node.getPort() + " " + numFailures);
+    }
+  }
+
+  private RedisClusterExecutor createExecutor() {
+    final RedisClusterExecutor rce = cluster.startBuilding(MASTER_A, metrics).withMetrics(metrics)
+        .withMaxRetries(1).withHostPortRetryDelay(ElementRetryDelay.startBuilding()
+            .withBaseDelayMillis(1).withMetrics(metrics).create())
+        .create();
+    metrics.events.clear();
+    return rce;
+  }
+
+  private String createKey(final int port) {
+    for (int i = 0;;i++) {
+      final String key = port + "-key-" + i;
+      if (cluster.getMaster(CRC16.getSlot(key)) == port) {
+        cluster.put(key, "value");
+        return key;
+      }
+    }
+  }
+
+  private static String get(final RedisClusterExecutor rce, final String key) {
+    return rce.apply(key, client -> client.sendCmd(Cmds.GET, key));
+  }
+
+  @Test(timeout = 10000)
+  public void testCommandEvents() {
+    final String key = createKey(MASTER_A);
+    try (final RedisClusterExecutor rce = createExecutor()) {
+      assertEquals("value", get(rce, key));
+      assertTrue(metrics.events.toString(), metrics.events.contains("borrow 7000 1"));
+      assertTrue(metrics.events.toString(), metrics.events.contains("reply 7000 get"));
+      assertTrue(metrics.events.toString(), metrics.events.contains("command 7000 true"));
+      assertTrue(metrics.events.toString(), metrics.events.contains("return 7000 0"));
+
+      metrics.events.clear();
+      try {
+        rce.accept(key, client -> {
+          throw new IllegalStateException("Failed.");
+        });
+        fail("Expected the function's exception to be thrown.");
+      } catch (final IllegalStateException expected) {
+        // expected
+      }
+      assertTrue(metrics.events.toString(), metrics.events.contains("command 7000 false"));
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testRedirectEvents() throws InterruptedException {
+    final String moved = createKey(MASTER_A);
+    final String asked = createKey(MASTER_B);
+    final int movedSlot = CRC16.getSlot(moved);
+    final int askedSlot = CRC16.getSlot(asked);
+    try (final RedisClusterExecutor rce = createExecutor()) {
+      cluster.moveSlot(movedSlot, MASTER_B);
+      assertEquals("value", get(rce, moved));
+      assertTrue(metrics.events.toString(),
+          metrics.events.contains("moved 7000 7001 " + movedSlot));
+      // The slot is routed immediately and the slot cache is refreshed in the background.
+      while (!metrics.events.contains("refresh true")) {
+        Thread.sleep(1);
+      }
+
+      metrics.events.clear();
+      cluster.migrate(asked, MASTER_A);
+      assertEquals("value", get(rce, asked));
+      assertTrue(metrics.events.toString(),
+          metrics.events.contains("ask 7001 7000 " + askedSlot));
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testNodeFailureEvents() {
+    final String key = createKey(MASTER_B);
+    try (final RedisClusterExecutor rce = createExecutor()) {
+      cluster.setDown(MASTER_B, true);
+      try {
+        get(rce, key);
+        fail("Expected the read from a down node to fail.");
+      } catch (final RedisConnectionException expected) {
+        // expected
+      }
+      assertTrue(metrics.events.toString(), metrics.events.contains("failure 7001 1"));
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testBackgroundRefreshFailuresAreReported() throws InterruptedException {
+    final List<Throwable> uncaught = new CopyOnWriteArrayList<>();
+    final Thread.UncaughtExceptionHandler defaultHandler =
+        Thread.getDefaultUncaughtExceptionHandler();
+    Thread.setDefaultUncaughtExceptionHandler((thread, ex) -> uncaught.add(ex));
+    try {
+      final String key = createKey(MASTER_B);
+      final int slot = CRC16.getSlot(key);
+      try (final RedisClusterExecutor rce = cluster.startBuilding(MASTER_A, metrics)
+          .withMetrics(metrics).withDurationBetweenBackgroundRefresh(Duration.ofMillis(5))
+          .create()) {
+        cluster.setDown(MASTER_A, true);
+        cluster.setDown(MASTER_B, true);
+        metrics.events.clear();
+        while (!metrics.events.contains("refresh false")) {
+          Thread.sleep(1);
+        }
+
+        // Failed polls do not stop later ones from picking up a topology change.
+        cluster.setDown(MASTER_A, false);
+        cluster.setDown(MASTER_B, false);
+        cluster.moveSlot(slot, MASTER_A);
+        metrics.events.clear();
+        while (!metrics.events.contains("refresh true")) {
+          Thread.sleep(1);
+        }
+        cluster.clearReceived();
+        assertEquals("value", get(rce, key));
+        assertTrue(cluster.getReceived(MASTER_B).isEmpty());
+      }
+      assertTrue(uncaught.toString(), uncaught.isEmpty());
+    } finally {
+      Thread.setDefaultUncaughtExceptionHandler(defaultHandler);
+    }
+  }
+
+  @Test
+  public void testAndThenForwardsToBoth() {
+    final RecordingMetrics second = new RecordingMetrics();
+    final JedipusMetrics both = metrics.andThen(second);
+    both.onMoved(FakeCluster.node(MASTER_A), FakeCluster.node(MASTER_B), 42);
+    both.onNodeFailure(FakeCluster.node(MASTER_B), 3);
+    assertEquals(metrics.events, second.events);
+    assertEquals(2, second.events.size());
+  }
+}
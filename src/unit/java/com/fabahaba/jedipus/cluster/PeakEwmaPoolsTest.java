@@ -0,0 +1,133 @@
+package com.fabahaba.jedipus.cluster;
+
+import com.fabahaba.jedipus.cluster.PeakEwmaPools.MeasuredPool;
+import com.fabahaba.jedipus.cluster.RedisClusterExecutor.ReadMode;
+import com.fabahaba.jedipus.cmds.Cmds;
+import com.fabahaba.jedipus.pool.ClientPool;
+import com.fabahaba.jedipus.pool.DefaultPooledClient;
+import com.fabahaba.jedipus.pool.PooledClient;
+import com.fabahaba.jedipus.pool.PooledClientFactory;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+public class PeakEwmaPoolsTest {
+
+  private static final long DECAY_NANOS = Duration.ofSeconds(10).toNanos();
+
+  private static MeasuredPool<Object> createPool(final int port) {
+    final Node node = Node.create("localhost", port);
+    return new MeasuredPool<>(ClientPool.startBuilding().create(new PooledClientFactory<Object>() {
+
+      @Override
+      public Node getNode() {
+        return node;
+      }
+
+      @Override
+      public PooledClient<Object> createClient() {
+        return new DefaultPooledClient<>(node, new Object());
+      }
+
+      @Override
+      public void destroyClient(final PooledClient<Object> pooledClient) {}
+    }), DECAY_NANOS);
+  }
+
+  private static void use(final MeasuredPool<Object> pool, final long latencyNanos) {
+    final Object client = pool.borrowClient();
+    pool.observe(latencyNanos);
+    pool.returnClient(client);
+  }
+
+  @SafeVarargs
+  @SuppressWarnings("unchecked")
+  private static PeakEwmaPools<Object> createLb(final MeasuredPool<Object>... pools) {
+    return new PeakEwmaPools<>(pools, pool -> (MeasuredPool<Object>) pool);
+  }
+
+  @Test
+  public void testSlowPoolIsAvoided() {
+    final MeasuredPool<Object> slow = createPool(7001);
+    final MeasuredPool<Object> fast = createPool(7002);
+    final MeasuredPool<Object> other = createPool(7003);
+    use(slow, 20_000_000);
+    use(fast, 0);
+    use(other, 0);
+
+    final PeakEwmaPools<Object> lb = createLb(slow, fast, other);
+    int numSlow = 0;
+    for (int i = 0; i < 1_000; i++) {
+      if (lb.next(ReadMode.SLAVES) == slow) {
+        numSlow++;
+      }
+    }
+    // The slow pool can only win against itself, which never happens.
+    assertEquals(0, numSlow);
+  }
+
+  @Test
+  public void testOnlyCommandLatencyIsMeasured() {
+    final MeasuredPool<Object> pool = createPool(7001);
+    final Object client = pool.borrowClient();
+    LockSupport.parkNanos(20_000_000);
+    pool.returnClient(client);
+    assertEquals(0, pool.getCost(System.nanoTime()), 0);
+  }
+
+  @Test
+  public void testBorrowedClientsAddCost() {
+    final MeasuredPool<Object> busy = createPool(7001);
+    final MeasuredPool<Object> idle = createPool(7002);
+    busy.borrowClient();
+
+    final PeakEwmaPools<Object> lb = createLb(busy, idle);
+    assertSame(idle, lb.next(ReadMode.SLAVES));
+    assertTrue(busy.getCost(System.nanoTime()) > idle.getCost(System.nanoTime()));
+  }
+
+  @Test
+  public void testMixedIncludesDefaultPool() {
+    final MeasuredPool<Object> slave = createPool(7001);
+    final MeasuredPool<Object> master = createPool(7002);
+    use(slave, 20_000_000);
+    use(master, 0);
+
+    final PeakEwmaPools<Object> lb = createLb(slave);
+    assertSame(master, lb.next(ReadMode.MIXED, master));
+    assertSame(slave, lb.next(ReadMode.MIXED_SLAVES, master));
+    assertSame(master, lb.next(ReadMode.MASTER, master));
+  }
+
+  @Test(timeout = 10000)
+  public void testExecutorAvoidsSlowReplica() {
+    final FakeCluster cluster = new FakeCluster(7000).withReplicas(7000, 7001, 7002);
+    cluster.put("key", "value");
+    cluster.setHandler((port, args) -> {
+      if (port == 7001 && args.get(0).equals("get")) {
+        LockSupport.parkNanos(20_000_000);
+      }
+      return null;
+    });
+    try (final RedisClusterExecutor rce = cluster.startBuilding(7000)
+        .withReadMode(ReadMode.SLAVES).withLbFactory(LBPoolsFactory.peakEwma()).create()) {
+      cluster.clearReceived();
+      for (int i = 0; i < 10; i++) {
+        assertEquals("value", rce.apply(ReadMode.SLAVES, "key",
+            client -> client.sendCmd(Cmds.GET, "key")));
+      }
+    }
+    // Only an unmeasured slow replica can win, after one command it is measured.
+    final long numSlow =
+        cluster.getReceived(7001).stream().filter(cmd -> cmd.startsWith("get")).count();
+    assertTrue(numSlow <= 1);
+    assertEquals(10 - numSlow,
+        cluster.getReceived(7002).stream().filter(cmd -> cmd.startsWith("get")).count());
+  }
+}
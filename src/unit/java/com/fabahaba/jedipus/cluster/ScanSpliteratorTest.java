@@ -0,0 +1,165 @@
+package com.fabahaba.jedipus.cluster;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import com.fabahaba.jedipus.cluster.ScanSpliterator.ScanCursor;
+import com.fabahaba.jedipus.cmds.RESP;
+import com.fabahaba.jedipus.exceptions.RedisUnhandledException;
+
+public class ScanSpliteratorTest {
+
+  private static final Node NODE = Node.create("localhost", 7000);
+  private static final String SENTINEL = RESP.toString(ScanSpliterator.SCAN_SENTINEL);
+
+  private final Map<ScanCursor, AtomicInteger> numScans = new ConcurrentHashMap<>();
+
+  private static ScanCursor[] createCursors(final int numCursors) {
+    final ScanCursor[] cursors = new ScanCursor[numCursors];
+    for (int i = 0;i < numCursors;i++) {
+      cursors[i] = new ScanCursor(null, i, new byte[][] {ScanSpliterator.SCAN_SENTINEL}, 0);
+    }
+    return cursors;
+  }
+
+  // Each cursor returns numBatches single element batches before completing.
+  private Function<ScanCursor, Object[]> scanNext(final int numBatches) {
+    return cursor -> {
+      cursor.getArgs(NODE);
+      final int scan =
+          numScans.computeIfAbsent(cursor, c -> new AtomicInteger()).incrementAndGet();
+      final String nextCursor = scan == numBatches ? SENTINEL : "" + scan;
+      return cursor.onReply(new Object[] {RESP.toBytes(nextCursor),
+          new Object[] {RESP.toBytes(cursor.getSlot() + "-" + scan)}});
+    };
+  }
+
+  private static List<String> drain(final ScanSpliterator spliterator) {
+    final List<String> elements = new ArrayList<>();
+    while (spliterator.tryAdvance(batch -> elements.add(RESP.toString(batch[0])))) {
+      continue;
+    }
+    return elements;
+  }
+
+  @Test(timeout = 10000)
+  public void testSerialScan() {
+    final ScanSpliterator spliterator =
+        new ScanSpliterator(createCursors(2), scanNext(3), null, 0);
+    assertEquals("[0-1, 0-2, 0-3, 1-1, 1-2, 1-3]", drain(spliterator).toString());
+  }
+
+  @Test(timeout = 10000)
+  public void testAsyncScan() {
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try (final ScanSpliterator spliterator =
+        new ScanSpliterator(createCursors(3), scanNext(5), executor, 2)) {
+      final List<String> elements = drain(spliterator);
+      assertEquals(15, elements.size());
+      for (int slot = 0;slot < 3;slot++) {
+        for (int scan = 1;scan <= 5;scan++) {
+          assertTrue(elements.contains(slot + "-" + scan));
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testAbandonedScanReleasesExecutorThreads() throws InterruptedException {
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      final ScanSpliterator spliterator =
+          new ScanSpliterator(createCursors(2), scanNext(100), executor, 1);
+      assertTrue(spliterator.tryAdvance(batch -> {
+      }));
+      // Dropped without being closed.
+
+      final AtomicInteger ran = new AtomicInteger();
+      executor.execute(ran::incrementAndGet);
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+      assertEquals(1, ran.get());
+
+      // Only the consumed batch and one prefetched batch were fetched.
+      int total = 0;
+      for (final AtomicInteger scans : numScans.values()) {
+        total += scans.get();
+      }
+      assertEquals(2, total);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testInterruptedConsumerFails() {
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try (final ScanSpliterator spliterator = new ScanSpliterator(createCursors(1), cursor -> {
+      try {
+        Thread.sleep(10000);
+      } catch (final InterruptedException ie) {
+        Thread.currentThread().interrupt();
+      }
+      return new Object[0];
+    }, executor, 1)) {
+      Thread.currentThread().interrupt();
+      try {
+        spliterator.tryAdvance(batch -> {
+        });
+        fail("Expected the interrupted scan to fail.");
+      } catch (final RedisUnhandledException expected) {
+        assertTrue(expected.getCause() instanceof InterruptedException);
+        assertTrue(Thread.interrupted());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testInterruptedScanTaskFails() {
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    final Function<ScanCursor, Object[]> scanNext = scanNext(5);
+    try (final ScanSpliterator spliterator = new ScanSpliterator(createCursors(1), cursor -> {
+      Thread.currentThread().interrupt();
+      return scanNext.apply(cursor);
+    }, executor, 1)) {
+      try {
+        drain(spliterator);
+        fail("Expected the interrupted scan task to fail the stream.");
+      } catch (final RedisUnhandledException expected) {
+        // expected
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testKeyedScanRequiresKey() {
+    final FakeCluster cluster = new FakeCluster(7000);
+    try (final RedisClusterExecutor rce = cluster.startBuilding(7000).create()) {
+      try {
+        rce.sscan();
+        fail("Expected a keyed scan without a key to be rejected.");
+      } catch (final IllegalArgumentException expected) {
+        // expected
+      }
+    }
+  }
+}
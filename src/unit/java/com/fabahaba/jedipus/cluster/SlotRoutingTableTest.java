@@ -0,0 +1,254 @@
+package com.fabahaba.jedipus.cluster;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fabahaba.jedipus.client.RedisClient;
+import com.fabahaba.jedipus.client.SerializableFunction;
+import com.fabahaba.jedipus.cluster.RedisClusterExecutor.ReadMode;
+import com.fabahaba.jedipus.cluster.data.ClusterSlotVotes;
+import com.fabahaba.jedipus.cmds.Cmds;
+import com.fabahaba.jedipus.concurrent.LoadBalancedPools;
+import com.fabahaba.jedipus.pool.ClientPool;
+import com.fabahaba.jedipus.pool.PooledClient;
+import com.fabahaba.jedipus.pool.PooledClientFactory;
+
+public class SlotRoutingTableTest {
+
+  private static final Node MASTER_A = FakeCluster.node(7000);
+  private static final Node MASTER_B = FakeCluster.node(7001);
+  private static final Node MASTER_C = FakeCluster.node(7002);
+  private static final Node SLAVE_A = FakeCluster.node(7003);
+  private static final Node SLAVE_B = FakeCluster.node(7004);
+  private static final Node SLAVE_C = FakeCluster.node(7005);
+  private static final int HALF = CRC16.NUM_SLOTS / 2;
+
+  // Routing never borrows, so the pools are never asked for a client.
+  private static ClientPool<RedisClient> createPool(final Node node) {
+    return ClientPool.startBuilding().create(new PooledClientFactory<RedisClient>() {
+
+      @Override
+      public Node getNode() {
+        return node;
+      }
+
+      @Override
+      public PooledClient<RedisClient> createClient() {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void destroyClient(final PooledClient<RedisClient> pooledClient) {}
+    });
+  }
+
+  // Slots [0, HALF) are served by A and its slave, [HALF, NUM_SLOTS) by B.
+  @SuppressWarnings("unchecked")
+  private static SlotRoutingTable createTable() {
+    final Map<Node, ClientPool<RedisClient>> masterPools = new HashMap<>();
+    masterPools.put(MASTER_A, createPool(MASTER_A));
+    masterPools.put(MASTER_B, createPool(MASTER_B));
+    final ClientPool<RedisClient>[] masterSlots = new ClientPool[CRC16.NUM_SLOTS];
+    Arrays.fill(masterSlots, 0, HALF, masterPools.get(MASTER_A));
+    Arrays.fill(masterSlots, HALF, CRC16.NUM_SLOTS, masterPools.get(MASTER_B));
+
+    final Map<Node, ClientPool<RedisClient>> slavePools = new HashMap<>();
+    final ClientPool<RedisClient> slavePool = createPool(SLAVE_A);
+    slavePools.put(SLAVE_A, slavePool);
+    final LoadBalancedPools<RedisClient, ReadMode>[] slaveSlots =
+        new LoadBalancedPools[CRC16.NUM_SLOTS];
+    Arrays.fill(slaveSlots, 0, HALF, new RoundRobinPools<>(new ClientPool[] {slavePool}));
+
+    return new SlotRoutingTable(7, null, masterPools, masterSlots, slavePools, slaveSlots);
+  }
+
+  @Test
+  public void testMovedSlotIsCopiedOnWrite() {
+    final SlotRoutingTable table = createTable();
+    final ClientPool<RedisClient> poolA = table.getMasterPool(MASTER_A);
+    final ClientPool<RedisClient> poolB = table.getMasterPool(MASTER_B);
+
+    final SlotRoutingTable moved = table.withMovedSlot(42, MASTER_B, null);
+    assertEquals(8, moved.getEpoch());
+    assertNull(moved.getClusterSlots());
+    assertSame(poolB, moved.getLoadBalancedPool(ReadMode.MASTER, 42));
+    assertSame(poolA, moved.getLoadBalancedPool(ReadMode.MASTER, 41));
+    assertSame(poolA, moved.getLoadBalancedPool(ReadMode.MASTER, 43));
+    assertSame(table.getMasterPools(), moved.getMasterPools());
+
+    // The published table is never modified.
+    assertEquals(7, table.getEpoch());
+    assertSame(poolA, table.getLoadBalancedPool(ReadMode.MASTER, 42));
+  }
+
+  @Test
+  public void testMovedSlotToNewMasterAddsItsPool() {
+    final SlotRoutingTable table = createTable();
+    final ClientPool<RedisClient> poolC = createPool(MASTER_C);
+
+    final SlotRoutingTable moved = table.withMovedSlot(42, MASTER_C, poolC);
+    assertSame(poolC, moved.getMasterPool(MASTER_C));
+    assertSame(poolC, moved.getLoadBalancedPool(ReadMode.MASTER, 42));
+    assertEquals(3, moved.getMasterPools().size());
+    assertNull(table.getMasterPool(MASTER_C));
+    assertEquals(2, table.getMasterPools().size());
+  }
+
+  @Test
+  public void testReadModes() {
+    final SlotRoutingTable table = createTable();
+    final ClientPool<RedisClient> slavePool = table.getSlavePool(SLAVE_A);
+
+    assertSame(table.getMasterPool(MASTER_A), table.getLoadBalancedPool(ReadMode.MASTER, 0));
+    assertSame(slavePool, table.getLoadBalancedPool(ReadMode.SLAVES, 0));
+    assertSame(slavePool, table.getLoadBalancedPool(ReadMode.MIXED_SLAVES, 0));
+    // Slots without slaves fall back to their master.
+    assertSame(table.getMasterPool(MASTER_B), table.getLoadBalancedPool(ReadMode.SLAVES, HALF));
+    assertSame(table.getMasterPool(MASTER_B), table.getLoadBalancedPool(ReadMode.MIXED, HALF));
+    assertSame(slavePool, table.getPool(SLAVE_A));
+    assertEquals(3, table.getAllPools().size());
+  }
+
+  @Test
+  public void testShardPools() {
+    final SlotRoutingTable table = createTable().withMovedSlot(42, MASTER_B, null);
+    final List<ClientPool<RedisClient>> shardPools = table.getShardPools(ReadMode.MASTER);
+    assertEquals(Arrays.asList(table.getMasterPool(MASTER_A), table.getMasterPool(MASTER_B)),
+        shardPools);
+  }
+
+  private static Object[] slotRange(final int begin, final int endInclusive,
+      final Node... nodes) {
+    final Object[] range = new Object[nodes.length + 2];
+    range[0] = (long) begin;
+    range[1] = (long) endInclusive;
+    for (int i = 0;i < nodes.length;i++) {
+      range[i + 2] = new Object[] {nodes[i].getHost().getBytes(), (long) nodes[i].getPort()};
+    }
+    return range;
+  }
+
+  private static ClusterSlotVotes createSlots(final Node secondRangeSlave) {
+    return ClusterSlotVotes.create(new Object[] {
+        slotRange(HALF, CRC16.NUM_SLOTS - 1, MASTER_B, secondRangeSlave),
+        slotRange(0, HALF - 1, MASTER_A, SLAVE_A)});
+  }
+
+  private final Map<Node, AtomicInteger> numPoolsCreated = new ConcurrentHashMap<>();
+
+  private SlotRoutingTable createRoutingTable(final ClusterSlotVotes clusterSlots,
+      final SlotRoutingTable current) {
+    return RedisClusterSlotCache.createRoutingTable(clusterSlots, current, new HashMap<>(),
+        new HashMap<>(), ReadMode.MIXED, node -> node, this::countPool, this::countPool,
+        RoundRobinPools::new);
+  }
+
+  private ClientPool<RedisClient> countPool(final Node node) {
+    numPoolsCreated.computeIfAbsent(node, n -> new AtomicInteger()).incrementAndGet();
+    return createPool(node);
+  }
+
+  @Test
+  public void testIsSameTopology() {
+    assertTrue(RedisClusterSlotCache.isSameTopology(createSlots(SLAVE_B), createSlots(SLAVE_B)));
+    assertFalse(RedisClusterSlotCache.isSameTopology(createSlots(SLAVE_B), createSlots(SLAVE_C)));
+    assertFalse(RedisClusterSlotCache.isSameTopology(createSlots(SLAVE_B), null));
+    assertFalse(RedisClusterSlotCache.isSameTopology(null, createSlots(SLAVE_B)));
+
+    // Same masters, but the first range is split.
+    final ClusterSlotVotes split = ClusterSlotVotes.create(new Object[] {
+        slotRange(0, 99, MASTER_A, SLAVE_A), slotRange(100, HALF - 1, MASTER_A, SLAVE_A),
+        slotRange(HALF, CRC16.NUM_SLOTS - 1, MASTER_B, SLAVE_B)});
+    assertFalse(RedisClusterSlotCache.isSameTopology(createSlots(SLAVE_B), split));
+  }
+
+  @Test
+  public void testOnlyChangedRangesAreRerouted() {
+    final ClusterSlotVotes slots = createSlots(SLAVE_B);
+    final SlotRoutingTable table =
+        createRoutingTable(slots, SlotRoutingTable.createEmpty(0, ReadMode.MIXED));
+    assertEquals(1, table.getEpoch());
+    assertSame(slots, table.getClusterSlots());
+    assertSame(table.getMasterPool(MASTER_A), table.getLoadBalancedPool(ReadMode.MASTER, 0));
+    assertSame(table.getSlavePool(SLAVE_B), table.getLoadBalancedPool(ReadMode.SLAVES, HALF));
+
+    final ClusterSlotVotes changed = createSlots(SLAVE_C);
+    final SlotRoutingTable next = createRoutingTable(changed, table);
+    assertEquals(2, next.getEpoch());
+    assertSame(changed, next.getClusterSlots());
+
+    // Unchanged ranges keep their load balancers, every existing pool is reused.
+    assertSame(table.copySlaveSlots()[0], next.copySlaveSlots()[0]);
+    assertNotSame(table.copySlaveSlots()[HALF], next.copySlaveSlots()[HALF]);
+    assertSame(next.getSlavePool(SLAVE_C), next.getLoadBalancedPool(ReadMode.SLAVES, HALF));
+    assertNull(next.getSlavePool(SLAVE_B));
+    assertEquals(table.getMasterPools(), next.getMasterPools());
+    assertSame(table.getSlavePool(SLAVE_A), next.getSlavePool(SLAVE_A));
+    for (final AtomicInteger numCreated : numPoolsCreated.values()) {
+      assertEquals(1, numCreated.get());
+    }
+  }
+
+  @Test
+  public void testTableWithoutTopologyIsRebuilt() {
+    final ClusterSlotVotes slots = createSlots(SLAVE_B);
+    final SlotRoutingTable table =
+        createRoutingTable(slots, SlotRoutingTable.createEmpty(0, ReadMode.MIXED));
+    final SlotRoutingTable moved = table.withMovedSlot(42, MASTER_B, null);
+
+    final SlotRoutingTable next = createRoutingTable(slots, moved);
+    assertSame(slots, next.getClusterSlots());
+    assertSame(next.getMasterPool(MASTER_A), next.getLoadBalancedPool(ReadMode.MASTER, 42));
+    assertNotSame(table.copySlaveSlots()[0], next.copySlaveSlots()[0]);
+    assertEquals(table.getAllPools(), next.getAllPools());
+  }
+
+  @Test(timeout = 10000)
+  public void testStalePoolsAreClosedAfterSwap() {
+    final FakeCluster cluster = new FakeCluster(7000, 7001);
+    final Map<Node, ClientPool<RedisClient>> created = new ConcurrentHashMap<>();
+    final ClusterExecutorBuilder builder = cluster.startBuilding(7000);
+    final SerializableFunction<Node, ClientPool<RedisClient>> poolFactory =
+        builder.getMasterPoolFactory();
+    builder.withMasterPoolFactory(node -> {
+      final ClientPool<RedisClient> pool = poolFactory.apply(node);
+      created.put(node, pool);
+      return pool;
+    });
+
+    String key = null;
+    for (int i = 0;key == null;i++) {
+      if (cluster.getMaster(CRC16.getSlot("key-" + i)) == 7001) {
+        key = "key-" + i;
+      }
+    }
+    cluster.put(key, "value");
+    final String slotKey = key;
+
+    try (final RedisClusterExecutor rce = builder.create()) {
+      assertEquals("value", rce.apply(slotKey, client -> client.sendCmd(Cmds.GET, slotKey)));
+      final ClientPool<RedisClient> poolA = created.get(MASTER_A);
+      final ClientPool<RedisClient> poolB = created.get(MASTER_B);
+
+      cluster.moveSlots(7001, 7000);
+      rce.refreshSlotCache();
+      assertTrue(poolB.isClosed());
+      assertFalse(poolA.isClosed());
+      assertEquals("value", rce.apply(slotKey, client -> client.sendCmd(Cmds.GET, slotKey)));
+      assertSame(poolA, created.get(MASTER_A));
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package com.fabahaba.jedipus.cluster;
+
+import com.fabahaba.jedipus.client.NodeMapper;
+import com.fabahaba.jedipus.client.RedisClient;
+import com.fabahaba.jedipus.cluster.RedisClusterExecutor.ReadMode;
+import com.fabahaba.jedipus.concurrent.ElementRetryDelay;
+import com.fabahaba.jedipus.concurrent.LoadBalancedPools;
+import com.fabahaba.jedipus.exceptions.RedisConnectionException;
+import com.fabahaba.jedipus.pool.ClientPool;
+import com.fabahaba.jedipus.pool.PooledClient;
+import com.fabahaba.jedipus.pool.PooledClientFactory;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+public class ZoneAwarePoolsTest {
+
+  private static final NodeMapper ZONE_MAPPER = Node.DEFAULT_NODE_MAPPER
+      .withZones(NodeMapper.zoneFromHost(Pattern.compile("\\.(\\w+-\\w+-\\d\\w)\\.")));
+
+  private static ClientPool<RedisClient> createPool(final String host) {
+    final Node node = ZONE_MAPPER.apply(Node.create(host, 6379));
+    return ClientPool.startBuilding().create(new PooledClientFactory<RedisClient>() {
+
+      @Override
+      public Node getNode() {
+        return node;
+      }
+
+      @Override
+      public PooledClient<RedisClient> createClient() {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void destroyClient(final PooledClient<RedisClient> pooledClient) {}
+    });
+  }
+
+  @Test
+  public void testZoneFromHost() {
+    assertEquals("us-east-1a", createPool("redis-0.us-east-1a.internal").getNode().getZone());
+    assertNull(createPool("localhost").getNode().getZone());
+    assertEquals(Node.create("localhost", 6379), Node.create("localhost", 6379).withZone("a"));
+  }
+
+  @Test
+  public void testPrefersLocalZone() {
+    final ClientPool<RedisClient> localA = createPool("redis-1.us-east-1a.internal");
+    final ClientPool<RedisClient> localB = createPool("redis-2.us-east-1a.internal");
+    final ClientPool<RedisClient> remote = createPool("redis-3.us-east-1b.internal");
+    final ClientPool<RedisClient> master = createPool("redis-0.us-east-1b.internal");
+
+    @SuppressWarnings("unchecked")
+    final LoadBalancedPools<RedisClient, ReadMode> lb = LBPoolsFactory.zoneAware("us-east-1a")
+        .apply(ReadMode.MIXED, new ClientPool[] {localA, remote, localB});
+
+    final Set<ClientPool<RedisClient>> used = new HashSet<>();
+    for (int i = 0;i < 10;i++) {
+      used.add(lb.next(ReadMode.MIXED, master));
+      used.add(lb.next(ReadMode.SLAVES));
+    }
+    assertEquals(2, used.size());
+    assertTrue(used.contains(localA) && used.contains(localB));
+
+    localA.close();
+    localB.close();
+    assertSame(remote, lb.next(ReadMode.MIXED_SLAVES, master));
+    remote.close();
+    assertNull(lb.next(ReadMode.MIXED_SLAVES, master));
+  }
+
+  @Test
+  public void testUnhealthyLocalFallsBack() {
+    final ClientPool<RedisClient> local = createPool("redis-1.us-east-1a.internal");
+    final ClientPool<RedisClient> remote = createPool("redis-2.us-east-1b.internal");
+    final ElementRetryDelay<Node> retryDelay =
+        ElementRetryDelay.startBuilding().withFailuresToOpenCircuit(1).create();
+
+    @SuppressWarnings("unchecked")
+    final LoadBalancedPools<RedisClient, ReadMode> lb = LBPoolsFactory.zoneAware("us-east-1a")
+        .apply(ReadMode.SLAVES, new ClientPool[] {local, remote}, retryDelay);
+    assertSame(local, lb.next(ReadMode.SLAVES));
+
+    try {
+      retryDelay.markFailure(local.getNode(), 10,
+          new RedisConnectionException(local.getNode(), "down"), 0);
+    } catch (final RedisConnectionException e) {
+      // Opened the circuit.
+    }
+    for (int i = 0;i < 4;i++) {
+      assertSame(remote, lb.next(ReadMode.SLAVES));
+    }
+  }
+}
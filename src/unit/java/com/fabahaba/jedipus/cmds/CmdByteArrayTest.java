@@ -0,0 +1,25 @@
+package com.fabahaba.jedipus.cmds;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+
+public class CmdByteArrayTest {
+
+  private static final String EXPECTED = "*7\r\n$4\r\nzadd\r\n$3\r\nkey\r\n$2\r\n42\r\n"
+      + "$20\r\n-9223372036854775808\r\n$1\r\n3\r\n$4\r\n-0.5\r\n$6\r\nmember\r\n";
+
+  private static String build(final CmdByteArray.Builder<?> builder) {
+    return new String(builder.addArg("key").addArg(42).addArg(Long.MIN_VALUE).addArg(3.0)
+        .addArg(-0.5).addArg("member").create().getCmdArgs(), StandardCharsets.US_ASCII);
+  }
+
+  @Test
+  public void testNumericArgs() {
+    final Cmd<Object> zadd = Cmd.createCast("zadd");
+    assertEquals(EXPECTED, build(CmdByteArray.startBuilding(zadd)));
+    assertEquals(EXPECTED, build(CmdByteArray.startBuilding(zadd, 7)));
+  }
+}
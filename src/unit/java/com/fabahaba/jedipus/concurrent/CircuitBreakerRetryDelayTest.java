@@ -0,0 +1,126 @@
+package com.fabahaba.jedipus.concurrent;
+
+import com.fabahaba.jedipus.cluster.Node;
+import com.fabahaba.jedipus.exceptions.RedisConnectionException;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.Duration;
+
+public class CircuitBreakerRetryDelayTest {
+
+  private final Node node = Node.create("localhost", 6379);
+  private final RedisConnectionException cause = new RedisConnectionException(node, "down");
+
+  private static ElementRetryDelay<Node> createDelay() {
+    return ElementRetryDelay.startBuilding().withFailuresToOpenCircuit(2)
+        .withDelayFunction(numFailures -> Duration.ofMillis(50)).create();
+  }
+
+  private void assertFailureThrows(final ElementRetryDelay<Node> delay) {
+    try {
+      delay.markFailure(node, 10, cause, 0);
+      fail("Expected the failure to open the circuit.");
+    } catch (final RedisConnectionException e) {
+      assertSame(cause, e);
+    }
+  }
+
+  @Test
+  public void testOpensAfterConsecutiveFailures() {
+    final ElementRetryDelay<Node> delay = createDelay();
+
+    final long start = System.currentTimeMillis();
+    assertEquals(1, delay.markFailure(node, 10, cause, 0));
+    assertTrue(delay.tryAttempt(node));
+    assertEquals(0, delay.getNextAttemptMillis(node));
+
+    assertFailureThrows(delay);
+    assertFalse(delay.tryAttempt(node));
+    assertTrue(delay.getNextAttemptMillis(node) >= start + 50);
+    assertEquals(2, delay.getNumFailures(node));
+  }
+
+  @Test
+  public void testBacksOffBeforeOpeningWithoutSleeping() throws InterruptedException {
+    final ElementRetryDelay<Node> delay = ElementRetryDelay.startBuilding()
+        .withFailuresToOpenCircuit(3).withDelayFunction(numFailures -> Duration.ofSeconds(10))
+        .create();
+
+    final long start = System.currentTimeMillis();
+    assertEquals(1, delay.markFailure(node, 10, cause, 0));
+    assertTrue(delay.tryAttempt(node));
+
+    assertEquals(2, delay.markFailure(node, 10, cause, 1));
+    assertTrue(System.currentTimeMillis() - start < 10_000);
+    // Early retries are rejected rather than delayed.
+    assertFalse(delay.tryAttempt(node));
+    assertTrue(delay.getNextAttemptMillis(node) >= start + 10_000);
+
+    assertFailureThrows(delay);
+    assertFalse(delay.tryAttempt(node));
+  }
+
+  @Test
+  public void testRetriesAfterBackOff() throws InterruptedException {
+    final ElementRetryDelay<Node> delay = ElementRetryDelay.startBuilding()
+        .withFailuresToOpenCircuit(3).withDelayFunction(numFailures -> Duration.ofMillis(50))
+        .create();
+
+    delay.markFailure(node, 10, cause, 0);
+    delay.markFailure(node, 10, cause, 1);
+    assertFalse(delay.tryAttempt(node));
+
+    Thread.sleep(60);
+    // Still closed, so every request is permitted rather than a single trial.
+    assertTrue(delay.tryAttempt(node));
+    assertTrue(delay.tryAttempt(node));
+    delay.markSuccess(node);
+    assertEquals(0, delay.getNextAttemptMillis(node));
+  }
+
+  @Test
+  public void testHalfOpenAllowsOneTrial() throws InterruptedException {
+    final ElementRetryDelay<Node> delay = createDelay();
+    delay.markFailure(node, 10, cause, 0);
+    assertFailureThrows(delay);
+
+    Thread.sleep(60);
+    assertTrue(delay.tryAttempt(node));
+    assertFalse(delay.tryAttempt(node));
+
+    // A failed trial re-opens the circuit.
+    assertFailureThrows(delay);
+    assertFalse(delay.tryAttempt(node));
+
+    Thread.sleep(60);
+    assertTrue(delay.tryAttempt(node));
+    delay.markSuccess(node);
+    assertTrue(delay.tryAttempt(node));
+    assertTrue(delay.tryAttempt(node));
+    assertEquals(0, delay.getNumFailures(node));
+  }
+
+  @Test
+  public void testMaxRetries() {
+    final ElementRetryDelay<Node> delay = ElementRetryDelay.startBuilding()
+        .withFailuresToOpenCircuit(100).withDelayFunction(numFailures -> Duration.ZERO).create();
+    assertEquals(1, delay.markFailure(node, 2, cause, 0));
+    assertEquals(2, delay.markFailure(node, 2, cause, 1));
+    try {
+      delay.markFailure(node, 2, cause, 2);
+      fail("Expected max retries to be exceeded.");
+    } catch (final RedisConnectionException e) {
+      assertSame(cause, e);
+    }
+    // Still closed, a half open circuit would only permit a single trial.
+    assertTrue(delay.tryAttempt(node));
+    assertTrue(delay.tryAttempt(node));
+  }
+}
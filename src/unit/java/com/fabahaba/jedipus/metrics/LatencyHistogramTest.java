@@ -0,0 +1,48 @@
+package com.fabahaba.jedipus.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void testBucketBounds() {
+    for (long value = 0; value < 1 << 20; value++) {
+      final int index = LatencyHistogram.bucketIndex(value);
+      assertTrue(value <= LatencyHistogram.bucketUpperBound(index));
+      assertTrue(index == 0 || value > LatencyHistogram.bucketUpperBound(index - 1));
+    }
+    assertEquals(LatencyHistogram.NUM_BUCKETS - 1,
+        LatencyHistogram.bucketIndex(LatencyHistogram.MAX_TRACKABLE_NANOS));
+  }
+
+  @Test
+  public void testPercentiles() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    for (long micros = 1; micros <= 1000; micros++) {
+      histogram.record(micros * 1000);
+    }
+    histogram.record(-1);
+
+    final LatencySnapshot snapshot = histogram.snapshot();
+    assertEquals(1001, snapshot.getCount());
+    assertEquals(0, snapshot.getMinNanos());
+    assertEquals(1000000, snapshot.getMaxNanos());
+    assertEquals(1000000, snapshot.getValueAtPercentile(100));
+
+    final double maxError = 1.0 / LatencyHistogram.SUB_BUCKET_COUNT;
+    final long p50 = snapshot.getValueAtPercentile(50);
+    assertTrue(p50 >= 500000 && p50 <= 500000 * (1 + maxError));
+    final long p99 = snapshot.getValueAtPercentile(99);
+    assertTrue(p99 >= 990000 && p99 <= 990000 * (1 + maxError));
+
+    histogram.record(2000000);
+    assertEquals(1, histogram.snapshot().minus(snapshot).getCount());
+
+    histogram.reset();
+    assertEquals(0, histogram.snapshot().getCount());
+    assertEquals(0, histogram.snapshot().getValueAtPercentile(99));
+  }
+}
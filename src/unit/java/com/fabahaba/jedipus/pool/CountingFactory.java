@@ -0,0 +1,31 @@
+package com.fabahaba.jedipus.pool;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fabahaba.jedipus.cluster.Node;
+
+/**
+ * Creates plain objects as clients and counts the clients created and destroyed.
+ */
+class CountingFactory implements PooledClientFactory<Object> {
+
+  private final Node node = Node.create("localhost", 6379);
+  final AtomicInteger created = new AtomicInteger();
+  final AtomicInteger destroyed = new AtomicInteger();
+
+  @Override
+  public Node getNode() {
+    return node;
+  }
+
+  @Override
+  public PooledClient<Object> createClient() {
+    created.incrementAndGet();
+    return new DefaultPooledClient<>(node, new Object());
+  }
+
+  @Override
+  public void destroyClient(final PooledClient<Object> pooledClient) {
+    destroyed.incrementAndGet();
+  }
+}
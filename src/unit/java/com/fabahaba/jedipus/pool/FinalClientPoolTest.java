@@ -0,0 +1,96 @@
+package com.fabahaba.jedipus.pool;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class FinalClientPoolTest {
+
+  private static final class ThreadRecordingFactory extends CountingFactory {
+
+    private final Set<String> threadNames = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public PooledClient<Object> createClient() {
+      threadNames.add(Thread.currentThread().getName());
+      return super.createClient();
+    }
+  }
+
+  @Test(timeout = 10_000)
+  public void testWarmUpCreatesMinIdleClients()
+      throws InterruptedException, ExecutionException, TimeoutException {
+    final CountingFactory factory = new CountingFactory();
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try (final ClientPool<Object> pool = ClientPool.startBuilding().withMaxTotal(4).withMaxIdle(4)
+        .withMinIdle(3).create(factory)) {
+      assertEquals(0, pool.getNumIdle());
+
+      pool.warmUp(executor).get(5, TimeUnit.SECONDS);
+      assertEquals(3, pool.getNumIdle());
+      assertEquals(3, factory.created.get());
+
+      // Already warm.
+      pool.warmUp(executor).get(5, TimeUnit.SECONDS);
+      assertEquals(3, factory.created.get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test(timeout = 10_000)
+  public void testWarmUpIsBoundedByMaxTotal()
+      throws InterruptedException, ExecutionException, TimeoutException {
+    final CountingFactory factory = new CountingFactory();
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try (final ClientPool<Object> pool = ClientPool.startBuilding().withMaxTotal(2).withMaxIdle(2)
+        .withMinIdle(5).create(factory)) {
+      final Object client = pool.borrowClient();
+
+      pool.warmUp(executor).get(5, TimeUnit.SECONDS);
+      assertEquals(1, pool.getNumIdle());
+      assertEquals(2, factory.created.get());
+      pool.returnClient(client);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test(timeout = 10_000)
+  public void testBuilderWarmsUpOnDedicatedThreads() {
+    final ThreadRecordingFactory factory = new ThreadRecordingFactory();
+    try (final ClientPool<Object> pool = ClientPool.startBuilding().withMaxTotal(4).withMaxIdle(4)
+        .withMinIdle(2).withWarmUpTimeout(Duration.ofSeconds(5)).create(factory)) {
+      assertEquals(2, pool.getNumIdle());
+      assertEquals(1, factory.threadNames.size());
+      assertTrue(factory.threadNames.contains("jedipus-pool-warm-up"));
+    }
+  }
+
+  @Test(timeout = 10_000)
+  public void testBuilderWarmsUpOnGivenExecutor() {
+    final ThreadRecordingFactory factory = new ThreadRecordingFactory();
+    final ExecutorService executor =
+        Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "given-warm-up"));
+    try (final ClientPool<Object> pool =
+        ClientPool.startBuilding().withMaxTotal(4).withMaxIdle(4).withMinIdle(2)
+            .withWarmUpTimeout(Duration.ofSeconds(5)).withWarmUpExecutor(executor)
+            .create(factory)) {
+      assertEquals(2, pool.getNumIdle());
+      assertEquals(1, factory.threadNames.size());
+      assertTrue(factory.threadNames.contains("given-warm-up"));
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,167 @@
+package com.fabahaba.jedipus.pool;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.fabahaba.jedipus.client.AsyncRedisClient;
+import com.fabahaba.jedipus.client.RedisClient;
+import com.fabahaba.jedipus.cluster.Node;
+import com.fabahaba.jedipus.cmds.ClientCmds;
+import com.fabahaba.jedipus.cmds.Cmd;
+import com.fabahaba.jedipus.cmds.Cmds;
+import com.fabahaba.jedipus.cmds.MultiCmds;
+
+public class MultiplexedRedisClientTest {
+
+  private static final Node NODE = Node.create("localhost", 6379);
+
+  private final List<String> asyncCmds = new CopyOnWriteArrayList<>();
+  private final List<String> dedicatedCmds = new CopyOnWriteArrayList<>();
+
+  private static Object defaultValue(final Class<?> type) {
+    if (type == boolean.class) {
+      return false;
+    }
+    if (type == int.class) {
+      return 0;
+    }
+    if (type == long.class) {
+      return 0L;
+    }
+    return null;
+  }
+
+  private static String describe(final Object[] args) {
+    final StringBuilder cmds = new StringBuilder();
+    for (final Object arg : args) {
+      if (arg instanceof Cmd) {
+        cmds.append(cmds.length() == 0 ? "" : " ").append(((Cmd<?>) arg).name());
+      }
+    }
+    return cmds.toString();
+  }
+
+  private AsyncRedisClient createAsyncClient(final Node node) {
+    return (AsyncRedisClient) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] {AsyncRedisClient.class}, (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "getNode":
+              return node;
+            case "sendCmdAsync":
+            case "sendDirectAsync":
+              asyncCmds.add(describe(args));
+              return CompletableFuture.completedFuture("async");
+            default:
+              return defaultValue(method.getReturnType());
+          }
+        });
+  }
+
+  private final PooledClientFactory<RedisClient> dedicatedFactory =
+      new PooledClientFactory<RedisClient>() {
+
+        @Override
+        public Node getNode() {
+          return NODE;
+        }
+
+        @Override
+        public PooledClient<RedisClient> createClient() {
+          final RedisClient client = (RedisClient) Proxy.newProxyInstance(
+              getClass().getClassLoader(), new Class<?>[] {RedisClient.class},
+              (proxy, method, args) -> {
+                switch (method.getName()) {
+                  case "getNode":
+                    return NODE;
+                  case "sendCmd":
+                  case "sendBlockingCmd":
+                  case "sendDirect":
+                    dedicatedCmds.add(describe(args));
+                    return "dedicated";
+                  case "hashCode":
+                    return System.identityHashCode(proxy);
+                  case "equals":
+                    return proxy == args[0];
+                  default:
+                    return defaultValue(method.getReturnType());
+                }
+              });
+          return new DefaultPooledClient<>(NODE, client);
+        }
+
+        @Override
+        public void destroyClient(final PooledClient<RedisClient> pooledClient) {}
+      };
+
+  private ClientPool<RedisClient> createPool() {
+    return ClientPool.startBuilding().createMultiplexed(this::createAsyncClient,
+        dedicatedFactory);
+  }
+
+  @Test
+  public void testStatelessCmdsAreMultiplexed() {
+    try (final ClientPool<RedisClient> pool = createPool()) {
+      final RedisClient client = pool.borrowClient();
+      assertEquals("async", client.sendCmd(Cmds.GET, "key"));
+      assertEquals("async", client.sendCmd(Cmds.SET, "key", "value"));
+      assertEquals("async", client.sendCmd(Cmds.CLUSTER, Cmds.CLUSTER_SLOTS));
+      pool.returnClient(client);
+      assertEquals(3, asyncCmds.size());
+      assertEquals(0, dedicatedCmds.size());
+      assertEquals(0, pool.getNumIdle());
+    }
+  }
+
+  @Test
+  public void testStatefulCmdsUseDedicatedClient() {
+    try (final ClientPool<RedisClient> pool = createPool()) {
+      RedisClient client = pool.borrowClient();
+      assertEquals("dedicated", client.sendCmd(Cmds.SELECT, "1"));
+      // Later commands of the same borrow see the selected database.
+      assertEquals("dedicated", client.sendCmd(Cmds.GET, "key"));
+      pool.returnClient(client);
+      assertEquals(1, pool.getNumIdle());
+
+      client = pool.borrowClient();
+      assertEquals("dedicated", client.sendCmd(MultiCmds.MULTI));
+      pool.returnClient(client);
+
+      client = pool.borrowClient();
+      assertEquals("dedicated",
+          client.sendCmd(ClientCmds.CLIENT, ClientCmds.CLIENT_REPLY, "OFF"));
+      pool.returnClient(client);
+
+      client = pool.borrowClient();
+      assertEquals("dedicated", client.sendBlockingCmd(0, Cmds.BLPOP, "key", "0"));
+      pool.returnClient(client);
+
+      client = pool.borrowClient();
+      assertEquals("dedicated", client.sendCmd(Cmds.SUBSCRIBE, "channel"));
+      pool.returnClient(client);
+
+      client = pool.borrowClient();
+      assertEquals("dedicated", client.sendCmd(Cmds.READONLY));
+      pool.returnClient(client);
+
+      // Unknown commands, such as module commands, are not multiplexed.
+      client = pool.borrowClient();
+      assertEquals("dedicated", client.sendCmd(Cmd.create("MODULE.CMD"), "key"));
+      pool.returnClient(client);
+
+      assertEquals(0, asyncCmds.size());
+      assertEquals("[select, get, multi, client reply, blpop, subscribe, readonly, module.cmd]",
+          dedicatedCmds.toString());
+
+      // Returned clients go back to multiplexing.
+      client = pool.borrowClient();
+      assertEquals("async", client.sendCmd(Cmds.GET, "key"));
+      pool.returnClient(client);
+    }
+  }
+}
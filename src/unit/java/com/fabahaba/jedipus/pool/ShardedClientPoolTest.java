@@ -0,0 +1,157 @@
+package com.fabahaba.jedipus.pool;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ShardedClientPoolTest {
+
+  private static Object borrowOnOtherThread(final ClientPool<Object> pool)
+      throws InterruptedException {
+    final AtomicReference<Object> client = new AtomicReference<>();
+    final Thread thread = new Thread(() -> client.set(pool.borrowIfCapacity()));
+    thread.start();
+    thread.join();
+    return client.get();
+  }
+
+  @Test
+  public void testLimitsAreSplitAcrossShards() throws InterruptedException {
+    final CountingFactory factory = new CountingFactory();
+    final ClientPool<Object> pool = ClientPool.startBuilding().withNumShards(2).withMaxTotal(2)
+        .withMaxIdle(2).create(factory);
+
+    final Object first = pool.borrowClient();
+    // Spare capacity of the other shard is used before waiting.
+    final Object second = pool.borrowIfCapacity();
+    assertNotNull(second);
+    assertNull(pool.borrowIfCapacity());
+    assertNull(borrowOnOtherThread(pool));
+    assertEquals(2, factory.created.get());
+    assertEquals(2, pool.getNumActive());
+
+    pool.returnClient(first);
+    pool.returnClient(second);
+    assertEquals(0, pool.getNumActive());
+    assertEquals(2, pool.getNumIdle());
+
+    pool.close();
+    assertEquals(2, factory.destroyed.get());
+  }
+
+  @Test
+  public void testClientsReturnToTheirShard() throws InterruptedException {
+    final CountingFactory factory = new CountingFactory();
+    final ClientPool<Object> pool = ClientPool.startBuilding().withNumShards(4).withMaxTotal(4)
+        .withMaxIdle(4).create(factory);
+
+    final Object client = borrowOnOtherThread(pool);
+    pool.returnClient(client);
+    assertEquals(1, pool.getNumIdle());
+
+    // Idle clients of other shards are borrowed before creating new ones.
+    assertSame(client, pool.borrowIfPresent());
+    pool.returnClient(client);
+    assertSame(client, pool.borrowClient());
+    assertEquals(1, factory.created.get());
+    pool.returnClient(client);
+    pool.close();
+    assertEquals(1, factory.destroyed.get());
+  }
+
+  @Test
+  public void testShardLimitsAddUpToPoolLimits() {
+    final CountingFactory factory = new CountingFactory();
+    final ClientPool<Object> pool = ClientPool.startBuilding().withNumShards(4).withMaxTotal(10)
+        .withMaxIdle(10).create(factory);
+
+    for (int i = 0;i < 10;i++) {
+      assertNotNull(pool.borrowIfCapacity());
+    }
+    assertNull(pool.borrowIfCapacity());
+    assertEquals(10, factory.created.get());
+    assertEquals(10, pool.getNumActive());
+    pool.close();
+  }
+
+  @Test(timeout = 5000)
+  public void testWaitingBorrowerTakesClientsReturnedToOtherShards() throws InterruptedException {
+    final CountingFactory factory = new CountingFactory();
+    final ClientPool<Object> pool = ClientPool.startBuilding().withNumShards(2).withMaxTotal(2)
+        .withMaxIdle(2).create(factory);
+
+    final Object own = pool.borrowClient();
+    final Object other = pool.borrowClient();
+    assertEquals(2, factory.created.get());
+
+    final AtomicReference<Object> borrowed = new AtomicReference<>();
+    final Thread waiter = new Thread(() -> borrowed.set(pool.borrowClient()));
+    final boolean sameShard =
+        waiter.getId() % 2 == Thread.currentThread().getId() % 2;
+    waiter.start();
+    Thread.sleep(50);
+
+    // Return the client owned by the shard the waiter is not blocked on.
+    final Object returned = sameShard ? other : own;
+    pool.returnClient(returned);
+    waiter.join();
+    assertSame(returned, borrowed.get());
+    assertEquals(2, factory.created.get());
+    pool.close();
+  }
+
+  @Test(timeout = 5000)
+  public void testInvalidationWakesWaitingBorrowers() throws InterruptedException {
+    final CountingFactory factory = new CountingFactory();
+    final ClientPool<Object> pool = ClientPool.startBuilding().withNumShards(2).withMaxTotal(2)
+        .withMaxIdle(2).create(factory);
+
+    final Object own = pool.borrowClient();
+    final Object other = pool.borrowClient();
+
+    final AtomicReference<Object> borrowed = new AtomicReference<>();
+    final Thread waiter = new Thread(() -> borrowed.set(pool.borrowClient()));
+    final boolean sameShard =
+        waiter.getId() % 2 == Thread.currentThread().getId() % 2;
+    waiter.start();
+    Thread.sleep(50);
+
+    // Frees capacity in the shard the waiter is not on, without returning an idle client.
+    pool.invalidateClient(sameShard ? other : own);
+    waiter.join();
+    assertNotNull(borrowed.get());
+    assertEquals(3, factory.created.get());
+    pool.close();
+  }
+
+  @Test(timeout = 5000)
+  public void testClosingWakesWaitingBorrowers() throws InterruptedException {
+    final ClientPool<Object> pool = ClientPool.startBuilding().withNumShards(2).withMaxTotal(2)
+        .withMaxIdle(2).create(new CountingFactory());
+
+    pool.borrowClient();
+    pool.borrowClient();
+
+    final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+    final Thread waiter = new Thread(() -> {
+      try {
+        pool.borrowClient(1, TimeUnit.MINUTES);
+      } catch (final RuntimeException e) {
+        failure.set(e);
+      }
+    });
+    waiter.start();
+    Thread.sleep(50);
+
+    pool.close();
+    waiter.join();
+    assertTrue(String.valueOf(failure.get()), failure.get() instanceof IllegalStateException);
+  }
+}
@@ -0,0 +1,92 @@
+package com.fabahaba.jedipus.pool;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.Duration;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StripedClientPoolTest {
+
+  @Test
+  public void testReturnedClientIsReusedByTheSameThread() {
+    final CountingFactory factory = new CountingFactory();
+    final ClientPool<Object> pool =
+        ClientPool.startBuilding().withStriped(true).withMaxTotal(4).create(factory);
+
+    final Object client = pool.borrowClient();
+    pool.returnClient(client);
+    assertSame(client, pool.borrowClient());
+    assertEquals(1, factory.created.get());
+    assertEquals(1, pool.getNumActive());
+    assertEquals(0, pool.getNumIdle());
+    pool.close();
+  }
+
+  @Test
+  public void testExhaustion() {
+    final CountingFactory factory = new CountingFactory();
+    final ClientPool<Object> pool = ClientPool.startBuilding().withStriped(true).withMaxTotal(1)
+        .withBorrowTimeout(Duration.ofMillis(10)).create(factory);
+
+    final Object client = pool.borrowClient();
+    assertNull(pool.borrowIfCapacity());
+    try {
+      pool.borrowClient();
+      fail("Expected the borrow to time out.");
+    } catch (final NoSuchElementException e) {
+      // expected
+    }
+
+    pool.invalidateClient(client);
+    assertEquals(1, factory.destroyed.get());
+    pool.returnClient(pool.borrowClient(10, TimeUnit.MILLISECONDS));
+    assertEquals(1, pool.getNumIdle());
+
+    pool.close();
+    assertEquals(2, factory.destroyed.get());
+  }
+
+  @Test(timeout = 10_000)
+  public void testConcurrentBorrowersNeverShareClients() throws InterruptedException {
+    final CountingFactory factory = new CountingFactory();
+    final int maxTotal = 4;
+    final ClientPool<Object> pool = ClientPool.startBuilding().withStriped(true)
+        .withMaxTotal(maxTotal).withMaxIdle(2).create(factory);
+
+    final ConcurrentHashMap<Object, Thread> borrowed = new ConcurrentHashMap<>();
+    final AtomicInteger failures = new AtomicInteger();
+    final Thread[] threads = new Thread[32];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread(() -> {
+        for (int i = 0; i < 2_000; i++) {
+          final Object client = pool.borrowClient();
+          if (borrowed.put(client, Thread.currentThread()) != null || borrowed.size() > maxTotal) {
+            failures.incrementAndGet();
+          }
+          borrowed.remove(client);
+          pool.returnClient(client);
+        }
+      });
+      threads[t].start();
+    }
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(0, failures.get());
+    assertEquals(0, pool.getNumActive());
+    assertTrue(pool.getNumIdle() <= 2);
+    assertEquals(factory.created.get() - factory.destroyed.get(), pool.getNumIdle());
+    pool.close();
+    assertEquals(factory.created.get(), factory.destroyed.get());
+  }
+}
@@ -0,0 +1,148 @@
+package com.fabahaba.jedipus.pool;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ThreadAffineClientPoolTest {
+
+  @Test
+  public void testReturnedClientIsParkedWithTheThread() {
+    final CountingFactory factory = new CountingFactory();
+    final ClientPool<Object> pool =
+        ClientPool.startBuilding().withThreadAffinity(true).withMaxTotal(2).create(factory);
+
+    final Object client = pool.borrowClient();
+    pool.returnClient(client);
+    assertEquals(1, pool.getNumIdle());
+    assertEquals(0, pool.getNumActive());
+
+    assertSame(client, pool.borrowClient());
+    assertEquals(1, factory.created.get());
+    pool.close();
+  }
+
+  @Test(timeout = 10_000)
+  public void testParkedClientIsTakenOverWhenExhausted() throws InterruptedException {
+    final CountingFactory factory = new CountingFactory();
+    final ClientPool<Object> pool = ClientPool.startBuilding().withThreadAffinity(true)
+        .withMaxTotal(1).withBorrowTimeout(Duration.ofSeconds(5)).create(factory);
+
+    final AtomicReference<Object> parked = new AtomicReference<>();
+    final Thread thread = new Thread(() -> {
+      parked.set(pool.borrowClient());
+      pool.returnClient(parked.get());
+    });
+    thread.start();
+    thread.join();
+
+    final Object client = pool.borrowClient(1, TimeUnit.SECONDS);
+    assertSame(parked.get(), client);
+    assertEquals(1, factory.created.get());
+    pool.returnClient(client);
+    pool.close();
+    assertEquals(1, factory.destroyed.get());
+  }
+
+  @Test(timeout = 10_000)
+  public void testConcurrentBorrowersNeverShareClients() throws InterruptedException {
+    final CountingFactory factory = new CountingFactory();
+    final ClientPool<Object> pool = ClientPool.startBuilding().withThreadAffinity(true)
+        .withStriped(true).withMaxTotal(3).create(factory);
+
+    final ConcurrentHashMap<Object, Thread> borrowed = new ConcurrentHashMap<>();
+    final AtomicInteger failures = new AtomicInteger();
+    final Thread[] threads = new Thread[16];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread(() -> {
+        for (int i = 0; i < 2_000; i++) {
+          final Object client = pool.borrowClient();
+          if (borrowed.put(client, Thread.currentThread()) != null) {
+            failures.incrementAndGet();
+          }
+          borrowed.remove(client);
+          pool.returnClient(client);
+        }
+      });
+      threads[t].start();
+    }
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(0, failures.get());
+    assertEquals(0, pool.getNumActive());
+    pool.close();
+    assertEquals(factory.created.get(), factory.destroyed.get());
+  }
+
+  @Test
+  public void testDoubleReturnFails() {
+    final CountingFactory factory = new CountingFactory();
+    final ClientPool<Object> pool =
+        ClientPool.startBuilding().withThreadAffinity(true).withMaxTotal(2).create(factory);
+
+    final Object client = pool.borrowClient();
+    pool.returnClient(client);
+    try {
+      pool.returnClient(client);
+      fail("Expected returning a parked client to fail.");
+    } catch (final IllegalStateException expected) {
+      // expected
+    }
+
+    // Still parked exactly once.
+    assertSame(client, pool.borrowClient());
+    assertEquals(0, pool.getNumIdle());
+    pool.close();
+  }
+
+  @Test(timeout = 10_000)
+  public void testDeadThreadSlotsAreReclaimedOnEviction() throws InterruptedException {
+    final CountingFactory factory = new CountingFactory();
+    final ThreadAffineClientPool<Object> pool =
+        (ThreadAffineClientPool<Object>) ClientPool.startBuilding().withThreadAffinity(true)
+            .withMaxTotal(2).withMaxIdle(2)
+            .withDurationBetweenEvictionRuns(Duration.ofMillis(10)).create(factory);
+
+    final Thread thread = new Thread(() -> pool.returnClient(pool.borrowClient()));
+    thread.start();
+    thread.join();
+
+    while (pool.getNumParked() > 0) {
+      Thread.sleep(10);
+    }
+    assertEquals(1, pool.getNumIdle());
+    assertEquals(1, factory.created.get());
+    pool.close();
+  }
+
+  @Test(timeout = 10_000)
+  public void testIdleParkedClientsAreHandedBackOnEviction() throws InterruptedException {
+    final CountingFactory factory = new CountingFactory();
+    final ThreadAffineClientPool<Object> pool =
+        (ThreadAffineClientPool<Object>) ClientPool.startBuilding().withThreadAffinity(true)
+            .withMaxTotal(2).withMaxIdle(2).withMinEvictableIdleDuration(Duration.ofMillis(20))
+            .withDurationBetweenEvictionRuns(Duration.ofMillis(10)).create(factory);
+
+    // Parked by this thread, which stays alive but stops borrowing.
+    pool.returnClient(pool.borrowClient());
+    assertEquals(1, pool.getNumParked());
+
+    // Handed back to the delegate, which then evicts it once idle.
+    while (factory.destroyed.get() == 0) {
+      Thread.sleep(10);
+    }
+    assertEquals(0, pool.getNumParked());
+    assertEquals(0, pool.getNumIdle());
+    pool.close();
+  }
+}
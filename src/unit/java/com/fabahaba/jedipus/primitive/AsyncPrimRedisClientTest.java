@@ -0,0 +1,184 @@
+package com.fabahaba.jedipus.primitive;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.fabahaba.jedipus.client.NioEventLoop;
+import com.fabahaba.jedipus.client.NioSocket;
+import com.fabahaba.jedipus.client.RedisClient.ReplyMode;
+import com.fabahaba.jedipus.cluster.Node;
+import com.fabahaba.jedipus.cmds.Cmds;
+import com.fabahaba.jedipus.exceptions.RedisConnectionException;
+import com.fabahaba.jedipus.exceptions.RedisUnhandledException;
+
+public class AsyncPrimRedisClientTest {
+
+  private static Throwable getFailure(final CompletableFuture<?> future)
+      throws InterruptedException, TimeoutException {
+    try {
+      future.get(5, TimeUnit.SECONDS);
+    } catch (final ExecutionException ee) {
+      return ee.getCause();
+    }
+    fail("Expected the future to fail.");
+    return null;
+  }
+
+  @Test(timeout = 5000)
+  public void testRepliesCompleteInOrder() throws Exception {
+    final ScriptedSocket socket = new ScriptedSocket();
+    try (final AsyncPrimRedisClient client =
+        new AsyncPrimRedisClient(ScriptedSocket.createConn(socket)).start()) {
+      final CompletableFuture<String> ping = client.sendCmdAsync(Cmds.PING);
+      final CompletableFuture<String> echo = client.sendCmdAsync(Cmds.ECHO, "hi".getBytes());
+      assertEquals("*1\r\n$4\r\nping\r\n*2\r\n$4\r\necho\r\n$2\r\nhi\r\n", socket.getWritten());
+
+      socket.reply("+PONG\r\n$2\r\nhi\r\n");
+      assertEquals("PONG", ping.get());
+      assertEquals("hi", echo.get());
+      assertEquals(0, client.getNumPendingReplies());
+    }
+  }
+
+  @Test(timeout = 5000)
+  public void testFailedFlushFailsAndRemovesReply() throws Exception {
+    final ScriptedSocket socket = new ScriptedSocket();
+    final AsyncPrimRedisClient client =
+        new AsyncPrimRedisClient(ScriptedSocket.createConn(socket)).start();
+    socket.failWrites();
+
+    final CompletableFuture<String> ping = client.sendCmdAsync(Cmds.PING);
+    assertTrue(getFailure(ping) instanceof RedisConnectionException);
+    assertEquals(0, client.getNumPendingReplies());
+    assertTrue(client.isBroken());
+    assertTrue(socket.isClosed());
+
+    // Later commands fail without being written.
+    assertTrue(getFailure(client.sendCmdAsync(Cmds.PING)) instanceof RedisConnectionException);
+    assertEquals(0, client.getNumPendingReplies());
+  }
+
+  @Test(timeout = 5000)
+  public void testFailedWriteClosesClient() throws Exception {
+    final ScriptedSocket socket = new ScriptedSocket();
+    final AsyncPrimRedisClient client =
+        new AsyncPrimRedisClient(ScriptedSocket.createConn(socket)).start();
+
+    // A null argument fails after part of the command has been buffered.
+    final CompletableFuture<String> echo = client.sendCmdAsync(Cmds.ECHO, (byte[]) null);
+    assertTrue(getFailure(echo) instanceof RedisUnhandledException);
+    assertEquals(0, client.getNumPendingReplies());
+    assertTrue(client.isBroken());
+    assertTrue(socket.isClosed());
+    assertTrue(getFailure(client.sendCmdAsync(Cmds.PING)) instanceof RedisConnectionException);
+  }
+
+  @Test(timeout = 5000)
+  public void testReaderFailureFailsPendingAndClosesSocket() throws Exception {
+    final ScriptedSocket socket = new ScriptedSocket();
+    final AsyncPrimRedisClient client =
+        new AsyncPrimRedisClient(ScriptedSocket.createConn(socket)).start();
+
+    final CompletableFuture<String> first = client.sendCmdAsync(Cmds.PING);
+    final CompletableFuture<String> second = client.sendCmdAsync(Cmds.PING);
+    final CompletableFuture<String> third = client.sendCmdAsync(Cmds.PING);
+    socket.reply("+PONG\r\n");
+    socket.endOfStream();
+
+    assertEquals("PONG", first.get());
+    assertTrue(getFailure(second) instanceof RedisConnectionException);
+    assertTrue(getFailure(third) instanceof RedisConnectionException);
+    assertEquals(0, client.getNumPendingReplies());
+    assertTrue(socket.isClosed());
+    assertTrue(client.isBroken());
+
+    // Writers racing the reader failure never queue a reply that stays incomplete.
+    assertTrue(getFailure(client.sendCmdAsync(Cmds.PING)) instanceof RedisConnectionException);
+    assertEquals(0, client.getNumPendingReplies());
+  }
+
+  @Test(timeout = 5000)
+  public void testCloseFailsPendingReplies() throws Exception {
+    final ScriptedSocket socket = new ScriptedSocket();
+    final AsyncPrimRedisClient client =
+        new AsyncPrimRedisClient(ScriptedSocket.createConn(socket)).start();
+
+    final CompletableFuture<String> ping = client.sendCmdAsync(Cmds.PING);
+    client.close();
+    assertTrue(getFailure(ping) instanceof RedisConnectionException);
+    assertTrue(socket.isClosed());
+    assertEquals(0, client.getNumPendingReplies());
+  }
+
+  private static void write(final SocketChannel peer, final String resp) throws IOException {
+    final ByteBuffer buffer = ByteBuffer.wrap(resp.getBytes(StandardCharsets.UTF_8));
+    while (buffer.hasRemaining()) {
+      peer.write(buffer);
+    }
+  }
+
+  private static boolean hasReaderThread() {
+    return Thread.getAllStackTraces().keySet().stream()
+        .anyMatch(thread -> thread.getName().startsWith("jedipus-async-reader-"));
+  }
+
+  @Test(timeout = 10000)
+  public void testEventLoopDrivesReads() throws Exception {
+    final NioEventLoop eventLoop = NioEventLoop.start("async-client-test");
+    try (final ServerSocketChannel server = ServerSocketChannel.open()) {
+      server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+      final NioSocket socket = new NioSocket(eventLoop);
+      socket.connect(server.getLocalAddress(), 1000);
+      try (final SocketChannel peer = server.accept();
+          final AsyncPrimRedisClient client = new AsyncPrimRedisClient(new PrimRedisConn(
+              Node.create("localhost", 6379), ReplyMode.ON, node -> node, socket, 0, 64, 64, null))
+                  .start()) {
+        assertFalse(hasReaderThread());
+
+        final CompletableFuture<String> ping = client.sendCmdAsync(Cmds.PING);
+        final CompletableFuture<String> echo = client.sendCmdAsync(Cmds.ECHO, "hi".getBytes());
+        final CompletableFuture<String> readerThread =
+            ping.thenApply(pong -> Thread.currentThread().getName());
+        // Replies split across reads and arriving after a pause are completed in order.
+        write(peer, "+PO");
+        Thread.sleep(20);
+        assertFalse(ping.isDone());
+        write(peer, "NG\r\n$2\r");
+        assertEquals("PONG", ping.get(5, TimeUnit.SECONDS));
+        assertEquals("jedipus-async-reply-reader", readerThread.get(5, TimeUnit.SECONDS));
+        Thread.sleep(20);
+        write(peer, "\nhi\r\n");
+        assertEquals("hi", echo.get(5, TimeUnit.SECONDS));
+        assertEquals(0, client.getNumPendingReplies());
+
+        final CompletableFuture<String> again = client.sendCmdAsync(Cmds.PING);
+        write(peer, "+PONG\r\n");
+        assertEquals("PONG", again.get(5, TimeUnit.SECONDS));
+
+        final CompletableFuture<String> unanswered = client.sendCmdAsync(Cmds.PING);
+        peer.close();
+        assertTrue(getFailure(unanswered) instanceof RedisConnectionException);
+        assertTrue(client.isBroken());
+        assertTrue(socket.isClosed());
+      }
+    } finally {
+      eventLoop.close();
+    }
+  }
+}
@@ -0,0 +1,171 @@
+package com.fabahaba.jedipus.primitive;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.fabahaba.jedipus.client.RedisClient;
+import com.fabahaba.jedipus.client.RedisClient.ReplyMode;
+import com.fabahaba.jedipus.cluster.Node;
+import com.fabahaba.jedipus.cmds.Cmds;
+import com.fabahaba.jedipus.exceptions.RedisUnhandledException;
+
+public class BulkReplyTest {
+
+  private static final Node NODE = Node.create("localhost", 7000);
+
+  private final ScriptedSocket socket = new ScriptedSocket();
+
+  // 64 byte stream buffers, so the larger replies span several socket reads.
+  private PrimRedisClient createClient() {
+    return new PrimRedisClient(NODE, ReplyMode.ON, n -> n, socket, 0, 64, 64, null);
+  }
+
+  private static String repeat(final char c, final int len) {
+    final char[] chars = new char[len];
+    Arrays.fill(chars, c);
+    return new String(chars);
+  }
+
+  private void replyBulk(final String value) {
+    socket.reply("$" + value.length() + "\r\n" + value + "\r\n");
+  }
+
+  private static String toString(final ByteBuffer buffer) {
+    buffer.flip();
+    final byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  @Test(timeout = 5000)
+  public void testReadsIntoHeapAndDirectBuffers() {
+    final String large = repeat('a', 200);
+    try (final PrimRedisClient client = createClient()) {
+      replyBulk(large);
+      final ByteBuffer heap = ByteBuffer.allocate(256);
+      assertEquals(200, client.sendBulkCmd(Cmds.GET, heap, "key"));
+      assertEquals(large, toString(heap));
+
+      replyBulk(large);
+      final ByteBuffer direct = ByteBuffer.allocateDirect(256);
+      assertEquals(200, client.sendBulkCmd(Cmds.GET, direct, "key"));
+      assertEquals(large, toString(direct));
+
+      // Offset into a slice of a larger array.
+      replyBulk("abc");
+      final ByteBuffer slice = ByteBuffer.wrap(new byte[16], 4, 8).slice();
+      assertEquals(3, client.sendBulkCmd(Cmds.GET, slice, "key"));
+      assertEquals("abc", toString(slice));
+    }
+  }
+
+  @Test(timeout = 5000)
+  public void testNilAndEmptyReplies() {
+    try (final PrimRedisClient client = createClient()) {
+      socket.reply("$-1\r\n");
+      assertEquals(-1, client.sendBulkCmd(Cmds.GET, ByteBuffer.allocate(8), "key"));
+
+      replyBulk("");
+      assertEquals(0, client.sendBulkCmd(Cmds.GET, ByteBuffer.allocate(8), "key"));
+    }
+  }
+
+  @Test(timeout = 5000)
+  public void testSkippedRepliesAreDistinguishable() {
+    try (final PrimRedisClient client = createClient()) {
+      client.skip();
+      assertEquals(RedisClient.NO_BULK_REPLY,
+          client.sendBulkCmd(Cmds.GET, ByteBuffer.allocate(8), "key"));
+
+      final WritableByteChannel channel = Channels.newChannel(new ByteArrayOutputStream());
+      client.skip();
+      assertEquals(RedisClient.NO_BULK_REPLY, client.sendBulkCmd(Cmds.GET, channel, "key"));
+    }
+  }
+
+  @Test(timeout = 5000)
+  public void testOversizedReplyKeepsConnectionInSync() {
+    try (final PrimRedisClient client = createClient()) {
+      replyBulk(repeat('a', 100));
+      try {
+        client.sendBulkCmd(Cmds.GET, ByteBuffer.allocate(10), "key");
+        fail("Expected a reply larger than the buffer to fail.");
+      } catch (final RedisUnhandledException expected) {
+        // expected
+      }
+
+      replyBulk("next");
+      final ByteBuffer buffer = ByteBuffer.allocate(8);
+      assertEquals(4, client.sendBulkCmd(Cmds.GET, buffer, "key"));
+      assertEquals("next", toString(buffer));
+    }
+  }
+
+  @Test(timeout = 5000)
+  public void testReadOnlyBufferIsRejectedBeforeSending() {
+    try (final PrimRedisClient client = createClient()) {
+      try {
+        client.sendBulkCmd(Cmds.GET, ByteBuffer.allocate(8).asReadOnlyBuffer(), "key");
+        fail("Expected a read-only buffer to be rejected.");
+      } catch (final ReadOnlyBufferException expected) {
+        // expected
+      }
+      assertEquals("", socket.getWritten());
+    }
+  }
+
+  @Test(timeout = 5000)
+  public void testTransfersToChannel() {
+    final String large = repeat('b', 300);
+    try (final PrimRedisClient client = createClient()) {
+      replyBulk(large);
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      assertEquals(300, client.sendBulkCmd(Cmds.GET, Channels.newChannel(out), "key"));
+      assertEquals(large, new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test(timeout = 5000)
+  public void testFailedTransferKeepsConnectionInSync() {
+    try (final PrimRedisClient client = createClient()) {
+      replyBulk(repeat('c', 200));
+      final WritableByteChannel failing = new WritableByteChannel() {
+
+        @Override
+        public int write(final ByteBuffer src) throws IOException {
+          throw new IOException("Disk full.");
+        }
+
+        @Override
+        public boolean isOpen() {
+          return true;
+        }
+
+        @Override
+        public void close() {}
+      };
+      try {
+        client.sendBulkCmd(Cmds.GET, failing, "key");
+        fail("Expected the failed transfer to be thrown.");
+      } catch (final RedisUnhandledException expected) {
+        // expected
+      }
+
+      replyBulk("next");
+      final ByteBuffer buffer = ByteBuffer.allocate(8);
+      assertEquals(4, client.sendBulkCmd(Cmds.GET, buffer, "key"));
+      assertEquals("next", toString(buffer));
+    }
+  }
+}
@@ -0,0 +1,142 @@
+package com.fabahaba.jedipus.primitive;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fabahaba.jedipus.client.FutureReply;
+import com.fabahaba.jedipus.client.RedisClient.ReplyMode;
+import com.fabahaba.jedipus.client.RedisPipeline;
+import com.fabahaba.jedipus.cluster.Node;
+import com.fabahaba.jedipus.cmds.Cmds;
+import com.fabahaba.jedipus.exceptions.SlotMovedException;
+import com.fabahaba.jedipus.exceptions.UnhandledAskNodeException;
+
+public class PrimPipelineTest {
+
+  private static final Node NODE = Node.create("localhost", 7000);
+  private static final Node ASK_NODE = Node.create("localhost", 7001);
+
+  private final ScriptedSocket socket = new ScriptedSocket();
+  private final ScriptedSocket askSocket = new ScriptedSocket();
+  private final List<Node> askNodes = new ArrayList<>();
+
+  private static PrimRedisClient createClient(final Node node, final ScriptedSocket socket) {
+    return new PrimRedisClient(node, ReplyMode.ON, n -> n, socket, 0, 64, 64, null);
+  }
+
+  private RedisPipeline replayingPipeline(final PrimRedisClient client,
+      final PrimRedisClient askClient) {
+    return client.pipeline().replayAsks((node, replay) -> {
+      askNodes.add(node);
+      replay.accept(askClient);
+    });
+  }
+
+  @Test(timeout = 5000)
+  public void testAskRedirectsAreReplayed() {
+    try (final PrimRedisClient client = createClient(NODE, socket);
+        final PrimRedisClient askClient = createClient(ASK_NODE, askSocket);
+        final RedisPipeline pipeline = replayingPipeline(client, askClient)) {
+
+      final FutureReply<String> a = pipeline.sendCmd(Cmds.GET, "a");
+      final FutureReply<String> b = pipeline.sendCmd(Cmds.GET, "b");
+      final FutureReply<String> c = pipeline.sendCmd(Cmds.GET, "c");
+      socket.reply("$1\r\n1\r\n-ASK 3300 localhost:7001\r\n$1\r\n3\r\n");
+      askSocket.reply("+OK\r\n$1\r\n2\r\n");
+      pipeline.sync();
+
+      assertEquals("1", a.get());
+      assertEquals("2", b.get());
+      assertEquals("3", c.get());
+      assertEquals(1, askNodes.size());
+      assertEquals(ASK_NODE, askNodes.get(0));
+      assertEquals("*1\r\n$6\r\nasking\r\n*2\r\n$3\r\nget\r\n$1\r\nb\r\n", askSocket.getWritten());
+
+      // Both connections are left in sync.
+      final FutureReply<String> d = pipeline.sendCmd(Cmds.GET, "d");
+      socket.reply("$1\r\n4\r\n");
+      pipeline.sync();
+      assertEquals("4", d.get());
+      askSocket.reply("+PONG\r\n");
+      assertEquals("PONG", askClient.sendCmd(Cmds.PING));
+    }
+  }
+
+  @Test(timeout = 5000)
+  public void testRedirectedTransactionsAreReplayedWhole() {
+    try (final PrimRedisClient client = createClient(NODE, socket);
+        final PrimRedisClient askClient = createClient(ASK_NODE, askSocket);
+        final RedisPipeline pipeline = replayingPipeline(client, askClient)) {
+
+      pipeline.multi();
+      pipeline.sendCmd(Cmds.SET, "k", "v");
+      final FutureReply<Object[]> exec = pipeline.exec();
+      socket.reply("+OK\r\n-ASK 7629 localhost:7001\r\n-EXECABORT Transaction discarded.\r\n");
+      askSocket.reply("+OK\r\n+OK\r\n+QUEUED\r\n*1\r\n+OK\r\n");
+      pipeline.sync();
+
+      assertEquals(1, exec.get().length);
+      assertEquals("*1\r\n$6\r\nasking\r\n*1\r\n$5\r\nmulti\r\n*3\r\n$3\r\nset\r\n$1\r\nk\r\n"
+          + "$1\r\nv\r\n*1\r\n$4\r\nexec\r\n", askSocket.getWritten());
+    }
+  }
+
+  @Test(timeout = 5000)
+  public void testMovedRepliesFailAlone() {
+    try (final PrimRedisClient client = createClient(NODE, socket);
+        final PrimRedisClient askClient = createClient(ASK_NODE, askSocket);
+        final RedisPipeline pipeline = replayingPipeline(client, askClient)) {
+
+      final FutureReply<String> a = pipeline.sendCmd(Cmds.GET, "a");
+      final FutureReply<String> b = pipeline.sendCmd(Cmds.GET, "b");
+      final FutureReply<String> c = pipeline.sendCmd(Cmds.GET, "c");
+      final FutureReply<String> d = pipeline.sendCmd(Cmds.GET, "d");
+      socket.reply("-MOVED 15495 localhost:7002\r\n-ASK 3300 localhost:7001\r\n$1\r\n3\r\n"
+          + "-MOVED 11298 localhost:7002\r\n");
+      askSocket.reply("+OK\r\n$1\r\n2\r\n");
+      try {
+        pipeline.sync();
+        fail("Expected the first MOVED redirect to be thrown.");
+      } catch (final SlotMovedException moveEx) {
+        assertEquals(15495, moveEx.getSlot());
+      }
+
+      assertMoved(a, 15495);
+      assertEquals("2", b.get());
+      assertEquals("3", c.get());
+      assertMoved(d, 11298);
+    }
+  }
+
+  @Test(timeout = 5000)
+  public void testAskRedirectsAreUnhandledWithoutReplay() {
+    try (final PrimRedisClient client = createClient(NODE, socket)) {
+      final RedisPipeline pipeline = client.pipeline();
+      pipeline.sendCmd(Cmds.GET, "a");
+      pipeline.sendCmd(Cmds.GET, "b");
+      socket.reply("-ASK 15495 localhost:7001\r\n$1\r\n2\r\n");
+      try {
+        pipeline.sync();
+        fail("Expected an unhandled ASK redirect.");
+      } catch (final UnhandledAskNodeException expected) {
+        assertEquals(ASK_NODE, expected.getTargetNode());
+      }
+      assertTrue(askSocket.getWritten().isEmpty());
+    }
+  }
+
+  private static void assertMoved(final FutureReply<?> futureReply, final int slot) {
+    try {
+      futureReply.get();
+      fail("Expected the reply to be redirected.");
+    } catch (final SlotMovedException moveEx) {
+      assertEquals(slot, moveEx.getSlot());
+    }
+  }
+}
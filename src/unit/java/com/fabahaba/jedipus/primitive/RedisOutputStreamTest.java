@@ -0,0 +1,204 @@
+package com.fabahaba.jedipus.primitive;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.charset.StandardCharsets;
+
+public class RedisOutputStreamTest {
+
+  private static final class BufferChannel implements GatheringByteChannel {
+
+    private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+
+    @Override
+    public int write(final ByteBuffer src) {
+      final int len = src.remaining();
+      final byte[] bytes = new byte[len];
+      src.get(bytes);
+      written.write(bytes, 0, len);
+      return len;
+    }
+
+    @Override
+    public long write(final ByteBuffer[] srcs, final int offset, final int length) {
+      long len = 0;
+      for (int i = offset;i < offset + length;i++) {
+        len += write(srcs[i]);
+      }
+      return len;
+    }
+
+    @Override
+    public long write(final ByteBuffer[] srcs) {
+      return write(srcs, 0, srcs.length);
+    }
+
+    @Override
+    public boolean isOpen() {
+      return true;
+    }
+
+    @Override
+    public void close() {}
+  }
+
+  private static byte[] ascii(final String str) {
+    return str.getBytes(StandardCharsets.US_ASCII);
+  }
+
+  private static final long[] LONGS = {0, 1, -1, 9, 10, -10, 99, 100, 65535, 65536, -65536,
+      Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE + 1L, 1234567890123L,
+      -987654321098765L, Long.MAX_VALUE, Long.MIN_VALUE + 1, Long.MIN_VALUE};
+
+  private static String bulk(final String arg) {
+    return "$" + arg.length() + "\r\n" + arg + "\r\n";
+  }
+
+  @Test
+  public void testLongArgs() throws IOException {
+    final StringBuilder expected = new StringBuilder();
+    for (final long value : LONGS) {
+      expected.append(bulk(Long.toString(value)));
+      assertArrayEquals(ascii(bulk(Long.toString(value))), RedisOutputStream.createLongArg(value));
+    }
+
+    // Small buffers fall back to pre-encoded args and flush at every offset.
+    for (final int bufferSize : new int[] {8, 13, 21, 64}) {
+      final BufferChannel channel = new BufferChannel();
+      final RedisOutputStream os = new RedisOutputStream(channel, bufferSize);
+      for (final long value : LONGS) {
+        os.writeLongArg(value);
+      }
+      os.flush();
+      assertEquals(expected.toString(),
+          new String(channel.written.toByteArray(), StandardCharsets.US_ASCII));
+      os.release();
+    }
+  }
+
+  @Test
+  public void testLongEncodableDoubles() {
+    assertTrue(RedisOutputStream.isLongEncodable(0.0));
+    assertTrue(RedisOutputStream.isLongEncodable(-42.0));
+    assertTrue(RedisOutputStream.isLongEncodable(1L << 53));
+    assertFalse(RedisOutputStream.isLongEncodable(1.5));
+    assertFalse(RedisOutputStream.isLongEncodable((1L << 53) + 2.0));
+    assertFalse(RedisOutputStream.isLongEncodable(Double.NaN));
+    assertFalse(RedisOutputStream.isLongEncodable(Double.POSITIVE_INFINITY));
+    assertFalse(RedisOutputStream.isLongEncodable(Double.NEGATIVE_INFINITY));
+  }
+
+  @Test
+  public void testNumericCmdArgs() throws IOException {
+    final BufferChannel channel = new BufferChannel();
+    final RedisOutputStream os = new RedisOutputStream(channel, 64);
+    RESProtocol.sendCmd(os, ascii("incrby"), ascii("key"), -7L);
+    RESProtocol.sendCmd(os, ascii("zincrby"), ascii("key"), 2.0, ascii("member"));
+    RESProtocol.sendCmd(os, ascii("zincrby"), ascii("key"), 1.5, ascii("member"));
+    RESProtocol.sendCmd(os, ascii("expire"), ascii("key"), 1e20);
+    os.flush();
+    assertEquals("*3\r\n$6\r\nincrby\r\n$3\r\nkey\r\n$2\r\n-7\r\n"
+        + "*4\r\n$7\r\nzincrby\r\n$3\r\nkey\r\n$1\r\n2\r\n$6\r\nmember\r\n"
+        + "*4\r\n$7\r\nzincrby\r\n$3\r\nkey\r\n$3\r\n1.5\r\n$6\r\nmember\r\n"
+        + "*3\r\n$6\r\nexpire\r\n$3\r\nkey\r\n$6\r\n1.0E20\r\n",
+        new String(channel.written.toByteArray(), StandardCharsets.US_ASCII));
+    os.release();
+  }
+
+  @Test
+  public void testGatheringWrites() throws IOException {
+    final BufferChannel channel = new BufferChannel();
+    final RedisOutputStream os = new RedisOutputStream(channel, 8);
+    os.write((byte) '*');
+    os.writeIntCRLF(1);
+    os.write(ascii("$12\r\n"));
+    // Larger than the buffer, gathered with the buffered prefix.
+    os.write(ascii("hello world!"));
+    os.writeCRLF();
+    os.flush();
+    assertArrayEquals(ascii("*1\r\n$12\r\nhello world!\r\n"), channel.written.toByteArray());
+    os.release();
+  }
+
+  @Test
+  public void testWritesAfterReleaseThrow() throws IOException {
+    final BufferChannel channel = new BufferChannel();
+    final RedisOutputStream os = new RedisOutputStream(channel, 64);
+    os.write(ascii("PING"));
+    os.release();
+    os.release();
+
+    // Buffered bytes are dropped and flushes are ignored.
+    os.flush();
+    assertEquals(0, channel.written.size());
+
+    try {
+      os.write((byte) '*');
+      fail("Wrote to a released stream.");
+    } catch (final IOException expected) {
+      // expected
+    }
+    try {
+      os.write(ascii("PING"));
+      fail("Wrote to a released stream.");
+    } catch (final IOException expected) {
+      // expected
+    }
+    try {
+      os.writeCRLF();
+      fail("Wrote to a released stream.");
+    } catch (final IOException expected) {
+      // expected
+    }
+    try {
+      os.writeIntCRLF(42);
+      fail("Wrote to a released stream.");
+    } catch (final IOException expected) {
+      // expected
+    }
+    try {
+      os.writeLongArg(42);
+      fail("Wrote to a released stream.");
+    } catch (final IOException expected) {
+      // expected
+    }
+    try {
+      os.writeDirect(ascii("PING"), 0, 4);
+      fail("Wrote to a released stream.");
+    } catch (final IOException expected) {
+      // expected
+    }
+    assertEquals(0, channel.written.size());
+  }
+
+  @Test
+  public void testReleasedBufferIsNotSharedWithLateWriters() throws IOException {
+    final BufferChannel released = new BufferChannel();
+    final RedisOutputStream first = new RedisOutputStream(released, 32);
+    first.release();
+
+    // The next stream may be handed the pooled buffer of the released stream.
+    final BufferChannel channel = new BufferChannel();
+    final RedisOutputStream second = new RedisOutputStream(channel, 32);
+    second.write(ascii("GET"));
+    try {
+      first.write(ascii("SET"));
+      fail("Wrote to a released stream.");
+    } catch (final IOException expected) {
+      // expected
+    }
+    second.flush();
+    assertArrayEquals(ascii("GET"), channel.written.toByteArray());
+    second.release();
+  }
+}
@@ -0,0 +1,149 @@
+package com.fabahaba.jedipus.primitive;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.fabahaba.jedipus.client.RedisClient.ReplyMode;
+import com.fabahaba.jedipus.client.RespReplyVisitor;
+import com.fabahaba.jedipus.cluster.Node;
+import com.fabahaba.jedipus.cmds.Cmds;
+import com.fabahaba.jedipus.cmds.MultiCmds;
+import com.fabahaba.jedipus.exceptions.RedisUnhandledException;
+
+public class RespReplyVisitorTest {
+
+  private static final Node NODE = Node.create("localhost", 7000);
+
+  private final ScriptedSocket socket = new ScriptedSocket();
+
+  private PrimRedisClient createClient() {
+    return new PrimRedisClient(NODE, ReplyMode.ON, n -> n, socket, 0, 64, 64, null);
+  }
+
+  private static class RecordingVisitor implements RespReplyVisitor {
+
+    final List<String> events = new ArrayList<>();
+
+    @Override
+    public void onArrayStart(final int length) {
+      events.add("[" + length);
+    }
+
+    @Override
+    public void onArrayEnd() {
+      events.add("]");
+    }
+
+    @Override
+    public void onBulk(final byte[] buf, final int offset, final int length) {
+      events.add("$" + new String(buf, offset, length, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void onSimpleString(final byte[] buf, final int offset, final int length) {
+      events.add("+" + new String(buf, offset, length, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void onLong(final long value) {
+      events.add(":" + value);
+    }
+
+    @Override
+    public void onNull() {
+      events.add("nil");
+    }
+  }
+
+  @Test(timeout = 5000)
+  public void testNestedReplyEvents() {
+    try (final PrimRedisClient client = createClient()) {
+      socket.reply("*5\r\n$3\r\nfoo\r\n+OK\r\n:-42\r\n$-1\r\n*2\r\n*-1\r\n$0\r\n\r\n");
+      final RecordingVisitor visitor = client.visitCmd(Cmds.GET, new RecordingVisitor(), "key");
+      assertEquals(Arrays.asList("[5", "$foo", "+OK", ":-42", "nil", "[2", "nil", "$", "]", "]"),
+          visitor.events);
+    }
+  }
+
+  @Test(timeout = 5000)
+  public void testBulkLargerThanBuffer() {
+    final char[] chars = new char[300];
+    Arrays.fill(chars, 'a');
+    final String large = new String(chars);
+    try (final PrimRedisClient client = createClient()) {
+      socket.reply("*2\r\n$3\r\nfoo\r\n$300\r\n" + large + "\r\n");
+      final RecordingVisitor visitor = client.visitCmd(Cmds.GET, new RecordingVisitor(), "key");
+      assertEquals(Arrays.asList("[2", "$foo", "$" + large, "]"), visitor.events);
+    }
+  }
+
+  @Test(timeout = 5000)
+  public void testErrorReplyIsThrownByDefault() {
+    try (final PrimRedisClient client = createClient()) {
+      socket.reply("-ERR wrong type\r\n");
+      try {
+        client.visitCmd(Cmds.GET, new RecordingVisitor(), "key");
+        fail("Expected the error reply to be thrown.");
+      } catch (final RedisUnhandledException expected) {
+        assertTrue(expected.getMessage().contains("ERR wrong type"));
+      }
+
+      socket.reply("+PONG\r\n");
+      assertEquals("PONG", client.sendCmd(Cmds.PING));
+    }
+  }
+
+  @Test(timeout = 5000)
+  public void testNestedErrorsCanBeVisited() {
+    try (final PrimRedisClient client = createClient()) {
+      socket.reply("*2\r\n+OK\r\n-ERR wrong type\r\n");
+      final RecordingVisitor visitor = client.visitCmd(MultiCmds.EXEC, new RecordingVisitor() {
+
+        @Override
+        public void onError(final RuntimeException error) {
+          events.add("-" + error.getMessage());
+        }
+      });
+      assertEquals(Arrays.asList("[2", "+OK", "-ERR wrong type", "]"), visitor.events);
+    }
+  }
+
+  @Test(timeout = 5000)
+  public void testThrowingVisitorLeavesConnectionInSync() {
+    try (final PrimRedisClient client = createClient()) {
+      socket.reply("*3\r\n$3\r\nfoo\r\n:1\r\n$3\r\nbar\r\n");
+      try {
+        client.visitCmd(Cmds.GET, new RecordingVisitor() {
+
+          @Override
+          public void onLong(final long value) {
+            throw new IllegalStateException("Unexpected long.");
+          }
+        }, "key");
+        fail("Expected the visitor's exception to be thrown.");
+      } catch (final IllegalStateException expected) {
+        // expected
+      }
+
+      socket.reply("+PONG\r\n");
+      assertEquals("PONG", client.sendCmd(Cmds.PING));
+    }
+  }
+
+  @Test(timeout = 5000)
+  public void testSkippedReplyIsNotVisited() {
+    try (final PrimRedisClient client = createClient()) {
+      client.skip();
+      final RecordingVisitor visitor = client.visitCmd(Cmds.GET, new RecordingVisitor(), "key");
+      assertTrue(visitor.events.isEmpty());
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package com.fabahaba.jedipus.primitive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import com.fabahaba.jedipus.client.RedisClient.ReplyMode;
+import com.fabahaba.jedipus.cluster.Node;
+
+/**
+ * An unconnected socket that reads scripted RESP replies and records everything written to it.
+ */
+final class ScriptedSocket extends Socket {
+
+  private static final byte[] EOF = new byte[0];
+
+  private final LinkedBlockingQueue<byte[]> replies = new LinkedBlockingQueue<>();
+  private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+  private volatile boolean failWrites = false;
+  private volatile boolean closed = false;
+
+  private final InputStream in = new InputStream() {
+
+    private byte[] chunk = new byte[0];
+    private int pos = 0;
+
+    @Override
+    public int read() throws IOException {
+      final byte[] single = new byte[1];
+      return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int off, final int len) throws IOException {
+      if (pos == chunk.length) {
+        if (chunk == EOF) {
+          return -1;
+        }
+        try {
+          chunk = replies.take();
+        } catch (final InterruptedException ie) {
+          throw new IOException(ie);
+        }
+        pos = 0;
+        if (chunk == EOF) {
+          replies.add(EOF);
+          return -1;
+        }
+      }
+      final int numRead = Math.min(len, chunk.length - pos);
+      System.arraycopy(chunk, pos, bytes, off, numRead);
+      pos += numRead;
+      return numRead;
+    }
+
+    @Override
+    public int available() {
+      return chunk.length - pos;
+    }
+  };
+
+  private final OutputStream out = new OutputStream() {
+
+    @Override
+    public void write(final int bite) throws IOException {
+      write(new byte[] {(byte) bite}, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int off, final int len) throws IOException {
+      if (failWrites || closed) {
+        throw new IOException("Scripted write failure.");
+      }
+      written.write(bytes, off, len);
+    }
+  };
+
+  static PrimRedisConn createConn(final ScriptedSocket socket) {
+    return new PrimRedisConn(Node.create("localhost", 6379), ReplyMode.ON,
+        node -> node, socket, 0, 64, 64, null);
+  }
+
+  void reply(final String resp) {
+    replies.add(resp.getBytes(StandardCharsets.UTF_8));
+  }
+
+  void endOfStream() {
+    replies.add(EOF);
+  }
+
+  void failWrites() {
+    failWrites = true;
+  }
+
+  String getWritten() {
+    return new String(written.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public InputStream getInputStream() {
+    return in;
+  }
+
+  @Override
+  public OutputStream getOutputStream() {
+    return out;
+  }
+
+  @Override
+  public int getSendBufferSize() {
+    return 64;
+  }
+
+  @Override
+  public int getReceiveBufferSize() {
+    return 64;
+  }
+
+  @Override
+  public synchronized void setSoTimeout(final int timeout) {}
+
+  @Override
+  public synchronized int getSoTimeout() {
+    return 0;
+  }
+
+  @Override
+  public synchronized void close() {
+    closed = true;
+    endOfStream();
+  }
+
+  @Override
+  public boolean isClosed() {
+    return closed;
+  }
+}